@@ -0,0 +1,210 @@
+package com.monitoreo;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Resumen de las pruebas de un dispositivo en un intervalo de tiempo: número
+ * de pruebas, fallos y, de las exitosas, un {@link HistogramaLatencias}
+ * (microsegundos) con latencia mínima, máxima, suma y percentiles de error
+ * relativo acotado. Dos agregados se combinan sumando sus campos, así que los
+ * de una hora se obtienen a partir de los de sus minutos sin perder precisión.
+ *
+ * En disco cada agregado ocupa un registro fijo de {@value #TAMANO_REGISTRO}
+ * bytes, que apunta a sus cubetas con registros guardadas aparte en forma
+ * dispersa ({@value HistogramaLatencias#TAMANO_CUBETA_DISPERSA} bytes por cubeta).
+ */
+public class AgregadoSondeos {
+    public static final int TAMANO_REGISTRO = 60;
+
+    private final long inicioEpochNanos;        // Inicio del intervalo
+    private final long claveDispositivo;        // Clave del dispositivo en el diario
+    private int cantidad;                       // Pruebas del intervalo
+    private int fallos;                         // Pruebas no exitosas
+    private final HistogramaLatencias latencias; // Latencias de las exitosas (µs)
+
+    /**
+     * Constructor de un agregado vacío
+     * @param inicioEpochNanos Inicio del intervalo
+     * @param claveDispositivo Clave del dispositivo (ver {@link DiarioSondeos#claveDe(String)})
+     */
+    public AgregadoSondeos(long inicioEpochNanos, long claveDispositivo) {
+        this.inicioEpochNanos = inicioEpochNanos;
+        this.claveDispositivo = claveDispositivo;
+        this.latencias = new HistogramaLatencias();
+    }
+
+    /**
+     * Agrega el resultado de una prueba
+     * @param tipo Desenlace de la prueba
+     * @param latenciaNanos Latencia de la prueba
+     */
+    public void registrar(ResultadoSonda.Tipo tipo, long latenciaNanos) {
+        cantidad++;
+        if (tipo != ResultadoSonda.Tipo.EXITO) {
+            fallos++;
+            return;
+        }
+        latencias.registrar(latenciaNanos / 1_000L);
+    }
+
+    /**
+     * Suma a este agregado los valores de otro
+     * @param otro Agregado a combinar
+     */
+    public void combinar(AgregadoSondeos otro) {
+        cantidad += otro.cantidad;
+        fallos += otro.fallos;
+        latencias.combinar(otro.latencias);
+    }
+
+    /**
+     * Escribe el registro fijo del agregado en formato binario
+     * @param destino Buffer de destino (avanza {@value #TAMANO_REGISTRO} bytes)
+     * @param desplazamientoCubetas Posición de sus cubetas en el archivo de cubetas
+     */
+    public void escribir(ByteBuffer destino, long desplazamientoCubetas) {
+        destino.putLong(inicioEpochNanos);
+        destino.putLong(claveDispositivo);
+        destino.putInt(cantidad);
+        destino.putInt(fallos);
+        destino.putLong(latencias.getMinimo());
+        destino.putLong(latencias.getMaximo());
+        destino.putLong(latencias.getSuma());
+        destino.putLong(desplazamientoCubetas);
+        destino.putInt(latencias.getCubetasOcupadas());
+    }
+
+    /**
+     * Escribe las cubetas con registros del histograma de latencias
+     * @param destino Buffer de destino (avanza {@link #getTamanoCubetas()} bytes)
+     */
+    public void escribirCubetas(ByteBuffer destino) {
+        latencias.escribirCubetas(destino);
+    }
+
+    /**
+     * @return bytes que ocupan las cubetas del agregado en el archivo de cubetas
+     */
+    public int getTamanoCubetas() {
+        return latencias.getCubetasOcupadas() * HistogramaLatencias.TAMANO_CUBETA_DISPERSA;
+    }
+
+    /**
+     * Lee un agregado escrito con {@link #escribir(ByteBuffer, long)} y {@link #escribirCubetas(ByteBuffer)}
+     * @param registros Buffer de los registros fijos
+     * @param posicion Posición del registro
+     * @param cubetas Ventana del archivo de cubetas que contiene las del registro
+     * @param inicioCubetas Posición en el archivo de cubetas donde empieza la ventana
+     * @return agregado leído
+     */
+    public static AgregadoSondeos leer(ByteBuffer registros, int posicion, ByteBuffer cubetas, long inicioCubetas) {
+        AgregadoSondeos agregado = new AgregadoSondeos(registros.getLong(posicion), registros.getLong(posicion + 8));
+        agregado.cantidad = registros.getInt(posicion + 16);
+        agregado.fallos = registros.getInt(posicion + 20);
+        long desplazamiento = inicioCubetasDe(registros, posicion) - inicioCubetas;
+        int ocupadas = registros.getInt(posicion + 56);
+        if (desplazamiento < 0 || desplazamiento + (long) ocupadas * HistogramaLatencias.TAMANO_CUBETA_DISPERSA
+                > cubetas.limit()) {
+            throw new IllegalArgumentException("Las cubetas del agregado no están en la ventana leída");
+        }
+        agregado.latencias.leerCubetas(cubetas, (int) desplazamiento, ocupadas,
+            registros.getLong(posicion + 24), registros.getLong(posicion + 32), registros.getLong(posicion + 40));
+        return agregado;
+    }
+
+    /**
+     * Obtiene dónde empiezan, en el archivo de cubetas, las cubetas de un registro guardado
+     * @param registros Buffer de los registros fijos
+     * @param posicion Posición del registro
+     * @return posición de su primera cubeta
+     */
+    static long inicioCubetasDe(ByteBuffer registros, int posicion) {
+        return registros.getLong(posicion + 48);
+    }
+
+    /**
+     * Obtiene dónde terminan, en el archivo de cubetas, las cubetas de un registro guardado
+     * @param registros Buffer de los registros fijos
+     * @param posicion Posición del registro
+     * @return posición siguiente a su última cubeta
+     */
+    static long finCubetasDe(ByteBuffer registros, int posicion) {
+        return inicioCubetasDe(registros, posicion)
+            + (long) registros.getInt(posicion + 56) * HistogramaLatencias.TAMANO_CUBETA_DISPERSA;
+    }
+
+    public long getInicioEpochNanos() {
+        return inicioEpochNanos;
+    }
+
+    public LocalDateTime getInicio() {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(0, inicioEpochNanos), ZoneId.systemDefault());
+    }
+
+    public long getClaveDispositivo() {
+        return claveDispositivo;
+    }
+
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    public int getFallos() {
+        return fallos;
+    }
+
+    public int getExitos() {
+        return cantidad - fallos;
+    }
+
+    /**
+     * Calcula el porcentaje de pruebas exitosas del intervalo
+     * @return disponibilidad (0 a 100), o 100 si no hubo pruebas
+     */
+    public double getDisponibilidad() {
+        return cantidad > 0 ? 100.0 * (cantidad - fallos) / cantidad : 100.0;
+    }
+
+    public double getLatenciaMinimaMs() {
+        return latencias.getMinimo() / 1000.0;
+    }
+
+    public double getLatenciaMaximaMs() {
+        return latencias.getMaximo() / 1000.0;
+    }
+
+    public double getLatenciaPromedioMs() {
+        return latencias.getPromedio() / 1000.0;
+    }
+
+    public long getSumaLatenciaMicros() {
+        return latencias.getSuma();
+    }
+
+    /**
+     * Estima un percentil de latencia de las pruebas exitosas, con el error
+     * relativo del histograma (ver {@link HistogramaLatencias})
+     * @param percentil Percentil entre 0 y 100
+     * @return latencia en milisegundos
+     */
+    public double getPercentilLatenciaMs(double percentil) {
+        return latencias.getPercentil(percentil) / 1000.0;
+    }
+
+    /**
+     * Obtiene el histograma de latencias de las pruebas exitosas (µs)
+     */
+    public HistogramaLatencias getHistogramaLatencias() {
+        return latencias;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d pruebas, %d fallos, %.2f%% disponible, latencia %.2f/%.2f/%.2f ms (mín/media/máx)",
+            getInicio(), cantidad, fallos, getDisponibilidad(), getLatenciaMinimaMs(), getLatenciaPromedioMs(),
+            getLatenciaMaximaMs());
+    }
+}
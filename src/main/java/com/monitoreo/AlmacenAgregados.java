@@ -0,0 +1,317 @@
+package com.monitoreo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Archivos de agregados de una resolución. Cada periodo fijo (ver
+ * {@link ResolucionAgregado}) tiene un archivo de registros de
+ * {@link AgregadoSondeos#TAMANO_REGISTRO} bytes agregados al final en orden
+ * de inicio de intervalo, así que una lectura por rango localiza su inicio
+ * por búsqueda binaria, y un archivo con las cubetas de los histogramas de
+ * latencia, de largo variable, al que apunta cada registro. Las cubetas se
+ * escriben antes que los registros. Las lecturas mapean los archivos por
+ * ventanas de {@value #REGISTROS_POR_VENTANA} registros y las cubetas que
+ * estos usan, no completos, así que un archivo puede pasar de 2 GB. La
+ * retención borra los archivos cuyo periodo terminó antes del límite.
+ */
+public class AlmacenAgregados {
+    private static final String EXTENSION = ".dat";
+    private static final String EXTENSION_CUBETAS = ".cub";
+    private static final ByteBuffer SIN_CUBETAS = ByteBuffer.allocate(0);
+    static final int REGISTROS_POR_VENTANA = 16_384;   // ~1 MB de registros por mapeo
+
+    private final File directorio;                  // Directorio de los archivos
+    private final ResolucionAgregado resolucion;    // Resolución almacenada
+    private final long retencionNanos;              // Antigüedad máxima de los datos
+
+    /**
+     * Constructor del almacén
+     * @param directorio Directorio de los archivos (se crea si no existe)
+     * @param resolucion Resolución de los agregados
+     * @param retencionNanos Antigüedad a partir de la cual se borran los datos
+     * @throws IOException si no se puede crear el directorio
+     */
+    public AlmacenAgregados(File directorio, ResolucionAgregado resolucion, long retencionNanos) throws IOException {
+        if (!directorio.isDirectory() && !directorio.mkdirs()) {
+            throw new IOException("No se pudo crear el directorio de agregados: " + directorio);
+        }
+        this.directorio = directorio;
+        this.resolucion = resolucion;
+        this.retencionNanos = retencionNanos;
+    }
+
+    /**
+     * Agrega al final de sus archivos agregados ya cerrados, en orden de inicio
+     * @param agregados Agregados a guardar
+     * @throws IOException si no se puede escribir
+     */
+    public void escribir(List<AgregadoSondeos> agregados) throws IOException {
+        int desde = 0;
+        while (desde < agregados.size()) {
+            long periodo = periodoDe(agregados.get(desde).getInicioEpochNanos());
+            int hasta = desde + 1;
+            while (hasta < agregados.size() && periodoDe(agregados.get(hasta).getInicioEpochNanos()) == periodo) {
+                hasta++;
+            }
+            int tamanoCubetas = 0;
+            for (int i = desde; i < hasta; i++) {
+                tamanoCubetas += agregados.get(i).getTamanoCubetas();
+            }
+            ByteBuffer registros = ByteBuffer.allocate((hasta - desde) * AgregadoSondeos.TAMANO_REGISTRO);
+            ByteBuffer cubetas = ByteBuffer.allocate(tamanoCubetas);
+            try (FileChannel canalCubetas = FileChannel.open(archivoCubetas(periodo).toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                 FileChannel canal = FileChannel.open(archivoPeriodo(periodo).toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                long desplazamiento = canalCubetas.size();
+                for (int i = desde; i < hasta; i++) {
+                    AgregadoSondeos agregado = agregados.get(i);
+                    agregado.escribir(registros, desplazamiento + cubetas.position());
+                    agregado.escribirCubetas(cubetas);
+                }
+                // Primero las cubetas: un registro nunca apunta a cubetas que no están en disco
+                escribirTodo(canalCubetas, cubetas);
+                escribirTodo(canal, registros);
+            }
+            desde = hasta;
+        }
+    }
+
+    private static void escribirTodo(FileChannel canal, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        canal.force(false);
+    }
+
+    /**
+     * Descarta los agregados cuyo intervalo empieza en o después del instante
+     * indicado, y los registros incompletos del final de cada archivo. Como los
+     * registros están ordenados por inicio, lo que una pasada de compactación
+     * escribió más allá de su marca de agua antes de fallar (o de que el proceso
+     * terminara) se corta y la pasada se puede repetir sin duplicar datos.
+     * @param desdeEpochNanos Instante a partir del cual se descarta
+     * @throws IOException si no se puede leer o truncar un archivo
+     */
+    public void descartarDesde(long desdeEpochNanos) throws IOException {
+        long primero = periodoDe(desdeEpochNanos);
+        ByteBuffer inicio = ByteBuffer.allocate(8);
+        for (long periodo : listarPeriodos()) {
+            if (periodo < primero) {
+                continue;
+            }
+            try (FileChannel canal = FileChannel.open(archivoPeriodo(periodo).toPath(),
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long bajo = primeroDesde(canal, canal.size() / AgregadoSondeos.TAMANO_REGISTRO, desdeEpochNanos, inicio);
+                long conservar = bajo * AgregadoSondeos.TAMANO_REGISTRO;
+                if (conservar < canal.size()) {
+                    canal.truncate(conservar);
+                    canal.force(false);
+                }
+                // Las cubetas terminan donde terminan las del último registro conservado
+                long finCubetas = 0;
+                if (bajo > 0) {
+                    ByteBuffer ultimo = ByteBuffer.allocate(AgregadoSondeos.TAMANO_REGISTRO);
+                    leerCompleto(canal, conservar - AgregadoSondeos.TAMANO_REGISTRO, ultimo);
+                    finCubetas = AgregadoSondeos.finCubetasDe(ultimo, 0);
+                }
+                File cubetas = archivoCubetas(periodo);
+                if (cubetas.length() > finCubetas) {
+                    try (FileChannel canalCubetas = FileChannel.open(cubetas.toPath(), StandardOpenOption.WRITE)) {
+                        canalCubetas.truncate(finCubetas);
+                        canalCubetas.force(false);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Busca el primer registro cuyo intervalo empieza en o después del
+     * instante indicado, leyendo solo el inicio de cada registro visitado
+     */
+    private static long primeroDesde(FileChannel canal, long total, long desde, ByteBuffer inicio) throws IOException {
+        long bajo = 0;
+        long alto = total;
+        while (bajo < alto) {
+            long medio = (bajo + alto) >>> 1;
+            leerCompleto(canal, medio * AgregadoSondeos.TAMANO_REGISTRO, inicio);
+            if (inicio.getLong(0) < desde) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * Llena el buffer con el contenido del archivo a partir de una posición
+     */
+    private static void leerCompleto(FileChannel canal, long posicion, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            if (canal.read(buffer, posicion + buffer.position()) < 0) {
+                throw new IOException("Registro de agregados incompleto en la posición " + posicion);
+            }
+        }
+    }
+
+    /**
+     * Lee, en orden de inicio, los agregados que empiezan dentro del rango
+     * @param desdeEpochNanos Inicio del rango (incluido)
+     * @param hastaEpochNanos Fin del rango (excluido)
+     * @param filtrarClave true para leer solo los agregados de un dispositivo
+     * @param claveDispositivo Clave del dispositivo si se filtra
+     * @param receptor Receptor de cada agregado
+     * @throws IOException si no se puede leer un archivo
+     */
+    public void leer(long desdeEpochNanos, long hastaEpochNanos, boolean filtrarClave, long claveDispositivo,
+                     Consumer<AgregadoSondeos> receptor) throws IOException {
+        if (desdeEpochNanos >= hastaEpochNanos) {
+            return;
+        }
+        long primero = periodoDe(desdeEpochNanos);
+        long ultimo = periodoDe(hastaEpochNanos - 1);
+        ByteBuffer inicio = ByteBuffer.allocate(8);
+        for (long periodo : listarPeriodos()) {
+            if (periodo < primero || periodo > ultimo) {
+                continue;
+            }
+            File archivo = archivoPeriodo(periodo);
+            if (!archivo.isFile()) {
+                continue;
+            }
+            // Las cubetas se abren después que los registros, así que incluyen las de todos ellos
+            try (FileChannel canal = FileChannel.open(archivo.toPath(), StandardOpenOption.READ);
+                 FileChannel canalCubetas = abrirCubetas(periodo)) {
+                long total = canal.size() / AgregadoSondeos.TAMANO_REGISTRO;
+                long siguiente = primeroDesde(canal, total, desdeEpochNanos, inicio);
+                while (siguiente < total) {
+                    int enVentana = (int) Math.min(total - siguiente, REGISTROS_POR_VENTANA);
+                    MappedByteBuffer registros = canal.map(FileChannel.MapMode.READ_ONLY,
+                        siguiente * AgregadoSondeos.TAMANO_REGISTRO, (long) enVentana * AgregadoSondeos.TAMANO_REGISTRO);
+                    long inicioCubetas = AgregadoSondeos.inicioCubetasDe(registros, 0);
+                    long finCubetas = AgregadoSondeos.finCubetasDe(registros, (enVentana - 1) * AgregadoSondeos.TAMANO_REGISTRO);
+                    ByteBuffer cubetas = mapearCubetas(canalCubetas, inicioCubetas, finCubetas, periodo);
+                    for (int i = 0; i < enVentana; i++) {
+                        int posicion = i * AgregadoSondeos.TAMANO_REGISTRO;
+                        if (registros.getLong(posicion) >= hastaEpochNanos) {
+                            return;
+                        }
+                        if (!filtrarClave || registros.getLong(posicion + 8) == claveDispositivo) {
+                            receptor.accept(AgregadoSondeos.leer(registros, posicion, cubetas, inicioCubetas));
+                        }
+                    }
+                    siguiente += enVentana;
+                }
+            }
+        }
+    }
+
+    /**
+     * Abre el archivo de cubetas de un periodo para leer
+     * @return el canal, o null si el archivo no existe
+     */
+    private FileChannel abrirCubetas(long periodo) throws IOException {
+        File cubetas = archivoCubetas(periodo);
+        return cubetas.isFile() ? FileChannel.open(cubetas.toPath(), StandardOpenOption.READ) : null;
+    }
+
+    /**
+     * Mapea las cubetas que usa una ventana de registros: los registros las
+     * referencian en orden, así que forman un tramo continuo del archivo
+     */
+    private ByteBuffer mapearCubetas(FileChannel canalCubetas, long desde, long hasta, long periodo) throws IOException {
+        if (hasta <= desde) {
+            return SIN_CUBETAS;
+        }
+        if (canalCubetas == null || canalCubetas.size() < hasta) {
+            throw new IOException("Faltan cubetas de histograma en " + archivoCubetas(periodo));
+        }
+        return canalCubetas.map(FileChannel.MapMode.READ_ONLY, desde, hasta - desde);
+    }
+
+    /**
+     * Borra los archivos cuyo periodo terminó antes del límite de retención
+     * @param ahoraEpochNanos Instante actual
+     * @param noAntesDeEpochNanos No se borran datos posteriores a este instante
+     *                            (por ejemplo, los que aún no se agregaron a la resolución siguiente)
+     * @return número de archivos borrados
+     */
+    public int purgar(long ahoraEpochNanos, long noAntesDeEpochNanos) {
+        long limite = Math.min(ahoraEpochNanos - retencionNanos, noAntesDeEpochNanos);
+        int borrados = 0;
+        for (long periodo : listarPeriodos()) {
+            long finPeriodo = (periodo + 1) * resolucion.getPeriodoArchivoNanos();
+            if (finPeriodo <= limite && archivoPeriodo(periodo).delete()) {
+                archivoCubetas(periodo).delete();
+                borrados++;
+            }
+        }
+        return borrados;
+    }
+
+    private long periodoDe(long epochNanos) {
+        return Math.floorDiv(epochNanos, resolucion.getPeriodoArchivoNanos());
+    }
+
+    private File archivoPeriodo(long periodo) {
+        return new File(directorio, String.format("%s-%010d%s", resolucion.getPrefijo(), periodo, EXTENSION));
+    }
+
+    private File archivoCubetas(long periodo) {
+        return new File(directorio, String.format("%s-%010d%s", resolucion.getPrefijo(), periodo, EXTENSION_CUBETAS));
+    }
+
+    /**
+     * Borra todos los archivos del almacén (por ejemplo, si quedaron en un formato anterior)
+     */
+    public void borrarTodo() {
+        for (long periodo : listarPeriodos()) {
+            archivoPeriodo(periodo).delete();
+            archivoCubetas(periodo).delete();
+        }
+    }
+
+    /**
+     * Lista los periodos con archivo, en orden
+     */
+    private long[] listarPeriodos() {
+        String prefijo = resolucion.getPrefijo() + "-";
+        String[] nombres = directorio.list((dir, nombre) -> nombre.startsWith(prefijo) && nombre.endsWith(EXTENSION));
+        if (nombres == null) {
+            return new long[0];
+        }
+        long[] periodos = new long[nombres.length];
+        int cantidad = 0;
+        for (String nombre : nombres) {
+            try {
+                periodos[cantidad] = Long.parseLong(nombre.substring(prefijo.length(), nombre.length() - EXTENSION.length()));
+                cantidad++;
+            } catch (NumberFormatException e) {
+                // Ignorar archivos ajenos al almacén
+            }
+        }
+        periodos = Arrays.copyOf(periodos, cantidad);
+        Arrays.sort(periodos);
+        return periodos;
+    }
+
+    public ResolucionAgregado getResolucion() {
+        return resolucion;
+    }
+
+    public long getRetencionNanos() {
+        return retencionNanos;
+    }
+}
@@ -0,0 +1,229 @@
+package com.monitoreo;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Almacén de eventos de capacidad fija sobre un buffer circular.
+ * Los campos de cada evento se guardan en arreglos primitivos (tipo, índice de
+ * dispositivo, instante en nanosegundos desde la época y latencia), de modo
+ * que registrar un evento no crea objetos y la memoria usada no crece con el
+ * tiempo: al llenarse, cada evento nuevo reemplaza al más antiguo. Opcionalmente
+ * se descartan también los eventos más viejos que la retención configurada.
+ * Los eventos solo se convierten a {@link Eventos} (con su texto) al consultarlos.
+ */
+public class AlmacenEventos {
+    public static final int CAPACIDAD_POR_DEFECTO = 100_000;
+    public static final int SIN_DISPOSITIVO = -1;         // Índice para eventos del sistema
+
+    private final int capacidad;                          // Número máximo de eventos guardados
+    private final long retencionNanos;                    // Edad máxima de un evento (0 = sin límite)
+    private final RegistroDispositivos registro;          // Traduce índices a IDs al mostrar eventos
+    private final int[] tipos;                            // Ordinal de TipoEvento
+    private final int[] dispositivos;                     // Índice del dispositivo (SIN_DISPOSITIVO si no aplica)
+    private final long[] instantesNanos;                  // Nanosegundos desde la época
+    private final long[] latenciasNanos;                  // Latencia asociada al evento
+    private final long origenEpochNanos;                  // Época de referencia del reloj monótono
+    private final long origenMonotonoNanos;               // System.nanoTime() en la época de referencia
+    private long escritos;                                // Total de eventos registrados (protegido por this)
+
+    /**
+     * Recibe los eventos al recorrer el almacén sin crear objetos
+     */
+    public interface VisitanteEvento {
+        /**
+         * @return true para seguir recorriendo, false para detenerse
+         */
+        boolean visitar(TipoEvento tipo, int indiceDispositivo, long epochNanos, long latenciaNanos);
+    }
+
+    /**
+     * Constructor del almacén de eventos
+     * @param capacidad Número máximo de eventos guardados
+     * @param retencionSegundos Edad máxima de un evento en segundos (0 = sin límite)
+     * @param registro Registro para mostrar el ID de los dispositivos (puede ser null)
+     */
+    public AlmacenEventos(int capacidad, long retencionSegundos, RegistroDispositivos registro) {
+        if (capacidad <= 0 || retencionSegundos < 0) {
+            throw new IllegalArgumentException("Capacidad o retención de eventos inválida");
+        }
+        this.capacidad = capacidad;
+        this.retencionNanos = retencionSegundos * 1_000_000_000L;
+        this.registro = registro;
+        this.tipos = new int[capacidad];
+        this.dispositivos = new int[capacidad];
+        this.instantesNanos = new long[capacidad];
+        this.latenciasNanos = new long[capacidad];
+        this.origenEpochNanos = System.currentTimeMillis() * 1_000_000L;
+        this.origenMonotonoNanos = System.nanoTime();
+    }
+
+    /**
+     * Registra un evento con el instante actual
+     * @param tipo Tipo de evento
+     * @param indiceDispositivo Índice del dispositivo (SIN_DISPOSITIVO si no aplica)
+     * @param latenciaNanos Latencia o duración asociada al evento
+     */
+    public synchronized void registrar(TipoEvento tipo, int indiceDispositivo, long latenciaNanos) {
+        int ranura = (int) (escritos % capacidad);
+        tipos[ranura] = tipo.ordinal();
+        dispositivos[ranura] = indiceDispositivo;
+        instantesNanos[ranura] = ahoraEpochNanos();
+        latenciasNanos[ranura] = latenciaNanos;
+        escritos++;
+    }
+
+    /**
+     * Obtiene el instante actual en nanosegundos desde la época, derivado del
+     * reloj monótono para no depender de ajustes del reloj del sistema
+     * @return nanosegundos desde la época
+     */
+    public long ahoraEpochNanos() {
+        return origenEpochNanos + (System.nanoTime() - origenMonotonoNanos);
+    }
+
+    /**
+     * Recorre los eventos retenidos del más reciente al más antiguo
+     * @param visitante Receptor de cada evento; puede detener el recorrido
+     */
+    public synchronized void recorrerRecientes(VisitanteEvento visitante) {
+        long limite = limiteRetencion();
+        for (long secuencia = escritos - 1; secuencia >= primeraSecuencia(); secuencia--) {
+            int ranura = (int) (secuencia % capacidad);
+            if (instantesNanos[ranura] < limite) {
+                return;
+            }
+            if (!visitante.visitar(TipoEvento.desdeOrdinal(tipos[ranura]), dispositivos[ranura],
+                    instantesNanos[ranura], latenciasNanos[ranura])) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Obtiene los eventos más recientes, del más nuevo al más antiguo
+     * @param maximo Número máximo de eventos
+     * @return iterable de eventos; cada evento se construye al recorrerlo
+     */
+    public Iterable<Eventos> recientes(int maximo) {
+        return () -> new IteradorEventos(maximo, Long.MIN_VALUE);
+    }
+
+    /**
+     * Obtiene los eventos ocurridos desde un instante, del más nuevo al más antiguo
+     * @param desde Fecha a partir de la cual se devuelven eventos
+     * @return iterable de eventos; cada evento se construye al recorrerlo
+     */
+    public Iterable<Eventos> recientesDesde(Date desde) {
+        return () -> new IteradorEventos(Integer.MAX_VALUE, desde.getTime() * 1_000_000L);
+    }
+
+    /**
+     * Obtiene el número de eventos retenidos (dentro de la capacidad y la retención)
+     * @return número de eventos
+     */
+    public synchronized int getTamano() {
+        long limite = limiteRetencion();
+        // Los instantes crecen con la secuencia: búsqueda binaria del primer evento retenido
+        long bajo = primeraSecuencia();
+        long alto = escritos;
+        while (bajo < alto) {
+            long medio = (bajo + alto) >>> 1;
+            if (instantesNanos[(int) (medio % capacidad)] < limite) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return (int) (escritos - bajo);
+    }
+
+    /**
+     * Obtiene el total de eventos registrados desde la creación, incluidos los descartados
+     * @return número de eventos
+     */
+    public synchronized long getTotalRegistrados() {
+        return escritos;
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    private long primeraSecuencia() {
+        return Math.max(0, escritos - capacidad);
+    }
+
+    private long limiteRetencion() {
+        return retencionNanos > 0 ? ahoraEpochNanos() - retencionNanos : Long.MIN_VALUE;
+    }
+
+    /**
+     * Construye la vista de texto de un evento guardado
+     */
+    private Eventos materializar(int ranura) {
+        TipoEvento tipo = TipoEvento.desdeOrdinal(tipos[ranura]);
+        int indice = dispositivos[ranura];
+        String descripcion = tipo.getDescripcion();
+        if (indice != SIN_DISPOSITIVO) {
+            String id = registro != null ? registro.idPorIndice(indice) : null;
+            descripcion += " " + (id != null ? id : "#" + indice);
+        }
+        return new Eventos(tipo.name(), descripcion, latenciasNanos[ranura] / 1_000_000.0,
+            new Date(instantesNanos[ranura] / 1_000_000L));
+    }
+
+    /**
+     * Iterador del más reciente al más antiguo. Se detiene si los eventos que
+     * le quedaban por devolver fueron reemplazados mientras se recorría.
+     */
+    private final class IteradorEventos implements Iterator<Eventos> {
+        private final long desdeEpochNanos;
+        private int restantes;
+        private long secuencia;
+        private Eventos siguiente;
+
+        IteradorEventos(int maximo, long desdeEpochNanos) {
+            this.desdeEpochNanos = desdeEpochNanos;
+            this.restantes = maximo;
+            synchronized (AlmacenEventos.this) {
+                this.secuencia = escritos - 1;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (siguiente == null && restantes > 0) {
+                siguiente = avanzar();
+            }
+            return siguiente != null;
+        }
+
+        @Override
+        public Eventos next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Eventos evento = siguiente;
+            siguiente = null;
+            restantes--;
+            return evento;
+        }
+
+        private Eventos avanzar() {
+            synchronized (AlmacenEventos.this) {
+                if (secuencia < primeraSecuencia()) {
+                    return null;
+                }
+                int ranura = (int) (secuencia % capacidad);
+                long instante = instantesNanos[ranura];
+                if (instante < limiteRetencion() || instante < desdeEpochNanos) {
+                    return null;
+                }
+                secuencia--;
+                return materializar(ranura);
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.monitoreo;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Series temporales comprimidas de todos los hosts, una {@link SerieTemporal}
+ * por host en un mismo directorio. Los archivos se nombran con la clave del
+ * dispositivo (ver {@link DiarioSondeos#claveDe(String)}), así que cualquier
+ * ID sirve como nombre y la serie de un host se retoma tras reiniciar.
+ * Todas las series del almacén escriben sus bloques cerrados en un mismo
+ * thread, que se detiene con {@link #cerrar()}.
+ */
+public class AlmacenSeries {
+    private static final long ESPERA_CIERRE_MS = 5_000;    // Espera máxima al thread de escritura al cerrar
+
+    private final File directorio;                  // Directorio de las series
+    private final long resolucionMs;                // Resolución de las series nuevas
+    private final int bitsMantisa;                  // Bits de mantisa de las latencias
+    private final int muestrasPorBloque;            // Muestras por bloque
+    private final Map<String, SerieTemporal> series; // Series abiertas por ID de host
+    private final ExecutorService escritor;         // Thread que escribe los bloques cerrados de todas las series
+    private volatile boolean cerrado;
+
+    /**
+     * Constructor del almacén
+     * @param directorio Directorio de las series (se crea si no existe)
+     * @param resolucionMs Resolución de los instantes en ms
+     * @param bitsMantisa Bits de mantisa que se conservan de cada latencia (1 a 52)
+     * @param muestrasPorBloque Muestras por bloque comprimido
+     * @throws IOException si no se puede crear el directorio
+     */
+    public AlmacenSeries(File directorio, long resolucionMs, int bitsMantisa, int muestrasPorBloque)
+            throws IOException {
+        if (!directorio.isDirectory() && !directorio.mkdirs()) {
+            throw new IOException("No se pudo crear el directorio de series: " + directorio);
+        }
+        this.directorio = directorio;
+        this.resolucionMs = resolucionMs;
+        this.bitsMantisa = bitsMantisa;
+        this.muestrasPorBloque = muestrasPorBloque;
+        this.series = new ConcurrentHashMap<>();
+        this.escritor = SerieTemporal.crearEscritor();
+    }
+
+    /**
+     * Registra el resultado de una prueba en la serie del host
+     * @param host ID del host
+     * @param instanteMs Instante de la prueba (epoch ms)
+     * @param latenciaMs Latencia de la prueba en ms
+     * @param disponible Resultado de la prueba
+     * @throws IOException si no se puede abrir la serie o escribir un bloque, o si el almacén está cerrado
+     */
+    public void registrar(String host, long instanteMs, double latenciaMs, boolean disponible) throws IOException {
+        if (cerrado) {
+            throw new IOException("El almacén de series está cerrado: " + directorio);
+        }
+        getSerie(host).registrar(instanteMs, latenciaMs, disponible);
+    }
+
+    /**
+     * Obtiene la serie de un host, abriéndola (o creándola) si hace falta
+     * @param host ID del host
+     * @return serie del host
+     * @throws IOException si no se pueden leer o crear sus archivos
+     */
+    public SerieTemporal getSerie(String host) throws IOException {
+        SerieTemporal serie = series.get(host);
+        if (serie != null) {
+            return serie;
+        }
+        synchronized (series) {
+            serie = series.get(host);
+            if (serie == null) {
+                serie = new SerieTemporal(directorio, nombreSerie(host), resolucionMs, bitsMantisa, muestrasPorBloque,
+                    escritor);
+                series.put(host, serie);
+            }
+            return serie;
+        }
+    }
+
+    /**
+     * Lee la serie de un host agregada por pasos
+     * @param host ID del host
+     * @param desdeMs Inicio del rango (epoch ms, incluido)
+     * @param hastaMs Fin del rango (epoch ms, excluido)
+     * @param pasoMs Duración de cada paso en ms
+     * @return un punto por cada paso con muestras
+     * @throws IOException si no se puede leer la serie
+     */
+    public List<PuntoSerie> leerAgregado(String host, long desdeMs, long hastaMs, long pasoMs) throws IOException {
+        return getSerie(host).leerAgregado(desdeMs, hastaMs, pasoMs);
+    }
+
+    /**
+     * Escribe en disco los bloques abiertos de todas las series (tras {@link #cerrar()} ya están escritos)
+     * @throws IOException si alguna serie no se pudo escribir (las demás se escriben igual)
+     */
+    public void sincronizar() throws IOException {
+        if (!cerrado) {
+            sincronizarSeries();
+        }
+    }
+
+    private void sincronizarSeries() throws IOException {
+        IOException primerError = null;
+        for (SerieTemporal serie : series.values()) {
+            try {
+                serie.sincronizar();
+            } catch (IOException e) {
+                if (primerError == null) {
+                    primerError = e;
+                }
+            }
+        }
+        if (primerError != null) {
+            throw primerError;
+        }
+    }
+
+    /**
+     * Deja de llevar la serie de un host: cierra su bloque abierto, espera a
+     * que quede en disco y la olvida. Los archivos se conservan, así que si el
+     * host vuelve a agregarse su serie continúa
+     * @param host ID del host
+     * @throws IOException si no se pudieron escribir sus bloques
+     */
+    public void quitar(String host) throws IOException {
+        SerieTemporal serie;
+        synchronized (series) {
+            serie = series.remove(host);
+        }
+        if (serie != null && !cerrado) {
+            serie.sincronizar();
+        }
+    }
+
+    /**
+     * Escribe los bloques abiertos de todas las series y detiene el thread de
+     * escritura. Después se pueden leer las series pero no registrar muestras
+     * @throws IOException si alguna serie no se pudo escribir (el thread se detiene igual)
+     */
+    public void cerrar() throws IOException {
+        if (cerrado) {
+            return;
+        }
+        cerrado = true;
+        try {
+            sincronizarSeries();
+        } finally {
+            escritor.shutdown();
+            try {
+                escritor.awaitTermination(ESPERA_CIERRE_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static String nombreSerie(String host) {
+        return String.format("serie-%016x", DiarioSondeos.claveDe(host));
+    }
+
+    public File getDirectorio() {
+        return directorio;
+    }
+
+    /**
+     * @return true si el thread de escritura terminó (solo tras {@link #cerrar()})
+     */
+    boolean isEscritorDetenido() {
+        return escritor.isTerminated();
+    }
+}
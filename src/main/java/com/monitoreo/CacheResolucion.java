@@ -0,0 +1,311 @@
+package com.monitoreo;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché compartida de resolución de nombres para las pruebas y el escaneo.
+ * Cada entrada tiene su propio vencimiento; las resoluciones fallidas también
+ * se guardan (caché negativa) con un TTL más corto. Cuando una entrada usada
+ * está por vencer se refresca en segundo plano, de modo que el camino de las
+ * pruebas no espera al DNS. Las pruebas asíncronas resuelven con
+ * {@link #resolverAsincrono(String)}, que ante un fallo de caché consulta el
+ * DNS en hilos propios en lugar de en el hilo que lanza la prueba. También
+ * guarda los nombres obtenidos por resolución inversa y lleva métricas de
+ * aciertos y fallos.
+ */
+public class CacheResolucion {
+    public static final int TTL_POR_DEFECTO = 60;             // Segundos para resoluciones exitosas
+    public static final int TTL_NEGATIVO_POR_DEFECTO = 10;    // Segundos para resoluciones fallidas
+    private static final double FRACCION_REFRESCO = 0.8;      // Fracción del TTL a partir de la cual se refresca
+    private static final int MAXIMO_ENTRADAS = 10_000;        // Tamaño a partir del cual se purgan vencidas
+    private static final int HILOS_RESOLUCION = 4;            // Resoluciones asíncronas simultáneas
+
+    private final Map<String, Entrada> directas;              // Nombre -> dirección
+    private final Map<String, Entrada> inversas;              // Dirección -> nombre de host
+    private final Map<String, CompletableFuture<InetAddress>> enCurso; // Resoluciones asíncronas pendientes
+    private final ExecutorService refresco;                   // Hilo de refresco en segundo plano
+    private final ExecutorService resolucion;                 // Hilos de las resoluciones asíncronas
+    private volatile long ttlNanos;                           // TTL de entradas positivas
+    private volatile long ttlNegativoNanos;                   // TTL de entradas negativas
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder aciertosNegativos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder refrescos = new LongAdder();
+
+    /**
+     * Inicialización perezosa de la instancia compartida
+     */
+    private static final class Compartida {
+        private static final CacheResolucion INSTANCIA = new CacheResolucion(TTL_POR_DEFECTO, TTL_NEGATIVO_POR_DEFECTO);
+    }
+
+    /**
+     * Constructor de la caché de resolución
+     * @param ttlSegundos TTL de las resoluciones exitosas
+     * @param ttlNegativoSegundos TTL de las resoluciones fallidas
+     */
+    public CacheResolucion(int ttlSegundos, int ttlNegativoSegundos) {
+        this.directas = new ConcurrentHashMap<>();
+        this.inversas = new ConcurrentHashMap<>();
+        this.enCurso = new ConcurrentHashMap<>();
+        this.refresco = Executors.newSingleThreadExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "cache-resolucion");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        AtomicInteger contador = new AtomicInteger();
+        this.resolucion = Executors.newFixedThreadPool(HILOS_RESOLUCION, tarea -> {
+            Thread hilo = new Thread(tarea, "cache-resolucion-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        configurarTtl(ttlSegundos, ttlNegativoSegundos);
+    }
+
+    /**
+     * Obtiene la caché compartida por todas las rutas de prueba y escaneo
+     * @return instancia compartida
+     */
+    public static CacheResolucion compartida() {
+        return Compartida.INSTANCIA;
+    }
+
+    /**
+     * Cambia los TTL; se aplican a las entradas que se resuelvan a partir de ahora
+     * @param ttlSegundos TTL de las resoluciones exitosas
+     * @param ttlNegativoSegundos TTL de las resoluciones fallidas
+     */
+    public void configurarTtl(int ttlSegundos, int ttlNegativoSegundos) {
+        if (ttlSegundos <= 0 || ttlNegativoSegundos < 0) {
+            throw new IllegalArgumentException("TTL de resolución inválido");
+        }
+        this.ttlNanos = ttlSegundos * 1_000_000_000L;
+        this.ttlNegativoNanos = ttlNegativoSegundos * 1_000_000_000L;
+    }
+
+    /**
+     * Resuelve un nombre de host o dirección IP usando la caché
+     * @param host Nombre o dirección IP
+     * @return dirección resuelta
+     * @throws UnknownHostException si el host no existe (también desde la caché negativa)
+     */
+    public InetAddress resolver(String host) throws UnknownHostException {
+        Entrada entrada = vigente(host);
+        if (entrada != null) {
+            if (entrada.direccion == null) {
+                throw new UnknownHostException(host);
+            }
+            return entrada.direccion;
+        }
+
+        fallos.increment();
+        Entrada nueva = resolverDirecta(host, System.nanoTime());
+        guardar(directas, host, nueva);
+        if (nueva.direccion == null) {
+            throw new UnknownHostException(host);
+        }
+        return nueva.direccion;
+    }
+
+    /**
+     * Resuelve un nombre sin bloquear al llamador. Con una entrada vigente el
+     * futuro se devuelve ya completo; si no, el DNS se consulta en un hilo de
+     * la caché y las consultas simultáneas por el mismo nombre comparten la
+     * resolución en curso.
+     * @param host Nombre o dirección IP
+     * @return futuro con la dirección, completado con UnknownHostException si el host no existe
+     */
+    public CompletableFuture<InetAddress> resolverAsincrono(String host) {
+        Entrada entrada = vigente(host);
+        if (entrada != null) {
+            return entrada.direccion != null ? CompletableFuture.completedFuture(entrada.direccion)
+                : CompletableFuture.failedFuture(new UnknownHostException(host));
+        }
+
+        CompletableFuture<InetAddress> futuro = new CompletableFuture<>();
+        CompletableFuture<InetAddress> existente = enCurso.putIfAbsent(host, futuro);
+        if (existente != null) {
+            return existente;
+        }
+        fallos.increment();
+        try {
+            resolucion.execute(() -> {
+                // El futuro se completa siempre, aunque la resolución falle de forma
+                // inesperada: las consultas que lo comparten quedarían esperando para siempre
+                Entrada nueva;
+                try {
+                    nueva = resolverDirecta(host, System.nanoTime());
+                    guardar(directas, host, nueva);
+                } catch (RuntimeException e) {
+                    enCurso.remove(host, futuro);
+                    futuro.completeExceptionally(e);
+                    return;
+                }
+                enCurso.remove(host, futuro);
+                if (nueva.direccion == null) {
+                    futuro.completeExceptionally(new UnknownHostException(host));
+                } else {
+                    futuro.complete(nueva.direccion);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            enCurso.remove(host, futuro);
+            futuro.completeExceptionally(e);
+        }
+        return futuro;
+    }
+
+    /**
+     * Busca una entrada directa vigente, contando el acierto y refrescándola si está por vencer
+     * @return la entrada (negativa si su dirección es null), o null si hay que resolver
+     */
+    private Entrada vigente(String host) {
+        long ahora = System.nanoTime();
+        Entrada entrada = directas.get(host);
+        if (entrada == null || !entrada.vigente(ahora)) {
+            return null;
+        }
+        refrescarSiProxima(directas, host, entrada, ahora, false);
+        if (entrada.direccion == null) {
+            aciertosNegativos.increment();
+        } else {
+            aciertos.increment();
+        }
+        return entrada;
+    }
+
+    /**
+     * Obtiene el nombre de host de una dirección (resolución inversa) usando la caché
+     * @param direccion Dirección a resolver
+     * @return nombre de host, o la dirección textual si no tiene nombre
+     */
+    public String nombreInverso(InetAddress direccion) {
+        String clave = direccion.getHostAddress();
+        long ahora = System.nanoTime();
+        Entrada entrada = inversas.get(clave);
+        if (entrada != null && entrada.vigente(ahora)) {
+            refrescarSiProxima(inversas, clave, entrada, ahora, true);
+            aciertos.increment();
+            return entrada.nombre;
+        }
+
+        fallos.increment();
+        Entrada nueva = resolverInversa(clave, System.nanoTime());
+        guardar(inversas, clave, nueva);
+        return nueva.nombre;
+    }
+
+    /**
+     * Lanza un refresco en segundo plano si la entrada está cerca de vencer
+     */
+    private void refrescarSiProxima(Map<String, Entrada> mapa, String clave, Entrada entrada, long ahora, boolean inversa) {
+        if (ahora - entrada.refrescoNanos < 0 || !entrada.refrescando.compareAndSet(false, true)) {
+            return;
+        }
+        refresco.execute(() -> {
+            long inicio = System.nanoTime();
+            Entrada nueva = inversa ? resolverInversa(clave, inicio) : resolverDirecta(clave, inicio);
+            // Si el refresco falla, mantener la dirección conocida hasta que venza
+            if (nueva.direccion != null || inversa || entrada.direccion == null) {
+                mapa.put(clave, nueva);
+            }
+            refrescos.increment();
+        });
+    }
+
+    private Entrada resolverDirecta(String host, long ahora) {
+        try {
+            return new Entrada(InetAddress.getByName(host), null, ahora, ttlNanos);
+        } catch (UnknownHostException e) {
+            return new Entrada(null, null, ahora, ttlNegativoNanos);
+        }
+    }
+
+    private Entrada resolverInversa(String direccionTextual, long ahora) {
+        try {
+            String nombre = InetAddress.getByName(direccionTextual).getHostName();
+            return new Entrada(null, nombre, ahora, ttlNanos);
+        } catch (UnknownHostException e) {
+            return new Entrada(null, direccionTextual, ahora, ttlNegativoNanos);
+        }
+    }
+
+    private void guardar(Map<String, Entrada> mapa, String clave, Entrada entrada) {
+        if (mapa.size() >= MAXIMO_ENTRADAS) {
+            long ahora = System.nanoTime();
+            mapa.values().removeIf(e -> !e.vigente(ahora));
+        }
+        mapa.put(clave, entrada);
+    }
+
+    /**
+     * Vacía la caché (por ejemplo, tras un cambio de red)
+     */
+    public void limpiar() {
+        directas.clear();
+        inversas.clear();
+    }
+
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    public long getAciertosNegativos() {
+        return aciertosNegativos.sum();
+    }
+
+    public long getFallos() {
+        return fallos.sum();
+    }
+
+    public long getRefrescos() {
+        return refrescos.sum();
+    }
+
+    /**
+     * Calcula el porcentaje de consultas resueltas desde la caché
+     * @return porcentaje de aciertos (0 a 100)
+     */
+    public double getTasaAciertos() {
+        long totalAciertos = aciertos.sum() + aciertosNegativos.sum();
+        long total = totalAciertos + fallos.sum();
+        return total > 0 ? 100.0 * totalAciertos / total : 0.0;
+    }
+
+    public int getTamano() {
+        return directas.size() + inversas.size();
+    }
+
+    /**
+     * Entrada de la caché con su propio vencimiento
+     */
+    private static final class Entrada {
+        final InetAddress direccion;    // Dirección resuelta (null en entradas negativas o inversas)
+        final String nombre;            // Nombre de host (solo en entradas inversas)
+        final long venceNanos;          // Instante de vencimiento
+        final long refrescoNanos;       // Instante a partir del cual se refresca en segundo plano
+        final AtomicBoolean refrescando = new AtomicBoolean();
+
+        Entrada(InetAddress direccion, String nombre, long ahora, long ttl) {
+            this.direccion = direccion;
+            this.nombre = nombre;
+            this.venceNanos = ahora + ttl;
+            this.refrescoNanos = ahora + (long) (ttl * FRACCION_REFRESCO);
+        }
+
+        boolean vigente(long ahora) {
+            return ahora - venceNanos < 0;
+        }
+    }
+}
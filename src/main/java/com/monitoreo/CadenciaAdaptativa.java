@@ -0,0 +1,140 @@
+package com.monitoreo;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ajusta la cadencia de prueba de cada host según su comportamiento reciente.
+ * Los hosts estables y con alta disponibilidad van alargando su intervalo hasta
+ * el máximo configurado; los que acaban de cambiar de estado o cuya estabilidad
+ * baja pasan al intervalo mínimo y, una vez que se asientan (aunque sigan
+ * caídos), vuelven a la cadencia base. La disponibilidad se juzga sobre una
+ * ventana deslizante para que un host con historial largo no quede marcado
+ * para siempre por caídas viejas.
+ */
+public class CadenciaAdaptativa {
+    public static final int INTERVALO_MINIMO_POR_DEFECTO = 5;          // Segundos
+    public static final int INTERVALO_MAXIMO_POR_DEFECTO = 300;        // Segundos
+    public static final double FACTOR_POR_DEFECTO = 1.5;               // Crecimiento del intervalo
+    public static final double DISPONIBILIDAD_POR_DEFECTO = 99.5;      // % mínimo para relajar
+    public static final double ESTABILIDAD_POR_DEFECTO = 95.0;         // % mínimo para relajar
+    private static final int CONFIRMACIONES_PARA_RELAJAR = 3;          // Pruebas estables antes de alargar o volver a la base
+
+    private final long intervaloMinimoNanos;       // Intervalo usado tras un cambio de estado
+    private final long intervaloMaximoNanos;       // Límite superior del intervalo
+    private final double factor;                   // Factor multiplicativo al relajar
+    private final double disponibilidadMinima;     // Disponibilidad necesaria para relajar
+    private final double estabilidadMinima;        // Estabilidad necesaria para relajar
+    private final Map<String, EstadoCadencia> estados; // Estado de cadencia por host
+    private volatile Duration ventanaDisponibilidad; // Ventana con la que se juzga la disponibilidad (null = total)
+
+    /**
+     * Constructor de la cadencia adaptativa
+     * @param intervaloMinimoSegundos Intervalo mínimo entre pruebas
+     * @param intervaloMaximoSegundos Intervalo máximo entre pruebas
+     * @param factor Factor de crecimiento del intervalo (mayor que 1)
+     * @param disponibilidadMinima Disponibilidad (%) necesaria para alargar el intervalo
+     * @param estabilidadMinima Estabilidad (%) necesaria para alargar el intervalo
+     */
+    public CadenciaAdaptativa(int intervaloMinimoSegundos, int intervaloMaximoSegundos, double factor,
+                              double disponibilidadMinima, double estabilidadMinima) {
+        if (intervaloMinimoSegundos <= 0 || intervaloMaximoSegundos < intervaloMinimoSegundos) {
+            throw new IllegalArgumentException("Límites de intervalo adaptativo inválidos");
+        }
+        if (factor <= 1.0) {
+            throw new IllegalArgumentException("El factor de crecimiento debe ser mayor que 1");
+        }
+        this.intervaloMinimoNanos = intervaloMinimoSegundos * 1_000_000_000L;
+        this.intervaloMaximoNanos = intervaloMaximoSegundos * 1_000_000_000L;
+        this.factor = factor;
+        this.disponibilidadMinima = disponibilidadMinima;
+        this.estabilidadMinima = estabilidadMinima;
+        this.estados = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Evalúa el resultado de una prueba y calcula el intervalo hasta la siguiente
+     * @param host ID del host
+     * @param disponible Resultado de la última prueba
+     * @param stats Estadísticas del host (ya actualizadas con la última prueba)
+     * @param intervaloBaseNanos Intervalo configurado del host (propio o global)
+     * @return Intervalo a usar para el host, en nanosegundos
+     */
+    public long evaluar(String host, boolean disponible, HostEstadisticas stats, long intervaloBaseNanos) {
+        long base = acotar(intervaloBaseNanos);
+        EstadoCadencia estado = estados.computeIfAbsent(host, h -> new EstadoCadencia(base, disponible));
+        double estabilidad = stats.getEstabilidad();
+
+        boolean cambioEstado = disponible != estado.ultimoDisponible;
+        boolean estabilidadEnDescenso = estabilidad < estado.ultimaEstabilidad;
+
+        if (cambioEstado || estabilidadEnDescenso) {
+            // Sondear rápido hasta que el host se asiente
+            estado.intervaloNanos = intervaloMinimoNanos;
+            estado.confirmaciones = 0;
+        } else if (disponible && stats.getDisponibilidad(ventanaDisponibilidad) >= disponibilidadMinima
+                && estabilidad >= estabilidadMinima) {
+            estado.confirmaciones++;
+            if (estado.confirmaciones >= CONFIRMACIONES_PARA_RELAJAR) {
+                estado.intervaloNanos = Math.min(intervaloMaximoNanos, (long) (estado.intervaloNanos * factor));
+                estado.confirmaciones = 0;
+            }
+        } else {
+            // Asentado pero sin la calidad suficiente para relajar (por ejemplo, sigue caído): no superar
+            // la cadencia base y volver a ella tras unas pruebas sin cambios
+            estado.intervaloNanos = Math.min(estado.intervaloNanos, base);
+            estado.confirmaciones++;
+            if (estado.confirmaciones >= CONFIRMACIONES_PARA_RELAJAR) {
+                estado.intervaloNanos = base;
+                estado.confirmaciones = 0;
+            }
+        }
+
+        estado.ultimoDisponible = disponible;
+        estado.ultimaEstabilidad = estabilidad;
+        return estado.intervaloNanos;
+    }
+
+    /**
+     * Define la ventana de disponibilidad con la que se decide si un host puede
+     * alargar su intervalo. Los hosts deben mantener una ventana con ese horizonte
+     * (ver {@link HostEstadisticas#getHorizontesDisponibilidad()}).
+     * @param ventanaDisponibilidad Horizonte de la ventana; null o cero para la disponibilidad total
+     */
+    public void setVentanaDisponibilidad(Duration ventanaDisponibilidad) {
+        this.ventanaDisponibilidad = ventanaDisponibilidad;
+    }
+
+    public Duration getVentanaDisponibilidad() {
+        return ventanaDisponibilidad;
+    }
+
+    /**
+     * Descarta el estado de un host que dejó de monitorearse
+     * @param host ID del host
+     */
+    public void olvidar(String host) {
+        estados.remove(host);
+    }
+
+    private long acotar(long intervaloNanos) {
+        return Math.max(intervaloMinimoNanos, Math.min(intervaloMaximoNanos, intervaloNanos));
+    }
+
+    /**
+     * Estado de cadencia de un host
+     */
+    private static final class EstadoCadencia {
+        long intervaloNanos;
+        int confirmaciones;
+        boolean ultimoDisponible;
+        double ultimaEstabilidad;
+
+        EstadoCadencia(long intervaloNanos, boolean disponible) {
+            this.intervaloNanos = intervaloNanos;
+            this.ultimoDisponible = disponible;
+            this.ultimaEstabilidad = 100.0;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.monitoreo;
+
+import java.util.Arrays;
+
+/**
+ * Codifica un bloque de muestras (instante, estado, valor) con la compresión
+ * de Gorilla: los instantes como delta de la delta respecto a la muestra
+ * anterior (un bit cuando la cadencia es regular) y los valores como el XOR
+ * con el anterior, guardando solo los bits significativos y reutilizando la
+ * ventana de ceros de la muestra anterior cuando alcanza. El estado ocupa un
+ * bit por muestra. Antes del XOR el valor se redondea a los bits de mantisa
+ * configurados: las latencias medidas cambian en los últimos bits de cada
+ * muestra y, sin redondeo, el XOR casi nunca tendría ceros que aprovechar.
+ *
+ * Formato del bloque: primer instante (64 bits), estado (1 bit) y valor
+ * (64 bits) de la primera muestra; luego, por muestra, la delta de la delta
+ * ('0', '10' + 7 bits, '110' + 9, '1110' + 12 o '1111' + 64), el estado y el
+ * valor ('0' si es igual al anterior; '10' + bits dentro de la ventana
+ * anterior; '11' + ceros a la izquierda (5 bits) + largo (6 bits) + bits).
+ * La cantidad de muestras se guarda aparte (en el índice de la serie).
+ *
+ * Además lleva el resumen del bloque (muestras, exitosas, mínimo, máximo y
+ * suma de los valores de las exitosas), que el índice guarda para responder
+ * lecturas agregadas sin decodificar.
+ */
+public class CodificadorGorilla {
+    private static final int CAPACIDAD_INICIAL = 256;
+
+    private final int descartarMantisa;            // Bits bajos de mantisa que se redondean
+    private byte[] datos;                          // Bits escritos
+    private long bits;                             // Cantidad de bits escritos
+    private int cantidad;                          // Muestras del bloque
+    private long primerInstante;                   // Instante de la primera muestra (unidades de la serie)
+    private long ultimoInstante;                   // Instante de la última muestra
+    private long ultimoDelta;                      // Delta entre las dos últimas muestras
+    private long ultimoValor;                      // Bits del último valor
+    private int ultimosCerosIzquierda = -1;        // Ventana del último XOR (-1 = ninguna)
+    private int ultimosCerosDerecha;
+    private int exitosas;                          // Muestras con estado disponible
+    private double minimo = Double.POSITIVE_INFINITY;  // Resumen de los valores de las exitosas
+    private double maximo = Double.NEGATIVE_INFINITY;
+    private double suma;
+
+    /**
+     * Constructor del codificador
+     * @param bitsMantisa Bits de mantisa que se conservan (1 a 52; 52 = sin pérdida)
+     */
+    public CodificadorGorilla(int bitsMantisa) {
+        if (bitsMantisa < 1 || bitsMantisa > 52) {
+            throw new IllegalArgumentException("Los bits de mantisa deben estar entre 1 y 52");
+        }
+        this.descartarMantisa = 52 - bitsMantisa;
+        this.datos = new byte[CAPACIDAD_INICIAL];
+    }
+
+    /**
+     * Agrega una muestra al bloque
+     * @param instante Instante en unidades de la serie (no decreciente respecto al anterior)
+     * @param disponible Estado de la muestra
+     * @param valor Valor de la muestra (se redondea a los bits de mantisa configurados)
+     */
+    public void agregar(long instante, boolean disponible, double valor) {
+        long bitsValor = Double.doubleToRawLongBits(redondear(valor));
+        if (cantidad == 0) {
+            escribir(instante, 64);
+            escribir(disponible ? 1 : 0, 1);
+            escribir(bitsValor, 64);
+            primerInstante = instante;
+        } else {
+            escribirInstante(instante);
+            escribir(disponible ? 1 : 0, 1);
+            escribirValor(bitsValor);
+        }
+        ultimoInstante = instante;
+        ultimoValor = bitsValor;
+        cantidad++;
+        if (disponible) {
+            double redondeado = Double.longBitsToDouble(bitsValor);
+            exitosas++;
+            minimo = Math.min(minimo, redondeado);
+            maximo = Math.max(maximo, redondeado);
+            suma += redondeado;
+        }
+    }
+
+    private void escribirInstante(long instante) {
+        long delta = instante - ultimoInstante;
+        long deltaDelta = delta - ultimoDelta;
+        ultimoDelta = delta;
+        if (deltaDelta == 0) {
+            escribir(0, 1);
+        } else if (deltaDelta >= -63 && deltaDelta <= 64) {
+            escribir(0b10, 2);
+            escribir(deltaDelta + 63, 7);
+        } else if (deltaDelta >= -255 && deltaDelta <= 256) {
+            escribir(0b110, 3);
+            escribir(deltaDelta + 255, 9);
+        } else if (deltaDelta >= -2047 && deltaDelta <= 2048) {
+            escribir(0b1110, 4);
+            escribir(deltaDelta + 2047, 12);
+        } else {
+            escribir(0b1111, 4);
+            escribir(deltaDelta, 64);
+        }
+    }
+
+    private void escribirValor(long bitsValor) {
+        long xor = bitsValor ^ ultimoValor;
+        if (xor == 0) {
+            escribir(0, 1);
+            return;
+        }
+        int cerosIzquierda = Math.min(Long.numberOfLeadingZeros(xor), 31);
+        int cerosDerecha = Long.numberOfTrailingZeros(xor);
+        if (ultimosCerosIzquierda >= 0 && cerosIzquierda >= ultimosCerosIzquierda
+                && cerosDerecha >= ultimosCerosDerecha) {
+            // Los bits que cambiaron caben en la ventana anterior
+            escribir(0b10, 2);
+            escribir(xor >>> ultimosCerosDerecha, 64 - ultimosCerosIzquierda - ultimosCerosDerecha);
+        } else {
+            int significativos = 64 - cerosIzquierda - cerosDerecha;
+            escribir(0b11, 2);
+            escribir(cerosIzquierda, 5);
+            escribir(significativos & 63, 6);          // 64 se guarda como 0
+            escribir(xor >>> cerosDerecha, significativos);
+            ultimosCerosIzquierda = cerosIzquierda;
+            ultimosCerosDerecha = cerosDerecha;
+        }
+    }
+
+    /**
+     * Redondea la mantisa de un valor a los bits configurados (al más cercano)
+     */
+    double redondear(double valor) {
+        if (descartarMantisa == 0 || Double.isNaN(valor) || Double.isInfinite(valor)) {
+            return valor;
+        }
+        long bitsValor = Double.doubleToRawLongBits(valor);
+        long mitad = 1L << (descartarMantisa - 1);
+        long mascara = -1L << descartarMantisa;
+        return Double.longBitsToDouble((bitsValor + mitad) & mascara);
+    }
+
+    /**
+     * Escribe los n bits más bajos de un valor, del más significativo al menos
+     */
+    private void escribir(long valor, int n) {
+        long necesarios = (bits + n + 7) >>> 3;
+        if (necesarios > datos.length) {
+            datos = Arrays.copyOf(datos, (int) Math.max(necesarios, datos.length * 2L));
+        }
+        while (n > 0) {
+            int libres = 8 - (int) (bits & 7);
+            int tomar = Math.min(libres, n);
+            int trozo = (int) ((valor >>> (n - tomar)) & ((1 << tomar) - 1));
+            datos[(int) (bits >>> 3)] |= (byte) (trozo << (libres - tomar));
+            bits += tomar;
+            n -= tomar;
+        }
+    }
+
+    /**
+     * Vacía el codificador para empezar otro bloque, conservando su buffer
+     */
+    public void reiniciar() {
+        Arrays.fill(datos, 0, getLongitud(), (byte) 0);
+        bits = 0;
+        cantidad = 0;
+        primerInstante = 0;
+        ultimoInstante = 0;
+        ultimoDelta = 0;
+        ultimoValor = 0;
+        ultimosCerosIzquierda = -1;
+        ultimosCerosDerecha = 0;
+        exitosas = 0;
+        minimo = Double.POSITIVE_INFINITY;
+        maximo = Double.NEGATIVE_INFINITY;
+        suma = 0;
+    }
+
+    /**
+     * Obtiene una copia de los bytes del bloque
+     */
+    public byte[] getBytes() {
+        return Arrays.copyOf(datos, getLongitud());
+    }
+
+    /**
+     * @return bytes que ocupa el bloque
+     */
+    public int getLongitud() {
+        return (int) ((bits + 7) >>> 3);
+    }
+
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    public long getPrimerInstante() {
+        return primerInstante;
+    }
+
+    public long getUltimoInstante() {
+        return ultimoInstante;
+    }
+
+    public int getExitosas() {
+        return exitosas;
+    }
+
+    /**
+     * @return menor valor de las muestras exitosas (+infinito si no hay)
+     */
+    public double getMinimo() {
+        return minimo;
+    }
+
+    /**
+     * @return mayor valor de las muestras exitosas (-infinito si no hay)
+     */
+    public double getMaximo() {
+        return maximo;
+    }
+
+    public double getSuma() {
+        return suma;
+    }
+
+    /**
+     * Receptor de las muestras de un bloque decodificado
+     */
+    public interface Receptor {
+        void aceptar(long instante, boolean disponible, double valor);
+    }
+
+    /**
+     * Decodifica un bloque
+     * @param datos Bytes del bloque
+     * @param cantidad Muestras del bloque
+     * @param receptor Receptor de cada muestra, en orden
+     */
+    public static void decodificar(byte[] datos, int cantidad, Receptor receptor) {
+        if (cantidad == 0) {
+            return;
+        }
+        LectorBits lector = new LectorBits(datos);
+        long instante = lector.leer(64);
+        boolean disponible = lector.leer(1) == 1;
+        long valor = lector.leer(64);
+        receptor.aceptar(instante, disponible, Double.longBitsToDouble(valor));
+        long delta = 0;
+        int cerosIzquierda = 0;
+        int cerosDerecha = 0;
+        for (int i = 1; i < cantidad; i++) {
+            delta += leerDeltaDelta(lector);
+            instante += delta;
+            disponible = lector.leer(1) == 1;
+            if (lector.leer(1) == 1) {
+                if (lector.leer(1) == 1) {
+                    cerosIzquierda = (int) lector.leer(5);
+                    int significativos = (int) lector.leer(6);
+                    if (significativos == 0) {
+                        significativos = 64;
+                    }
+                    cerosDerecha = 64 - cerosIzquierda - significativos;
+                }
+                valor ^= lector.leer(64 - cerosIzquierda - cerosDerecha) << cerosDerecha;
+            }
+            receptor.aceptar(instante, disponible, Double.longBitsToDouble(valor));
+        }
+    }
+
+    private static long leerDeltaDelta(LectorBits lector) {
+        if (lector.leer(1) == 0) {
+            return 0;
+        }
+        if (lector.leer(1) == 0) {
+            return lector.leer(7) - 63;
+        }
+        if (lector.leer(1) == 0) {
+            return lector.leer(9) - 255;
+        }
+        if (lector.leer(1) == 0) {
+            return lector.leer(12) - 2047;
+        }
+        return lector.leer(64);
+    }
+
+    /**
+     * Lectura secuencial de bits de un arreglo de bytes
+     */
+    private static final class LectorBits {
+        private final byte[] datos;
+        private long posicion;      // Próximo bit a leer
+
+        LectorBits(byte[] datos) {
+            this.datos = datos;
+        }
+
+        long leer(int n) {
+            long resultado = 0;
+            while (n > 0) {
+                int disponibles = 8 - (int) (posicion & 7);
+                int tomar = Math.min(disponibles, n);
+                int octeto = datos[(int) (posicion >>> 3)] & 0xFF;
+                int trozo = (octeto >>> (disponibles - tomar)) & ((1 << tomar) - 1);
+                resultado = (resultado << tomar) | trozo;
+                posicion += tomar;
+                n -= tomar;
+            }
+            return resultado;
+        }
+    }
+}
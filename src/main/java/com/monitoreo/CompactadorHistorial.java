@@ -0,0 +1,436 @@
+package com.monitoreo;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Etapa de compactación del historial de sondeos. En segundo plano agrega los
+ * resultados crudos del diario en agregados por minuto y estos en agregados
+ * por hora, y aplica la retención de cada resolución (datos crudos, minutos y
+ * horas). Cada paso solo procesa lo que quedó detrás de su marca de agua, que
+ * se guarda en disco para continuar tras un reinicio. Los agregados se
+ * escriben antes que las marcas de agua, así que al abrir el compactador, y
+ * tras una pasada que falló, se descarta lo escrito más allá de ellas: la
+ * pasada se repite sin duplicar agregados.
+ *
+ * Las lecturas usan la resolución más gruesa que responde la pregunta: un
+ * rango se divide en horas completas ya agregadas, minutos completos en los
+ * bordes y datos crudos para los fragmentos de minuto y lo que aún no se
+ * compactó.
+ */
+public class CompactadorHistorial {
+    public static final int RETENCION_CRUDO_HORAS_POR_DEFECTO = 7 * 24;
+    public static final int RETENCION_MINUTOS_DIAS_POR_DEFECTO = 30;
+    public static final int RETENCION_HORAS_DIAS_POR_DEFECTO = 365;
+    public static final int PERIODO_SEGUNDOS_POR_DEFECTO = 60;
+    private static final long MARGEN_NANOS = 2_000_000_000L;   // Espera antes de cerrar un minuto
+    private static final int AGREGADOS_POR_ESCRITURA = 1024;
+    private static final int MAXIMO_PASOS_SERIE = 10_000;       // Cada paso con pruebas lleva su histograma
+    private static final String ARCHIVO_ESTADO = "estado.properties";
+    private static final int FORMATO = 2;                      // Formato de los archivos de agregados
+    private static final int ESPERA_DETENER_SEGUNDOS = 30;     // Espera máxima a la pasada en curso al detener
+
+    private final DiarioSondeos diario;             // Origen de los datos crudos
+    private final AlmacenAgregados minutos;         // Agregados por minuto
+    private final AlmacenAgregados horas;           // Agregados por hora
+    private final long retencionCrudoNanos;         // Antigüedad máxima de los segmentos del diario
+    private final File archivoEstado;               // Marcas de agua persistidas
+    private volatile long hastaMinuto;              // Datos crudos agregados por minuto hasta este instante
+    private volatile long hastaHora;                // Minutos agregados por hora hasta este instante
+    private boolean descartePendiente;              // Puede haber agregados escritos más allá de las marcas de agua
+    private ScheduledExecutorService ejecutor;      // Hilo de compactación (null si está detenido)
+
+    /**
+     * Receptor de las piezas en que se descompone una lectura
+     */
+    private interface Receptor {
+        void agregado(AgregadoSondeos agregado);
+
+        void crudo(long epochNanos, ResultadoSonda.Tipo tipo, long latenciaNanos);
+    }
+
+    /**
+     * Constructor del compactador. Los agregados se guardan en el subdirectorio
+     * "agregados" del diario.
+     * @param diario Diario de sondeos
+     * @param retencionCrudoHoras Horas que se conservan los datos crudos
+     * @param retencionMinutosDias Días que se conservan los agregados por minuto
+     * @param retencionHorasDias Días que se conservan los agregados por hora
+     * @throws IOException si no se puede crear el directorio o leer el estado
+     */
+    public CompactadorHistorial(DiarioSondeos diario, int retencionCrudoHoras, int retencionMinutosDias,
+                                int retencionHorasDias) throws IOException {
+        if (retencionCrudoHoras <= 0 || retencionMinutosDias <= 0 || retencionHorasDias <= 0) {
+            throw new IllegalArgumentException("Las retenciones del historial deben ser positivas");
+        }
+        File directorio = new File(diario.getDirectorio(), "agregados");
+        this.diario = diario;
+        this.minutos = new AlmacenAgregados(directorio, ResolucionAgregado.MINUTO,
+            TimeUnit.DAYS.toNanos(retencionMinutosDias));
+        this.horas = new AlmacenAgregados(directorio, ResolucionAgregado.HORA,
+            TimeUnit.DAYS.toNanos(retencionHorasDias));
+        this.retencionCrudoNanos = TimeUnit.HOURS.toNanos(retencionCrudoHoras);
+        this.archivoEstado = new File(directorio, ARCHIVO_ESTADO);
+        cargarEstado();
+        descartarSinConfirmar();
+    }
+
+    /**
+     * Arranca la compactación periódica en un hilo propio
+     * @param periodoSegundos Segundos entre compactaciones
+     */
+    public synchronized void iniciar(int periodoSegundos) {
+        if (ejecutor != null) {
+            return;
+        }
+        ejecutor = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "compactador-historial");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        ejecutor.scheduleWithFixedDelay(() -> {
+            try {
+                compactar();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error al compactar el historial: " + e.getMessage());
+            }
+        }, periodoSegundos, periodoSegundos, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Detiene la compactación periódica. Una pasada en curso se deja terminar
+     * (interrumpirla cerraría los archivos a mitad de una escritura)
+     */
+    public void detener() {
+        ScheduledExecutorService detenido;
+        synchronized (this) {
+            detenido = ejecutor;
+            ejecutor = null;
+        }
+        if (detenido == null) {
+            return;
+        }
+        detenido.shutdown();
+        try {
+            if (!detenido.awaitTermination(ESPERA_DETENER_SEGUNDOS, TimeUnit.SECONDS)) {
+                System.err.println("La compactación del historial sigue en curso; se retomará al reiniciar");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Ejecuta una pasada: crudo -> minutos, minutos -> horas y retención
+     * @throws IOException si falla la lectura o escritura de algún archivo
+     */
+    public void compactar() throws IOException {
+        compactar(diario.ahoraEpochNanos());
+    }
+
+    synchronized void compactar(long ahoraEpochNanos) throws IOException {
+        if (descartePendiente) {
+            descartarSinConfirmar();
+        }
+        descartePendiente = true;           // Hasta que las marcas de agua queden guardadas
+        compactarMinutos(ResolucionAgregado.MINUTO.inicioDe(ahoraEpochNanos - MARGEN_NANOS));
+        compactarHoras(ResolucionAgregado.HORA.inicioDe(hastaMinuto));
+        guardarEstado();
+        descartePendiente = false;
+        diario.purgarHasta(Math.min(ahoraEpochNanos - retencionCrudoNanos, hastaMinuto));
+        minutos.purgar(ahoraEpochNanos, hastaHora);
+        horas.purgar(ahoraEpochNanos, Long.MAX_VALUE);
+    }
+
+    /**
+     * Agrega por minuto los datos crudos de [hastaMinuto, limite)
+     */
+    private void compactarMinutos(long limite) throws IOException {
+        if (limite <= hastaMinuto) {
+            return;
+        }
+        FiltroHistorial filtro = new FiltroHistorial();
+        filtro.setDesdeEpochNanos(hastaMinuto);
+        filtro.setHastaEpochNanos(limite);
+        Acumulador acumulador = new Acumulador(minutos);
+        try {
+            diario.getConsulta().recorrer(filtro, (instante, clave, tipo, latenciaNanos, retrasoMicros) -> {
+                acumulador.obtener(ResolucionAgregado.MINUTO.inicioDe(instante), clave).registrar(tipo, latenciaNanos);
+                return true;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        acumulador.vaciar();
+        hastaMinuto = limite;
+    }
+
+    /**
+     * Agrega por hora los minutos de [hastaHora, limite)
+     */
+    private void compactarHoras(long limite) throws IOException {
+        if (limite <= hastaHora) {
+            return;
+        }
+        Acumulador acumulador = new Acumulador(horas);
+        try {
+            minutos.leer(hastaHora, limite, false, 0, agregado -> acumulador.obtener(
+                ResolucionAgregado.HORA.inicioDe(agregado.getInicioEpochNanos()), agregado.getClaveDispositivo())
+                .combinar(agregado));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        acumulador.vaciar();
+        hastaHora = limite;
+    }
+
+    /**
+     * Resume las pruebas de un dispositivo en un rango, leyendo de la resolución más gruesa posible
+     * @param id ID del dispositivo
+     * @param desdeEpochNanos Inicio del rango (incluido)
+     * @param hastaEpochNanos Fin del rango (excluido)
+     * @return agregado del rango completo
+     * @throws IOException si no se puede leer el historial
+     */
+    public AgregadoSondeos resumir(String id, long desdeEpochNanos, long hastaEpochNanos) throws IOException {
+        AgregadoSondeos total = new AgregadoSondeos(desdeEpochNanos, DiarioSondeos.claveDe(id));
+        descomponer(id, desdeEpochNanos, hastaEpochNanos, ResolucionAgregado.HORA, new Receptor() {
+            @Override
+            public void agregado(AgregadoSondeos agregado) {
+                total.combinar(agregado);
+            }
+
+            @Override
+            public void crudo(long epochNanos, ResultadoSonda.Tipo tipo, long latenciaNanos) {
+                total.registrar(tipo, latenciaNanos);
+            }
+        });
+        return total;
+    }
+
+    /**
+     * Calcula la disponibilidad de un dispositivo en un rango
+     * @param id ID del dispositivo
+     * @param desdeEpochNanos Inicio del rango (incluido)
+     * @param hastaEpochNanos Fin del rango (excluido)
+     * @return disponibilidad (0 a 100), o 100 si no hubo pruebas
+     * @throws IOException si no se puede leer el historial
+     */
+    public double getDisponibilidad(String id, long desdeEpochNanos, long hastaEpochNanos) throws IOException {
+        return resumir(id, desdeEpochNanos, hastaEpochNanos).getDisponibilidad();
+    }
+
+    /**
+     * Obtiene la serie de agregados de un dispositivo en pasos fijos. Se usa la
+     * resolución más gruesa que divide el paso y con la que está alineado el inicio.
+     * @param id ID del dispositivo
+     * @param desdeEpochNanos Inicio de la serie
+     * @param hastaEpochNanos Fin de la serie (excluido)
+     * @param pasoNanos Duración de cada punto de la serie
+     * @return un agregado por paso (vacío si no hubo pruebas), en orden
+     * @throws IOException si no se puede leer el historial
+     */
+    public List<AgregadoSondeos> serie(String id, long desdeEpochNanos, long hastaEpochNanos,
+                                       long pasoNanos) throws IOException {
+        if (pasoNanos <= 0 || hastaEpochNanos <= desdeEpochNanos) {
+            throw new IllegalArgumentException("Rango o paso de la serie inválidos");
+        }
+        long cantidad = (hastaEpochNanos - desdeEpochNanos + pasoNanos - 1) / pasoNanos;
+        if (cantidad > MAXIMO_PASOS_SERIE) {
+            throw new IllegalArgumentException("Demasiados puntos en la serie: " + cantidad);
+        }
+        long clave = DiarioSondeos.claveDe(id);
+        AgregadoSondeos[] pasos = new AgregadoSondeos[(int) cantidad];
+        for (int i = 0; i < pasos.length; i++) {
+            pasos[i] = new AgregadoSondeos(desdeEpochNanos + i * pasoNanos, clave);
+        }
+        ResolucionAgregado maxima = null;
+        for (ResolucionAgregado resolucion : ResolucionAgregado.values()) {
+            long duracion = resolucion.getDuracionNanos();
+            if (pasoNanos % duracion == 0 && Math.floorMod(desdeEpochNanos, duracion) == 0) {
+                maxima = resolucion;
+            }
+        }
+        descomponer(id, desdeEpochNanos, hastaEpochNanos, maxima, new Receptor() {
+            @Override
+            public void agregado(AgregadoSondeos agregado) {
+                pasos[(int) ((agregado.getInicioEpochNanos() - desdeEpochNanos) / pasoNanos)].combinar(agregado);
+            }
+
+            @Override
+            public void crudo(long epochNanos, ResultadoSonda.Tipo tipo, long latenciaNanos) {
+                pasos[(int) ((epochNanos - desdeEpochNanos) / pasoNanos)].registrar(tipo, latenciaNanos);
+            }
+        });
+        List<AgregadoSondeos> serie = new ArrayList<>(pasos.length);
+        for (AgregadoSondeos paso : pasos) {
+            serie.add(paso);
+        }
+        return serie;
+    }
+
+    /**
+     * Divide el rango en intervalos completos de la resolución más gruesa ya
+     * compactada y resuelve los bordes con la resolución siguiente o con datos crudos
+     * @param maxima Resolución más gruesa admitida (null = solo datos crudos)
+     */
+    private void descomponer(String id, long desde, long hasta, ResolucionAgregado maxima,
+                             Receptor receptor) throws IOException {
+        if (desde >= hasta) {
+            return;
+        }
+        long clave = DiarioSondeos.claveDe(id);
+        if (maxima == ResolucionAgregado.HORA) {
+            long inicio = ResolucionAgregado.HORA.siguienteInicio(desde);
+            long fin = Math.min(ResolucionAgregado.HORA.inicioDe(hasta), hastaHora);
+            if (inicio < fin) {
+                horas.leer(inicio, fin, true, clave, receptor::agregado);
+                descomponer(id, desde, inicio, ResolucionAgregado.MINUTO, receptor);
+                descomponer(id, fin, hasta, ResolucionAgregado.MINUTO, receptor);
+                return;
+            }
+            maxima = ResolucionAgregado.MINUTO;
+        }
+        if (maxima == ResolucionAgregado.MINUTO) {
+            long inicio = ResolucionAgregado.MINUTO.siguienteInicio(desde);
+            long fin = Math.min(ResolucionAgregado.MINUTO.inicioDe(hasta), hastaMinuto);
+            if (inicio < fin) {
+                minutos.leer(inicio, fin, true, clave, receptor::agregado);
+                descomponer(id, desde, inicio, null, receptor);
+                descomponer(id, fin, hasta, null, receptor);
+                return;
+            }
+        }
+        FiltroHistorial filtro = new FiltroHistorial();
+        filtro.setIdDispositivo(id);
+        filtro.setDesdeEpochNanos(desde);
+        filtro.setHastaEpochNanos(hasta);
+        diario.getConsulta().recorrer(filtro, (instante, claveRegistro, tipo, latenciaNanos, retrasoMicros) -> {
+            receptor.crudo(instante, tipo, latenciaNanos);
+            return true;
+        });
+    }
+
+    private void cargarEstado() throws IOException {
+        if (!archivoEstado.isFile()) {
+            // Nada quedó confirmado: lo que haya en los archivos se vuelve a generar
+            minutos.borrarTodo();
+            horas.borrarTodo();
+            return;
+        }
+        Properties estado = new Properties();
+        try (InputStream entrada = new FileInputStream(archivoEstado)) {
+            estado.load(entrada);
+        }
+        if (!String.valueOf(FORMATO).equals(estado.getProperty("formato"))) {
+            // Agregados de un formato anterior: se regeneran desde los datos crudos que conserva el diario
+            minutos.borrarTodo();
+            horas.borrarTodo();
+            return;
+        }
+        try {
+            hastaMinuto = Long.parseLong(estado.getProperty("minuto.hasta", "0"));
+            hastaHora = Long.parseLong(estado.getProperty("hora.hasta", "0"));
+        } catch (NumberFormatException e) {
+            throw new IOException("Estado de compactación inválido: " + archivoEstado, e);
+        }
+    }
+
+    /**
+     * Descarta los agregados escritos más allá de las marcas de agua por una
+     * pasada que no llegó a guardarlas (falló, se detuvo el proceso o se cortó
+     * la escritura), para que al repetirla no queden duplicados
+     */
+    private void descartarSinConfirmar() throws IOException {
+        minutos.descartarDesde(hastaMinuto);
+        horas.descartarDesde(hastaHora);
+        descartePendiente = false;
+    }
+
+    /**
+     * Guarda las marcas de agua (se llama después de escribir los agregados)
+     */
+    private void guardarEstado() throws IOException {
+        Properties estado = new Properties();
+        estado.setProperty("formato", String.valueOf(FORMATO));
+        estado.setProperty("minuto.hasta", String.valueOf(hastaMinuto));
+        estado.setProperty("hora.hasta", String.valueOf(hastaHora));
+        File temporal = new File(archivoEstado.getPath() + ".tmp");
+        try (OutputStream salida = new FileOutputStream(temporal)) {
+            estado.store(salida, "Estado de la compactación del historial");
+        }
+        Files.move(temporal.toPath(), archivoEstado.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public long getHastaMinuto() {
+        return hastaMinuto;
+    }
+
+    public long getHastaHora() {
+        return hastaHora;
+    }
+
+    /**
+     * Agregados abiertos de un intervalo. Los datos llegan en orden, así que
+     * al cambiar de intervalo los del anterior se pasan a la lista de escritura,
+     * que se guarda por lotes. Se usa dentro de visitantes que no pueden lanzar
+     * IOException, por lo que los errores de escritura salen como UncheckedIOException.
+     */
+    private static final class Acumulador {
+        private final AlmacenAgregados destino;
+        private final Map<Long, AgregadoSondeos> abiertos = new HashMap<>();
+        private final List<AgregadoSondeos> pendientes = new ArrayList<>();
+        private long inicioAbierto = Long.MIN_VALUE;
+
+        Acumulador(AlmacenAgregados destino) {
+            this.destino = destino;
+        }
+
+        AgregadoSondeos obtener(long inicio, long clave) {
+            if (inicio != inicioAbierto) {
+                cerrarIntervalo();
+                inicioAbierto = inicio;
+            }
+            return abiertos.computeIfAbsent(clave, c -> new AgregadoSondeos(inicio, c));
+        }
+
+        private void cerrarIntervalo() {
+            pendientes.addAll(abiertos.values());
+            abiertos.clear();
+            if (pendientes.size() >= AGREGADOS_POR_ESCRITURA) {
+                try {
+                    escribirPendientes();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        private void escribirPendientes() throws IOException {
+            destino.escribir(pendientes);
+            pendientes.clear();
+        }
+
+        void vaciar() throws IOException {
+            pendientes.addAll(abiertos.values());
+            abiertos.clear();
+            escribirPendientes();
+        }
+    }
+}
@@ -5,6 +5,9 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 /**
@@ -14,6 +17,7 @@ import java.util.Properties;
 public class Configuracion {
     private Properties propiedades;
     private static final String CONFIG_FILE = "config.properties";
+    private static final String VENTANAS_DISPONIBILIDAD_POR_DEFECTO = "5,60,1440,43200";
     
     // Valores por defecto
     private double umbralDisponibilidad = 99.0;
@@ -22,6 +26,47 @@ public class Configuracion {
     private String directorioReportes = "./reportes";
     private boolean notificacionesEmail = false;
     private String emailDestino = "";
+    private int concurrenciaSondeo = MotorSondeo.CONCURRENCIA_POR_DEFECTO;
+    private boolean hilosVirtuales = false;
+    private int tickPlanificacionMs = PlanificadorSondeos.TICK_MS_POR_DEFECTO;
+    private double jitterPlanificacion = PlanificadorSondeos.JITTER_POR_DEFECTO;
+    private boolean cadenciaAdaptativa = false;
+    private int intervaloMinimoAdaptativo = CadenciaAdaptativa.INTERVALO_MINIMO_POR_DEFECTO;
+    private int intervaloMaximoAdaptativo = CadenciaAdaptativa.INTERVALO_MAXIMO_POR_DEFECTO;
+    private double factorAdaptativo = CadenciaAdaptativa.FACTOR_POR_DEFECTO;
+    private int ttlResolucion = CacheResolucion.TTL_POR_DEFECTO;
+    private int ttlResolucionNegativa = CacheResolucion.TTL_NEGATIVO_POR_DEFECTO;
+    private int presupuestoPruebas = 0;
+    private boolean ecoSondeo = false;
+    private int capacidadEventos = AlmacenEventos.CAPACIDAD_POR_DEFECTO;
+    private long retencionEventosSegundos = 0;
+    private boolean diarioHabilitado = true;
+    private String directorioDiario = "./historial";
+    private int tamanoSegmentoDiarioMb = DiarioSondeos.TAMANO_SEGMENTO_MB_POR_DEFECTO;
+    private int rotacionDiarioMinutos = DiarioSondeos.ROTACION_MINUTOS_POR_DEFECTO;
+    private boolean seriesHabilitadas = true;
+    private String directorioSeries = "./series";
+    private int resolucionSeriesMs = SerieTemporal.RESOLUCION_MS_POR_DEFECTO;
+    private int bitsMantisaSeries = SerieTemporal.BITS_MANTISA_POR_DEFECTO;
+    private int muestrasPorBloqueSeries = SerieTemporal.MUESTRAS_POR_BLOQUE_POR_DEFECTO;
+    private int retencionCrudoHoras = CompactadorHistorial.RETENCION_CRUDO_HORAS_POR_DEFECTO;
+    private int retencionMinutosDias = CompactadorHistorial.RETENCION_MINUTOS_DIAS_POR_DEFECTO;
+    private int retencionHorasDias = CompactadorHistorial.RETENCION_HORAS_DIAS_POR_DEFECTO;
+    private int periodoCompactacionSegundos = CompactadorHistorial.PERIODO_SEGUNDOS_POR_DEFECTO;
+    private ControlCiclos.PoliticaSobrecarga politicaSobrecarga = ControlCiclos.PoliticaSobrecarga.DIFERIR;
+    private int ventanaEstadisticas = HostEstadisticas.MAX_HISTORIAL;
+    private String ventanasDisponibilidadMinutos = VENTANAS_DISPONIBILIDAD_POR_DEFECTO;
+    private int ventanaAlertasMinutos = 60;
+    private int ventanaReportesMinutos = 0;
+    private int ventanaLatenciasMinutos = (int) VentanaLatencias.HORIZONTE_POR_DEFECTO.toMinutes();
+    private boolean deteccionAnomalias = true;
+    private double alfaAnomalias = DetectorAnomalias.ALFA_POR_DEFECTO;
+    private double umbralZAnomalias = DetectorAnomalias.UMBRAL_Z_POR_DEFECTO;
+    private int calentamientoAnomalias = DetectorAnomalias.CALENTAMIENTO_POR_DEFECTO;
+    private int persistenciaAnomalias = DetectorAnomalias.PERSISTENCIA_POR_DEFECTO;
+    private int capacidadSuscripcion = PublicadorEventos.CAPACIDAD_POR_DEFECTO;
+    private PublicadorEventos.PoliticaDesborde politicaSuscripcion = PublicadorEventos.PoliticaDesborde.DESCARTAR_ANTIGUO;
+    private long esperaBloqueoSuscripcionMs = PublicadorEventos.ESPERA_BLOQUEO_MS_POR_DEFECTO;
 
     public Configuracion() {
         propiedades = new Properties();
@@ -46,6 +91,85 @@ public class Configuracion {
             notificacionesEmail = Boolean.parseBoolean(
                 propiedades.getProperty("notificaciones.email", "false"));
             emailDestino = propiedades.getProperty("email.destino", "");
+            concurrenciaSondeo = Integer.parseInt(
+                propiedades.getProperty("sondeo.concurrencia", String.valueOf(MotorSondeo.CONCURRENCIA_POR_DEFECTO)));
+            hilosVirtuales = Boolean.parseBoolean(
+                propiedades.getProperty("sondeo.hilosVirtuales", "false"));
+            tickPlanificacionMs = Integer.parseInt(
+                propiedades.getProperty("planificacion.tickMs", String.valueOf(PlanificadorSondeos.TICK_MS_POR_DEFECTO)));
+            jitterPlanificacion = Double.parseDouble(
+                propiedades.getProperty("planificacion.jitter", String.valueOf(PlanificadorSondeos.JITTER_POR_DEFECTO)));
+            cadenciaAdaptativa = Boolean.parseBoolean(
+                propiedades.getProperty("adaptativo.habilitado", "false"));
+            intervaloMinimoAdaptativo = Integer.parseInt(
+                propiedades.getProperty("adaptativo.intervaloMinimo", String.valueOf(CadenciaAdaptativa.INTERVALO_MINIMO_POR_DEFECTO)));
+            intervaloMaximoAdaptativo = Integer.parseInt(
+                propiedades.getProperty("adaptativo.intervaloMaximo", String.valueOf(CadenciaAdaptativa.INTERVALO_MAXIMO_POR_DEFECTO)));
+            factorAdaptativo = Double.parseDouble(
+                propiedades.getProperty("adaptativo.factor", String.valueOf(CadenciaAdaptativa.FACTOR_POR_DEFECTO)));
+            ttlResolucion = Integer.parseInt(
+                propiedades.getProperty("dns.ttl", String.valueOf(CacheResolucion.TTL_POR_DEFECTO)));
+            ttlResolucionNegativa = Integer.parseInt(
+                propiedades.getProperty("dns.ttlNegativo", String.valueOf(CacheResolucion.TTL_NEGATIVO_POR_DEFECTO)));
+            presupuestoPruebas = Integer.parseInt(
+                propiedades.getProperty("ciclo.presupuesto", "0"));
+            ecoSondeo = Boolean.parseBoolean(propiedades.getProperty("sondeo.eco", "false"));
+            politicaSobrecarga = ControlCiclos.PoliticaSobrecarga.valueOf(
+                propiedades.getProperty("ciclo.politica", ControlCiclos.PoliticaSobrecarga.DIFERIR.name()));
+            capacidadEventos = Integer.parseInt(
+                propiedades.getProperty("eventos.capacidad", String.valueOf(AlmacenEventos.CAPACIDAD_POR_DEFECTO)));
+            retencionEventosSegundos = Long.parseLong(
+                propiedades.getProperty("eventos.retencionSegundos", "0"));
+            diarioHabilitado = Boolean.parseBoolean(
+                propiedades.getProperty("diario.habilitado", "true"));
+            directorioDiario = propiedades.getProperty("diario.directorio", "./historial");
+            tamanoSegmentoDiarioMb = Integer.parseInt(
+                propiedades.getProperty("diario.tamanoSegmentoMb", String.valueOf(DiarioSondeos.TAMANO_SEGMENTO_MB_POR_DEFECTO)));
+            rotacionDiarioMinutos = Integer.parseInt(
+                propiedades.getProperty("diario.rotacionMinutos", String.valueOf(DiarioSondeos.ROTACION_MINUTOS_POR_DEFECTO)));
+            seriesHabilitadas = Boolean.parseBoolean(
+                propiedades.getProperty("series.habilitado", "true"));
+            directorioSeries = propiedades.getProperty("series.directorio", "./series");
+            resolucionSeriesMs = Integer.parseInt(
+                propiedades.getProperty("series.resolucionMs", String.valueOf(SerieTemporal.RESOLUCION_MS_POR_DEFECTO)));
+            bitsMantisaSeries = Integer.parseInt(
+                propiedades.getProperty("series.bitsMantisa", String.valueOf(SerieTemporal.BITS_MANTISA_POR_DEFECTO)));
+            muestrasPorBloqueSeries = Integer.parseInt(propiedades.getProperty("series.muestrasPorBloque",
+                String.valueOf(SerieTemporal.MUESTRAS_POR_BLOQUE_POR_DEFECTO)));
+            retencionCrudoHoras = Integer.parseInt(propiedades.getProperty("agregados.retencionCrudoHoras",
+                String.valueOf(CompactadorHistorial.RETENCION_CRUDO_HORAS_POR_DEFECTO)));
+            retencionMinutosDias = Integer.parseInt(propiedades.getProperty("agregados.retencionMinutosDias",
+                String.valueOf(CompactadorHistorial.RETENCION_MINUTOS_DIAS_POR_DEFECTO)));
+            retencionHorasDias = Integer.parseInt(propiedades.getProperty("agregados.retencionHorasDias",
+                String.valueOf(CompactadorHistorial.RETENCION_HORAS_DIAS_POR_DEFECTO)));
+            periodoCompactacionSegundos = Integer.parseInt(propiedades.getProperty("agregados.periodoSegundos",
+                String.valueOf(CompactadorHistorial.PERIODO_SEGUNDOS_POR_DEFECTO)));
+            ventanaEstadisticas = Integer.parseInt(propiedades.getProperty("estadisticas.ventana",
+                String.valueOf(HostEstadisticas.MAX_HISTORIAL)));
+            ventanasDisponibilidadMinutos = propiedades.getProperty("disponibilidad.ventanasMinutos",
+                VENTANAS_DISPONIBILIDAD_POR_DEFECTO);
+            ventanaAlertasMinutos = Integer.parseInt(
+                propiedades.getProperty("alertas.ventanaDisponibilidadMinutos", "60"));
+            ventanaReportesMinutos = Integer.parseInt(
+                propiedades.getProperty("reportes.ventanaDisponibilidadMinutos", "0"));
+            ventanaLatenciasMinutos = Integer.parseInt(propiedades.getProperty("latencias.ventanaMinutos",
+                String.valueOf(VentanaLatencias.HORIZONTE_POR_DEFECTO.toMinutes())));
+            deteccionAnomalias = Boolean.parseBoolean(
+                propiedades.getProperty("anomalias.habilitado", "true"));
+            alfaAnomalias = Double.parseDouble(
+                propiedades.getProperty("anomalias.alfa", String.valueOf(DetectorAnomalias.ALFA_POR_DEFECTO)));
+            umbralZAnomalias = Double.parseDouble(
+                propiedades.getProperty("anomalias.umbralZ", String.valueOf(DetectorAnomalias.UMBRAL_Z_POR_DEFECTO)));
+            calentamientoAnomalias = Integer.parseInt(propiedades.getProperty("anomalias.calentamiento",
+                String.valueOf(DetectorAnomalias.CALENTAMIENTO_POR_DEFECTO)));
+            persistenciaAnomalias = Integer.parseInt(propiedades.getProperty("anomalias.persistencia",
+                String.valueOf(DetectorAnomalias.PERSISTENCIA_POR_DEFECTO)));
+            capacidadSuscripcion = Integer.parseInt(propiedades.getProperty("suscripcion.capacidad",
+                String.valueOf(PublicadorEventos.CAPACIDAD_POR_DEFECTO)));
+            politicaSuscripcion = PublicadorEventos.PoliticaDesborde.valueOf(propiedades.getProperty(
+                "suscripcion.politica", PublicadorEventos.PoliticaDesborde.DESCARTAR_ANTIGUO.name()));
+            esperaBloqueoSuscripcionMs = Long.parseLong(propiedades.getProperty("suscripcion.esperaBloqueoMs",
+                String.valueOf(PublicadorEventos.ESPERA_BLOQUEO_MS_POR_DEFECTO)));
             
         } catch (IOException ex) {
             System.out.println("No se encontró archivo de configuración. Usando valores por defecto.");
@@ -63,6 +187,47 @@ public class Configuracion {
             propiedades.setProperty("directorio.reportes", directorioReportes);
             propiedades.setProperty("notificaciones.email", String.valueOf(notificacionesEmail));
             propiedades.setProperty("email.destino", emailDestino);
+            propiedades.setProperty("sondeo.concurrencia", String.valueOf(concurrenciaSondeo));
+            propiedades.setProperty("sondeo.hilosVirtuales", String.valueOf(hilosVirtuales));
+            propiedades.setProperty("planificacion.tickMs", String.valueOf(tickPlanificacionMs));
+            propiedades.setProperty("planificacion.jitter", String.valueOf(jitterPlanificacion));
+            propiedades.setProperty("adaptativo.habilitado", String.valueOf(cadenciaAdaptativa));
+            propiedades.setProperty("adaptativo.intervaloMinimo", String.valueOf(intervaloMinimoAdaptativo));
+            propiedades.setProperty("adaptativo.intervaloMaximo", String.valueOf(intervaloMaximoAdaptativo));
+            propiedades.setProperty("adaptativo.factor", String.valueOf(factorAdaptativo));
+            propiedades.setProperty("dns.ttl", String.valueOf(ttlResolucion));
+            propiedades.setProperty("dns.ttlNegativo", String.valueOf(ttlResolucionNegativa));
+            propiedades.setProperty("ciclo.presupuesto", String.valueOf(presupuestoPruebas));
+            propiedades.setProperty("sondeo.eco", String.valueOf(ecoSondeo));
+            propiedades.setProperty("ciclo.politica", politicaSobrecarga.name());
+            propiedades.setProperty("eventos.capacidad", String.valueOf(capacidadEventos));
+            propiedades.setProperty("eventos.retencionSegundos", String.valueOf(retencionEventosSegundos));
+            propiedades.setProperty("diario.habilitado", String.valueOf(diarioHabilitado));
+            propiedades.setProperty("diario.directorio", directorioDiario);
+            propiedades.setProperty("diario.tamanoSegmentoMb", String.valueOf(tamanoSegmentoDiarioMb));
+            propiedades.setProperty("diario.rotacionMinutos", String.valueOf(rotacionDiarioMinutos));
+            propiedades.setProperty("series.habilitado", String.valueOf(seriesHabilitadas));
+            propiedades.setProperty("series.directorio", directorioSeries);
+            propiedades.setProperty("series.resolucionMs", String.valueOf(resolucionSeriesMs));
+            propiedades.setProperty("series.bitsMantisa", String.valueOf(bitsMantisaSeries));
+            propiedades.setProperty("series.muestrasPorBloque", String.valueOf(muestrasPorBloqueSeries));
+            propiedades.setProperty("agregados.retencionCrudoHoras", String.valueOf(retencionCrudoHoras));
+            propiedades.setProperty("agregados.retencionMinutosDias", String.valueOf(retencionMinutosDias));
+            propiedades.setProperty("agregados.retencionHorasDias", String.valueOf(retencionHorasDias));
+            propiedades.setProperty("agregados.periodoSegundos", String.valueOf(periodoCompactacionSegundos));
+            propiedades.setProperty("estadisticas.ventana", String.valueOf(ventanaEstadisticas));
+            propiedades.setProperty("disponibilidad.ventanasMinutos", ventanasDisponibilidadMinutos);
+            propiedades.setProperty("alertas.ventanaDisponibilidadMinutos", String.valueOf(ventanaAlertasMinutos));
+            propiedades.setProperty("reportes.ventanaDisponibilidadMinutos", String.valueOf(ventanaReportesMinutos));
+            propiedades.setProperty("latencias.ventanaMinutos", String.valueOf(ventanaLatenciasMinutos));
+            propiedades.setProperty("anomalias.habilitado", String.valueOf(deteccionAnomalias));
+            propiedades.setProperty("anomalias.alfa", String.valueOf(alfaAnomalias));
+            propiedades.setProperty("anomalias.umbralZ", String.valueOf(umbralZAnomalias));
+            propiedades.setProperty("anomalias.calentamiento", String.valueOf(calentamientoAnomalias));
+            propiedades.setProperty("anomalias.persistencia", String.valueOf(persistenciaAnomalias));
+            propiedades.setProperty("suscripcion.capacidad", String.valueOf(capacidadSuscripcion));
+            propiedades.setProperty("suscripcion.politica", politicaSuscripcion.name());
+            propiedades.setProperty("suscripcion.esperaBloqueoMs", String.valueOf(esperaBloqueoSuscripcionMs));
             
             propiedades.store(output, "Configuración del Sistema de Monitoreo");
         } catch (IOException ex) {
@@ -118,4 +283,374 @@ public class Configuracion {
     public void setEmailDestino(String emailDestino) {
         this.emailDestino = emailDestino;
     }
-}
\ No newline at end of file
+
+    public int getConcurrenciaSondeo() {
+        return concurrenciaSondeo;
+    }
+
+    public void setConcurrenciaSondeo(int concurrenciaSondeo) {
+        this.concurrenciaSondeo = concurrenciaSondeo;
+    }
+
+    public boolean isHilosVirtuales() {
+        return hilosVirtuales;
+    }
+
+    public void setHilosVirtuales(boolean hilosVirtuales) {
+        this.hilosVirtuales = hilosVirtuales;
+    }
+
+    public int getTickPlanificacionMs() {
+        return tickPlanificacionMs;
+    }
+
+    public void setTickPlanificacionMs(int tickPlanificacionMs) {
+        this.tickPlanificacionMs = tickPlanificacionMs;
+    }
+
+    public double getJitterPlanificacion() {
+        return jitterPlanificacion;
+    }
+
+    public void setJitterPlanificacion(double jitterPlanificacion) {
+        this.jitterPlanificacion = jitterPlanificacion;
+    }
+
+    public boolean isCadenciaAdaptativa() {
+        return cadenciaAdaptativa;
+    }
+
+    public void setCadenciaAdaptativa(boolean cadenciaAdaptativa) {
+        this.cadenciaAdaptativa = cadenciaAdaptativa;
+    }
+
+    public int getIntervaloMinimoAdaptativo() {
+        return intervaloMinimoAdaptativo;
+    }
+
+    public void setIntervaloMinimoAdaptativo(int intervaloMinimoAdaptativo) {
+        this.intervaloMinimoAdaptativo = intervaloMinimoAdaptativo;
+    }
+
+    public int getIntervaloMaximoAdaptativo() {
+        return intervaloMaximoAdaptativo;
+    }
+
+    public void setIntervaloMaximoAdaptativo(int intervaloMaximoAdaptativo) {
+        this.intervaloMaximoAdaptativo = intervaloMaximoAdaptativo;
+    }
+
+    public double getFactorAdaptativo() {
+        return factorAdaptativo;
+    }
+
+    public void setFactorAdaptativo(double factorAdaptativo) {
+        this.factorAdaptativo = factorAdaptativo;
+    }
+
+    public int getTtlResolucion() {
+        return ttlResolucion;
+    }
+
+    public void setTtlResolucion(int ttlResolucion) {
+        this.ttlResolucion = ttlResolucion;
+    }
+
+    public int getTtlResolucionNegativa() {
+        return ttlResolucionNegativa;
+    }
+
+    public void setTtlResolucionNegativa(int ttlResolucionNegativa) {
+        this.ttlResolucionNegativa = ttlResolucionNegativa;
+    }
+
+    public int getPresupuestoPruebas() {
+        return presupuestoPruebas;
+    }
+
+    public void setPresupuestoPruebas(int presupuestoPruebas) {
+        this.presupuestoPruebas = presupuestoPruebas;
+    }
+
+    public ControlCiclos.PoliticaSobrecarga getPoliticaSobrecarga() {
+        return politicaSobrecarga;
+    }
+
+    public void setPoliticaSobrecarga(ControlCiclos.PoliticaSobrecarga politicaSobrecarga) {
+        this.politicaSobrecarga = politicaSobrecarga;
+    }
+
+    public int getCapacidadEventos() {
+        return capacidadEventos;
+    }
+
+    public void setCapacidadEventos(int capacidadEventos) {
+        this.capacidadEventos = capacidadEventos;
+    }
+
+    public long getRetencionEventosSegundos() {
+        return retencionEventosSegundos;
+    }
+
+    public void setRetencionEventosSegundos(long retencionEventosSegundos) {
+        this.retencionEventosSegundos = retencionEventosSegundos;
+    }
+
+    public boolean isDiarioHabilitado() {
+        return diarioHabilitado;
+    }
+
+    public void setDiarioHabilitado(boolean diarioHabilitado) {
+        this.diarioHabilitado = diarioHabilitado;
+    }
+
+    public String getDirectorioDiario() {
+        return directorioDiario;
+    }
+
+    public void setDirectorioDiario(String directorioDiario) {
+        this.directorioDiario = directorioDiario;
+    }
+
+    public boolean isSeriesHabilitadas() {
+        return seriesHabilitadas;
+    }
+
+    public void setSeriesHabilitadas(boolean seriesHabilitadas) {
+        this.seriesHabilitadas = seriesHabilitadas;
+    }
+
+    public String getDirectorioSeries() {
+        return directorioSeries;
+    }
+
+    public void setDirectorioSeries(String directorioSeries) {
+        this.directorioSeries = directorioSeries;
+    }
+
+    /**
+     * Obtiene la resolución de los instantes de las series temporales
+     * @return ms; las pruebas más próximas entre sí comparten instante
+     */
+    public int getResolucionSeriesMs() {
+        return resolucionSeriesMs;
+    }
+
+    public void setResolucionSeriesMs(int resolucionSeriesMs) {
+        this.resolucionSeriesMs = resolucionSeriesMs;
+    }
+
+    /**
+     * Obtiene los bits de mantisa que las series conservan de cada latencia
+     * @return bits (52 = sin pérdida; con 8 el error relativo es como mucho 0,2 %)
+     */
+    public int getBitsMantisaSeries() {
+        return bitsMantisaSeries;
+    }
+
+    public void setBitsMantisaSeries(int bitsMantisaSeries) {
+        this.bitsMantisaSeries = bitsMantisaSeries;
+    }
+
+    public int getMuestrasPorBloqueSeries() {
+        return muestrasPorBloqueSeries;
+    }
+
+    public void setMuestrasPorBloqueSeries(int muestrasPorBloqueSeries) {
+        this.muestrasPorBloqueSeries = muestrasPorBloqueSeries;
+    }
+
+    public int getTamanoSegmentoDiarioMb() {
+        return tamanoSegmentoDiarioMb;
+    }
+
+    public void setTamanoSegmentoDiarioMb(int tamanoSegmentoDiarioMb) {
+        this.tamanoSegmentoDiarioMb = tamanoSegmentoDiarioMb;
+    }
+
+    public int getRotacionDiarioMinutos() {
+        return rotacionDiarioMinutos;
+    }
+
+    public void setRotacionDiarioMinutos(int rotacionDiarioMinutos) {
+        this.rotacionDiarioMinutos = rotacionDiarioMinutos;
+    }
+
+    public int getRetencionCrudoHoras() {
+        return retencionCrudoHoras;
+    }
+
+    public void setRetencionCrudoHoras(int retencionCrudoHoras) {
+        this.retencionCrudoHoras = retencionCrudoHoras;
+    }
+
+    public int getRetencionMinutosDias() {
+        return retencionMinutosDias;
+    }
+
+    public void setRetencionMinutosDias(int retencionMinutosDias) {
+        this.retencionMinutosDias = retencionMinutosDias;
+    }
+
+    public int getRetencionHorasDias() {
+        return retencionHorasDias;
+    }
+
+    public void setRetencionHorasDias(int retencionHorasDias) {
+        this.retencionHorasDias = retencionHorasDias;
+    }
+
+    public int getPeriodoCompactacionSegundos() {
+        return periodoCompactacionSegundos;
+    }
+
+    public void setPeriodoCompactacionSegundos(int periodoCompactacionSegundos) {
+        this.periodoCompactacionSegundos = periodoCompactacionSegundos;
+    }
+
+    public boolean isEcoSondeo() {
+        return ecoSondeo;
+    }
+
+    public void setEcoSondeo(boolean ecoSondeo) {
+        this.ecoSondeo = ecoSondeo;
+    }
+
+    public int getVentanaEstadisticas() {
+        return ventanaEstadisticas;
+    }
+
+    public void setVentanaEstadisticas(int ventanaEstadisticas) {
+        this.ventanaEstadisticas = ventanaEstadisticas;
+    }
+
+    /**
+     * Obtiene las ventanas deslizantes de disponibilidad que mantiene cada host
+     * @return duración de cada ventana (disponibilidad.ventanasMinutos, separadas por comas)
+     */
+    public Duration[] getVentanasDisponibilidad() {
+        String[] partes = ventanasDisponibilidadMinutos.split(",");
+        List<Duration> ventanas = new ArrayList<>(partes.length);
+        for (String parte : partes) {
+            if (!parte.trim().isEmpty()) {
+                ventanas.add(Duration.ofMinutes(Long.parseLong(parte.trim())));
+            }
+        }
+        return ventanas.toArray(new Duration[0]);
+    }
+
+    public void setVentanasDisponibilidad(Duration... ventanas) {
+        StringBuilder texto = new StringBuilder();
+        for (Duration ventana : ventanas) {
+            if (texto.length() > 0) {
+                texto.append(',');
+            }
+            texto.append(ventana.toMinutes());
+        }
+        this.ventanasDisponibilidadMinutos = texto.toString();
+    }
+
+    /**
+     * Obtiene la ventana de disponibilidad con la que se evalúan las alertas
+     * @return duración de la ventana, Duration.ZERO para la disponibilidad total
+     */
+    public Duration getVentanaAlertas() {
+        return Duration.ofMinutes(ventanaAlertasMinutos);
+    }
+
+    public void setVentanaAlertas(Duration ventanaAlertas) {
+        this.ventanaAlertasMinutos = (int) ventanaAlertas.toMinutes();
+    }
+
+    /**
+     * Obtiene la ventana de disponibilidad que muestran los reportes PDF
+     * @return duración de la ventana, Duration.ZERO para la disponibilidad total
+     */
+    public Duration getVentanaReportes() {
+        return Duration.ofMinutes(ventanaReportesMinutos);
+    }
+
+    public void setVentanaReportes(Duration ventanaReportes) {
+        this.ventanaReportesMinutos = (int) ventanaReportes.toMinutes();
+    }
+
+    /**
+     * Obtiene la ventana sobre la que se calculan los percentiles de latencia de cada host
+     * @return duración de la ventana, Duration.ZERO para usar todas las latencias desde el arranque
+     */
+    public Duration getVentanaLatencias() {
+        return Duration.ofMinutes(ventanaLatenciasMinutos);
+    }
+
+    public void setVentanaLatencias(Duration ventanaLatencias) {
+        this.ventanaLatenciasMinutos = (int) ventanaLatencias.toMinutes();
+    }
+
+    public boolean isDeteccionAnomalias() {
+        return deteccionAnomalias;
+    }
+
+    public void setDeteccionAnomalias(boolean deteccionAnomalias) {
+        this.deteccionAnomalias = deteccionAnomalias;
+    }
+
+    public double getAlfaAnomalias() {
+        return alfaAnomalias;
+    }
+
+    public void setAlfaAnomalias(double alfaAnomalias) {
+        this.alfaAnomalias = alfaAnomalias;
+    }
+
+    /**
+     * Obtiene la sensibilidad del detector de anomalías de latencia
+     * @return desviaciones estándar a partir de las cuales una latencia es anómala
+     */
+    public double getUmbralZAnomalias() {
+        return umbralZAnomalias;
+    }
+
+    public void setUmbralZAnomalias(double umbralZAnomalias) {
+        this.umbralZAnomalias = umbralZAnomalias;
+    }
+
+    public int getCalentamientoAnomalias() {
+        return calentamientoAnomalias;
+    }
+
+    public void setCalentamientoAnomalias(int calentamientoAnomalias) {
+        this.calentamientoAnomalias = calentamientoAnomalias;
+    }
+
+    public int getPersistenciaAnomalias() {
+        return persistenciaAnomalias;
+    }
+
+    public void setPersistenciaAnomalias(int persistenciaAnomalias) {
+        this.persistenciaAnomalias = persistenciaAnomalias;
+    }
+
+    public int getCapacidadSuscripcion() {
+        return capacidadSuscripcion;
+    }
+
+    public void setCapacidadSuscripcion(int capacidadSuscripcion) {
+        this.capacidadSuscripcion = capacidadSuscripcion;
+    }
+
+    public PublicadorEventos.PoliticaDesborde getPoliticaSuscripcion() {
+        return politicaSuscripcion;
+    }
+
+    public void setPoliticaSuscripcion(PublicadorEventos.PoliticaDesborde politicaSuscripcion) {
+        this.politicaSuscripcion = politicaSuscripcion;
+    }
+
+    public long getEsperaBloqueoSuscripcionMs() {
+        return esperaBloqueoSuscripcionMs;
+    }
+
+    public void setEsperaBloqueoSuscripcionMs(long esperaBloqueoSuscripcionMs) {
+        this.esperaBloqueoSuscripcionMs = esperaBloqueoSuscripcionMs;
+    }
+}
@@ -0,0 +1,280 @@
+package com.monitoreo;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consultas sobre el historial de sondeos guardado en el diario.
+ * Solo se leen los segmentos que se solapan con el rango pedido. En los
+ * segmentos cerrados se usa su {@link IndiceSegmento}: el índice temporal
+ * disperso localiza el inicio del rango y, si se filtra por dispositivo, se
+ * recorren únicamente las posiciones de ese dispositivo. El segmento en
+ * escritura no tiene índice y se recorre desde el inicio del rango, localizado
+ * por búsqueda binaria. Los resultados se entregan por páginas o uno a uno a
+ * un visitante, sin cargar el rango completo en memoria.
+ */
+public class ConsultaHistorial {
+    private static final int MAXIMO_INDICES_EN_MEMORIA = 1024;
+
+    private final DiarioSondeos diario;                         // Diario consultado
+    private final TreeMap<Long, SegmentoDiario> segmentos;      // Segmentos mapeados, por número (protegido por this)
+    private final Map<Long, IndiceSegmento> indices;            // Índices cargados, el menos usado se descarta primero
+    private long segmentoActualListado;                         // Segmento en escritura al listar el directorio
+    private volatile RegistroDispositivos registroDispositivos; // Para traducir claves a IDs (puede ser null)
+    private List<Dispositivos> dispositivosResueltos;           // Instantánea usada para construir idsPorClave
+    private Map<Long, String> idsPorClave;                      // Clave del diario -> ID de dispositivo
+
+    /**
+     * Constructor de la consulta
+     * @param diario Diario de sondeos a consultar
+     */
+    public ConsultaHistorial(DiarioSondeos diario) {
+        this.diario = diario;
+        this.segmentos = new TreeMap<>();
+        this.indices = new LinkedHashMap<Long, IndiceSegmento>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, IndiceSegmento> mayor) {
+                return size() > MAXIMO_INDICES_EN_MEMORIA;
+            }
+        };
+        this.segmentoActualListado = -1;
+        this.idsPorClave = new HashMap<>();
+    }
+
+    /**
+     * Obtiene una página de resultados
+     * @param filtro Criterios de la consulta
+     * @param tamanoPagina Máximo de registros de la página
+     * @return página con los registros, en orden cronológico
+     * @throws IOException si no se puede leer un segmento o su índice
+     */
+    public PaginaHistorial consultar(FiltroHistorial filtro, int tamanoPagina) throws IOException {
+        if (tamanoPagina <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser positivo");
+        }
+        List<RegistroHistorial> registros = new ArrayList<>(Math.min(tamanoPagina, 1024));
+        String idFiltro = filtro.getIdDispositivo();
+        boolean[] hayMas = new boolean[1];
+        recorrer(filtro, (instante, clave, tipo, latenciaNanos, retrasoMicros) -> {
+            if (registros.size() == tamanoPagina) {
+                hayMas[0] = true;
+                return false;
+            }
+            registros.add(new RegistroHistorial(instante, clave, idFiltro != null ? idFiltro : resolverId(clave),
+                tipo, latenciaNanos, retrasoMicros));
+            return true;
+        });
+        long siguiente = registros.isEmpty() ? filtro.getHastaEpochNanos()
+            : registros.get(registros.size() - 1).getEpochNanos() + 1;
+        return new PaginaHistorial(registros, hayMas[0], siguiente);
+    }
+
+    /**
+     * Entrega al visitante, en orden cronológico, los registros que cumplen el filtro
+     * @param filtro Criterios de la consulta
+     * @param visitante Receptor de cada registro; si devuelve false se detiene la lectura
+     * @return registros entregados al visitante
+     * @throws IOException si no se puede leer un segmento o su índice
+     */
+    public long recorrer(FiltroHistorial filtro, DiarioSondeos.VisitanteRegistro visitante) throws IOException {
+        long desde = filtro.getDesdeEpochNanos();
+        long hasta = filtro.getHastaEpochNanos();
+        if (desde >= hasta) {
+            return 0;
+        }
+        boolean porDispositivo = filtro.getIdDispositivo() != null;
+        long clave = porDispositivo ? DiarioSondeos.claveDe(filtro.getIdDispositivo()) : 0;
+        ResultadoSonda.Tipo[] tipos = ResultadoSonda.Tipo.values();
+        long entregados = 0;
+        for (Tramo tramo : planificar(desde, hasta)) {
+            SegmentoDiario segmento = tramo.segmento;
+            if (porDispositivo && tramo.indice != null) {
+                int[] posiciones = tramo.indice.posiciones(clave);
+                for (int k = primeraPosicionDesde(segmento, posiciones, desde); k < posiciones.length; k++) {
+                    int registro = posiciones[k];
+                    long instante = segmento.getInstante(registro);
+                    if (instante >= hasta) {
+                        return entregados;
+                    }
+                    ResultadoSonda.Tipo tipo = tipos[segmento.getOrdinalTipo(registro)];
+                    long latencia = segmento.getLatenciaNanos(registro);
+                    if (filtro.admite(tipo, latencia)) {
+                        entregados++;
+                        if (!visitante.visitar(instante, clave, tipo, latencia, segmento.getRetrasoMicros(registro))) {
+                            return entregados;
+                        }
+                    }
+                }
+                continue;
+            }
+            int total = tramo.indice != null ? tramo.indice.getRegistros() : segmento.contarRegistros();
+            int registro = tramo.indice != null ? tramo.indice.primerRegistroDesde(segmento, desde)
+                : segmento.primerRegistroDesde(desde, 0, total);
+            for (; registro < total; registro++) {
+                long instante = segmento.getInstante(registro);
+                if (instante >= hasta) {
+                    return entregados;
+                }
+                long claveRegistro = segmento.getClave(registro);
+                if (porDispositivo && claveRegistro != clave) {
+                    continue;
+                }
+                ResultadoSonda.Tipo tipo = tipos[segmento.getOrdinalTipo(registro)];
+                long latencia = segmento.getLatenciaNanos(registro);
+                if (filtro.admite(tipo, latencia)) {
+                    entregados++;
+                    if (!visitante.visitar(instante, claveRegistro, tipo, latencia, segmento.getRetrasoMicros(registro))) {
+                        return entregados;
+                    }
+                }
+            }
+        }
+        return entregados;
+    }
+
+    /**
+     * Cuenta los registros que cumplen el filtro
+     * @param filtro Criterios de la consulta
+     * @return número de registros
+     * @throws IOException si no se puede leer un segmento o su índice
+     */
+    public long contar(FiltroHistorial filtro) throws IOException {
+        return recorrer(filtro, (instante, clave, tipo, latenciaNanos, retrasoMicros) -> true);
+    }
+
+    /**
+     * Busca en la lista de posiciones de un dispositivo la primera con instante mayor o igual al indicado
+     */
+    private static int primeraPosicionDesde(SegmentoDiario segmento, int[] posiciones, long desde) {
+        int bajo = 0;
+        int alto = posiciones.length;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (segmento.getInstante(posiciones[medio]) < desde) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * Elige los segmentos que se solapan con el rango y obtiene el índice de los cerrados
+     */
+    private synchronized List<Tramo> planificar(long desde, long hasta) throws IOException {
+        long actual = diario.getNumeroSegmentoActual();
+        if (actual != segmentoActualListado) {
+            actualizarSegmentos();
+            segmentoActualListado = actual;
+        }
+        List<Tramo> tramos = new ArrayList<>();
+        SegmentoDiario anterior = null;
+        for (SegmentoDiario segmento : segmentos.values()) {
+            // Un segmento cubre desde su creación hasta la creación del siguiente
+            if (anterior != null && segmento.getInicioEpochNanos() > desde && anterior.getInicioEpochNanos() < hasta) {
+                tramos.add(new Tramo(anterior, obtenerIndice(anterior, actual)));
+            }
+            anterior = segmento;
+        }
+        if (anterior != null && anterior.getInicioEpochNanos() < hasta) {
+            tramos.add(new Tramo(anterior, obtenerIndice(anterior, actual)));
+        }
+        return tramos;
+    }
+
+    /**
+     * Sincroniza los segmentos mapeados con los archivos del directorio del diario
+     */
+    private void actualizarSegmentos() throws IOException {
+        long[] numeros = DiarioSondeos.listarSegmentos(diario.getDirectorio());
+        TreeMap<Long, SegmentoDiario> vigentes = new TreeMap<>();
+        for (long numero : numeros) {
+            SegmentoDiario segmento = segmentos.get(numero);
+            if (segmento == null) {
+                segmento = SegmentoDiario.abrir(diario.archivoSegmento(numero), numero);
+            }
+            if (segmento != null) {
+                vigentes.put(numero, segmento);
+            }
+        }
+        segmentos.clear();
+        segmentos.putAll(vigentes);
+        for (Iterator<Long> it = indices.keySet().iterator(); it.hasNext(); ) {
+            if (!segmentos.containsKey(it.next())) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Obtiene el índice de un segmento cerrado (null para el segmento en escritura)
+     */
+    private IndiceSegmento obtenerIndice(SegmentoDiario segmento, long segmentoActual) throws IOException {
+        if (segmento.getNumero() >= segmentoActual) {
+            return null;
+        }
+        IndiceSegmento indice = indices.get(segmento.getNumero());
+        if (indice == null) {
+            indice = IndiceSegmento.cargarOConstruir(segmento);
+            indices.put(segmento.getNumero(), indice);
+        }
+        return indice;
+    }
+
+    /**
+     * Obliga a releer el directorio del diario en la próxima consulta (por ejemplo, tras borrar segmentos)
+     */
+    public synchronized void invalidar() {
+        segmentoActualListado = -1;
+    }
+
+    /**
+     * Traduce la clave de un dispositivo a su ID usando el registro de dispositivos
+     * @param claveDispositivo Clave guardada en el diario
+     * @return ID del dispositivo, o null si no está registrado
+     */
+    public synchronized String resolverId(long claveDispositivo) {
+        RegistroDispositivos registro = registroDispositivos;
+        if (registro == null) {
+            return null;
+        }
+        List<Dispositivos> actuales = registro.instantanea();
+        if (actuales != dispositivosResueltos) {
+            Map<Long, String> ids = new HashMap<>();
+            for (Dispositivos dispositivo : actuales) {
+                ids.put(DiarioSondeos.claveDe(dispositivo.getId()), dispositivo.getId());
+            }
+            idsPorClave = ids;
+            dispositivosResueltos = actuales;
+        }
+        return idsPorClave.get(claveDispositivo);
+    }
+
+    /**
+     * Fija el registro con el que se traducen las claves del diario a IDs de dispositivo
+     * @param registroDispositivos Registro de dispositivos (null = no traducir)
+     */
+    public void setRegistroDispositivos(RegistroDispositivos registroDispositivos) {
+        this.registroDispositivos = registroDispositivos;
+    }
+
+    /**
+     * Segmento a leer y su índice (null si es el segmento en escritura)
+     */
+    private static final class Tramo {
+        final SegmentoDiario segmento;
+        final IndiceSegmento indice;
+
+        Tramo(SegmentoDiario segmento, IndiceSegmento indice) {
+            this.segmento = segmento;
+            this.indice = indice;
+        }
+    }
+}
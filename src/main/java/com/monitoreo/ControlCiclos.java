@@ -0,0 +1,189 @@
+package com.monitoreo;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Contabiliza los ciclos de monitoreo y aplica el presupuesto de pruebas.
+ * El presupuesto limita cuántas pruebas se lanzan por ciclo y cuántas pueden
+ * estar en vuelo a la vez; las que no caben se tratan según la política de
+ * sobrecarga. Al cerrar cada ciclo se decide si se excedió: duró más que su
+ * intervalo, alguna prueba empezó con más de un intervalo de retraso o hubo
+ * pruebas que no se pudieron lanzar. También mide la memoria que asigna el
+ * hilo de monitoreo durante el ciclo, para seguir el coste por prueba.
+ * Solo se usa desde el hilo de monitoreo, por lo que no es segura para hilos.
+ */
+public class ControlCiclos {
+    /**
+     * Qué hacer con una prueba que vence cuando no queda presupuesto
+     */
+    public enum PoliticaSobrecarga {
+        OMITIR,                     // Saltar la prueba hasta su siguiente ocurrencia
+        DIFERIR,                    // Lanzarla en cuanto haya presupuesto
+        DESCARTAR_BAJA_PRIORIDAD    // Saltar solo los dispositivos de prioridad baja
+    }
+
+    private final long intervaloNanos;                  // Duración prevista de un ciclo
+    private final long toleranciaNanos;                 // Retraso admitido (resolución del planificador)
+    private final int presupuesto;                      // Pruebas por ciclo y en vuelo (0 = sin límite)
+    private final PoliticaSobrecarga politica;          // Política ante falta de presupuesto
+    private final ArrayDeque<PruebaPlanificada> diferidas; // Pruebas aplazadas, en orden de vencimiento
+    private final Set<String> idsDiferidos;             // IDs con una prueba aplazada
+
+    private int enVuelo;                                // Pruebas lanzadas sin resultado
+    private long numeroCiclo;
+    private long inicioCicloNanos;
+    private int intentadas;
+    private int completadas;
+    private int omitidas;
+    private int diferidasCiclo;
+    private int descartadas;
+    private long esperaTimeoutsNanos;
+    private long retrasoMaximoNanos;
+    private long bytesInicioCiclo;                      // Bytes asignados por el hilo al empezar el ciclo (-1 = sin medición)
+
+    /**
+     * Constructor del control de ciclos
+     * @param intervaloNanos Duración prevista de un ciclo
+     * @param toleranciaNanos Retraso que no se considera exceso (por ejemplo, el tick del planificador)
+     * @param presupuesto Pruebas por ciclo y en vuelo (0 = sin límite)
+     * @param politica Política ante falta de presupuesto
+     */
+    public ControlCiclos(long intervaloNanos, long toleranciaNanos, int presupuesto, PoliticaSobrecarga politica) {
+        if (presupuesto < 0) {
+            throw new IllegalArgumentException("El presupuesto de pruebas no puede ser negativo");
+        }
+        this.intervaloNanos = intervaloNanos;
+        this.toleranciaNanos = toleranciaNanos;
+        this.presupuesto = presupuesto;
+        this.politica = politica;
+        this.diferidas = new ArrayDeque<>();
+        this.idsDiferidos = new HashSet<>();
+    }
+
+    /**
+     * Reinicia la contabilidad al arrancar el monitoreo
+     * @param ahoraNanos Instante actual (System.nanoTime())
+     */
+    public void iniciar(long ahoraNanos) {
+        diferidas.clear();
+        idsDiferidos.clear();
+        enVuelo = 0;
+        numeroCiclo = 0;
+        reiniciarCiclo(ahoraNanos);
+    }
+
+    /**
+     * Decide si una prueba vencida se lanza ahora
+     * @param prueba Prueba vencida
+     * @return true si se debe lanzar; si no, la política ya la omitió, aplazó o descartó
+     */
+    public boolean admitir(PruebaPlanificada prueba) {
+        String id = prueba.getDispositivo().getId();
+        if (idsDiferidos.contains(id)) {
+            return false;   // Ya tiene una prueba aplazada pendiente
+        }
+        if (hayPresupuesto()) {
+            registrarEnvio();
+            return true;
+        }
+        switch (politica) {
+            case DIFERIR:
+                idsDiferidos.add(id);
+                // El planificador reutiliza la prueba en el siguiente vencimiento: se guarda una copia
+                diferidas.add(new PruebaPlanificada(prueba.getDispositivo(), prueba.getInicioPlanificadoNanos()));
+                diferidasCiclo++;
+                return false;
+            case DESCARTAR_BAJA_PRIORIDAD:
+                if (prueba.getDispositivo().getPrioridad() < Dispositivos.PRIORIDAD_NORMAL) {
+                    descartadas++;
+                    return false;
+                }
+                registrarEnvio();
+                return true;
+            default:
+                omitidas++;
+                return false;
+        }
+    }
+
+    /**
+     * Extrae las pruebas aplazadas que ya caben en el presupuesto
+     * @param destino Lista donde se agregan las pruebas a lanzar
+     */
+    public void extraerDiferidas(List<PruebaPlanificada> destino) {
+        while (!diferidas.isEmpty() && hayPresupuesto()) {
+            PruebaPlanificada prueba = diferidas.poll();
+            idsDiferidos.remove(prueba.getDispositivo().getId());
+            registrarEnvio();
+            destino.add(prueba);
+        }
+    }
+
+    /**
+     * Contabiliza el resultado de una prueba lanzada
+     * @param resultado Resultado de la prueba
+     */
+    public void registrarResultado(ResultadoSondeo resultado) {
+        enVuelo = Math.max(0, enVuelo - 1);
+        completadas++;
+        if (resultado.getTipo() == ResultadoSonda.Tipo.TIMEOUT) {
+            esperaTimeoutsNanos += resultado.getLatenciaNanos();
+        }
+        retrasoMaximoNanos = Math.max(retrasoMaximoNanos, resultado.getRetrasoNanos());
+    }
+
+    /**
+     * Cierra el ciclo en curso y empieza el siguiente
+     * @param ahoraNanos Instante actual (System.nanoTime())
+     * @return resumen del ciclo cerrado
+     */
+    public ResumenCiclo cerrarCiclo(long ahoraNanos) {
+        long duracion = ahoraNanos - inicioCicloNanos;
+        boolean excedido = duracion - intervaloNanos > toleranciaNanos
+            || retrasoMaximoNanos > intervaloNanos
+            || omitidas + diferidasCiclo + descartadas > 0;
+        long bytesAsignados = bytesInicioCiclo >= 0
+            ? MedidorAsignaciones.bytesAsignadosHiloActual() - bytesInicioCiclo : -1;
+        ResumenCiclo resumen = new ResumenCiclo(++numeroCiclo, duracion, intervaloNanos, intentadas, completadas,
+            omitidas, diferidasCiclo, descartadas, enVuelo, esperaTimeoutsNanos, retrasoMaximoNanos, excedido,
+            bytesAsignados);
+        reiniciarCiclo(ahoraNanos);
+        return resumen;
+    }
+
+    private boolean hayPresupuesto() {
+        return presupuesto == 0 || (intentadas < presupuesto && enVuelo < presupuesto);
+    }
+
+    private void registrarEnvio() {
+        intentadas++;
+        enVuelo++;
+    }
+
+    private void reiniciarCiclo(long ahoraNanos) {
+        inicioCicloNanos = ahoraNanos;
+        intentadas = 0;
+        completadas = 0;
+        omitidas = 0;
+        diferidasCiclo = 0;
+        descartadas = 0;
+        esperaTimeoutsNanos = 0;
+        retrasoMaximoNanos = 0;
+        bytesInicioCiclo = MedidorAsignaciones.bytesAsignadosHiloActual();
+    }
+
+    public int getPresupuesto() {
+        return presupuesto;
+    }
+
+    public PoliticaSobrecarga getPolitica() {
+        return politica;
+    }
+
+    public int getEnVuelo() {
+        return enVuelo;
+    }
+}
@@ -0,0 +1,209 @@
+package com.monitoreo;
+
+/**
+ * Detecta cambios significativos en la latencia de un host comparando cada
+ * respuesta con lo que es normal para ese host, en lugar de con un umbral
+ * fijo. Mantiene una media y una varianza con suavizado exponencial (EWMA)
+ * sobre el logaritmo de la latencia, de modo que pasar de 2 a 20 ms pesa lo
+ * mismo que pasar de 200 a 2000 ms, y calcula el z-score de cada muestra.
+ * Una anomalía empieza cuando varias muestras seguidas se desvían en el
+ * mismo sentido más que el umbral, y termina cuando otras tantas dejan de
+ * desviarse, ya sea porque la latencia volvió o porque el nuevo nivel pasó
+ * a ser el habitual. Registrar es O(1) y no asigna memoria.
+ *
+ * Lo escribe un solo thread (el que registra los chequeos del host).
+ */
+public class DetectorAnomalias {
+    public static final double ALFA_POR_DEFECTO = 0.05;            // Peso de cada muestra nueva
+    public static final double UMBRAL_Z_POR_DEFECTO = 3.0;         // Desviaciones para considerar anómala una muestra
+    public static final int CALENTAMIENTO_POR_DEFECTO = 30;        // Muestras antes de empezar a detectar
+    public static final int PERSISTENCIA_POR_DEFECTO = 3;          // Muestras seguidas para abrir o cerrar una anomalía
+    private static final double DESVIACION_MINIMA = 0.05;          // En escala logarítmica (~5 %): evita z enormes con latencia constante
+
+    /**
+     * Cambio que produjo la última muestra
+     */
+    public enum Cambio {
+        NINGUNO,            // Sin cambio de estado
+        INICIO,             // Empezó una anomalía
+        FIN                 // Terminó la anomalía en curso
+    }
+
+    private final double alfa;                     // Factor de suavizado (0, 1]
+    private final double umbralZ;                  // |z| a partir del cual una muestra se desvía
+    private final int calentamiento;               // Muestras necesarias para confiar en la media
+    private final int persistencia;                // Muestras seguidas que confirman un cambio
+    private long muestras;                         // Muestras registradas
+    private double media;                          // Media suavizada de log(latencia)
+    private double varianza;                       // Varianza suavizada de log(latencia)
+    private double ultimoZ;                        // z-score de la última muestra
+    private int consecutivas;                      // Muestras seguidas a favor del cambio pendiente
+    private int sentidoPendiente;                  // +1 subida, -1 bajada, 0 ninguno
+    private boolean enAnomalia;                    // Hay una anomalía en curso
+    private int sentidoAnomalia;                   // +1 latencia mayor a la normal, -1 menor
+    private double mediaAlIniciar;                 // Latencia esperada (ms) al abrir la anomalía en curso
+    private long inicioAnomaliaMs;                 // Inicio de la anomalía en curso (epoch ms)
+    private Cambio ultimoCambio = Cambio.NINGUNO;  // Resultado de la última muestra
+
+    /**
+     * Constructor con los valores por defecto
+     */
+    public DetectorAnomalias() {
+        this(ALFA_POR_DEFECTO, UMBRAL_Z_POR_DEFECTO, CALENTAMIENTO_POR_DEFECTO, PERSISTENCIA_POR_DEFECTO);
+    }
+
+    /**
+     * Constructor del detector
+     * @param alfa Peso de cada muestra en la media (0 a 1; menor = memoria más larga)
+     * @param umbralZ Desviaciones estándar a partir de las cuales una muestra es anómala (sensibilidad)
+     * @param calentamiento Muestras que se registran antes de empezar a detectar
+     * @param persistencia Muestras seguidas necesarias para abrir o cerrar una anomalía
+     */
+    public DetectorAnomalias(double alfa, double umbralZ, int calentamiento, int persistencia) {
+        if (alfa <= 0.0 || alfa > 1.0) {
+            throw new IllegalArgumentException("El factor de suavizado debe estar entre 0 y 1");
+        }
+        if (umbralZ <= 0.0) {
+            throw new IllegalArgumentException("El umbral de desviación debe ser positivo");
+        }
+        if (calentamiento < 1 || persistencia < 1) {
+            throw new IllegalArgumentException("El calentamiento y la persistencia deben ser al menos 1");
+        }
+        this.alfa = alfa;
+        this.umbralZ = umbralZ;
+        this.calentamiento = calentamiento;
+        this.persistencia = persistencia;
+    }
+
+    /**
+     * Registra la latencia de una respuesta
+     * @param latenciaNanos Latencia de la respuesta
+     * @param instanteMs Instante de la respuesta (epoch ms)
+     * @return cambio que produjo la muestra
+     */
+    public Cambio registrar(long latenciaNanos, long instanteMs) {
+        double x = Math.log1p(Math.max(latenciaNanos, 0) / 1_000.0);    // log(1 + µs)
+        muestras++;
+        if (muestras == 1) {
+            media = x;
+            varianza = 0.0;
+            ultimoZ = 0.0;
+            return ultimoCambio = Cambio.NINGUNO;
+        }
+
+        double desviacion = x - media;
+        double escala = Math.max(Math.sqrt(varianza), DESVIACION_MINIMA);
+        ultimoZ = desviacion / escala;
+
+        // Actualización incremental de la media y la varianza ponderadas. Pasado el calentamiento,
+        // una muestra que supera el umbral no toca la varianza (inflarla ocultaría las siguientes)
+        // y mueve la media como mucho lo que movería una en el umbral: un cambio que se sostiene
+        // va desplazando la media hasta ser la nueva normalidad, sin que un pico aislado la arrastre
+        double incremento;
+        if (muestras > calentamiento && Math.abs(ultimoZ) >= umbralZ) {
+            incremento = alfa * Math.copySign(umbralZ * escala, desviacion);
+            media += incremento;
+        } else {
+            incremento = alfa * desviacion;
+            media += incremento;
+            varianza = (1.0 - alfa) * (varianza + desviacion * incremento);
+        }
+
+        if (muestras <= calentamiento) {
+            return ultimoCambio = Cambio.NINGUNO;
+        }
+
+        int sentido = Math.abs(ultimoZ) >= umbralZ ? (ultimoZ > 0 ? 1 : -1) : 0;
+        if (!enAnomalia) {
+            if (sentido != 0 && sentido == sentidoPendiente) {
+                consecutivas++;
+            } else {
+                sentidoPendiente = sentido;
+                consecutivas = sentido != 0 ? 1 : 0;
+            }
+            if (consecutivas >= persistencia) {
+                enAnomalia = true;
+                sentidoAnomalia = sentidoPendiente;
+                mediaAlIniciar = aMs(media - incremento);
+                inicioAnomaliaMs = instanteMs;
+                consecutivas = 0;
+                sentidoPendiente = 0;
+                return ultimoCambio = Cambio.INICIO;
+            }
+        } else {
+            // Termina cuando la latencia deja de desviarse en el sentido de la anomalía
+            consecutivas = sentido != sentidoAnomalia ? consecutivas + 1 : 0;
+            if (consecutivas >= persistencia) {
+                enAnomalia = false;
+                consecutivas = 0;
+                return ultimoCambio = Cambio.FIN;
+            }
+        }
+        return ultimoCambio = Cambio.NINGUNO;
+    }
+
+    private static double aMs(double logMicros) {
+        return Math.expm1(logMicros) / 1_000.0;
+    }
+
+    /**
+     * Obtiene el cambio que produjo la última muestra registrada
+     */
+    public Cambio getUltimoCambio() {
+        return ultimoCambio;
+    }
+
+    /**
+     * @return true si hay una anomalía en curso
+     */
+    public boolean isEnAnomalia() {
+        return enAnomalia;
+    }
+
+    /**
+     * @return +1 si la anomalía en curso (o la última) es una subida de latencia, -1 si es una bajada
+     */
+    public int getSentidoAnomalia() {
+        return sentidoAnomalia;
+    }
+
+    /**
+     * @return latencia esperada (ms) antes de que empezara la anomalía en curso o la última
+     */
+    public double getLatenciaEsperadaAlIniciar() {
+        return mediaAlIniciar;
+    }
+
+    public long getInicioAnomaliaMs() {
+        return inicioAnomaliaMs;
+    }
+
+    /**
+     * @return latencia esperada en ms según la media suavizada (media geométrica)
+     */
+    public double getLatenciaEsperada() {
+        return muestras == 0 ? 0.0 : aMs(media);
+    }
+
+    /**
+     * @return z-score de la última muestra (0 durante la primera)
+     */
+    public double getUltimoZ() {
+        return ultimoZ;
+    }
+
+    /**
+     * @return true si ya se registraron las muestras de calentamiento
+     */
+    public boolean isCalentado() {
+        return muestras > calentamiento;
+    }
+
+    public long getMuestras() {
+        return muestras;
+    }
+
+    public double getUmbralZ() {
+        return umbralZ;
+    }
+}
@@ -0,0 +1,362 @@
+package com.monitoreo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Diario binario de solo escritura al final con el resultado de cada prueba.
+ * Los registros son de tamaño fijo y se escriben en archivos de segmento
+ * mapeados en memoria, así que registrar una prueba no crea objetos ni hace
+ * una llamada al sistema. Un segmento se cierra al llenarse o al superar su
+ * antigüedad máxima y se abre el siguiente. Al reiniciar se continúa el último
+ * segmento: como el archivo se crea lleno de ceros y el instante de cada
+ * registro se escribe el último, el final de los datos es el primer registro
+ * con instante cero.
+ *
+ * Formato del segmento: cabecera de {@value #TAMANO_CABECERA} bytes (marca,
+ * versión, tamaño de registro, instante de creación) seguida de registros de
+ * {@value #TAMANO_REGISTRO} bytes: clave del dispositivo, latencia en
+ * nanosegundos, tipo de resultado, retraso en microsegundos e instante en
+ * nanosegundos desde la época.
+ * Las lecturas se hacen con {@link ConsultaHistorial} ({@link #getConsulta()}).
+ */
+public class DiarioSondeos {
+    public static final int TAMANO_REGISTRO = 32;
+    public static final int TAMANO_CABECERA = 32;
+    public static final int TAMANO_SEGMENTO_MB_POR_DEFECTO = 64;
+    public static final int ROTACION_MINUTOS_POR_DEFECTO = 60;
+    private static final int MARCA = 0x4D44534A;            // "MDSJ"
+    private static final int VERSION = 1;
+    private static final String PREFIJO = "segmento-";
+    static final String EXTENSION = ".dat";
+
+    // Desplazamientos dentro de la cabecera
+    private static final int POS_MARCA = 0;
+    private static final int POS_VERSION = 4;
+    private static final int POS_TAMANO_REGISTRO = 8;
+    static final int POS_INICIO_SEGMENTO = 16;
+
+    // Desplazamientos dentro de un registro
+    static final int POS_CLAVE = 0;
+    static final int POS_LATENCIA = 8;
+    static final int POS_TIPO = 16;
+    static final int POS_RETRASO = 20;
+    static final int POS_INSTANTE = 24;
+
+    private final File directorio;                  // Directorio de los segmentos
+    private final int tamanoSegmento;               // Bytes por segmento (cabecera incluida)
+    private final long rotacionNanos;               // Antigüedad máxima de un segmento
+    private final long origenEpochNanos;            // Época de referencia del reloj monótono
+    private final long origenMonotonoNanos;         // System.nanoTime() en la época de referencia
+    private final ConsultaHistorial consulta;       // Consultas sobre los segmentos
+
+    private RandomAccessFile archivoActual;         // Segmento en escritura
+    private MappedByteBuffer bufferActual;          // Mapeo del segmento en escritura
+    private long numeroActual;                      // Número del segmento en escritura
+    private long inicioActualEpochNanos;            // Creación del segmento en escritura
+    private int posicion;                           // Próximo byte libre del segmento
+    private long ultimoInstante;                    // Instante del último registro (los instantes no retroceden)
+    private long registrosEscritos;                 // Registros escritos desde que se abrió el diario
+    private boolean cerrado;                        // true tras cerrar(): no se admiten registros
+
+    /**
+     * Recibe los registros al leer el diario
+     */
+    public interface VisitanteRegistro {
+        /**
+         * @return true para seguir leyendo, false para detenerse
+         */
+        boolean visitar(long epochNanos, long claveDispositivo, ResultadoSonda.Tipo tipo,
+                        long latenciaNanos, int retrasoMicros);
+    }
+
+    /**
+     * Abre el diario, continuando el último segmento si existe
+     * @param directorio Directorio de los segmentos (se crea si no existe)
+     * @param tamanoSegmentoMb Tamaño de cada segmento en megabytes
+     * @param rotacionMinutos Antigüedad máxima de un segmento en minutos
+     * @throws IOException si no se puede crear o abrir el segmento
+     */
+    public DiarioSondeos(File directorio, int tamanoSegmentoMb, int rotacionMinutos) throws IOException {
+        if (tamanoSegmentoMb <= 0 || tamanoSegmentoMb > 1024 || rotacionMinutos <= 0) {
+            throw new IllegalArgumentException("Tamaño o rotación de segmento inválidos");
+        }
+        if (!directorio.isDirectory() && !directorio.mkdirs()) {
+            throw new IOException("No se pudo crear el directorio del diario: " + directorio);
+        }
+        this.directorio = directorio;
+        int registros = (tamanoSegmentoMb * 1024 * 1024 - TAMANO_CABECERA) / TAMANO_REGISTRO;
+        this.tamanoSegmento = TAMANO_CABECERA + registros * TAMANO_REGISTRO;
+        this.rotacionNanos = rotacionMinutos * 60_000_000_000L;
+        this.origenEpochNanos = System.currentTimeMillis() * 1_000_000L;
+        this.origenMonotonoNanos = System.nanoTime();
+        this.consulta = new ConsultaHistorial(this);
+
+        long[] numeros = listarSegmentos(directorio);
+        if (numeros.length > 0) {
+            recuperar(numeros[numeros.length - 1]);
+        } else {
+            abrirSegmento(1);
+        }
+    }
+
+    /**
+     * Calcula la clave con la que se guarda un dispositivo (hash FNV-1a de 64 bits del ID).
+     * Es estable entre reinicios, a diferencia del índice del registro de dispositivos.
+     * @param id ID del dispositivo
+     * @return clave del dispositivo
+     */
+    public static long claveDe(String id) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            hash ^= id.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Agrega el resultado de una prueba al diario
+     * @param claveDispositivo Clave del dispositivo (ver {@link #claveDe(String)})
+     * @param tipo Desenlace de la prueba
+     * @param latenciaNanos Latencia de la prueba
+     * @param retrasoNanos Retraso de la prueba respecto a su planificación
+     * @throws IOException si no se puede abrir un segmento nuevo
+     */
+    public synchronized void registrar(long claveDispositivo, ResultadoSonda.Tipo tipo,
+                                       long latenciaNanos, long retrasoNanos) throws IOException {
+        if (cerrado) {
+            throw new IOException("El diario de sondeos está cerrado");
+        }
+        // Los instantes no retroceden aunque cambie el reloj entre reinicios (las lecturas buscan por instante)
+        long ahora = Math.max(ahoraEpochNanos(), ultimoInstante + 1);
+        if (posicion + TAMANO_REGISTRO > tamanoSegmento || ahora - inicioActualEpochNanos >= rotacionNanos) {
+            rotar();
+        }
+        bufferActual.putLong(posicion + POS_CLAVE, claveDispositivo);
+        bufferActual.putLong(posicion + POS_LATENCIA, latenciaNanos);
+        bufferActual.putInt(posicion + POS_TIPO, tipo.ordinal());
+        bufferActual.putInt(posicion + POS_RETRASO, (int) Math.min(Integer.MAX_VALUE, retrasoNanos / 1_000L));
+        // El instante va al final: un registro sin instante se considera no escrito
+        bufferActual.putLong(posicion + POS_INSTANTE, ahora);
+        ultimoInstante = ahora;
+        posicion += TAMANO_REGISTRO;
+        registrosEscritos++;
+    }
+
+    /**
+     * Lee los registros de un rango de tiempo, en orden cronológico
+     * @param desdeEpochNanos Inicio del rango (incluido)
+     * @param hastaEpochNanos Fin del rango (excluido)
+     * @param visitante Receptor de cada registro
+     * @throws IOException si no se puede leer un segmento
+     */
+    public void leer(long desdeEpochNanos, long hastaEpochNanos, VisitanteRegistro visitante) throws IOException {
+        FiltroHistorial filtro = new FiltroHistorial();
+        filtro.setDesdeEpochNanos(desdeEpochNanos);
+        filtro.setHastaEpochNanos(hastaEpochNanos);
+        consulta.recorrer(filtro, visitante);
+    }
+
+    /**
+     * Lee los registros de un dispositivo en un rango de tiempo, en orden cronológico
+     * @param id ID del dispositivo
+     * @param desdeEpochNanos Inicio del rango (incluido)
+     * @param hastaEpochNanos Fin del rango (excluido)
+     * @param visitante Receptor de cada registro
+     * @throws IOException si no se puede leer un segmento
+     */
+    public void leerDispositivo(String id, long desdeEpochNanos, long hastaEpochNanos,
+                                VisitanteRegistro visitante) throws IOException {
+        FiltroHistorial filtro = new FiltroHistorial();
+        filtro.setDesdeEpochNanos(desdeEpochNanos);
+        filtro.setHastaEpochNanos(hastaEpochNanos);
+        filtro.setIdDispositivo(id);
+        consulta.recorrer(filtro, visitante);
+    }
+
+    /**
+     * Obtiene el motor de consultas indexadas sobre este diario
+     * @return consultas del diario
+     */
+    public ConsultaHistorial getConsulta() {
+        return consulta;
+    }
+
+    /**
+     * Comprueba la marca y el tamaño de registro de la cabecera de un segmento
+     * @param buffer Contenido del segmento
+     * @return true si es un segmento de este formato
+     */
+    static boolean esCabeceraValida(ByteBuffer buffer) {
+        return buffer.getInt(POS_MARCA) == MARCA && buffer.getInt(POS_TAMANO_REGISTRO) == TAMANO_REGISTRO;
+    }
+
+    /**
+     * Continúa el último segmento tras un reinicio, o abre uno nuevo si está lleno o vencido
+     */
+    private void recuperar(long numero) throws IOException {
+        File archivo = archivoSegmento(numero);
+        RandomAccessFile acceso = new RandomAccessFile(archivo, "rw");
+        if (acceso.length() != tamanoSegmento) {
+            // Segmento de otra configuración o dañado: empezar uno nuevo
+            acceso.close();
+            abrirSegmento(numero + 1);
+            return;
+        }
+        MappedByteBuffer buffer = acceso.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, tamanoSegmento);
+        if (!esCabeceraValida(buffer)) {
+            acceso.close();
+            abrirSegmento(numero + 1);
+            return;
+        }
+        archivoActual = acceso;
+        bufferActual = buffer;
+        numeroActual = numero;
+        inicioActualEpochNanos = buffer.getLong(POS_INICIO_SEGMENTO);
+        int registros = SegmentoDiario.contarRegistros(buffer);
+        posicion = TAMANO_CABECERA + registros * TAMANO_REGISTRO;
+        ultimoInstante = registros > 0 ? buffer.getLong(posicion - TAMANO_REGISTRO + POS_INSTANTE) : inicioActualEpochNanos;
+    }
+
+    private void rotar() throws IOException {
+        cerrarActual();
+        abrirSegmento(numeroActual + 1);
+    }
+
+    private void abrirSegmento(long numero) throws IOException {
+        RandomAccessFile acceso = new RandomAccessFile(archivoSegmento(numero), "rw");
+        acceso.setLength(tamanoSegmento);
+        MappedByteBuffer buffer = acceso.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, tamanoSegmento);
+        long inicio = Math.max(ahoraEpochNanos(), ultimoInstante);
+        buffer.putInt(POS_MARCA, MARCA);
+        buffer.putInt(POS_VERSION, VERSION);
+        buffer.putInt(POS_TAMANO_REGISTRO, TAMANO_REGISTRO);
+        buffer.putLong(POS_INICIO_SEGMENTO, inicio);
+        archivoActual = acceso;
+        bufferActual = buffer;
+        numeroActual = numero;
+        inicioActualEpochNanos = inicio;
+        posicion = TAMANO_CABECERA;
+    }
+
+    private void cerrarActual() throws IOException {
+        if (bufferActual != null) {
+            bufferActual.force();
+            bufferActual = null;
+        }
+        if (archivoActual != null) {
+            archivoActual.close();
+            archivoActual = null;
+        }
+    }
+
+    /**
+     * Borra los segmentos cerrados cuyos registros son todos anteriores al
+     * límite, junto con sus índices
+     * @param limiteEpochNanos Se borran los segmentos que terminan antes de este instante
+     * @return número de segmentos borrados
+     * @throws IOException si no se puede leer la cabecera de un segmento
+     */
+    public int purgarHasta(long limiteEpochNanos) throws IOException {
+        long actual = getNumeroSegmentoActual();
+        long[] numeros = listarSegmentos(directorio);
+        int borrados = 0;
+        for (int i = 0; i + 1 < numeros.length && numeros[i] < actual; i++) {
+            // Un segmento termina cuando empieza el siguiente
+            long finSegmento = leerInicioSegmento(archivoSegmento(numeros[i + 1]));
+            if (finSegmento > limiteEpochNanos) {
+                break;
+            }
+            File segmento = archivoSegmento(numeros[i]);
+            if (segmento.delete()) {
+                borrados++;
+                IndiceSegmento.archivoIndice(segmento).delete();
+            }
+        }
+        if (borrados > 0) {
+            consulta.invalidar();
+        }
+        return borrados;
+    }
+
+    private static long leerInicioSegmento(File archivo) throws IOException {
+        try (RandomAccessFile lectura = new RandomAccessFile(archivo, "r")) {
+            if (lectura.length() < TAMANO_CABECERA) {
+                return Long.MAX_VALUE;
+            }
+            lectura.seek(POS_INICIO_SEGMENTO);
+            return lectura.readLong();
+        }
+    }
+
+    /**
+     * Fuerza la escritura a disco del segmento en curso
+     */
+    public synchronized void sincronizar() {
+        if (bufferActual != null && !cerrado) {
+            bufferActual.force();
+        }
+    }
+
+    /**
+     * Sincroniza y cierra el segmento en curso; el diario no admite más registros
+     * @throws IOException si falla el cierre del archivo
+     */
+    public synchronized void cerrar() throws IOException {
+        cerrado = true;
+        cerrarActual();
+    }
+
+    /**
+     * Obtiene el instante actual en nanosegundos desde la época, derivado del reloj monótono
+     * @return nanosegundos desde la época
+     */
+    public long ahoraEpochNanos() {
+        return origenEpochNanos + (System.nanoTime() - origenMonotonoNanos);
+    }
+
+    public synchronized long getRegistrosEscritos() {
+        return registrosEscritos;
+    }
+
+    public synchronized long getNumeroSegmentoActual() {
+        return numeroActual;
+    }
+
+    public File getDirectorio() {
+        return directorio;
+    }
+
+    File archivoSegmento(long numero) {
+        return new File(directorio, String.format("%s%020d%s", PREFIJO, numero, EXTENSION));
+    }
+
+    /**
+     * Lista los números de segmento existentes, en orden
+     */
+    static long[] listarSegmentos(File directorio) {
+        String[] nombres = directorio.list((dir, nombre) -> nombre.startsWith(PREFIJO) && nombre.endsWith(EXTENSION));
+        if (nombres == null) {
+            return new long[0];
+        }
+        long[] numeros = new long[nombres.length];
+        int cantidad = 0;
+        for (String nombre : nombres) {
+            try {
+                numeros[cantidad] = Long.parseLong(nombre.substring(PREFIJO.length(), nombre.length() - EXTENSION.length()));
+                cantidad++;
+            } catch (NumberFormatException e) {
+                // Ignorar archivos ajenos al diario
+            }
+        }
+        numeros = Arrays.copyOf(numeros, cantidad);
+        Arrays.sort(numeros);
+        return numeros;
+    }
+}
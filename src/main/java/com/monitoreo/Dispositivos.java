@@ -1,15 +1,25 @@
 package com.monitoreo;
 
-import java.io.IOException;
-import java.net.UnknownHostException;
-
 /**
  * Clase que representa un dispositivo a monitorear en el sistema
  */
 public class Dispositivos {
+    public static final int TIMEOUT_MS = 2000;   // Plazo máximo de cada verificación
+    public static final int PRIORIDAD_BAJA = 0;     // Se descarta primero cuando el monitor se sobrecarga
+    public static final int PRIORIDAD_NORMAL = 1;
+    public static final int PRIORIDAD_ALTA = 2;
+
     private final String id;              // Identificador único del dispositivo
     private final String direccionIP;     // Dirección IP del dispositivo
-    private String estado;          // Estado actual del dispositivo
+    private final long claveDiario;       // Clave del dispositivo en el diario de sondeos
+    private volatile String estado; // Estado actual del dispositivo (lo escriben los hilos de sondeo)
+    private volatile String nombreSonda;  // Sonda con la que se verifica (ver RegistroSondas)
+    private volatile int puerto;          // Puerto usado por las sondas TCP/UDP (0 = sin puerto)
+    private volatile String sondaEfectiva; // Sonda elegida por la selección automática
+    private volatile int intervaloSegundos; // Intervalo propio entre pruebas (0 = intervalo global)
+    private volatile long desfaseMs;      // Desfase inicial dentro del intervalo (-1 = automático)
+    private volatile int prioridad;       // Prioridad ante sobrecarga del monitor
+    private volatile int indice;          // Índice asignado por RegistroDispositivos (-1 = sin registrar)
 
     /**
      * Constructor de la clase Dispositivos
@@ -19,7 +29,14 @@ public class Dispositivos {
     public Dispositivos(String id, String direccionIP) {
         this.id = id;
         this.direccionIP = direccionIP;
+        this.claveDiario = DiarioSondeos.claveDe(id);
         this.estado = "DESCONOCIDO";
+        this.nombreSonda = SondaIcmp.NOMBRE;
+        this.puerto = 0;
+        this.intervaloSegundos = 0;
+        this.desfaseMs = -1;
+        this.prioridad = PRIORIDAD_NORMAL;
+        this.indice = -1;
     }
 
     /**
@@ -27,18 +44,118 @@ public class Dispositivos {
      * @return true si el dispositivo está activo, false en caso contrario
      */
     public boolean verificarEstado() {
-        try {
-            java.net.InetAddress address = java.net.InetAddress.getByName(direccionIP);
-            boolean alcanzable = address.isReachable(2000);
-            this.estado = alcanzable ? "ACTIVO" : "INACTIVO";
-            return alcanzable;
-        } catch (UnknownHostException e) {
-            this.estado = "ERROR: Host desconocido";
-            return false;
-        } catch (IOException e) {
-            this.estado = "ERROR: Problema de conexión";
-            return false;
+        return sondear().isExito();
+    }
+
+    /**
+     * Prueba el dispositivo con su sonda y actualiza el estado
+     * @return resultado de la sonda, con la latencia medida por ella
+     */
+    public ResultadoSonda sondear() {
+        EstrategiaSondeo sonda = RegistroSondas.compartido().resolver(this);
+        ResultadoSonda resultado = sonda.sondear(this, TIMEOUT_MS);
+        registrarResultado(resultado);
+        return resultado;
+    }
+
+    /**
+     * Actualiza el estado a partir del resultado de una prueba
+     * @param resultado Resultado de la sonda
+     * @return true si la prueba tuvo éxito
+     */
+    public boolean registrarResultado(ResultadoSonda resultado) {
+        switch (resultado.getTipo()) {
+            case EXITO:
+                this.estado = "ACTIVO";
+                break;
+            case RECHAZADO:
+                this.estado = puerto > 0 ? "INACTIVO: Puerto " + puerto + " cerrado" : "INACTIVO";
+                break;
+            case TIMEOUT:
+                this.estado = "INACTIVO";
+                break;
+            case INALCANZABLE:
+                this.estado = "INACTIVO: Sin ruta al host";
+                break;
+            case HOST_DESCONOCIDO:
+                this.estado = "ERROR: Host desconocido";
+                break;
+            default:
+                this.estado = "ERROR: Problema de conexión";
+                break;
+        }
+        return resultado.isExito();
+    }
+
+    /**
+     * Elige la sonda con la que se verifica el dispositivo
+     * @param nombre Nombre de la sonda ("icmp", "tcp", "udp", "auto" o una sonda propia)
+     * @param puerto Puerto para las sondas TCP/UDP (0 = sin puerto)
+     */
+    public void configurarSonda(String nombre, int puerto) {
+        if (puerto < 0 || puerto > 65535) {
+            throw new IllegalArgumentException("Puerto inválido: " + puerto);
+        }
+        EstrategiaSondeo sonda = RegistroSondas.compartido().obtener(nombre);
+        if (sonda == null) {
+            throw new IllegalArgumentException("Sonda desconocida: " + nombre);
+        }
+        int puertoAnterior = this.puerto;
+        this.puerto = puerto;
+        if (!sonda.esAplicable(this)) {
+            this.puerto = puertoAnterior;
+            throw new IllegalArgumentException("La sonda " + nombre + " no es aplicable al dispositivo " + id);
         }
+        this.nombreSonda = nombre;
+        this.sondaEfectiva = null;
+    }
+
+    /**
+     * Configura el dispositivo para verificarse mediante conexión TCP a un puerto
+     * @param puerto Puerto TCP a probar
+     */
+    public void configurarSondeoTcp(int puerto) {
+        if (puerto <= 0 || puerto > 65535) {
+            throw new IllegalArgumentException("Puerto TCP inválido: " + puerto);
+        }
+        configurarSonda(SondaTcp.NOMBRE, puerto);
+    }
+
+    /**
+     * Vuelve al modo de verificación por ICMP
+     */
+    public void configurarSondeoIcmp() {
+        configurarSonda(SondaIcmp.NOMBRE, puerto);
+    }
+
+    /**
+     * Configura la cadencia propia del dispositivo
+     * @param intervaloSegundos Intervalo entre pruebas en segundos (0 = usar el intervalo global)
+     */
+    public void setIntervaloSegundos(int intervaloSegundos) {
+        if (intervaloSegundos < 0) {
+            throw new IllegalArgumentException("El intervalo no puede ser negativo");
+        }
+        this.intervaloSegundos = intervaloSegundos;
+    }
+
+    /**
+     * Fija el desfase de la primera prueba dentro del intervalo
+     * @param desfaseMs Desfase en milisegundos (-1 = repartir automáticamente)
+     */
+    public void setDesfaseMs(long desfaseMs) {
+        this.desfaseMs = desfaseMs;
+    }
+
+    /**
+     * Fija la prioridad del dispositivo cuando el monitor no llega a probar todos a tiempo
+     * @param prioridad PRIORIDAD_BAJA, PRIORIDAD_NORMAL o PRIORIDAD_ALTA
+     */
+    public void setPrioridad(int prioridad) {
+        if (prioridad < PRIORIDAD_BAJA || prioridad > PRIORIDAD_ALTA) {
+            throw new IllegalArgumentException("Prioridad inválida: " + prioridad);
+        }
+        this.prioridad = prioridad;
     }
 
     // Getters y setters
@@ -53,4 +170,74 @@ public class Dispositivos {
     public String getEstado() {
         return estado;
     }
-}
\ No newline at end of file
+
+    public String getNombreSonda() {
+        return nombreSonda;
+    }
+
+    public int getPuerto() {
+        return puerto;
+    }
+
+    /**
+     * Obtiene la sonda que se está usando realmente (distinta de la configurada
+     * solo en la selección automática)
+     * @return nombre de la sonda efectiva
+     */
+    public String getSondaEfectiva() {
+        String efectiva = sondaEfectiva;
+        return efectiva != null ? efectiva : nombreSonda;
+    }
+
+    void setSondaEfectiva(String sondaEfectiva) {
+        this.sondaEfectiva = sondaEfectiva;
+    }
+
+    public int getIntervaloSegundos() {
+        return intervaloSegundos;
+    }
+
+    public long getDesfaseMs() {
+        return desfaseMs;
+    }
+
+    public int getPrioridad() {
+        return prioridad;
+    }
+
+    /**
+     * Obtiene la clave con la que el dispositivo se guarda en el diario de sondeos,
+     * calculada una sola vez (ver {@link DiarioSondeos#claveDe(String)})
+     * @return clave del dispositivo
+     */
+    public long getClaveDiario() {
+        return claveDiario;
+    }
+
+    public int getIndice() {
+        return indice;
+    }
+
+    void setIndice(int indice) {
+        this.indice = indice;
+    }
+
+    /**
+     * Dos dispositivos son iguales si tienen el mismo ID
+     */
+    @Override
+    public boolean equals(Object otro) {
+        if (this == otro) {
+            return true;
+        }
+        if (!(otro instanceof Dispositivos)) {
+            return false;
+        }
+        return id.equals(((Dispositivos) otro).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
+}
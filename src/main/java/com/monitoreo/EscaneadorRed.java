@@ -149,7 +149,7 @@ public class EscaneadorRed {
             executor.submit(() -> {
                 try {
                     String direccionIP = redBase + "." + ip;
-                    InetAddress address = InetAddress.getByName(direccionIP);
+                    InetAddress address = CacheResolucion.compartida().resolver(direccionIP);
                     if (address.isReachable(timeout)) {
                         synchronized (dispositivosEncontrados) {
                             dispositivosEncontrados.add(direccionIP);
@@ -191,7 +191,7 @@ public class EscaneadorRed {
                 try {
                     String direccionIP = redBase + "." + ip;
                     long inicio = System.currentTimeMillis();
-                    InetAddress address = InetAddress.getByName(direccionIP);
+                    InetAddress address = CacheResolucion.compartida().resolver(direccionIP);
                     
                     boolean encontrado = false;
                     
@@ -17,7 +17,7 @@ public class EscaneoPuertos {
         for (int puerto : puertosPrueba) {
             try {
                 java.net.Socket socket = new java.net.Socket();
-                socket.connect(new java.net.InetSocketAddress(ip, puerto), 200);
+                socket.connect(new java.net.InetSocketAddress(CacheResolucion.compartida().resolver(ip), puerto), 200);
                 socket.close();
                 return true; // Si al menos un puerto responde, el dispositivo existe
             } catch (Exception e) {
@@ -49,7 +49,8 @@ public class EscaneoPuertos {
         for (int puerto : puertosComunes) {
             try {
                 java.net.Socket socket = new java.net.Socket();
-                socket.connect(new java.net.InetSocketAddress(dispositivo.getIp(), puerto), 300);
+                socket.connect(new java.net.InetSocketAddress(
+                    CacheResolucion.compartida().resolver(dispositivo.getIp()), puerto), 300);
                 socket.close();
                 dispositivo.agregarPuertoAbierto(puerto);
             } catch (Exception e) {
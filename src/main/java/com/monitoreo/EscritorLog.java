@@ -0,0 +1,241 @@
+package com.monitoreo;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Escritor asíncrono del archivo de log.
+ * Quien registra un mensaje solo lo encola (cola sin bloqueos) y sigue; un
+ * único hilo escritor mantiene el archivo abierto, escribe los mensajes por
+ * lotes y vacía el buffer cuando se acumula un lote o pasa el tiempo máximo
+ * de espera. Cuando el archivo supera su tamaño máximo se rota
+ * (monitoreo.log pasa a monitoreo.log.1, etc.). Al cerrar, o al terminar la
+ * JVM, se escriben todos los mensajes pendientes.
+ */
+public class EscritorLog {
+    public static final String ARCHIVO_POR_DEFECTO = "monitoreo.log";
+    public static final int TAMANO_LOTE = 256;                     // Mensajes que fuerzan un vaciado
+    public static final long ESPERA_MAXIMA_MS = 200;               // Tiempo máximo antes de vaciar
+    public static final long TAMANO_MAXIMO_BYTES = 10L * 1024 * 1024; // Tamaño que provoca la rotación
+    public static final int ARCHIVOS_ROTADOS = 5;                  // Archivos antiguos que se conservan
+    private static final int MAXIMO_PENDIENTES = 100_000;          // Límite de la cola si el disco se atrasa
+    private static final DateTimeFormatter FORMATO = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final File archivo;                         // Archivo de log activo
+    private final long tamanoMaximo;                    // Bytes a partir de los cuales se rota
+    private final int archivosRotados;                  // Archivos rotados a conservar
+    private final Queue<Linea> pendientes;              // Mensajes encolados por los productores
+    private final AtomicInteger cantidadPendientes;     // Tamaño de la cola (size() es O(n))
+    private final AtomicLong descartados;               // Mensajes perdidos por cola llena
+    private final Thread hiloEscritor;                  // Único hilo que toca el archivo
+    private volatile boolean activo;                    // false al cerrar
+
+    private BufferedWriter salida;                      // Solo la usa el hilo escritor
+    private long tamanoActual;                          // Tamaño aproximado del archivo activo
+
+    /**
+     * Inicialización perezosa de la instancia compartida
+     */
+    private static final class Compartido {
+        private static final EscritorLog INSTANCIA =
+            new EscritorLog(new File(ARCHIVO_POR_DEFECTO), TAMANO_MAXIMO_BYTES, ARCHIVOS_ROTADOS);
+    }
+
+    /**
+     * Constructor del escritor. Arranca el hilo escritor y registra un hook
+     * que vacía los mensajes pendientes al terminar la JVM.
+     * @param archivo Archivo de log
+     * @param tamanoMaximo Tamaño en bytes a partir del cual se rota el archivo
+     * @param archivosRotados Número de archivos rotados que se conservan
+     */
+    public EscritorLog(File archivo, long tamanoMaximo, int archivosRotados) {
+        if (tamanoMaximo <= 0 || archivosRotados < 0) {
+            throw new IllegalArgumentException("Parámetros de rotación del log inválidos");
+        }
+        this.archivo = archivo;
+        this.tamanoMaximo = tamanoMaximo;
+        this.archivosRotados = archivosRotados;
+        this.pendientes = new ConcurrentLinkedQueue<>();
+        this.cantidadPendientes = new AtomicInteger();
+        this.descartados = new AtomicLong();
+        this.activo = true;
+        this.hiloEscritor = new Thread(this::buclePrincipal, "escritor-log");
+        this.hiloEscritor.setDaemon(true);
+        this.hiloEscritor.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::cerrar, "escritor-log-cierre"));
+    }
+
+    /**
+     * Obtiene el escritor compartido del archivo de log del monitoreo
+     * @return instancia compartida
+     */
+    public static EscritorLog compartido() {
+        return Compartido.INSTANCIA;
+    }
+
+    /**
+     * Encola un mensaje; nunca bloquea ni hace E/S en el hilo que llama
+     * @param mensaje Mensaje a registrar (se le antepone la fecha y hora actual)
+     */
+    public void registrar(String mensaje) {
+        if (!activo || cantidadPendientes.incrementAndGet() > MAXIMO_PENDIENTES) {
+            if (activo) {
+                cantidadPendientes.decrementAndGet();
+            }
+            descartados.incrementAndGet();
+            return;
+        }
+        pendientes.add(new Linea(System.currentTimeMillis(), mensaje));
+        if (cantidadPendientes.get() >= TAMANO_LOTE) {
+            LockSupport.unpark(hiloEscritor);
+        }
+    }
+
+    /**
+     * Bucle del hilo escritor: espera un lote o el tiempo máximo y escribe lo pendiente
+     */
+    private void buclePrincipal() {
+        while (activo) {
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(ESPERA_MAXIMA_MS));
+            escribirPendientes();
+        }
+        escribirPendientes();
+        cerrarSalida();
+    }
+
+    /**
+     * Escribe todos los mensajes encolados y vacía el buffer una sola vez
+     */
+    private void escribirPendientes() {
+        Linea linea = pendientes.poll();
+        if (linea == null) {
+            return;
+        }
+        try {
+            abrirSiHaceFalta();
+            while (linea != null) {
+                cantidadPendientes.decrementAndGet();
+                String texto = LocalDateTime.ofInstant(Instant.ofEpochMilli(linea.instanteMs), ZoneId.systemDefault())
+                    .format(FORMATO) + " - " + linea.mensaje;
+                salida.write(texto);
+                salida.newLine();
+                tamanoActual += texto.length() + 1;
+                if (tamanoActual >= tamanoMaximo) {
+                    rotar();
+                }
+                linea = pendientes.poll();
+            }
+            salida.flush();
+        } catch (IOException e) {
+            System.err.println("Error al escribir en el archivo de log: " + e.getMessage());
+            cerrarSalida();
+        }
+    }
+
+    private void abrirSiHaceFalta() throws IOException {
+        if (salida == null) {
+            tamanoActual = archivo.length();
+            salida = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(archivo, true), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Renombra los archivos (log -> log.1 -> log.2 ...) y abre uno nuevo
+     */
+    private void rotar() throws IOException {
+        cerrarSalida();
+        if (archivosRotados == 0) {
+            if (!archivo.delete()) {
+                throw new IOException("No se pudo rotar el archivo de log " + archivo);
+            }
+        } else {
+            File masAntiguo = rotado(archivosRotados);
+            if (masAntiguo.exists() && !masAntiguo.delete()) {
+                throw new IOException("No se pudo borrar el log rotado " + masAntiguo);
+            }
+            for (int i = archivosRotados - 1; i >= 1; i--) {
+                File origen = rotado(i);
+                if (origen.exists() && !origen.renameTo(rotado(i + 1))) {
+                    throw new IOException("No se pudo rotar el log " + origen);
+                }
+            }
+            if (!archivo.renameTo(rotado(1))) {
+                throw new IOException("No se pudo rotar el archivo de log " + archivo);
+            }
+        }
+        abrirSiHaceFalta();
+    }
+
+    private File rotado(int numero) {
+        return new File(archivo.getPath() + "." + numero);
+    }
+
+    private void cerrarSalida() {
+        if (salida != null) {
+            try {
+                salida.close();
+            } catch (IOException e) {
+                // Ignorar errores al cerrar
+            }
+            salida = null;
+        }
+    }
+
+    /**
+     * Pide al hilo escritor que escriba ya lo pendiente, sin esperar al lote ni al tiempo máximo
+     */
+    public void vaciar() {
+        LockSupport.unpark(hiloEscritor);
+    }
+
+    /**
+     * Deja de aceptar mensajes y espera a que el hilo escritor vacíe los pendientes
+     */
+    public void cerrar() {
+        activo = false;
+        LockSupport.unpark(hiloEscritor);
+        if (Thread.currentThread() != hiloEscritor) {
+            try {
+                hiloEscritor.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public int getPendientes() {
+        return cantidadPendientes.get();
+    }
+
+    public long getDescartados() {
+        return descartados.get();
+    }
+
+    /**
+     * Mensaje encolado con el instante en que se registró
+     */
+    private static final class Linea {
+        final long instanteMs;
+        final String mensaje;
+
+        Linea(long instanteMs, String mensaje) {
+            this.instanteMs = instanteMs;
+            this.mensaje = mensaje;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.monitoreo;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estadísticas acumuladas de un tipo de sonda: conteo de resultados por tipo
+ * de desenlace y distribución de latencias de las pruebas exitosas en un
+ * {@link HistogramaLatencias} (microsegundos), con la misma precisión que
+ * las estadísticas por host. Los conteos se actualizan sin bloqueos desde los
+ * hilos de sondeo; el histograma no es seguro entre hilos, así que se usa
+ * bajo su propio monitor (registrar es una cuenta de índice y un incremento).
+ */
+public class EstadisticasSonda {
+    private final String nombre;                    // Nombre de la sonda
+    private final LongAdder[] conteos;              // Resultados por ResultadoSonda.Tipo
+    private final HistogramaLatencias latencias;    // Latencias exitosas (protegido por su monitor)
+
+    /**
+     * Constructor de las estadísticas de una sonda
+     * @param nombre Nombre de la sonda
+     */
+    public EstadisticasSonda(String nombre) {
+        this.nombre = nombre;
+        this.conteos = new LongAdder[ResultadoSonda.Tipo.values().length];
+        for (int i = 0; i < conteos.length; i++) {
+            conteos[i] = new LongAdder();
+        }
+        this.latencias = new HistogramaLatencias();
+    }
+
+    /**
+     * Registra el resultado de una prueba
+     * @param resultado Resultado de la prueba
+     */
+    public void registrar(ResultadoSonda resultado) {
+        conteos[resultado.getTipo().ordinal()].increment();
+        if (resultado.isExito()) {
+            long micros = resultado.getLatenciaNanos() / 1_000L;
+            synchronized (latencias) {
+                latencias.registrar(micros);
+            }
+        }
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Obtiene el número de pruebas con el desenlace indicado
+     * @param tipo Desenlace
+     * @return número de pruebas
+     */
+    public long getConteo(ResultadoSonda.Tipo tipo) {
+        return conteos[tipo.ordinal()].sum();
+    }
+
+    public long getTotal() {
+        long total = 0;
+        for (LongAdder conteo : conteos) {
+            total += conteo.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Calcula el porcentaje de pruebas exitosas
+     * @return porcentaje de éxito (0 a 100)
+     */
+    public double getTasaExito() {
+        long total = getTotal();
+        return total > 0 ? 100.0 * getConteo(ResultadoSonda.Tipo.EXITO) / total : 0.0;
+    }
+
+    /**
+     * Calcula la latencia media de las pruebas exitosas
+     * @return latencia media en milisegundos
+     */
+    public double getLatenciaPromedioMs() {
+        synchronized (latencias) {
+            return latencias.getPromedio() / 1000.0;
+        }
+    }
+
+    /**
+     * Estima un percentil de latencia de las pruebas exitosas, con el error
+     * relativo del {@link HistogramaLatencias}
+     * @param percentil Percentil entre 0 y 100
+     * @return latencia en milisegundos (0 si no hubo pruebas exitosas)
+     */
+    public double getPercentilLatenciaMs(double percentil) {
+        synchronized (latencias) {
+            return latencias.getPercentil(percentil) / 1000.0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder texto = new StringBuilder();
+        texto.append(String.format("Sonda %s: %d pruebas, %.1f%% éxito, p50 %.1f ms, p99 %.1f ms",
+            nombre, getTotal(), getTasaExito(), getPercentilLatenciaMs(50), getPercentilLatenciaMs(99)));
+        for (ResultadoSonda.Tipo tipo : ResultadoSonda.Tipo.values()) {
+            long conteo = getConteo(tipo);
+            if (tipo != ResultadoSonda.Tipo.EXITO && conteo > 0) {
+                texto.append(", ").append(tipo).append('=').append(conteo);
+            }
+        }
+        return texto.toString();
+    }
+}
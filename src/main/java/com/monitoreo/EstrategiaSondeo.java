@@ -0,0 +1,69 @@
+package com.monitoreo;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Estrategia de prueba de disponibilidad de un dispositivo (SPI de sondas).
+ * Las implementaciones incluidas son ICMP, conexión TCP y petición/respuesta UDP;
+ * se pueden agregar sondas propias registrándolas en {@link RegistroSondas} o
+ * declarándolas en {@code META-INF/services/com.monitoreo.EstrategiaSondeo}.
+ * Las implementaciones deben ser seguras para hilos: una misma instancia prueba
+ * muchos dispositivos a la vez.
+ */
+public interface EstrategiaSondeo {
+    /**
+     * Nombre con el que los dispositivos eligen la sonda (por ejemplo "tcp")
+     * @return nombre único de la sonda
+     */
+    String getNombre();
+
+    /**
+     * Coste relativo de la prueba; la selección automática prefiere el menor
+     * @return coste (menor es más barato)
+     */
+    int getCoste();
+
+    /**
+     * Indica si la sonda puede probar el dispositivo con su configuración actual
+     * @param dispositivo Dispositivo a probar
+     * @return true si la prueba tiene sentido para el dispositivo
+     */
+    default boolean esAplicable(Dispositivos dispositivo) {
+        return true;
+    }
+
+    /**
+     * Indica si la sonda puede elegirse en la selección automática
+     * @return true si un resultado de la sonda basta para decidir la disponibilidad
+     */
+    default boolean admiteSeleccionAutomatica() {
+        return true;
+    }
+
+    /**
+     * Indica si la prueba se completa sin ocupar un hilo mientras espera
+     * @param dispositivo Dispositivo a probar
+     * @return true si conviene usar {@link #sondearAsincrono(Dispositivos, int)}
+     */
+    default boolean esNoBloqueante(Dispositivos dispositivo) {
+        return false;
+    }
+
+    /**
+     * Prueba el dispositivo bloqueando hasta obtener el resultado
+     * @param dispositivo Dispositivo a probar
+     * @param timeoutMs Plazo máximo de la prueba en milisegundos
+     * @return resultado de la prueba
+     */
+    ResultadoSonda sondear(Dispositivos dispositivo, int timeoutMs);
+
+    /**
+     * Prueba el dispositivo sin bloquear al llamador
+     * @param dispositivo Dispositivo a probar
+     * @param timeoutMs Plazo máximo de la prueba en milisegundos
+     * @return futuro que se completa con el resultado de la prueba
+     */
+    default CompletableFuture<ResultadoSonda> sondearAsincrono(Dispositivos dispositivo, int timeoutMs) {
+        return CompletableFuture.completedFuture(sondear(dispositivo, timeoutMs));
+    }
+}
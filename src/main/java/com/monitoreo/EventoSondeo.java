@@ -0,0 +1,116 @@
+package com.monitoreo;
+
+/**
+ * Evento estructurado que difunde el {@link PublicadorEventos}: el resultado
+ * de una prueba, el cambio de estado (disponible / no disponible) de un
+ * dispositivo, el inicio y fin de una anomalía en su latencia o una alerta
+ * de {@link ManejoAlertas}. Es inmutable, así que el mismo objeto se
+ * entrega a todos los suscriptores.
+ */
+public class EventoSondeo {
+
+    /**
+     * Clase de evento
+     */
+    public enum Clase {
+        RESULTADO,          // Resultado de una prueba
+        CAMBIO_ESTADO,      // El dispositivo pasó de disponible a no disponible o al revés
+        ANOMALIA_LATENCIA,  // La latencia se apartó de lo normal para el dispositivo
+        FIN_ANOMALIA_LATENCIA, // La latencia volvió a lo normal
+        ALERTA              // Alerta de ManejoAlertas; solo lleva el mensaje
+    }
+
+    private final Clase clase;                      // Clase de evento
+    private final String idDispositivo;             // Dispositivo al que se refiere
+    private final long epochNanos;                  // Instante del evento (nanosegundos desde la época)
+    private final ResultadoSonda.Tipo tipo;         // Desenlace de la prueba que originó el evento
+    private final long latenciaNanos;               // Latencia corregida de la prueba
+    private final long retrasoNanos;                // Retraso de la prueba respecto a su planificación
+    private final boolean disponible;               // Estado del dispositivo tras la prueba
+    private final double disponibilidad;            // Disponibilidad acumulada del dispositivo (%)
+    private final String mensaje;                   // Texto de la alerta (null en las demás clases)
+
+    public EventoSondeo(Clase clase, String idDispositivo, long epochNanos, ResultadoSonda.Tipo tipo,
+                        long latenciaNanos, long retrasoNanos, boolean disponible, double disponibilidad) {
+        this(clase, idDispositivo, epochNanos, tipo, latenciaNanos, retrasoNanos, disponible, disponibilidad, null);
+    }
+
+    private EventoSondeo(Clase clase, String idDispositivo, long epochNanos, ResultadoSonda.Tipo tipo,
+                         long latenciaNanos, long retrasoNanos, boolean disponible, double disponibilidad,
+                         String mensaje) {
+        this.clase = clase;
+        this.idDispositivo = idDispositivo;
+        this.epochNanos = epochNanos;
+        this.tipo = tipo;
+        this.latenciaNanos = latenciaNanos;
+        this.retrasoNanos = retrasoNanos;
+        this.disponible = disponible;
+        this.disponibilidad = disponibilidad;
+        this.mensaje = mensaje;
+    }
+
+    /**
+     * Crea un evento de alerta
+     * @param epochNanos Instante de la alerta (nanosegundos desde la época)
+     * @param mensaje Texto de la alerta
+     * @return evento de clase ALERTA
+     */
+    public static EventoSondeo alerta(long epochNanos, String mensaje) {
+        return new EventoSondeo(Clase.ALERTA, null, epochNanos, null, 0, 0, false, 0, mensaje);
+    }
+
+    public Clase getClase() {
+        return clase;
+    }
+
+    public String getIdDispositivo() {
+        return idDispositivo;
+    }
+
+    public long getEpochNanos() {
+        return epochNanos;
+    }
+
+    public ResultadoSonda.Tipo getTipo() {
+        return tipo;
+    }
+
+    public long getLatenciaNanos() {
+        return latenciaNanos;
+    }
+
+    /**
+     * Obtiene la latencia de la prueba
+     * @return tiempo de respuesta en milisegundos
+     */
+    public long getTiempoRespuesta() {
+        return latenciaNanos / 1_000_000L;
+    }
+
+    public long getRetrasoNanos() {
+        return retrasoNanos;
+    }
+
+    public boolean isDisponible() {
+        return disponible;
+    }
+
+    public double getDisponibilidad() {
+        return disponibilidad;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    @Override
+    public String toString() {
+        if (clase == Clase.ALERTA) {
+            return mensaje;
+        }
+        if (clase == Clase.CAMBIO_ESTADO) {
+            return String.format("%s %s", idDispositivo, disponible ? "disponible" : "no disponible");
+        }
+        return String.format("%s %s %dms", idDispositivo, tipo, getTiempoRespuesta());
+    }
+}
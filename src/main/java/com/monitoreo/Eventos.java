@@ -24,6 +24,20 @@ public class Eventos {
         this.fechaHora = new Date();
     }
 
+    /**
+     * Constructor de un evento ya ocurrido (por ejemplo, leído de un almacén de eventos)
+     * @param tipo Tipo de evento
+     * @param descripcion Descripción del evento
+     * @param tiempoRespuesta Tiempo de respuesta medido
+     * @param fechaHora Fecha y hora en que ocurrió
+     */
+    public Eventos(String tipo, String descripcion, double tiempoRespuesta, Date fechaHora) {
+        this.tipo = tipo;
+        this.descripcion = descripcion;
+        this.tiempoRespuesta = tiempoRespuesta;
+        this.fechaHora = new Date(fechaHora.getTime());
+    }
+
     // Getters
     public String getTipo() {
         return tipo;
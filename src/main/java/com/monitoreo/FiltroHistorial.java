@@ -0,0 +1,103 @@
+package com.monitoreo;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Criterios de una consulta al historial de sondeos: rango de tiempo,
+ * dispositivo, tipos de resultado y latencia mínima. Los criterios que no se
+ * fijan no filtran.
+ */
+public class FiltroHistorial {
+    private long desdeEpochNanos;               // Inicio del rango (incluido)
+    private long hastaEpochNanos;               // Fin del rango (excluido)
+    private String idDispositivo;               // null = todos los dispositivos
+    private EnumSet<ResultadoSonda.Tipo> tipos; // null = todos los tipos
+    private long latenciaMinimaNanos;           // 0 = sin umbral
+
+    /**
+     * Constructor del filtro sin criterios (todo el historial)
+     */
+    public FiltroHistorial() {
+        this.desdeEpochNanos = 0;
+        this.hastaEpochNanos = Long.MAX_VALUE;
+    }
+
+    /**
+     * Fija el rango de tiempo con fechas locales
+     * @param desde Inicio del rango (incluido)
+     * @param hasta Fin del rango (excluido)
+     */
+    public void setRango(LocalDateTime desde, LocalDateTime hasta) {
+        setDesdeEpochNanos(aEpochNanos(desde));
+        setHastaEpochNanos(aEpochNanos(hasta));
+    }
+
+    /**
+     * Convierte una fecha local a nanosegundos desde la época
+     * @param fechaHora Fecha y hora en la zona del sistema
+     * @return nanosegundos desde la época
+     */
+    public static long aEpochNanos(LocalDateTime fechaHora) {
+        Instant instante = fechaHora.atZone(ZoneId.systemDefault()).toInstant();
+        return instante.getEpochSecond() * 1_000_000_000L + instante.getNano();
+    }
+
+    /**
+     * Limita la consulta a ciertos tipos de resultado
+     * @param tipos Tipos admitidos (null o vacío = todos)
+     */
+    public void setTipos(Set<ResultadoSonda.Tipo> tipos) {
+        this.tipos = tipos == null || tipos.isEmpty() ? null : EnumSet.copyOf(tipos);
+    }
+
+    /**
+     * Indica si un registro cumple los criterios de tipo y latencia
+     * (el rango y el dispositivo se resuelven con los índices)
+     * @param tipo Tipo del registro
+     * @param latenciaNanos Latencia del registro
+     * @return true si el registro se incluye
+     */
+    public boolean admite(ResultadoSonda.Tipo tipo, long latenciaNanos) {
+        return (tipos == null || tipos.contains(tipo)) && latenciaNanos >= latenciaMinimaNanos;
+    }
+
+    public long getDesdeEpochNanos() {
+        return desdeEpochNanos;
+    }
+
+    public void setDesdeEpochNanos(long desdeEpochNanos) {
+        this.desdeEpochNanos = desdeEpochNanos;
+    }
+
+    public long getHastaEpochNanos() {
+        return hastaEpochNanos;
+    }
+
+    public void setHastaEpochNanos(long hastaEpochNanos) {
+        this.hastaEpochNanos = hastaEpochNanos;
+    }
+
+    public String getIdDispositivo() {
+        return idDispositivo;
+    }
+
+    public void setIdDispositivo(String idDispositivo) {
+        this.idDispositivo = idDispositivo;
+    }
+
+    public Set<ResultadoSonda.Tipo> getTipos() {
+        return tipos == null ? EnumSet.allOf(ResultadoSonda.Tipo.class) : EnumSet.copyOf(tipos);
+    }
+
+    public long getLatenciaMinimaNanos() {
+        return latenciaMinimaNanos;
+    }
+
+    public void setLatenciaMinimaNanos(long latenciaMinimaNanos) {
+        this.latenciaMinimaNanos = Math.max(0, latenciaMinimaNanos);
+    }
+}
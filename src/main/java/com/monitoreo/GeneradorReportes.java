@@ -1,6 +1,7 @@
 package com.monitoreo;
 
 import java.io.File;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
@@ -11,6 +12,8 @@ import java.util.Map;
 public class GeneradorReportes {
     private final String directorio;              // Directorio donde se guardan los reportes
     private final Map<String, HostEstadisticas> estadisticas; // Estadísticas de todos los hosts
+    private CompactadorHistorial compactadorHistorial;    // Historial agregado (null = solo estadísticas en memoria)
+    private Duration ventanaDisponibilidad = Duration.ZERO; // Ventana de la columna principal (cero = total)
 
     public GeneradorReportes(String directorio, Map<String, HostEstadisticas> estadisticas) {
         // Asegurar que el directorio existe
@@ -40,7 +43,24 @@ public class GeneradorReportes {
      * @return Ruta del archivo PDF generado, o null si hubo error
      */
     public String generarReporteDisponibilidad() {
-        return new ReporteDisponibilidadPDF(directorio, estadisticas).generar();
+        return new ReporteDisponibilidadPDF(directorio, estadisticas, compactadorHistorial,
+            ventanaDisponibilidad).generar();
+    }
+
+    /**
+     * Fija el historial agregado del que los reportes leen la disponibilidad de periodos largos
+     * @param compactadorHistorial Compactador del historial (null = no incluir periodos largos)
+     */
+    public void setCompactadorHistorial(CompactadorHistorial compactadorHistorial) {
+        this.compactadorHistorial = compactadorHistorial;
+    }
+
+    /**
+     * Fija la ventana deslizante con la que el reporte de disponibilidad calcula su columna principal
+     * @param ventanaDisponibilidad Duración de la ventana (Duration.ZERO = disponibilidad total)
+     */
+    public void setVentanaDisponibilidad(Duration ventanaDisponibilidad) {
+        this.ventanaDisponibilidad = ventanaDisponibilidad;
     }
 
 
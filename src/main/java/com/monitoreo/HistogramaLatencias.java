@@ -0,0 +1,337 @@
+package com.monitoreo;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Histograma de latencias de memoria fija y error relativo acotado, al
+ * estilo de HdrHistogram. Los valores (en microsegundos) menores que
+ * 2^bitsPrecision se cuentan exactos; por encima, cada potencia de dos se
+ * divide en 2^bitsPrecision cubetas iguales, así que el valor que representa
+ * una cubeta difiere del registrado como mucho en 1/2^bitsPrecision (1,6 %
+ * con la precisión por defecto). Registrar es una cuenta de índice y un
+ * incremento, sin asignaciones; los percentiles recorren las cubetas. El
+ * arreglo de cubetas se crea con el primer valor, así que un histograma vacío
+ * casi no ocupa memoria, y se puede guardar en forma dispersa (solo las
+ * cubetas con registros).
+ */
+public class HistogramaLatencias {
+    public static final int BITS_PRECISION_POR_DEFECTO = 6;
+    public static final int BITS_MAXIMO = 32;      // Valor máximo registrable: 2^32 µs (unos 71 minutos)
+    public static final int TAMANO_CUBETA_DISPERSA = 6;    // Bytes por cubeta en la forma dispersa (índice y conteo)
+
+    private final int bitsPrecision;                // log2 de las cubetas por potencia de dos
+    private final int cubetasPorPotencia;           // 2^bitsPrecision
+    private final long maximoRegistrable;           // Los valores mayores se registran como este
+    private int[] conteos;                          // Registros por cubeta (null hasta el primer valor)
+    private long cantidad;                          // Valores registrados
+    private long suma;                              // Suma de los valores registrados (µs)
+    private long minimo;                            // Menor valor registrado (exacto)
+    private long maximo;                            // Mayor valor registrado (exacto)
+
+    /**
+     * Constructor con la precisión por defecto
+     */
+    public HistogramaLatencias() {
+        this(BITS_PRECISION_POR_DEFECTO);
+    }
+
+    /**
+     * Constructor del histograma
+     * @param bitsPrecision Bits de precisión (1 a 16); el error relativo es como mucho 1/2^bitsPrecision
+     */
+    public HistogramaLatencias(int bitsPrecision) {
+        if (bitsPrecision < 1 || bitsPrecision > 16) {
+            throw new IllegalArgumentException("Los bits de precisión deben estar entre 1 y 16");
+        }
+        this.bitsPrecision = bitsPrecision;
+        this.cubetasPorPotencia = 1 << bitsPrecision;
+        this.maximoRegistrable = (1L << BITS_MAXIMO) - 1;
+        reiniciar();
+    }
+
+    /**
+     * Registra un valor
+     * @param micros Latencia en microsegundos (los negativos cuentan como 0)
+     */
+    public void registrar(long micros) {
+        long valor = Math.min(Math.max(micros, 0), maximoRegistrable);
+        asegurarConteos();
+        conteos[indiceDe(valor)]++;
+        cantidad++;
+        suma += valor;
+        if (valor < minimo) {
+            minimo = valor;
+        }
+        if (valor > maximo) {
+            maximo = valor;
+        }
+    }
+
+    private void asegurarConteos() {
+        if (conteos == null) {
+            conteos = new int[cubetasPorPotencia * (BITS_MAXIMO - bitsPrecision + 1)];
+        }
+    }
+
+    /**
+     * Obtiene la cubeta de un valor: exacta por debajo de 2^bitsPrecision y,
+     * por encima, los bitsPrecision bits siguientes al más significativo
+     */
+    int indiceDe(long valor) {
+        if (valor < cubetasPorPotencia) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);      // >= bitsPrecision
+        int desplazamiento = exponente - bitsPrecision;
+        int subCubeta = (int) (valor >>> desplazamiento) - cubetasPorPotencia;
+        return cubetasPorPotencia * (desplazamiento + 1) + subCubeta;
+    }
+
+    /**
+     * Obtiene el mayor valor que cae en una cubeta
+     */
+    long mayorValorDe(int indice) {
+        if (indice < cubetasPorPotencia) {
+            return indice;
+        }
+        int desplazamiento = indice / cubetasPorPotencia - 1;
+        long subCubeta = indice % cubetasPorPotencia + cubetasPorPotencia;
+        return ((subCubeta + 1) << desplazamiento) - 1;
+    }
+
+    /**
+     * Calcula un percentil. El valor es el mayor de la cubeta que contiene el
+     * percentil, limitado a los extremos registrados
+     * @param percentil Percentil entre 0 y 100
+     * @return latencia en microsegundos, 0 si el histograma está vacío
+     */
+    public long getPercentil(double percentil) {
+        if (cantidad == 0) {
+            return 0;
+        }
+        long objetivo = objetivoDe(percentil);
+        long acumulado = 0;
+        for (int i = 0; i < conteos.length; i++) {
+            acumulado += conteos[i];
+            if (acumulado >= objetivo) {
+                return Math.max(minimo, Math.min(mayorValorDe(i), maximo));
+            }
+        }
+        return maximo;
+    }
+
+    /**
+     * Calcula varios percentiles en una sola pasada por las cubetas
+     * @param percentiles Percentiles entre 0 y 100, en orden creciente
+     * @return latencia en microsegundos de cada percentil (0 si el histograma está vacío)
+     */
+    public long[] getPercentiles(double... percentiles) {
+        long[] valores = new long[percentiles.length];
+        if (cantidad == 0) {
+            return valores;
+        }
+        int siguiente = 0;
+        long acumulado = 0;
+        for (int i = 0; i < conteos.length && siguiente < percentiles.length; i++) {
+            acumulado += conteos[i];
+            while (siguiente < percentiles.length && acumulado >= objetivoDe(percentiles[siguiente])) {
+                valores[siguiente++] = Math.max(minimo, Math.min(mayorValorDe(i), maximo));
+            }
+        }
+        while (siguiente < percentiles.length) {
+            valores[siguiente++] = maximo;
+        }
+        return valores;
+    }
+
+    /**
+     * Calcula varios percentiles del conjunto de varios histogramas de la misma
+     * precisión, recorriendo sus cubetas a la vez en lugar de combinarlos en otro
+     * @param histogramas Histogramas a considerar (los null se ignoran)
+     * @param percentiles Percentiles entre 0 y 100, en orden creciente
+     * @return latencia en microsegundos de cada percentil (0 si no hay registros)
+     */
+    public static long[] getPercentilesCombinados(HistogramaLatencias[] histogramas, double... percentiles) {
+        long[] valores = new long[percentiles.length];
+        HistogramaLatencias referencia = null;
+        long cantidad = 0;
+        long minimo = Long.MAX_VALUE;
+        long maximo = 0;
+        for (HistogramaLatencias histograma : histogramas) {
+            if (histograma == null || histograma.cantidad == 0 || histograma.conteos == null) {
+                continue;
+            }
+            if (referencia != null && histograma.bitsPrecision != referencia.bitsPrecision) {
+                throw new IllegalArgumentException("Los histogramas tienen distinta precisión");
+            }
+            referencia = histograma;
+            cantidad += histograma.cantidad;
+            minimo = Math.min(minimo, histograma.minimo);
+            maximo = Math.max(maximo, histograma.maximo);
+        }
+        if (referencia == null) {
+            return valores;
+        }
+        int siguiente = 0;
+        long acumulado = 0;
+        for (int i = 0; i < referencia.conteos.length && siguiente < percentiles.length; i++) {
+            for (HistogramaLatencias histograma : histogramas) {
+                if (histograma != null && histograma.cantidad != 0 && histograma.conteos != null) {
+                    acumulado += histograma.conteos[i];
+                }
+            }
+            while (siguiente < percentiles.length && acumulado >= objetivoDe(percentiles[siguiente], cantidad)) {
+                valores[siguiente++] = Math.max(minimo, Math.min(referencia.mayorValorDe(i), maximo));
+            }
+        }
+        while (siguiente < percentiles.length) {
+            valores[siguiente++] = maximo;
+        }
+        return valores;
+    }
+
+    /**
+     * Obtiene cuántos valores quedan en o por debajo de un percentil
+     */
+    private long objetivoDe(double percentil) {
+        return objetivoDe(percentil, cantidad);
+    }
+
+    private static long objetivoDe(double percentil, long cantidad) {
+        double p = Math.min(Math.max(percentil, 0.0), 100.0);
+        return Math.max(1, (long) Math.ceil(p / 100.0 * cantidad));
+    }
+
+    /**
+     * Suma los registros de otro histograma de la misma precisión
+     * @param otro Histograma a combinar
+     */
+    public void combinar(HistogramaLatencias otro) {
+        if (otro.bitsPrecision != bitsPrecision) {
+            throw new IllegalArgumentException("Los histogramas tienen distinta precisión");
+        }
+        if (otro.cantidad == 0) {
+            return;
+        }
+        asegurarConteos();
+        for (int i = 0; i < conteos.length; i++) {
+            conteos[i] += otro.conteos[i];
+        }
+        cantidad += otro.cantidad;
+        suma += otro.suma;
+        minimo = Math.min(minimo, otro.minimo);
+        maximo = Math.max(maximo, otro.maximo);
+    }
+
+    /**
+     * Vacía el histograma
+     */
+    public void reiniciar() {
+        if (conteos != null) {
+            Arrays.fill(conteos, 0);
+        }
+        cantidad = 0;
+        suma = 0;
+        minimo = Long.MAX_VALUE;
+        maximo = 0;
+    }
+
+    /**
+     * @return cantidad de cubetas con registros (lo que ocupa la forma dispersa)
+     */
+    public int getCubetasOcupadas() {
+        int ocupadas = 0;
+        if (conteos != null) {
+            for (int conteo : conteos) {
+                if (conteo != 0) {
+                    ocupadas++;
+                }
+            }
+        }
+        return ocupadas;
+    }
+
+    /**
+     * Escribe las cubetas con registros como pares (índice, conteo) de
+     * {@value #TAMANO_CUBETA_DISPERSA} bytes
+     * @param destino Buffer de destino (avanza {@link #getCubetasOcupadas()} pares)
+     */
+    public void escribirCubetas(ByteBuffer destino) {
+        if (conteos == null) {
+            return;
+        }
+        for (int i = 0; i < conteos.length; i++) {
+            if (conteos[i] != 0) {
+                destino.putShort((short) i);
+                destino.putInt(conteos[i]);
+            }
+        }
+    }
+
+    /**
+     * Reemplaza el contenido por uno guardado con {@link #escribirCubetas(ByteBuffer)}.
+     * Los extremos y la suma no se deducen de las cubetas, así que se guardan aparte.
+     * @param origen Buffer de origen
+     * @param posicion Posición del primer par
+     * @param ocupadas Cantidad de pares
+     * @param minimo Menor valor registrado
+     * @param maximo Mayor valor registrado
+     * @param suma Suma de los valores registrados
+     */
+    public void leerCubetas(ByteBuffer origen, int posicion, int ocupadas, long minimo, long maximo, long suma) {
+        reiniciar();
+        if (ocupadas == 0) {
+            return;
+        }
+        asegurarConteos();
+        for (int i = 0; i < ocupadas; i++) {
+            int indice = origen.getShort(posicion + i * TAMANO_CUBETA_DISPERSA) & 0xFFFF;
+            int conteo = origen.getInt(posicion + i * TAMANO_CUBETA_DISPERSA + 2);
+            if (indice >= conteos.length || conteo < 0) {
+                throw new IllegalArgumentException("Cubeta de histograma inválida: " + indice);
+            }
+            conteos[indice] += conteo;
+            cantidad += conteo;
+        }
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.suma = suma;
+    }
+
+    public long getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * @return suma de los valores registrados en microsegundos
+     */
+    public long getSuma() {
+        return suma;
+    }
+
+    /**
+     * @return menor valor registrado en microsegundos, 0 si está vacío
+     */
+    public long getMinimo() {
+        return cantidad == 0 ? 0 : minimo;
+    }
+
+    /**
+     * @return mayor valor registrado en microsegundos, 0 si está vacío
+     */
+    public long getMaximo() {
+        return maximo;
+    }
+
+    /**
+     * @return promedio exacto de los valores registrados en microsegundos, 0 si está vacío
+     */
+    public double getPromedio() {
+        return cantidad == 0 ? 0.0 : (double) suma / cantidad;
+    }
+
+    public int getBitsPrecision() {
+        return bitsPrecision;
+    }
+}
@@ -0,0 +1,152 @@
+package com.monitoreo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Historial de caídas de un host guardado como intervalos (inicio, fin,
+ * chequeos fallidos) en arreglos primitivos. Los fallos consecutivos
+ * extienden el intervalo abierto en lugar de agregar un registro por
+ * chequeo, así que la memoria crece con el número de caídas y no con el de
+ * fallos. Los intervalos son disjuntos y están en orden cronológico, de modo
+ * que las consultas por rango localizan el primero por búsqueda binaria.
+ *
+ * No es segura para hilos: la escribe un solo thread (el de monitoreo, desde
+ * {@link HostEstadisticas#registrarChequeo} y dentro de su seqlock), así que
+ * registrar un chequeo no toma ningún lock. Los demás threads la leen a
+ * través de {@link HostEstadisticas}, que repite la consulta si se cruza con
+ * una escritura.
+ */
+public class HistorialCaidas {
+    private static final int CAPACIDAD_INICIAL = 8;
+
+    private long[] inicios;         // Primer chequeo fallido de cada caída (epoch ms)
+    private long[] fines;           // Primer chequeo exitoso posterior (o último fallido si está abierta)
+    private int[] fallos;           // Chequeos fallidos de cada caída
+    private int cantidad;           // Caídas guardadas
+    private boolean abierta;        // La última caída sigue en curso
+
+    public HistorialCaidas() {
+        this.inicios = new long[CAPACIDAD_INICIAL];
+        this.fines = new long[CAPACIDAD_INICIAL];
+        this.fallos = new int[CAPACIDAD_INICIAL];
+    }
+
+    /**
+     * Registra un chequeo fallido: abre una caída o extiende la que está en curso
+     * @param instanteMs Instante del chequeo (epoch ms)
+     */
+    public void registrarFallo(long instanteMs) {
+        if (abierta) {
+            fines[cantidad - 1] = Math.max(fines[cantidad - 1], instanteMs);
+            fallos[cantidad - 1]++;
+            return;
+        }
+        if (cantidad == inicios.length) {
+            int capacidad = inicios.length * 2;
+            inicios = Arrays.copyOf(inicios, capacidad);
+            fines = Arrays.copyOf(fines, capacidad);
+            fallos = Arrays.copyOf(fallos, capacidad);
+        }
+        inicios[cantidad] = instanteMs;
+        fines[cantidad] = instanteMs;
+        fallos[cantidad] = 1;
+        cantidad++;
+        abierta = true;
+    }
+
+    /**
+     * Registra un chequeo exitoso: cierra la caída en curso, si la hay
+     * @param instanteMs Instante del chequeo (epoch ms)
+     */
+    public void registrarExito(long instanteMs) {
+        if (abierta) {
+            fines[cantidad - 1] = Math.max(fines[cantidad - 1], instanteMs);
+            abierta = false;
+        }
+    }
+
+    /**
+     * Obtiene las caídas que se solapan con un rango
+     * @param desdeMs Inicio del rango (epoch ms, incluido)
+     * @param hastaMs Fin del rango (epoch ms, excluido)
+     * @return caídas en orden cronológico; la que está en curso se considera abierta hasta ahora
+     */
+    public List<IntervaloCaida> caidasEntre(long desdeMs, long hastaMs) {
+        long ahoraMs = System.currentTimeMillis();
+        List<IntervaloCaida> resultado = new ArrayList<>();
+        for (int i = primeraDesde(desdeMs, ahoraMs); i < cantidad && inicios[i] < hastaMs; i++) {
+            boolean enCurso = abierta && i == cantidad - 1;
+            resultado.add(new IntervaloCaida(inicios[i], enCurso ? Math.max(fines[i], ahoraMs) : fines[i],
+                fallos[i], enCurso));
+        }
+        return resultado;
+    }
+
+    /**
+     * Calcula el tiempo caído dentro de un rango
+     * @param desdeMs Inicio del rango (epoch ms, incluido)
+     * @param hastaMs Fin del rango (epoch ms, excluido)
+     * @return milisegundos del rango cubiertos por caídas (la que está en curso cuenta hasta ahora)
+     */
+    public long tiempoCaidoEntre(long desdeMs, long hastaMs) {
+        long ahoraMs = System.currentTimeMillis();
+        long total = 0;
+        for (int i = primeraDesde(desdeMs, ahoraMs); i < cantidad && inicios[i] < hastaMs; i++) {
+            long inicio = Math.max(inicios[i], desdeMs);
+            long fin = Math.min(finEfectivo(i, ahoraMs), hastaMs);
+            if (fin > inicio) {
+                total += fin - inicio;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Busca la primera caída que termina después del instante indicado
+     */
+    private int primeraDesde(long desdeMs, long ahoraMs) {
+        int bajo = 0;
+        int alto = cantidad;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (finEfectivo(medio, ahoraMs) <= desdeMs) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * Fin de una caída para las consultas: la que está en curso llega hasta
+     * ahora, y una de duración nula ocupa al menos su milisegundo de inicio
+     */
+    private long finEfectivo(int indice, long ahoraMs) {
+        long fin = abierta && indice == cantidad - 1 ? Math.max(fines[indice], ahoraMs) : fines[indice];
+        return Math.max(fin, inicios[indice] + 1);
+    }
+
+    /**
+     * Obtiene la caída más reciente
+     * @return última caída, o null si el host nunca cayó
+     */
+    public IntervaloCaida getUltima() {
+        if (cantidad == 0) {
+            return null;
+        }
+        int i = cantidad - 1;
+        return new IntervaloCaida(inicios[i], abierta ? Math.max(fines[i], System.currentTimeMillis()) : fines[i],
+            fallos[i], abierta);
+    }
+
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    public boolean isAbierta() {
+        return abierta;
+    }
+}
@@ -1,41 +1,124 @@
 package com.monitoreo;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Queue;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
 
 /**
  * Clase que maneja las estadísticas y métricas de un host
- * Incorpora tanto estadísticas básicas como métricas avanzadas
+ * Incorpora tanto estadísticas básicas como métricas avanzadas.
+ *
+ * Solo el thread de monitoreo escribe (registrarChequeo, redimensionarVentana).
+ * Las escrituras van entre dos incrementos de un contador de secuencia
+ * (seqlock): impar mientras se escribe, par al terminar. {@link #instantanea()}
+ * copia los valores y repite la copia si el contador cambió entre medio, así
+ * que los demás threads obtienen una vista coherente sin tomar locks ni
+ * frenar al escritor, y el costo de leer no depende de cuántos lectores haya.
+ *
+ * El mismo contador sirve de versión para las métricas: cada una guarda su
+ * último resultado con la versión en que se calculó y solo se recalcula si
+ * hubo chequeos desde entonces (o, si depende del reloj, al vencer su vigencia).
  */
 public class HostEstadisticas {
+    private static final VarHandle SECUENCIA;
+    static {
+        try {
+            SECUENCIA = MethodHandles.lookup().findVarHandle(HostEstadisticas.class, "secuencia", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile long secuencia;               // Contador del seqlock (impar = escritura en curso)
     private final String host;                     // Nombre o dirección IP del host
     private int totalChequeos;                     // Contador total de verificaciones realizadas
     private int fallos;                           // Contador de fallos detectados
-    private LocalDateTime ultimoChequeo;          // Fecha y hora del último chequeo
-    private LocalDateTime ultimoFallo;            // Fecha y hora del último fallo
-    private final ArrayList<LocalDateTime> historicoFallos; // Registro histórico de fallos
+    private long ultimoChequeoMs;                 // Último chequeo (epoch ms, 0 = ninguno)
+    private long ultimoFalloMs;                   // Último fallo (epoch ms, 0 = ninguno)
+    private final HistorialCaidas historialCaidas; // Caídas como intervalos (inicio, fin, fallos)
     private double disponibilidad;                // Porcentaje de disponibilidad calculado
-    private final Queue<Long> tiemposRespuesta;   // Historial de tiempos de respuesta
-    private final Queue<Boolean> estadosRecientes; // Historial de estados recientes
+    private boolean ultimoDisponible;             // Resultado del último chequeo
+    private long[] tiemposRespuesta;              // Ventana circular de tiempos de respuesta (ms)
+    private long[] estadosRecientes;              // Ventana circular de estados, un bit por chequeo (1 = disponible)
+    private int posicionVentana;                  // Posición de la ventana donde se escribe el próximo chequeo
+    private int muestrasVentana;                  // Chequeos guardados en la ventana
+    private long sumaTiemposRespuesta;            // Suma de los tiempos de respuesta de la ventana
+    private int cambiosVentana;                   // Cambios de estado entre chequeos consecutivos de la ventana
+    private long inicioEstadoMs;                  // Desde cuándo el host está en su estado actual (epoch ms)
+    private long ultimaTransicionMs;              // Último cambio de estado (epoch ms, 0 = ninguno)
+    private int transiciones;                     // Cambios de estado desde el primer chequeo
+    private int rachaActual;                      // Chequeos consecutivos en el estado actual
+    private int rachaMaximaDisponible;            // Racha más larga de chequeos disponibles
+    private int rachaMaximaNoDisponible;          // Racha más larga de chequeos fallidos
+    private final HistogramaLatencias histogramaLatencias; // Latencias de los chequeos exitosos (µs)
+    private VentanaLatencias ventanaLatencias;    // Latencias recientes para los percentiles (null = desde el arranque)
+    private final VentanaDisponibilidad[] ventanasDisponibilidad; // Disponibilidad en ventanas deslizantes
+    private DetectorAnomalias detectorAnomalias;  // Anomalías de latencia (null = sin detección)
+    private DetectorAnomalias.Cambio cambioAnomalia = DetectorAnomalias.Cambio.NINGUNO; // Efecto del último chequeo
     private final List<Metrica> metricas;         // Lista de métricas configuradas
-    private static final int MAX_HISTORIAL = 100;  // Máximo número de registros en el historial
+    private final Map<String, Metrica> metricasPorNombre; // Métricas por nombre (la última agregada con cada nombre)
+    private volatile List<ResultadoMetrica> ultimasMetricas = Collections.emptyList(); // Último resultado de obtenerMetricas
+    public static final int MAX_HISTORIAL = 100;  // Tamaño por defecto de la ventana de chequeos recientes
+    public static final Duration[] HORIZONTES_POR_DEFECTO = {   // Ventanas de disponibilidad por defecto
+        Duration.ofMinutes(5), Duration.ofHours(1), Duration.ofHours(24), Duration.ofDays(30)
+    };
 
     /**
      * Constructor que inicializa las estadísticas para un host específico.
      * @param host Nombre o dirección IP del host a monitorear
      */
     public HostEstadisticas(String host) {
+        this(host, MAX_HISTORIAL);
+    }
+
+    /**
+     * Constructor con un tamaño de ventana propio. Cada chequeo de la ventana
+     * ocupa un long (tiempo de respuesta) y un bit (estado), sea cual sea el tamaño.
+     * @param host Nombre o dirección IP del host a monitorear
+     * @param tamanoVentana Chequeos recientes sobre los que se calculan el promedio y la estabilidad
+     */
+    public HostEstadisticas(String host, int tamanoVentana) {
+        this(host, tamanoVentana, HORIZONTES_POR_DEFECTO);
+    }
+
+    /**
+     * Constructor con tamaño de ventana y ventanas de disponibilidad propias
+     * @param host Nombre o dirección IP del host a monitorear
+     * @param tamanoVentana Chequeos recientes sobre los que se calculan el promedio y la estabilidad
+     * @param horizontesDisponibilidad Duración de cada ventana deslizante de disponibilidad
+     */
+    public HostEstadisticas(String host, int tamanoVentana, Duration... horizontesDisponibilidad) {
+        if (tamanoVentana <= 0) {
+            throw new IllegalArgumentException("El tamaño de la ventana debe ser positivo");
+        }
         this.host = host;
         this.totalChequeos = 0;
         this.fallos = 0;
-        this.historicoFallos = new ArrayList<>();
+        this.historialCaidas = new HistorialCaidas();
         this.disponibilidad = 100.0;
-        this.tiemposRespuesta = new LinkedList<>();
-        this.estadosRecientes = new LinkedList<>();
-        this.metricas = new ArrayList<>();
+        this.tiemposRespuesta = new long[tamanoVentana];
+        this.estadosRecientes = new long[palabrasEstado(tamanoVentana)];
+        this.histogramaLatencias = new HistogramaLatencias();
+        this.ventanaLatencias = new VentanaLatencias(VentanaLatencias.HORIZONTE_POR_DEFECTO.toMillis());
+        this.ventanasDisponibilidad = new VentanaDisponibilidad[horizontesDisponibilidad.length];
+        for (int i = 0; i < horizontesDisponibilidad.length; i++) {
+            ventanasDisponibilidad[i] = new VentanaDisponibilidad(horizontesDisponibilidad[i].toMillis());
+        }
+        this.detectorAnomalias = new DetectorAnomalias();
+        this.metricas = new CopyOnWriteArrayList<>();
+        this.metricasPorNombre = new ConcurrentHashMap<>();
         
         // Inicializar métricas predefinidas
         inicializarMetricasBasicas();
@@ -46,23 +129,76 @@ public class HostEstadisticas {
      */
     private void inicializarMetricasBasicas() {
         // Métrica de disponibilidad
-        metricas.add(new Metrica("Disponibilidad", "Porcentaje de tiempo que el host está disponible") {
+        registrarMetrica(new Metrica("Disponibilidad", "Porcentaje de tiempo que el host está disponible") {
             @Override
             public double calcular() {
                 return getDisponibilidad();
             }
         });
         
+        // Disponibilidad en cada ventana deslizante
+        for (VentanaDisponibilidad ventana : ventanasDisponibilidad) {
+            Duration horizonte = Duration.ofMillis(ventana.getHorizonteMs());
+            String etiqueta = VentanaDisponibilidad.etiqueta(horizonte);
+            registrarMetrica(new Metrica("Disponibilidad " + etiqueta,
+                    "Porcentaje de chequeos exitosos en la última ventana de " + etiqueta) {
+                @Override
+                public double calcular() {
+                    return ventana.getDisponibilidad(System.currentTimeMillis());
+                }
+
+                @Override
+                protected long vigenteHasta(long calculadaMs) {
+                    return ventana.getProximoAvanceMs(calculadaMs);     // Cambia también al avanzar la ventana
+                }
+            });
+        }
+        
         // Métrica de tiempo de respuesta promedio
-        metricas.add(new Metrica("TiempoRespuestaPromedio", "Tiempo de respuesta promedio en ms") {
+        registrarMetrica(new Metrica("TiempoRespuestaPromedio", "Tiempo de respuesta promedio en ms") {
             @Override
             public double calcular() {
                 return getTiempoRespuestaPromedio();
             }
         });
         
+        // Percentiles de latencia (los promedios ocultan la cola)
+        registrarMetrica(new MetricaLatencia("LatenciaP50", "Mediana del tiempo de respuesta en ms") {
+            @Override
+            public double calcular() {
+                return getPercentilLatencia(50);
+            }
+        });
+        registrarMetrica(new MetricaLatencia("LatenciaP95", "Percentil 95 del tiempo de respuesta en ms") {
+            @Override
+            public double calcular() {
+                return getPercentilLatencia(95);
+            }
+        });
+        registrarMetrica(new MetricaLatencia("LatenciaP99", "Percentil 99 del tiempo de respuesta en ms") {
+            @Override
+            public double calcular() {
+                return getPercentilLatencia(99);
+            }
+        });
+        registrarMetrica(new MetricaLatencia("LatenciaMaxima", "Tiempo de respuesta máximo en ms") {
+            @Override
+            public double calcular() {
+                return getLatenciaMaxima();
+            }
+        });
+        
+        // Latencia normal del host según el detector de anomalías
+        registrarMetrica(new Metrica("LatenciaEsperada", "Tiempo de respuesta habitual (media suavizada) en ms") {
+            @Override
+            public double calcular() {
+                DetectorAnomalias detector = detectorAnomalias;
+                return detector == null ? 0.0 : detector.getLatenciaEsperada();
+            }
+        });
+        
         // Métrica de estabilidad
-        metricas.add(new Metrica("Estabilidad", "Porcentaje de estabilidad basado en cambios de estado") {
+        registrarMetrica(new Metrica("Estabilidad", "Porcentaje de estabilidad basado en cambios de estado") {
             @Override
             public double calcular() {
                 return getEstabilidad();
@@ -76,28 +212,220 @@ public class HostEstadisticas {
      * @param tiempoRespuesta tiempo de respuesta en milisegundos
      */
     public void registrarChequeo(boolean disponible, long tiempoRespuesta) {
+        registrarChequeo(disponible, tiempoRespuesta, tiempoRespuesta * 1_000_000L);
+    }
+
+    /**
+     * Registra el resultado de un chequeo con la latencia en su resolución completa,
+     * que es la que se guarda en el histograma de percentiles
+     * @param disponible true si el host está disponible, false si no responde
+     * @param tiempoRespuesta tiempo de respuesta en milisegundos
+     * @param latenciaNanos tiempo de respuesta en nanosegundos
+     */
+    public void registrarChequeo(boolean disponible, long tiempoRespuesta, long latenciaNanos) {
+        long ahoraMs = System.currentTimeMillis();
+        iniciarEscritura();
+        
+        // Transiciones, tiempo en el estado y rachas
+        if (totalChequeos == 0) {
+            inicioEstadoMs = ahoraMs;
+            rachaActual = 1;
+        } else if (disponible != ultimoDisponible) {
+            inicioEstadoMs = ahoraMs;
+            ultimaTransicionMs = ahoraMs;
+            transiciones++;
+            rachaActual = 1;
+        } else {
+            rachaActual++;
+        }
+        if (disponible) {
+            rachaMaximaDisponible = Math.max(rachaMaximaDisponible, rachaActual);
+        } else {
+            rachaMaximaNoDisponible = Math.max(rachaMaximaNoDisponible, rachaActual);
+        }
+        
+        // Los percentiles y el detector de anomalías solo cuentan las respuestas:
+        // la latencia de un fallo es el plazo agotado
+        cambioAnomalia = DetectorAnomalias.Cambio.NINGUNO;
+        if (disponible) {
+            histogramaLatencias.registrar(latenciaNanos / 1_000L);
+            if (ventanaLatencias != null) {
+                ventanaLatencias.registrar(ahoraMs, latenciaNanos / 1_000L);
+            }
+            if (detectorAnomalias != null) {
+                cambioAnomalia = detectorAnomalias.registrar(latenciaNanos, ahoraMs);
+            }
+        }
+        
         totalChequeos++;
-        ultimoChequeo = LocalDateTime.now();
+        ultimoChequeoMs = ahoraMs;
+        ultimoDisponible = disponible;
         
         if (!disponible) {
             fallos++;
-            ultimoFallo = LocalDateTime.now();
-            historicoFallos.add(ultimoFallo);
+            ultimoFalloMs = ahoraMs;
+            historialCaidas.registrarFallo(ahoraMs);
+        } else {
+            historialCaidas.registrarExito(ahoraMs);
         }
         
-        // Mantener historial de tiempos de respuesta
-        this.tiemposRespuesta.offer(tiempoRespuesta);
-        if (this.tiemposRespuesta.size() > MAX_HISTORIAL) {
-            this.tiemposRespuesta.poll();
+        // Mantener la ventana de tiempos de respuesta y estados; al llenarse se sobrescribe el más antiguo
+        // y los cambios de estado se cuentan al entrar y salir cada chequeo de la ventana
+        int posicion = posicionVentana;
+        int tamano = tiemposRespuesta.length;
+        if (muestrasVentana == tamano) {
+            sumaTiemposRespuesta -= tiemposRespuesta[posicion];
+            int segundo = posicion + 1 == tamano ? 0 : posicion + 1;
+            if (tamano > 1 && estadoEn(posicion) != estadoEn(segundo)) {
+                cambiosVentana--;       // Sale el par formado por los dos chequeos más antiguos
+            }
+        } else {
+            muestrasVentana++;
         }
-
-        // Mantener historial de estados
-        this.estadosRecientes.offer(disponible);
-        if (this.estadosRecientes.size() > MAX_HISTORIAL) {
-            this.estadosRecientes.poll();
+        if (muestrasVentana > 1 && estadoEn(posicion == 0 ? tamano - 1 : posicion - 1) != disponible) {
+            cambiosVentana++;           // Entra el par formado por el chequeo anterior y este
+        }
+        tiemposRespuesta[posicion] = tiempoRespuesta;
+        sumaTiemposRespuesta += tiempoRespuesta;
+        if (disponible) {
+            estadosRecientes[posicion >>> 6] |= 1L << posicion;
+        } else {
+            estadosRecientes[posicion >>> 6] &= ~(1L << posicion);
         }
+        posicionVentana = posicion + 1 == tiemposRespuesta.length ? 0 : posicion + 1;
         
         calcularDisponibilidad();
+        for (VentanaDisponibilidad ventana : ventanasDisponibilidad) {
+            ventana.registrar(ahoraMs, disponible);
+        }
+        terminarEscritura();
+    }
+
+    /**
+     * Cambia el tamaño de la ventana de chequeos recientes conservando los más nuevos.
+     * Debe llamarse desde el thread que registra los chequeos.
+     * @param tamanoVentana Nuevo tamaño de la ventana
+     */
+    public void redimensionarVentana(int tamanoVentana) {
+        if (tamanoVentana <= 0) {
+            throw new IllegalArgumentException("El tamaño de la ventana debe ser positivo");
+        }
+        iniciarEscritura();
+        int conservar = Math.min(muestrasVentana, tamanoVentana);
+        long[] tiempos = new long[tamanoVentana];
+        long[] estados = new long[palabrasEstado(tamanoVentana)];
+        long suma = 0;
+        int cambios = 0;
+        int primero = muestrasVentana - conservar;
+        for (int i = 0; i < conservar; i++) {
+            int origen = posicionVentana(primero + i);
+            tiempos[i] = tiemposRespuesta[origen];
+            suma += tiempos[i];
+            if (estadoEn(origen)) {
+                estados[i >>> 6] |= 1L << i;
+            }
+            if (i > 0 && estadoEn(origen) != estadoEn(posicionVentana(primero + i - 1))) {
+                cambios++;
+            }
+        }
+        tiemposRespuesta = tiempos;
+        estadosRecientes = estados;
+        muestrasVentana = conservar;
+        posicionVentana = conservar == tamanoVentana ? 0 : conservar;
+        sumaTiemposRespuesta = suma;
+        cambiosVentana = cambios;
+        terminarEscritura();
+    }
+
+    /**
+     * Marca el inicio de una escritura: el contador queda impar y las
+     * escrituras siguientes no pueden hacerse visibles antes que él
+     */
+    private void iniciarEscritura() {
+        SECUENCIA.setOpaque(this, secuencia + 1);
+        VarHandle.storeStoreFence();
+    }
+
+    /**
+     * Marca el fin de una escritura: el contador vuelve a ser par y se
+     * publica con semántica de liberación, después de todos los valores
+     */
+    private void terminarEscritura() {
+        SECUENCIA.setRelease(this, secuencia + 1);
+    }
+
+    /**
+     * Obtiene una copia coherente de las estadísticas sin bloquear al thread
+     * de monitoreo: si una escritura se cruza con la copia, se repite
+     * @return instantánea de las estadísticas
+     */
+    public InstantaneaEstadisticas instantanea() {
+        return leerCoherente(this::copiar);
+    }
+
+    /**
+     * Copia los valores para {@link #instantanea()}; solo es coherente dentro de {@link #leerCoherente}
+     */
+    private InstantaneaEstadisticas copiar() {
+        long ahoraMs = System.currentTimeMillis();
+        long[] horizontesMs = new long[ventanasDisponibilidad.length];
+        double[] disponibilidades = new double[ventanasDisponibilidad.length];
+        for (int i = 0; i < ventanasDisponibilidad.length; i++) {
+            horizontesMs[i] = ventanasDisponibilidad[i].getHorizonteMs();
+            disponibilidades[i] = ventanasDisponibilidad[i].getDisponibilidad(ahoraMs);
+        }
+        return new InstantaneaEstadisticas(host, secuencia >>> 1, totalChequeos, fallos,
+            disponibilidad, muestrasVentana == 0 ? 0.0 : (double) sumaTiemposRespuesta / muestrasVentana,
+            muestrasVentana < 2 ? 100.0 : 100.0 * (1.0 - ((double) cambiosVentana / muestrasVentana)),
+            ultimoDisponible, ultimoChequeoMs, ultimoFalloMs, inicioEstadoMs, ultimaTransicionMs, transiciones,
+            rachaActual, rachaMaximaDisponible, rachaMaximaNoDisponible,
+            getPercentilesMicros(ahoraMs, 50, 95, 99), getLatenciaMaximaMicros(ahoraMs),
+            horizontesMs, disponibilidades);
+    }
+
+    /**
+     * Hace una lectura que no se puede copiar campo a campo (por ejemplo, del
+     * historial de caídas) sin bloquear al thread de monitoreo: si una
+     * escritura se cruza con ella, se descarta lo leído, incluso una
+     * excepción causada por un estado a medio actualizar, y se repite
+     */
+    private <T> T leerCoherente(Supplier<T> lectura) {
+        while (true) {
+            long inicio = (long) SECUENCIA.getAcquire(this);
+            if ((inicio & 1) == 0) {
+                T valor = null;
+                RuntimeException error = null;
+                try {
+                    valor = lectura.get();
+                } catch (RuntimeException e) {
+                    error = e;
+                }
+                VarHandle.loadLoadFence();
+                if (secuencia == inicio) {
+                    if (error != null) {
+                        throw error;
+                    }
+                    return valor;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private static int palabrasEstado(int tamanoVentana) {
+        return (tamanoVentana + 63) >>> 6;
+    }
+
+    /**
+     * Convierte el orden de un chequeo en la ventana (0 = el más antiguo) en su posición en los arreglos
+     */
+    private int posicionVentana(int orden) {
+        int posicion = posicionVentana - muestrasVentana + orden;
+        return posicion < 0 ? posicion + tiemposRespuesta.length : posicion;
+    }
+
+    private boolean estadoEn(int posicion) {
+        return (estadosRecientes[posicion >>> 6] & (1L << posicion)) != 0;
     }
 
     /**
@@ -110,33 +438,188 @@ public class HostEstadisticas {
     }
 
     /**
-     * Calcula el tiempo de respuesta promedio
+     * Obtiene la disponibilidad en una ventana deslizante
+     * @param horizonte Duración de la ventana; null o cero para la disponibilidad total
+     * @return porcentaje de chequeos exitosos en la ventana (100 si no hubo chequeos en ella)
+     * @throws IllegalArgumentException si el host no mantiene una ventana con ese horizonte
+     */
+    public double getDisponibilidad(Duration horizonte) {
+        if (horizonte == null || horizonte.isZero()) {
+            return disponibilidad;
+        }
+        return ventanasDisponibilidad[indiceVentana(horizonte)].getDisponibilidad(System.currentTimeMillis());
+    }
+
+    private int indiceVentana(Duration horizonte) {
+        long horizonteMs = horizonte.toMillis();
+        for (int i = 0; i < ventanasDisponibilidad.length; i++) {
+            if (ventanasDisponibilidad[i].getHorizonteMs() == horizonteMs) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Ventana de disponibilidad no configurada: " + horizonte);
+    }
+
+    /**
+     * Obtiene las duraciones de las ventanas de disponibilidad que mantiene el host
+     * @return horizontes, en el orden en que se configuraron
+     */
+    public Duration[] getHorizontesDisponibilidad() {
+        Duration[] horizontes = new Duration[ventanasDisponibilidad.length];
+        for (int i = 0; i < horizontes.length; i++) {
+            horizontes[i] = Duration.ofMillis(ventanasDisponibilidad[i].getHorizonteMs());
+        }
+        return horizontes;
+    }
+
+    /**
+     * Calcula el tiempo de respuesta promedio de la ventana a partir de la suma acumulada
      */
     public double getTiempoRespuestaPromedio() {
-        if (tiemposRespuesta.isEmpty()) return 0.0;
-        return tiemposRespuesta.stream()
-                .mapToLong(Long::longValue)
-                .average()
-                .orElse(0.0);
+        if (muestrasVentana == 0) return 0.0;
+        return (double) sumaTiemposRespuesta / muestrasVentana;
+    }
+
+    /**
+     * Obtiene un percentil del tiempo de respuesta de los chequeos exitosos de
+     * la ventana de latencias (ver {@link #setVentanaLatencias(Duration)})
+     * @param percentil Percentil entre 0 y 100
+     * @return tiempo de respuesta en ms (0 si no hubo respuestas en la ventana)
+     */
+    public double getPercentilLatencia(double percentil) {
+        return getPercentilesMicros(System.currentTimeMillis(), percentil)[0] / 1000.0;
+    }
+
+    /**
+     * Obtiene el mayor tiempo de respuesta de los chequeos exitosos de la ventana de latencias
+     * @return tiempo de respuesta en ms (0 si no hubo respuestas en la ventana)
+     */
+    public double getLatenciaMaxima() {
+        return getLatenciaMaximaMicros(System.currentTimeMillis()) / 1000.0;
+    }
+
+    private long[] getPercentilesMicros(long ahoraMs, double... percentiles) {
+        VentanaLatencias ventana = ventanaLatencias;
+        return ventana != null ? ventana.getPercentiles(ahoraMs, percentiles)
+            : histogramaLatencias.getPercentiles(percentiles);
+    }
+
+    private long getLatenciaMaximaMicros(long ahoraMs) {
+        VentanaLatencias ventana = ventanaLatencias;
+        return ventana != null ? ventana.getMaximo(ahoraMs) : histogramaLatencias.getMaximo();
+    }
+
+    /**
+     * Cambia la ventana sobre la que se calculan los percentiles y el máximo de
+     * latencia; la nueva empieza vacía. Debe llamarse desde el thread que
+     * registra los chequeos o antes de empezar a monitorear.
+     * @param horizonte Duración de la ventana, o Duration.ZERO para usar todas las latencias desde el arranque
+     */
+    public void setVentanaLatencias(Duration horizonte) {
+        iniciarEscritura();
+        this.ventanaLatencias = horizonte.isZero() ? null : new VentanaLatencias(horizonte.toMillis());
+        terminarEscritura();
+    }
+
+    /**
+     * Obtiene la duración de la ventana de los percentiles de latencia
+     * @return duración de la ventana, Duration.ZERO si se usan todas las latencias desde el arranque
+     */
+    public Duration getVentanaLatencias() {
+        VentanaLatencias ventana = ventanaLatencias;
+        return ventana != null ? Duration.ofMillis(ventana.getHorizonteMs()) : Duration.ZERO;
+    }
+
+    /**
+     * Obtiene el histograma de todas las latencias del host desde el arranque
+     * (para combinarlo con otros o reiniciarlo). Lo escribe el thread que registra los chequeos.
+     * @return histograma de latencias en microsegundos
+     */
+    public HistogramaLatencias getHistogramaLatencias() {
+        return histogramaLatencias;
+    }
+
+    /**
+     * Reemplaza el detector de anomalías de latencia (por ejemplo, con otra sensibilidad).
+     * Debe llamarse desde el thread que registra los chequeos o antes de empezar a monitorear.
+     * @param detectorAnomalias Detector nuevo, o null para no detectar anomalías
+     */
+    public void setDetectorAnomalias(DetectorAnomalias detectorAnomalias) {
+        iniciarEscritura();
+        this.detectorAnomalias = detectorAnomalias;
+        this.cambioAnomalia = DetectorAnomalias.Cambio.NINGUNO;
+        terminarEscritura();
+    }
+
+    /**
+     * Obtiene el detector de anomalías de latencia. Lo escribe el thread que registra los chequeos.
+     * @return detector, o null si la detección está desactivada
+     */
+    public DetectorAnomalias getDetectorAnomalias() {
+        return detectorAnomalias;
+    }
+
+    /**
+     * Indica si el último chequeo abrió o cerró una anomalía de latencia.
+     * Pensado para el thread que registra los chequeos, justo después de registrarChequeo.
+     */
+    public DetectorAnomalias.Cambio getCambioAnomalia() {
+        return cambioAnomalia;
     }
 
     /**
-     * Calcula la estabilidad basada en cambios de estado
+     * Calcula la estabilidad basada en cambios de estado, con el conteo que
+     * mantiene registrarChequeo (no se recorre la ventana)
      */
     public double getEstabilidad() {
-        if (estadosRecientes.size() < 2) return 100.0;
-        
-        int cambios = 0;
-        boolean estadoAnterior = estadosRecientes.peek();
-        
-        for (boolean estado : estadosRecientes) {
-            if (estado != estadoAnterior) {
-                cambios++;
-            }
-            estadoAnterior = estado;
-        }
-        
-        return 100.0 * (1.0 - ((double)cambios / estadosRecientes.size()));
+        if (muestrasVentana < 2) return 100.0;
+        return 100.0 * (1.0 - ((double)cambiosVentana / muestrasVentana));
+    }
+
+    /**
+     * Obtiene cuánto tiempo lleva el host en su estado actual
+     * @return duración desde el último cambio de estado (o desde el primer chequeo), Duration.ZERO sin chequeos
+     */
+    public Duration getTiempoEnEstado() {
+        if (totalChequeos == 0) return Duration.ZERO;
+        return Duration.ofMillis(Math.max(0, System.currentTimeMillis() - inicioEstadoMs));
+    }
+
+    /**
+     * Obtiene la fecha y hora del último cambio de estado
+     * @return instante del último cambio, o null si el host nunca cambió de estado
+     */
+    public LocalDateTime getUltimaTransicion() {
+        if (transiciones == 0) return null;
+        return aFechaHora(ultimaTransicionMs);
+    }
+
+    /**
+     * Obtiene los cambios de estado desde el primer chequeo
+     */
+    public int getTransiciones() {
+        return transiciones;
+    }
+
+    /**
+     * Obtiene los chequeos consecutivos en el estado actual
+     */
+    public int getRachaActual() {
+        return rachaActual;
+    }
+
+    /**
+     * Obtiene la racha más larga de chequeos consecutivos con el host disponible
+     */
+    public int getRachaMaximaDisponible() {
+        return rachaMaximaDisponible;
+    }
+
+    /**
+     * Obtiene la racha más larga de chequeos consecutivos con el host caído
+     */
+    public int getRachaMaximaNoDisponible() {
+        return rachaMaximaNoDisponible;
     }
 
     /**
@@ -144,52 +627,226 @@ public class HostEstadisticas {
      */
     public String getResumen() {
         return String.format("Host: %s\nDisponibilidad: %.2f%%\nTiempo de respuesta promedio: %.2fms\n" +
+            "Latencia p50/p95/p99/máx: %.2f/%.2f/%.2f/%.2fms\n" +
             "Estabilidad: %.2f%%\nTotal chequeos: %d\nFallos: %d\nÚltimo chequeo: %s\nÚltimo fallo: %s",
-            host, getDisponibilidad(), getTiempoRespuestaPromedio(), getEstabilidad(),
+            host, getDisponibilidad(), getTiempoRespuestaPromedio(),
+            getPercentilLatencia(50), getPercentilLatencia(95), getPercentilLatencia(99), getLatenciaMaxima(),
+            getEstabilidad(),
             totalChequeos, fallos, 
-            ultimoChequeo != null ? ultimoChequeo.toString() : "N/A",
-            ultimoFallo != null ? ultimoFallo.toString() : "N/A");
+            ultimoChequeoMs != 0 ? aFechaHora(ultimoChequeoMs).toString() : "N/A",
+            ultimoFalloMs != 0 ? aFechaHora(ultimoFalloMs).toString() : "N/A");
     }
 
     /**
-     * Agrega una nueva métrica personalizada
+     * Agrega una nueva métrica personalizada. Su valor se reutiliza hasta el
+     * próximo chequeo, así que el calculador debe depender solo de las estadísticas
      */
     public void agregarMetrica(String nombre, String descripcion, MetricaCalculable calculador) {
-        metricas.add(new Metrica(nombre, descripcion) {
+        agregarMetrica(nombre, descripcion, calculador, null);
+    }
+
+    /**
+     * Agrega una nueva métrica personalizada que depende también del reloj
+     * @param vigencia Cuánto se reutiliza un valor aunque no haya chequeos (Duration.ZERO = recalcular
+     *                 en cada consulta, null = hasta el próximo chequeo)
+     */
+    public void agregarMetrica(String nombre, String descripcion, MetricaCalculable calculador, Duration vigencia) {
+        registrarMetrica(new Metrica(nombre, descripcion) {
             @Override
             public double calcular() {
                 return calculador.calcular(HostEstadisticas.this);
             }
+
+            @Override
+            protected long vigenteHasta(long calculadaMs) {
+                return vigencia == null ? Long.MAX_VALUE : calculadaMs + vigencia.toMillis();
+            }
         });
     }
 
+    private void registrarMetrica(Metrica metrica) {
+        metricas.add(metrica);
+        metricasPorNombre.put(metrica.getNombre(), metrica);
+    }
+
     /**
-     * Obtiene todas las métricas calculadas
+     * Obtiene todas las métricas calculadas. Solo se recalculan las que
+     * cambiaron desde la consulta anterior; si ninguna cambió se devuelve la
+     * misma lista (inmodificable) que la vez anterior
      */
     public List<ResultadoMetrica> obtenerMetricas() {
-        List<ResultadoMetrica> resultados = new ArrayList<>();
-        LocalDateTime timestamp = LocalDateTime.now();
-        
+        List<ResultadoMetrica> anteriores = ultimasMetricas;
+        List<ResultadoMetrica> resultados = null;
+        int indice = 0;
         for (Metrica metrica : metricas) {
-            resultados.add(new ResultadoMetrica(
-                metrica.getNombre(),
-                metrica.getDescripcion(),
-                metrica.calcular(),
-                timestamp
-            ));
+            ResultadoMetrica resultado = evaluar(metrica);
+            if (resultados == null && (indice >= anteriores.size() || anteriores.get(indice) != resultado)) {
+                resultados = new ArrayList<>(metricas.size());
+                resultados.addAll(anteriores.subList(0, indice));
+            }
+            if (resultados != null) {
+                resultados.add(resultado);
+            }
+            indice++;
+        }
+        if (resultados == null) {
+            if (indice == anteriores.size()) {
+                return anteriores;
+            }
+            resultados = new ArrayList<>(anteriores.subList(0, indice));
+        }
+        List<ResultadoMetrica> lista = Collections.unmodifiableList(resultados);
+        ultimasMetricas = lista;
+        return lista;
+    }
+
+    /**
+     * Obtiene una métrica por nombre, recalculándola solo si cambió
+     * @param nombre Nombre de la métrica
+     * @return resultado de la métrica, o null si el host no la tiene
+     */
+    public ResultadoMetrica obtenerMetrica(String nombre) {
+        Metrica metrica = metricasPorNombre.get(nombre);
+        return metrica == null ? null : evaluar(metrica);
+    }
+
+    /**
+     * Evalúa una métrica en varios hosts de una pasada; los hosts sin chequeos
+     * nuevos devuelven el valor guardado sin recalcular
+     * @param nombre Nombre de la métrica
+     * @param hosts Estadísticas de los hosts
+     * @return resultado por host, en el orden recibido (se omiten los hosts sin esa métrica)
+     */
+    public static Map<String, ResultadoMetrica> evaluarMetrica(String nombre, Collection<HostEstadisticas> hosts) {
+        Map<String, ResultadoMetrica> resultados = new LinkedHashMap<>();
+        for (HostEstadisticas estadisticas : hosts) {
+            ResultadoMetrica resultado = estadisticas.obtenerMetrica(nombre);
+            if (resultado != null) {
+                resultados.put(estadisticas.host, resultado);
+            }
         }
-        
         return resultados;
     }
 
-    public ArrayList<LocalDateTime> getHistoricoFallos() {
-        return new ArrayList<>(historicoFallos);
+    /**
+     * Devuelve el resultado guardado de una métrica si sigue vigente o la
+     * recalcula. El cálculo se hace como una lectura del seqlock: si se cruza
+     * con un chequeo se repite, así que el valor guardado corresponde
+     * exactamente a la versión con la que se marca
+     */
+    private ResultadoMetrica evaluar(Metrica metrica) {
+        while (true) {
+            long inicio = (long) SECUENCIA.getAcquire(this);
+            if ((inicio & 1) == 0) {
+                long version = inicio >>> 1;
+                long ahoraMs = System.currentTimeMillis();
+                ResultadoMetrica guardado = metrica.getGuardado(version, ahoraMs);
+                if (guardado != null) {
+                    return guardado;
+                }
+                double valor = 0;
+                RuntimeException error = null;
+                try {
+                    valor = metrica.calcular();
+                } catch (RuntimeException e) {
+                    error = e;          // Puede deberse a un estado a medio actualizar: se decide tras validar
+                }
+                VarHandle.loadLoadFence();
+                if (secuencia == inicio) {
+                    if (error != null) {
+                        throw error;
+                    }
+                    ResultadoMetrica resultado = new ResultadoMetrica(metrica.getNombre(), metrica.getDescripcion(),
+                        valor, LocalDateTime.now(), version, metrica.vigenteHasta(ahoraMs));
+                    metrica.guardar(resultado);
+                    return resultado;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Obtiene las caídas del host que se solapan con un rango
+     * @param desde Inicio del rango (incluido)
+     * @param hasta Fin del rango (excluido)
+     * @return caídas en orden cronológico
+     */
+    public List<IntervaloCaida> getCaidasEntre(LocalDateTime desde, LocalDateTime hasta) {
+        long desdeMs = aEpochMs(desde);
+        long hastaMs = aEpochMs(hasta);
+        return leerCoherente(() -> historialCaidas.caidasEntre(desdeMs, hastaMs));
+    }
+
+    /**
+     * Calcula cuánto tiempo estuvo caído el host dentro de un rango
+     * @param desde Inicio del rango (incluido)
+     * @param hasta Fin del rango (excluido)
+     * @return tiempo caído dentro del rango
+     */
+    public Duration getTiempoCaidoEntre(LocalDateTime desde, LocalDateTime hasta) {
+        long desdeMs = aEpochMs(desde);
+        long hastaMs = aEpochMs(hasta);
+        return Duration.ofMillis(leerCoherente(() -> historialCaidas.tiempoCaidoEntre(desdeMs, hastaMs)));
+    }
+
+    /**
+     * Obtiene la caída más reciente del host
+     * @return última caída (abierta hasta ahora si sigue en curso), o null si el host nunca cayó
+     */
+    public IntervaloCaida getUltimaCaida() {
+        return leerCoherente(historialCaidas::getUltima);
+    }
+
+    private static LocalDateTime aFechaHora(long epochMs) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZoneId.systemDefault());
+    }
+
+    private static long aEpochMs(LocalDateTime fechaHora) {
+        return fechaHora.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Métrica sobre la ventana de latencias: también cambia cuando la ventana avanza
+     */
+    private abstract class MetricaLatencia extends Metrica {
+        MetricaLatencia(String nombre, String descripcion) {
+            super(nombre, descripcion);
+        }
+
+        @Override
+        protected long vigenteHasta(long calculadaMs) {
+            VentanaLatencias ventana = ventanaLatencias;
+            return ventana != null ? ventana.getProximoAvanceMs(calculadaMs) : Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Obtiene el historial de caídas. Lo escribe el thread que registra los
+     * chequeos y no es seguro para hilos: desde otros threads se consulta con
+     * {@link #getCaidasEntre}, {@link #getTiempoCaidoEntre} y {@link #getUltimaCaida()}
+     * @return historial de caídas del host
+     */
+    public HistorialCaidas getHistorialCaidas() {
+        return historialCaidas;
     }
 
     public double getDisponibilidad() {
         return disponibilidad;
     }
     
+    /**
+     * Indica el resultado del último chequeo
+     * @return true si el último chequeo encontró el host disponible (false si aún no hubo chequeos)
+     */
+    public boolean isUltimoDisponible() {
+        return ultimoDisponible;
+    }
+    
+    public int getTamanoVentana() {
+        return tiemposRespuesta.length;
+    }
+    
     public int getTotalChequeos() {
         return totalChequeos;
     }
@@ -200,11 +857,13 @@ public class HostEstadisticas {
 }
 
 /**
- * Clase abstracta base para métricas
+ * Clase abstracta base para métricas. Guarda su último resultado, que lleva
+ * la versión de las estadísticas en que se calculó y hasta cuándo vale.
  */
 abstract class Metrica {
     private final String nombre;
     private final String descripcion;
+    private volatile ResultadoMetrica guardado;    // Último resultado calculado (null = ninguno)
 
     public Metrica(String nombre, String descripcion) {
         this.nombre = nombre;
@@ -213,36 +872,29 @@ abstract class Metrica {
 
     public abstract double calcular();
 
-    public String getNombre() {
-        return nombre;
+    /**
+     * Indica hasta cuándo vale un valor si no llegan chequeos. Por defecto
+     * solo los chequeos lo cambian; las métricas que dependen del reloj lo redefinen
+     * @param calculadaMs Instante del cálculo (epoch ms)
+     * @return fin de la vigencia (epoch ms, excluido)
+     */
+    protected long vigenteHasta(long calculadaMs) {
+        return Long.MAX_VALUE;
     }
 
-    public String getDescripcion() {
-        return descripcion;
+    /**
+     * Obtiene el resultado guardado si se calculó en la versión indicada y sigue vigente
+     */
+    ResultadoMetrica getGuardado(long version, long ahoraMs) {
+        ResultadoMetrica resultado = guardado;
+        if (resultado != null && resultado.getVersion() == version && ahoraMs < resultado.vigenteHastaMs) {
+            return resultado;
+        }
+        return null;
     }
-}
-
-/**
- * Interfaz para métricas calculables personalizadas
- */
-interface MetricaCalculable {
-    double calcular(HostEstadisticas estadisticas);
-}
 
-/**
- * Clase que representa el resultado de una métrica
- */
-class ResultadoMetrica {
-    private final String nombre;
-    private final String descripcion;
-    private final double valor;
-    private final LocalDateTime timestamp;
-
-    public ResultadoMetrica(String nombre, String descripcion, double valor, LocalDateTime timestamp) {
-        this.nombre = nombre;
-        this.descripcion = descripcion;
-        this.valor = valor;
-        this.timestamp = timestamp;
+    void guardar(ResultadoMetrica resultado) {
+        guardado = resultado;
     }
 
     public String getNombre() {
@@ -252,13 +904,11 @@ class ResultadoMetrica {
     public String getDescripcion() {
         return descripcion;
     }
-
-    public double getValor() {
-        return valor;
-    }
-
-    public LocalDateTime getTimestamp() {
-        return timestamp;
-    }
 }
 
+/**
+ * Interfaz para métricas calculables personalizadas
+ */
+interface MetricaCalculable {
+    double calcular(HostEstadisticas estadisticas);
+}
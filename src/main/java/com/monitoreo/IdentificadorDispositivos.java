@@ -142,15 +142,11 @@ public class IdentificadorDispositivos {
 
     public String obtenerNombreHost(InetAddress address) {
         try {
-            String hostName = address.getHostName();
+            // La resolución inversa pasa por la caché compartida para no repetirla en cada escaneo
+            String hostName = CacheResolucion.compartida().nombreInverso(address);
             if (!hostName.equals(address.getHostAddress())) {
                 return hostName;
             }
-            InetAddress reverse = InetAddress.getByName(address.getHostAddress());
-            String reverseName = reverse.getHostName();
-            if (!reverseName.equals(address.getHostAddress())) {
-                return reverseName;
-            }
             return "Desconocido";
         } catch (Exception e) {
             return "Desconocido";
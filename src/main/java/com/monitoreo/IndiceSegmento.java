@@ -0,0 +1,239 @@
+package com.monitoreo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Índice de un segmento cerrado del diario de sondeos. Contiene un índice
+ * temporal disperso (el instante de uno de cada {@value #PASO_MUESTRA}
+ * registros) y, por cada dispositivo, la lista ordenada de las posiciones de
+ * sus registros. Como un segmento cerrado no cambia, el índice se construye
+ * una sola vez y se guarda junto al segmento (segmento-N.idx); las listas de
+ * posiciones se leen mapeadas desde ese archivo, así que solo el directorio
+ * de dispositivos y las muestras de tiempo ocupan memoria.
+ *
+ * Formato: cabecera de {@value #TAMANO_CABECERA} bytes (marca, versión,
+ * registros, paso de muestreo, dispositivos, instante de creación del
+ * segmento), muestras de tiempo (long), directorio ordenado por clave (clave
+ * long, inicio int, cantidad int) y posiciones (int).
+ */
+public class IndiceSegmento {
+    public static final int PASO_MUESTRA = 256;
+    public static final String EXTENSION = ".idx";
+    private static final int MARCA = 0x4D445349;            // "MDSI"
+    private static final int VERSION = 1;
+    private static final int TAMANO_CABECERA = 32;
+    private static final int TAMANO_ENTRADA = 16;            // clave + inicio + cantidad
+
+    private final int registros;                // Registros indexados (todos los del segmento)
+    private final long[] muestras;              // Instante de los registros 0, PASO, 2*PASO...
+    private final long[] claves;                // Claves de dispositivo, ordenadas
+    private final int[] inicios;                // Primera posición de cada clave en 'posiciones'
+    private final int[] cantidades;             // Registros de cada clave
+    private final IntBuffer posiciones;         // Posiciones de registro agrupadas por clave (mapeadas)
+
+    private IndiceSegmento(int registros, long[] muestras, long[] claves, int[] inicios, int[] cantidades,
+                           IntBuffer posiciones) {
+        this.registros = registros;
+        this.muestras = muestras;
+        this.claves = claves;
+        this.inicios = inicios;
+        this.cantidades = cantidades;
+        this.posiciones = posiciones;
+    }
+
+    /**
+     * Obtiene el índice de un segmento cerrado, construyéndolo y guardándolo si no existe
+     * o no corresponde al segmento
+     * @param segmento Segmento cerrado
+     * @return índice del segmento
+     * @throws IOException si no se puede leer o escribir el índice
+     */
+    public static IndiceSegmento cargarOConstruir(SegmentoDiario segmento) throws IOException {
+        File archivo = archivoIndice(segmento.getArchivo());
+        int registros = segmento.contarRegistros();
+        if (archivo.isFile()) {
+            IndiceSegmento indice = cargar(archivo, segmento, registros);
+            if (indice != null) {
+                return indice;
+            }
+        }
+        construir(segmento, registros, archivo);
+        IndiceSegmento indice = cargar(archivo, segmento, registros);
+        if (indice == null) {
+            throw new IOException("Índice de segmento inválido: " + archivo);
+        }
+        return indice;
+    }
+
+    /**
+     * Obtiene el archivo de índice que corresponde a un archivo de segmento
+     * @param archivoSegmento Archivo del segmento (segmento-N.dat)
+     * @return archivo del índice (segmento-N.idx)
+     */
+    static File archivoIndice(File archivoSegmento) {
+        String nombre = archivoSegmento.getName();
+        String base = nombre.endsWith(DiarioSondeos.EXTENSION)
+            ? nombre.substring(0, nombre.length() - DiarioSondeos.EXTENSION.length()) : nombre;
+        return new File(archivoSegmento.getParentFile(), base + EXTENSION);
+    }
+
+    private static IndiceSegmento cargar(File archivo, SegmentoDiario segmento, int registros) throws IOException {
+        MappedByteBuffer buffer;
+        try (RandomAccessFile lectura = new RandomAccessFile(archivo, "r");
+             FileChannel canal = lectura.getChannel()) {
+            if (canal.size() < TAMANO_CABECERA) {
+                return null;
+            }
+            buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+        if (buffer.getInt(0) != MARCA || buffer.getInt(4) != VERSION || buffer.getInt(8) != registros
+                || buffer.getInt(12) != PASO_MUESTRA || buffer.getLong(24) != segmento.getInicioEpochNanos()) {
+            return null;    // Índice de otra versión o de un segmento que cambió
+        }
+        int numeroMuestras = cantidadMuestras(registros);
+        int numeroClaves = buffer.getInt(16);
+        long esperado = TAMANO_CABECERA + 8L * numeroMuestras + (long) TAMANO_ENTRADA * numeroClaves + 4L * registros;
+        if (buffer.capacity() != esperado) {
+            return null;
+        }
+        int posicion = TAMANO_CABECERA;
+        long[] muestras = new long[numeroMuestras];
+        for (int i = 0; i < numeroMuestras; i++, posicion += 8) {
+            muestras[i] = buffer.getLong(posicion);
+        }
+        long[] claves = new long[numeroClaves];
+        int[] inicios = new int[numeroClaves];
+        int[] cantidades = new int[numeroClaves];
+        for (int i = 0; i < numeroClaves; i++, posicion += TAMANO_ENTRADA) {
+            claves[i] = buffer.getLong(posicion);
+            inicios[i] = buffer.getInt(posicion + 8);
+            cantidades[i] = buffer.getInt(posicion + 12);
+        }
+        buffer.position(posicion);
+        IntBuffer posiciones = buffer.slice().asIntBuffer();
+        return new IndiceSegmento(registros, muestras, claves, inicios, cantidades, posiciones);
+    }
+
+    /**
+     * Recorre el segmento dos veces (conteo por clave y reparto de posiciones)
+     * y escribe el índice en un archivo temporal que luego se renombra
+     */
+    private static void construir(SegmentoDiario segmento, int registros, File archivo) throws IOException {
+        Map<Long, int[]> conteos = new HashMap<>();
+        for (int i = 0; i < registros; i++) {
+            conteos.computeIfAbsent(segmento.getClave(i), clave -> new int[1])[0]++;
+        }
+        long[] claves = new long[conteos.size()];
+        int n = 0;
+        for (Long clave : conteos.keySet()) {
+            claves[n++] = clave;
+        }
+        Arrays.sort(claves);
+        int[] inicios = new int[claves.length];
+        int[] cantidades = new int[claves.length];
+        int acumulado = 0;
+        for (int i = 0; i < claves.length; i++) {
+            int[] conteo = conteos.get(claves[i]);
+            inicios[i] = acumulado;
+            cantidades[i] = conteo[0];
+            acumulado += conteo[0];
+            conteo[0] = inicios[i];     // Pasa a ser el cursor de escritura de la clave
+        }
+        int numeroMuestras = cantidadMuestras(registros);
+        ByteBuffer salida = ByteBuffer.allocate(TAMANO_CABECERA + 8 * numeroMuestras
+            + TAMANO_ENTRADA * claves.length + 4 * registros);
+        salida.putInt(0, MARCA);
+        salida.putInt(4, VERSION);
+        salida.putInt(8, registros);
+        salida.putInt(12, PASO_MUESTRA);
+        salida.putInt(16, claves.length);
+        salida.putLong(24, segmento.getInicioEpochNanos());
+        int posicion = TAMANO_CABECERA;
+        for (int i = 0; i < numeroMuestras; i++, posicion += 8) {
+            salida.putLong(posicion, segmento.getInstante(i * PASO_MUESTRA));
+        }
+        for (int i = 0; i < claves.length; i++, posicion += TAMANO_ENTRADA) {
+            salida.putLong(posicion, claves[i]);
+            salida.putInt(posicion + 8, inicios[i]);
+            salida.putInt(posicion + 12, cantidades[i]);
+        }
+        int basePosiciones = posicion;
+        for (int i = 0; i < registros; i++) {
+            int[] cursor = conteos.get(segmento.getClave(i));
+            salida.putInt(basePosiciones + 4 * cursor[0]++, i);
+        }
+
+        File temporal = new File(archivo.getPath() + ".tmp");
+        try (RandomAccessFile escritura = new RandomAccessFile(temporal, "rw");
+             FileChannel canal = escritura.getChannel()) {
+            escritura.setLength(0);
+            while (salida.hasRemaining()) {
+                canal.write(salida);
+            }
+            canal.force(false);
+        }
+        Files.move(temporal.toPath(), archivo.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int cantidadMuestras(int registros) {
+        return (registros + PASO_MUESTRA - 1) / PASO_MUESTRA;
+    }
+
+    /**
+     * Busca el primer registro con instante mayor o igual al indicado: la
+     * búsqueda en las muestras acota el tramo a {@value #PASO_MUESTRA} registros
+     * @param segmento Segmento al que corresponde el índice
+     * @param desde Instante buscado
+     * @return índice del registro, o el total de registros si ninguno alcanza el instante
+     */
+    public int primerRegistroDesde(SegmentoDiario segmento, long desde) {
+        int muestra = Arrays.binarySearch(muestras, desde);
+        if (muestra >= 0) {
+            return muestra * PASO_MUESTRA;      // Los instantes no se repiten
+        }
+        int siguiente = -muestra - 1;           // Primera muestra mayor que 'desde'
+        if (siguiente == 0) {
+            return 0;
+        }
+        int bajo = (siguiente - 1) * PASO_MUESTRA + 1;
+        int alto = Math.min(registros, siguiente * PASO_MUESTRA);
+        return segmento.primerRegistroDesde(desde, bajo, alto);
+    }
+
+    /**
+     * Obtiene las posiciones de los registros de un dispositivo, en orden cronológico
+     * @param claveDispositivo Clave del dispositivo
+     * @return posiciones de registro (vacío si el dispositivo no aparece en el segmento)
+     */
+    public int[] posiciones(long claveDispositivo) {
+        int entrada = Arrays.binarySearch(claves, claveDispositivo);
+        if (entrada < 0) {
+            return new int[0];
+        }
+        int[] resultado = new int[cantidades[entrada]];
+        IntBuffer vista = posiciones.duplicate();
+        vista.position(inicios[entrada]);
+        vista.get(resultado);
+        return resultado;
+    }
+
+    public int getRegistros() {
+        return registros;
+    }
+
+    public int getCantidadDispositivos() {
+        return claves.length;
+    }
+}
@@ -55,7 +55,8 @@ public class InformeRedesPDF extends ReportePDFBase {
         double disponibilidadTotal = 0;
         double tiempoRespuestaTotal = 0;
 
-        for (HostEstadisticas stats : estadisticas.values()) {
+        for (HostEstadisticas estadisticasHost : estadisticas.values()) {
+            InstantaneaEstadisticas stats = estadisticasHost.instantanea();
             if (stats.getDisponibilidad() > 0) hostsActivos++;
             disponibilidadTotal += stats.getDisponibilidad();
             tiempoRespuestaTotal += stats.getTiempoRespuestaPromedio();
@@ -94,7 +95,7 @@ public class InformeRedesPDF extends ReportePDFBase {
         document.add(detalleTitulo);
 
         Table tablaDispositivos = new Table(
-                UnitValue.createPercentArray(new float[]{2, 2, 1.5f, 1.5f, 1.5f, 1.5f, 1.5f}))
+                UnitValue.createPercentArray(new float[]{2, 2, 1.5f, 1.5f, 1.5f, 1.5f, 1.5f, 1.5f}))
                 .useAllAvailableWidth()
                 .setMarginBottom(20);
 
@@ -103,14 +104,16 @@ public class InformeRedesPDF extends ReportePDFBase {
         tablaDispositivos.addHeaderCell(new Cell().add(new Paragraph("Estado").setBold()));
         tablaDispositivos.addHeaderCell(new Cell().add(new Paragraph("Disponibilidad").setBold()));
         tablaDispositivos.addHeaderCell(new Cell().add(new Paragraph("Tiempo Resp.").setBold()));
+        tablaDispositivos.addHeaderCell(new Cell().add(new Paragraph("p95").setBold()));
         tablaDispositivos.addHeaderCell(new Cell().add(new Paragraph("Chequeos").setBold()));
         tablaDispositivos.addHeaderCell(new Cell().add(new Paragraph("Fallos").setBold()));
 
         for (Dispositivos dispositivo : dispositivos) {
-            HostEstadisticas stats = estadisticas.get(dispositivo.getId());
-            if (stats == null) {
+            HostEstadisticas estadisticasHost = estadisticas.get(dispositivo.getId());
+            if (estadisticasHost == null) {
                 continue;
             }
+            InstantaneaEstadisticas stats = estadisticasHost.instantanea();
 
             tablaDispositivos.addCell(dispositivo.getId());
             tablaDispositivos.addCell(dispositivo.getDireccionIP());
@@ -125,6 +128,7 @@ public class InformeRedesPDF extends ReportePDFBase {
 
             tablaDispositivos.addCell(String.format("%.2f%%", stats.getDisponibilidad()));
             tablaDispositivos.addCell(String.format("%.2f ms", stats.getTiempoRespuestaPromedio()));
+            tablaDispositivos.addCell(String.format("%.2f ms", stats.getPercentilLatencia(95)));
             tablaDispositivos.addCell(String.valueOf(stats.getTotalChequeos()));
             tablaDispositivos.addCell(String.valueOf(stats.getFallos()));
         }
@@ -140,7 +144,7 @@ public class InformeRedesPDF extends ReportePDFBase {
         document.add(estadisticasTitulo);
 
         for (Map.Entry<String, HostEstadisticas> entrada : estadisticas.entrySet()) {
-            HostEstadisticas stats = entrada.getValue();
+            InstantaneaEstadisticas stats = entrada.getValue().instantanea();
 
             Paragraph dispositivoTitulo = new Paragraph("Dispositivo: " + entrada.getKey())
                     .setFontSize(14)
@@ -151,9 +155,14 @@ public class InformeRedesPDF extends ReportePDFBase {
 
             Paragraph info = new Paragraph(String.format(
                     "Disponibilidad: %.2f%% | Tiempo de respuesta promedio: %.2f ms | " +
+                    "p50/p95/p99/máx: %.2f/%.2f/%.2f/%.2f ms | " +
                     "Total de chequeos: %d | Fallos: %d | Estabilidad: %.2f%%",
                     stats.getDisponibilidad(),
                     stats.getTiempoRespuestaPromedio(),
+                    stats.getPercentilLatencia(50),
+                    stats.getPercentilLatencia(95),
+                    stats.getPercentilLatencia(99),
+                    stats.getLatenciaMaxima(),
                     stats.getTotalChequeos(),
                     stats.getFallos(),
                     stats.getEstabilidad()))
@@ -0,0 +1,209 @@
+package com.monitoreo;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Copia inmutable y coherente de las estadísticas de un host, tomada con
+ * {@link HostEstadisticas#instantanea()}. Todos sus valores corresponden al
+ * mismo chequeo, así que los lectores (interfaz, reportes) pueden combinarlos
+ * sin ver un estado a medio actualizar.
+ */
+public class InstantaneaEstadisticas {
+    private final String host;
+    private final long version;                     // Escrituras hechas al tomar la copia (crece con cada chequeo)
+    private final int totalChequeos;
+    private final int fallos;
+    private final double disponibilidad;
+    private final double tiempoRespuestaPromedio;   // ms, sobre la ventana de chequeos recientes
+    private final double estabilidad;
+    private final boolean ultimoDisponible;
+    private final long ultimoChequeoMs;             // 0 = ninguno
+    private final long ultimoFalloMs;               // 0 = ninguno
+    private final long inicioEstadoMs;
+    private final long ultimaTransicionMs;          // 0 = ninguna
+    private final int transiciones;
+    private final int rachaActual;
+    private final int rachaMaximaDisponible;
+    private final int rachaMaximaNoDisponible;
+    private final double latenciaP50;               // ms
+    private final double latenciaP95;               // ms
+    private final double latenciaP99;               // ms
+    private final double latenciaMaxima;            // ms
+    private final long[] horizontesMs;              // Duración de cada ventana de disponibilidad
+    private final double[] disponibilidades;        // Disponibilidad en cada ventana (%)
+
+    InstantaneaEstadisticas(String host, long version, int totalChequeos, int fallos, double disponibilidad,
+                            double tiempoRespuestaPromedio, double estabilidad, boolean ultimoDisponible,
+                            long ultimoChequeoMs, long ultimoFalloMs, long inicioEstadoMs,
+                            long ultimaTransicionMs, int transiciones, int rachaActual,
+                            int rachaMaximaDisponible, int rachaMaximaNoDisponible, long[] percentilesMicros,
+                            long latenciaMaximaMicros, long[] horizontesMs, double[] disponibilidades) {
+        this.host = host;
+        this.version = version;
+        this.totalChequeos = totalChequeos;
+        this.fallos = fallos;
+        this.disponibilidad = disponibilidad;
+        this.tiempoRespuestaPromedio = tiempoRespuestaPromedio;
+        this.estabilidad = estabilidad;
+        this.ultimoDisponible = ultimoDisponible;
+        this.ultimoChequeoMs = ultimoChequeoMs;
+        this.ultimoFalloMs = ultimoFalloMs;
+        this.inicioEstadoMs = inicioEstadoMs;
+        this.ultimaTransicionMs = ultimaTransicionMs;
+        this.transiciones = transiciones;
+        this.rachaActual = rachaActual;
+        this.rachaMaximaDisponible = rachaMaximaDisponible;
+        this.rachaMaximaNoDisponible = rachaMaximaNoDisponible;
+        this.latenciaP50 = percentilesMicros[0] / 1000.0;
+        this.latenciaP95 = percentilesMicros[1] / 1000.0;
+        this.latenciaP99 = percentilesMicros[2] / 1000.0;
+        this.latenciaMaxima = latenciaMaximaMicros / 1000.0;
+        this.horizontesMs = horizontesMs;
+        this.disponibilidades = disponibilidades;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getTotalChequeos() {
+        return totalChequeos;
+    }
+
+    public int getFallos() {
+        return fallos;
+    }
+
+    public double getDisponibilidad() {
+        return disponibilidad;
+    }
+
+    /**
+     * Obtiene la disponibilidad en una ventana deslizante, al momento de la copia
+     * @param horizonte Duración de la ventana; null o cero para la disponibilidad total
+     * @return porcentaje de chequeos exitosos en la ventana
+     * @throws IllegalArgumentException si el host no mantiene una ventana con ese horizonte
+     */
+    public double getDisponibilidad(Duration horizonte) {
+        if (horizonte == null || horizonte.isZero()) {
+            return disponibilidad;
+        }
+        long buscado = horizonte.toMillis();
+        for (int i = 0; i < horizontesMs.length; i++) {
+            if (horizontesMs[i] == buscado) {
+                return disponibilidades[i];
+            }
+        }
+        throw new IllegalArgumentException("Ventana de disponibilidad no configurada: " + horizonte);
+    }
+
+    /**
+     * Obtiene los horizontes de las ventanas de disponibilidad incluidas en la copia
+     * @return duración de cada ventana, en el orden en que las mantiene el host
+     */
+    public Duration[] getHorizontesDisponibilidad() {
+        Duration[] horizontes = new Duration[horizontesMs.length];
+        for (int i = 0; i < horizontes.length; i++) {
+            horizontes[i] = Duration.ofMillis(horizontesMs[i]);
+        }
+        return horizontes;
+    }
+
+    /**
+     * Indica si la copia incluye una ventana de disponibilidad
+     * @param horizonte Duración de la ventana
+     * @return true si hay una ventana con ese horizonte
+     */
+    public boolean tieneVentana(Duration horizonte) {
+        long buscado = horizonte.toMillis();
+        for (long horizonteMs : horizontesMs) {
+            if (horizonteMs == buscado) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public double getTiempoRespuestaPromedio() {
+        return tiempoRespuestaPromedio;
+    }
+
+    public double getEstabilidad() {
+        return estabilidad;
+    }
+
+    public boolean isUltimoDisponible() {
+        return ultimoDisponible;
+    }
+
+    public LocalDateTime getUltimoChequeo() {
+        return ultimoChequeoMs != 0 ? aFechaHora(ultimoChequeoMs) : null;
+    }
+
+    public LocalDateTime getUltimoFallo() {
+        return ultimoFalloMs != 0 ? aFechaHora(ultimoFalloMs) : null;
+    }
+
+    /**
+     * Obtiene cuánto tiempo lleva el host en su estado, medido al consultar
+     * @return duración desde el último cambio de estado, Duration.ZERO sin chequeos
+     */
+    public Duration getTiempoEnEstado() {
+        if (totalChequeos == 0) return Duration.ZERO;
+        return Duration.ofMillis(Math.max(0, System.currentTimeMillis() - inicioEstadoMs));
+    }
+
+    public LocalDateTime getUltimaTransicion() {
+        if (transiciones == 0) return null;
+        return aFechaHora(ultimaTransicionMs);
+    }
+
+    public int getTransiciones() {
+        return transiciones;
+    }
+
+    public int getRachaActual() {
+        return rachaActual;
+    }
+
+    public int getRachaMaximaDisponible() {
+        return rachaMaximaDisponible;
+    }
+
+    public int getRachaMaximaNoDisponible() {
+        return rachaMaximaNoDisponible;
+    }
+
+    /**
+     * Obtiene un percentil del tiempo de respuesta de los chequeos exitosos
+     * @param percentil 50, 95 o 99
+     * @return tiempo de respuesta en ms
+     */
+    public double getPercentilLatencia(int percentil) {
+        switch (percentil) {
+            case 50:
+                return latenciaP50;
+            case 95:
+                return latenciaP95;
+            case 99:
+                return latenciaP99;
+            default:
+                throw new IllegalArgumentException("Percentil no incluido en la instantánea: " + percentil);
+        }
+    }
+
+    public double getLatenciaMaxima() {
+        return latenciaMaxima;
+    }
+
+    private static LocalDateTime aFechaHora(long epochMs) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZoneId.systemDefault());
+    }
+}
@@ -6,13 +6,17 @@ import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.Font;
 import java.text.DecimalFormat;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.Flow;
 
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
+import javax.swing.JComboBox;
 import javax.swing.JDialog;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
@@ -53,6 +57,8 @@ public class InterfazGrafica extends VentanaMonitoreoBase {
     private JTextField txtIdDispositivo;             // Campo de texto para ID del dispositivo
     private JTextField txtIPDispositivo;             // Campo de texto para IP/Host del dispositivo
     private JSpinner spinnerIntervalo;               // Spinner para configurar intervalo de monitoreo
+    private JComboBox<String> comboVentana;          // Selector de la ventana de disponibilidad de la tabla
+    private Duration[] ventanasTabla;                // Ventana de cada opción del selector (cero = total)
     private javax.swing.Timer timerActualizacion;   // Timer para actualizar la tabla periódicamente
     private DecimalFormat formatoDecimal;          // Formateador para números decimales
 
@@ -72,12 +78,10 @@ public class InterfazGrafica extends VentanaMonitoreoBase {
         configurarInterfaz();
         configurarTimer();
         
-        // Configurar listener para recibir alertas del sistema de monitoreo
-        monitoreo.getManejoAlertas().agregarObservador(mensaje -> {
-            SwingUtilities.invokeLater(() -> {
-                agregarAlerta(mensaje);
-            });
-        });
+        // Suscribirse a las alertas del sistema de monitoreo; si la interfaz se atrasa
+        // se pierden las más antiguas en lugar de acumularlas en la cola de eventos de Swing
+        monitoreo.getManejoAlertas().suscribir(new SuscriptorAlertas(), ManejoAlertas.CAPACIDAD_OBSERVADOR,
+            PublicadorEventos.PoliticaDesborde.DESCARTAR_ANTIGUO);
         
         // Escanear red WiFi automáticamente al iniciar (opcional)
         escanearRedAlInicio();
@@ -151,7 +155,8 @@ public class InterfazGrafica extends VentanaMonitoreoBase {
      */
     private void inicializarComponentes() {
         // Configurar tabla de dispositivos con columnas predefinidas
-        String[] columnas = {"Dispositivo", "IP", "Estado", "Disponibilidad %", "Tiempo Resp. (ms)", "Total Chequeos", "Fallos"};
+        String[] columnas = {"Dispositivo", "IP", "Estado", "Disponibilidad %", "Tiempo Resp. (ms)", "p50 (ms)", "p95 (ms)",
+            "p99 (ms)", "Máx (ms)", "Total Chequeos", "Fallos"};
         tablaModelo = new DefaultTableModel(columnas, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -187,6 +192,20 @@ public class InterfazGrafica extends VentanaMonitoreoBase {
             BorderFactory.createEmptyBorder(5, 8, 5, 8)
         ));
         
+        // Configurar selector de la ventana de disponibilidad: total más cada ventana deslizante
+        Duration[] horizontes = monitoreo.getHorizontesDisponibilidad();
+        ventanasTabla = new Duration[horizontes.length + 1];
+        ventanasTabla[0] = Duration.ZERO;
+        System.arraycopy(horizontes, 0, ventanasTabla, 1, horizontes.length);
+        String[] opcionesVentana = new String[ventanasTabla.length];
+        for (int i = 0; i < ventanasTabla.length; i++) {
+            opcionesVentana[i] = VentanaDisponibilidad.etiqueta(ventanasTabla[i]);
+        }
+        comboVentana = new JComboBox<>(opcionesVentana);
+        comboVentana.setBackground(Color.WHITE);
+        comboVentana.setForeground(COLOR_TEXTO);
+        comboVentana.addActionListener(e -> actualizarTabla());
+        
         // Configurar spinner para intervalo de monitoreo (1-300 segundos, valor inicial 10)
         spinnerIntervalo = new JSpinner(new SpinnerNumberModel(10, 1, 300, 1));
         // Configurar colores del spinner: fondo negro y texto blanco
@@ -284,6 +303,10 @@ public class InterfazGrafica extends VentanaMonitoreoBase {
         panelControles.add(spinnerIntervalo);
         spinnerIntervalo.setEnabled(false);
         SwingUtilities.invokeLater(() -> estilizarBotonesSpinner(spinnerIntervalo));
+        JLabel lblVentana = new JLabel("Disponibilidad:");
+        lblVentana.setForeground(COLOR_TEXTO);
+        panelControles.add(lblVentana);
+        panelControles.add(comboVentana);
         panelControles.add(Box.createHorizontalStrut(10));
         panelControles.add(btnIniciar);
         panelControles.add(btnDetener);
@@ -424,16 +447,23 @@ public class InterfazGrafica extends VentanaMonitoreoBase {
         // Limpiar tabla antes de agregar nuevos datos
         tablaModelo.setRowCount(0);
         
+        Duration ventana = ventanasTabla[Math.max(0, comboVentana.getSelectedIndex())];
+        
         // Iterar sobre todos los dispositivos monitoreados
         for (String dispositivoId : monitoreo.getDispositivos()) {
             Dispositivos dispositivo = monitoreo.getDispositivo(dispositivoId);
-            HostEstadisticas stats = monitoreo.getEstadisticas(dispositivoId);
+            HostEstadisticas estadisticas = monitoreo.getEstadisticas(dispositivoId);
             
             // Si el dispositivo y sus estadísticas existen, agregar a la tabla
-            if (dispositivo != null && stats != null) {
+            if (dispositivo != null && estadisticas != null) {
+                InstantaneaEstadisticas stats = estadisticas.instantanea();
                 String estado = dispositivo.getEstado();
-                String disponibilidad = formatoDecimal.format(stats.getDisponibilidad()) + "%";
+                String disponibilidad = formatoDecimal.format(stats.getDisponibilidad(ventana)) + "%";
                 String tiempoRespuesta = formatoDecimal.format(stats.getTiempoRespuestaPromedio()) + " ms";
+                String p50 = formatoDecimal.format(stats.getPercentilLatencia(50));
+                String p95 = formatoDecimal.format(stats.getPercentilLatencia(95));
+                String p99 = formatoDecimal.format(stats.getPercentilLatencia(99));
+                String maxima = formatoDecimal.format(stats.getLatenciaMaxima());
                 
                 // Obtener total de chequeos y fallos
                 int totalChequeos = stats.getTotalChequeos();
@@ -446,6 +476,10 @@ public class InterfazGrafica extends VentanaMonitoreoBase {
                     estado,
                     disponibilidad,
                     tiempoRespuesta,
+                    p50,
+                    p95,
+                    p99,
+                    maxima,
                     totalChequeos,
                     fallos
                 };
@@ -812,11 +846,12 @@ public class InterfazGrafica extends VentanaMonitoreoBase {
             );
             
             if (confirmacion == JOptionPane.YES_OPTION) {
-                int agregados = 0;
+                // Alta en un solo lote para no competir fila a fila con el sondeo
+                List<Dispositivos> encontrados = new ArrayList<>(modelo.getRowCount());
                 for (int i = 0; i < modelo.getRowCount(); i++) {
-                    agregarDispositivoDesdeLista(modelo, i);
-                    agregados++;
+                    encontrados.add(crearDispositivoDesdeLista(modelo, i));
                 }
+                int agregados = monitoreo.agregarDispositivos(encontrados);
                 agregarAlerta("Se agregaron " + agregados + " dispositivos de la red WiFi al monitoreo");
                 actualizarTabla();
                 dialog.dispose();
@@ -868,6 +903,23 @@ public class InterfazGrafica extends VentanaMonitoreoBase {
      * @param fila Índice de la fila seleccionada en la tabla
      */
     private void agregarDispositivoDesdeLista(DefaultTableModel modelo, int fila) {
+        Dispositivos dispositivo = crearDispositivoDesdeLista(modelo, fila);
+        String id = dispositivo.getId();
+        String ip = dispositivo.getDireccionIP();
+        
+        // Agregar dispositivo al sistema de monitoreo
+        monitoreo.agregarDispositivo(id, ip);
+        agregarAlerta("Dispositivo agregado: " + id + " (" + ip + ")");
+    }
+
+    /**
+     * Crea el dispositivo correspondiente a una fila de la lista de dispositivos encontrados.
+     * 
+     * @param modelo Modelo de la tabla con los dispositivos encontrados
+     * @param fila Índice de la fila
+     * @return Dispositivo con el ID derivado del nombre de host o de la IP
+     */
+    private Dispositivos crearDispositivoDesdeLista(DefaultTableModel modelo, int fila) {
         String nombre = (String) modelo.getValueAt(fila, 0); // Host Name
         String ip = (String) modelo.getValueAt(fila, 1);     // IP Address
         
@@ -879,10 +931,7 @@ public class InterfazGrafica extends VentanaMonitoreoBase {
             // Si no hay nombre, usar la IP como base para el ID
             id = "Dispositivo_" + ip.replace(".", "_");
         }
-        
-        // Agregar dispositivo al sistema de monitoreo
-        monitoreo.agregarDispositivo(id, ip);
-        agregarAlerta("Dispositivo agregado: " + id + " (" + ip + ")");
+        return new Dispositivos(id, ip);
     }
 
     /**
@@ -958,9 +1007,9 @@ public class InterfazGrafica extends VentanaMonitoreoBase {
         if (timerActualizacion != null) {
             timerActualizacion.stop();
         }
-        // Detener monitoreo si está activo
-        if (monitoreo != null && monitoreo.estaActivo()) {
-            monitoreo.detenerMonitoreo();
+        // Detener el monitoreo y liberar sus recursos
+        if (monitoreo != null) {
+            monitoreo.cerrar();
         }
         super.dispose();
     }
@@ -1012,6 +1061,8 @@ public class InterfazGrafica extends VentanaMonitoreoBase {
         
         // Crear instancia del sistema de monitoreo con intervalo de 10 segundos
         Monitoreo monitoreo = new Monitoreo(hosts, 10);
+        // La ventana sale con System.exit, sin pasar por dispose()
+        Runtime.getRuntime().addShutdownHook(new Thread(monitoreo::cerrar, "monitoreo-cierre"));
         
         // Iniciar interfaz gráfica en el thread de eventos de Swing
         SwingUtilities.invokeLater(() -> {
@@ -1027,4 +1078,37 @@ public class InterfazGrafica extends VentanaMonitoreoBase {
             interfaz.setVisible(true);
         });
     }
+
+    /**
+     * Recibe las alertas del monitoreo y las muestra en el área de alertas.
+     * Pide la siguiente recién cuando el hilo de Swing mostró la anterior, así
+     * que en la cola de eventos de Swing hay como mucho una alerta pendiente y
+     * el resto espera (acotado) en el buffer de la suscripción.
+     */
+    private final class SuscriptorAlertas implements Flow.Subscriber<EventoSondeo> {
+        private Flow.Subscription suscripcion;
+
+        @Override
+        public void onSubscribe(Flow.Subscription suscripcion) {
+            this.suscripcion = suscripcion;
+            suscripcion.request(1);
+        }
+
+        @Override
+        public void onNext(EventoSondeo evento) {
+            SwingUtilities.invokeLater(() -> {
+                agregarAlerta(evento.getMensaje());
+                suscripcion.request(1);
+            });
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            SwingUtilities.invokeLater(() -> agregarAlerta("Error al recibir alertas: " + error.getMessage()));
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
 }
\ No newline at end of file
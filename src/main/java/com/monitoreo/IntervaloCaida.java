@@ -0,0 +1,57 @@
+package com.monitoreo;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Caída de un host leída del {@link HistorialCaidas}: desde el primer
+ * chequeo fallido hasta el primer chequeo exitoso posterior
+ */
+public class IntervaloCaida {
+    private final long inicioMs;        // Primer chequeo fallido (epoch ms)
+    private final long finMs;           // Primer chequeo exitoso posterior, o último fallido si sigue abierta
+    private final int fallos;           // Chequeos fallidos durante la caída
+    private final boolean abierta;      // true si el host sigue caído
+
+    public IntervaloCaida(long inicioMs, long finMs, int fallos, boolean abierta) {
+        this.inicioMs = inicioMs;
+        this.finMs = finMs;
+        this.fallos = fallos;
+        this.abierta = abierta;
+    }
+
+    public long getInicioMs() {
+        return inicioMs;
+    }
+
+    public long getFinMs() {
+        return finMs;
+    }
+
+    public LocalDateTime getInicio() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(inicioMs), ZoneId.systemDefault());
+    }
+
+    public LocalDateTime getFin() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(finMs), ZoneId.systemDefault());
+    }
+
+    public Duration getDuracion() {
+        return Duration.ofMillis(finMs - inicioMs);
+    }
+
+    public int getFallos() {
+        return fallos;
+    }
+
+    public boolean isAbierta() {
+        return abierta;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s - %s (%d fallos)", getInicio(), abierta ? "en curso" : getFin().toString(), fallos);
+    }
+}
@@ -1,33 +1,66 @@
 package com.monitoreo;
 
-import java.util.ArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 /**
- * Clase que maneja el sistema de alertas del monitoreo
+ * Clase que maneja el sistema de alertas del monitoreo. Las alertas se
+ * difunden como eventos de clase ALERTA por un {@link PublicadorEventos}
+ * propio: cada observador las recibe desde hilos del publicador, con su
+ * buffer acotado y su política de desborde, así que un observador lento no
+ * frena al thread de monitoreo.
  */
 public class ManejoAlertas {
-    private final ArrayList<Consumer<String>> observadores;
+    public static final int CAPACIDAD_OBSERVADOR = 256;     // Alertas pendientes por observador
+
+    private final PublicadorEventos publicador;
     private final double umbralDisponibilidad;
     private final int tiempoRespuestaMaximo;
 
     /**
-     * Constructor de ManejoAlertas
+     * Constructor de ManejoAlertas con un publicador por defecto
      * @param umbralDisponibilidad Porcentaje mínimo de disponibilidad aceptable
      * @param tiempoRespuestaMaximo Tiempo máximo de respuesta aceptable en ms
      */
     public ManejoAlertas(double umbralDisponibilidad, int tiempoRespuestaMaximo) {
-        this.observadores = new ArrayList<>();
+        this(umbralDisponibilidad, tiempoRespuestaMaximo, new PublicadorEventos());
+    }
+
+    /**
+     * Constructor de ManejoAlertas
+     * @param umbralDisponibilidad Porcentaje mínimo de disponibilidad aceptable
+     * @param tiempoRespuestaMaximo Tiempo máximo de respuesta aceptable en ms
+     * @param publicador Publicador por el que se difunden las alertas
+     */
+    public ManejoAlertas(double umbralDisponibilidad, int tiempoRespuestaMaximo, PublicadorEventos publicador) {
+        this.publicador = publicador;
         this.umbralDisponibilidad = umbralDisponibilidad;
         this.tiempoRespuestaMaximo = tiempoRespuestaMaximo;
     }
 
     /**
-     * Agrega un nuevo observador para recibir alertas
+     * Suscribe a las alertas con un buffer y una política de desborde propios
+     * @param suscriptor Receptor de los eventos de alerta
+     * @param capacidad Alertas pendientes de entrega que retiene el buffer
+     * @param politica Qué hacer cuando el buffer está lleno
+     */
+    public void suscribir(Flow.Subscriber<? super EventoSondeo> suscriptor, int capacidad,
+                          PublicadorEventos.PoliticaDesborde politica) {
+        publicador.suscribir(suscriptor, capacidad, politica);
+    }
+
+    /**
+     * Agrega un observador que recibe el texto de cada alerta. Pide las
+     * alertas de a una: la siguiente se entrega cuando el observador terminó
+     * con la anterior
      * @param observador Función que procesará la alerta
+     * @param capacidad Alertas pendientes de entrega que retiene el buffer
+     * @param politica Qué hacer cuando el buffer está lleno
      */
-    public void agregarObservador(Consumer<String> observador) {
-        observadores.add(observador);
+    public void agregarObservador(Consumer<String> observador, int capacidad,
+                                  PublicadorEventos.PoliticaDesborde politica) {
+        suscribir(new Observador(observador), capacidad, politica);
     }
 
     /**
@@ -35,8 +68,9 @@ public class ManejoAlertas {
      * @param mensaje Mensaje de alerta a enviar
      */
     public void notificarAlerta(String mensaje) {
-        for (Consumer<String> observador : observadores) {
-            observador.accept(mensaje);
+        if (publicador.hayInteresados()) {
+            publicador.publicar(EventoSondeo.alerta(
+                TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()), mensaje));
         }
     }
 
@@ -47,7 +81,55 @@ public class ManejoAlertas {
      * @return true si se debe generar una alerta, false en caso contrario
      */
     public boolean evaluarAlerta(double disponibilidad, int tiempoRespuesta) {
-        return disponibilidad < umbralDisponibilidad || 
+        return disponibilidad < umbralDisponibilidad ||
                tiempoRespuesta > tiempoRespuestaMaximo;
     }
-}
\ No newline at end of file
+
+    /**
+     * Obtiene las alertas perdidas por desborde en los observadores activos
+     * @return alertas descartadas
+     */
+    public long getDescartadas() {
+        return publicador.getDescartados();
+    }
+
+    /**
+     * Entrega las alertas pendientes, completa las suscripciones y libera los hilos de entrega
+     */
+    public void cerrar() {
+        publicador.cerrar();
+    }
+
+    /**
+     * Adapta un observador de texto a una suscripción que pide de a una alerta
+     */
+    private static final class Observador implements Flow.Subscriber<EventoSondeo> {
+        private final Consumer<String> observador;
+        private Flow.Subscription suscripcion;
+
+        Observador(Consumer<String> observador) {
+            this.observador = observador;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription suscripcion) {
+            this.suscripcion = suscripcion;
+            suscripcion.request(1);
+        }
+
+        @Override
+        public void onNext(EventoSondeo evento) {
+            observador.accept(evento.getMensaje());
+            suscripcion.request(1);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            System.err.println("Error en un observador de alertas: " + error.getMessage());
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.monitoreo;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Mide la memoria asignada por el hilo actual, para conocer cuánto cuesta en
+ * asignaciones procesar cada prueba. Usa la extensión de HotSpot de
+ * ThreadMXBean; en otras JVM la medición no está disponible.
+ */
+public final class MedidorAsignaciones {
+    private static final com.sun.management.ThreadMXBean BEAN = obtenerBean();
+
+    private MedidorAsignaciones() {
+    }
+
+    private static com.sun.management.ThreadMXBean obtenerBean() {
+        try {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean extendido = (com.sun.management.ThreadMXBean) bean;
+                if (extendido.isThreadAllocatedMemorySupported()) {
+                    extendido.setThreadAllocatedMemoryEnabled(true);
+                    return extendido;
+                }
+            }
+        } catch (LinkageError | UnsupportedOperationException e) {
+            // JVM sin la extensión de HotSpot
+        }
+        return null;
+    }
+
+    /**
+     * @return true si la JVM permite medir las asignaciones por hilo
+     */
+    public static boolean isDisponible() {
+        return BEAN != null;
+    }
+
+    /**
+     * Obtiene los bytes asignados por el hilo actual desde que arrancó
+     * @return bytes asignados, o -1 si la medición no está disponible
+     */
+    public static long bytesAsignadosHiloActual() {
+        return BEAN != null ? BEAN.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+}
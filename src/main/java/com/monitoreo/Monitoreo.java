@@ -1,11 +1,18 @@
 package com.monitoreo;
 
 import java.io.*;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Clase principal del sistema de monitoreo de hosts.
@@ -13,17 +20,34 @@ import java.util.Map;
  * genera alertas y mantiene estadísticas de rendimiento.
  */
 public class Monitoreo {
-    private final ArrayList<Dispositivos> listaDispositivos;  // Lista de dispositivos a monitorear
-    private final ArrayList<Eventos> registroEventos;        // Registro de eventos del sistema
+    private static final long ESPERA_CIERRE_MS = 5_000;      // Espera máxima al thread de monitoreo al cerrar
+
+    private final RegistroDispositivos registroDispositivos; // Dispositivos a monitorear (indexados por ID e IP)
+    private final AlmacenEventos registroEventos;            // Registro acotado de eventos del sistema
+    private final DiarioSondeos diarioSondeos;               // Historial binario de pruebas (null si está deshabilitado)
+    private final CompactadorHistorial compactadorHistorial; // Agregados por minuto y hora del historial (null sin diario)
+    private final AlmacenSeries almacenSeries;               // Series comprimidas de latencia por host (null si está deshabilitado)
+    private final int periodoCompactacion;                   // Segundos entre compactaciones del historial
     private final Verificador verificador;                   // Verificador de dispositivos
+    private final MotorSondeo motorSondeo;                   // Ejecuta las pruebas de cada ciclo en paralelo
+    private final PlanificadorSondeos planificador;          // Cadencia por dispositivo (rueda de temporización)
+    private final BlockingQueue<ResultadoSondeo> resultadosPendientes; // Resultados a procesar en el thread de monitoreo
+    private final CadenciaAdaptativa cadenciaAdaptativa;     // Cadencia según estabilidad (null si está deshabilitada)
+    private final ControlCiclos controlCiclos;               // Contabilidad y presupuesto de cada ciclo
+    private volatile ResumenCiclo ultimoCiclo;               // Resumen del último ciclo cerrado
     private final ManejoAlertas manejoAlertas;              // Sistema de manejo de alertas
+    private final PublicadorEventos publicadorEventos;       // Difusión de eventos estructurados a suscriptores
     private final Map<String, HostEstadisticas> estadisticas; // Estadísticas por dispositivo
     private final GeneradorReportes generadorReportes;       // Generador de reportes
     private final int intervalo;                             // Intervalo entre verificaciones en segundos
-    private static final String LOG_FILE = "monitoreo.log";  // Archivo de log
-    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private final int ventanaEstadisticas;                   // Chequeos recientes que guarda cada HostEstadisticas
+    private final Duration[] horizontesDisponibilidad;       // Ventanas deslizantes de disponibilidad de cada host
+    private final Duration ventanaAlertas;                   // Ventana con la que se evalúan las alertas (cero = total)
+    private final Configuracion configuracion;               // Configuración con la que se crean las estadísticas
+    private final EscritorLog escritorLog;                   // Log asíncrono (monitoreo.log)
     private Thread threadMonitoreo;                           // Thread para ejecutar el monitoreo
     private volatile boolean monitoreoActivo;                // Flag para controlar el monitoreo
+    private volatile boolean cerrado;                        // true tras cerrar(): no se puede volver a iniciar
 
     /**
      * Constructor de la clase Monitoreo
@@ -31,26 +55,75 @@ public class Monitoreo {
      * @param intervalo Intervalo entre verificaciones en segundos
      */
     public Monitoreo(ArrayList<String> hosts, int intervalo) {
-        this.listaDispositivos = new ArrayList<>();
-        this.registroEventos = new ArrayList<>();
+        this(hosts, intervalo, new Configuracion());
+    }
+
+    /**
+     * Constructor de la clase Monitoreo con configuración explícita
+     * @param hosts Lista de hosts a monitorear
+     * @param intervalo Intervalo entre verificaciones en segundos
+     * @param configuracion Configuración del sistema (concurrencia de sondeo, etc.)
+     */
+    public Monitoreo(ArrayList<String> hosts, int intervalo, Configuracion configuracion) {
+        this.escritorLog = EscritorLog.compartido();
+        this.registroDispositivos = new RegistroDispositivos();
+        this.registroEventos = new AlmacenEventos(configuracion.getCapacidadEventos(),
+            configuracion.getRetencionEventosSegundos(), registroDispositivos);
         this.intervalo = intervalo;
-        this.estadisticas = new HashMap<>();
-        this.verificador = new Verificador();
-        this.manejoAlertas = new ManejoAlertas(99.0, 2000);
+        this.configuracion = configuracion;
+        this.ventanaEstadisticas = configuracion.getVentanaEstadisticas();
+        this.ventanaAlertas = configuracion.getVentanaAlertas();
+        this.horizontesDisponibilidad = unirVentanas(configuracion.getVentanasDisponibilidad(),
+            ventanaAlertas, configuracion.getVentanaReportes());
+        this.estadisticas = new ConcurrentHashMap<>();
+        this.verificador = new Verificador(configuracion.isEcoSondeo());
+        this.motorSondeo = new MotorSondeo(verificador,
+            configuracion.getConcurrenciaSondeo(), configuracion.isHilosVirtuales());
+        this.planificador = new PlanificadorSondeos(intervalo,
+            configuracion.getTickPlanificacionMs(), configuracion.getJitterPlanificacion());
+        this.resultadosPendientes = new LinkedBlockingQueue<>();
+        this.cadenciaAdaptativa = configuracion.isCadenciaAdaptativa()
+            ? new CadenciaAdaptativa(configuracion.getIntervaloMinimoAdaptativo(),
+                configuracion.getIntervaloMaximoAdaptativo(), configuracion.getFactorAdaptativo(),
+                CadenciaAdaptativa.DISPONIBILIDAD_POR_DEFECTO, CadenciaAdaptativa.ESTABILIDAD_POR_DEFECTO)
+            : null;
+        if (cadenciaAdaptativa != null) {
+            cadenciaAdaptativa.setVentanaDisponibilidad(ventanaAlertas);     // Siempre está entre los horizontes
+        }
+        this.controlCiclos = new ControlCiclos(intervalo * 1_000_000_000L, planificador.getDuracionTickNanos(),
+            configuracion.getPresupuestoPruebas(), configuracion.getPoliticaSobrecarga());
+        this.diarioSondeos = configuracion.isDiarioHabilitado() ? abrirDiario(configuracion) : null;
+        if (diarioSondeos != null) {
+            diarioSondeos.getConsulta().setRegistroDispositivos(registroDispositivos);
+        }
+        this.compactadorHistorial = diarioSondeos != null ? abrirCompactador(diarioSondeos, configuracion) : null;
+        this.periodoCompactacion = configuracion.getPeriodoCompactacionSegundos();
+        this.almacenSeries = configuracion.isSeriesHabilitadas() ? abrirSeries(configuracion) : null;
+        this.manejoAlertas = new ManejoAlertas(99.0, 2000, new PublicadorEventos(configuracion.getCapacidadSuscripcion(),
+            configuracion.getPoliticaSuscripcion(), configuracion.getEsperaBloqueoSuscripcionMs()));
+        this.publicadorEventos = new PublicadorEventos(configuracion.getCapacidadSuscripcion(),
+            configuracion.getPoliticaSuscripcion(), configuracion.getEsperaBloqueoSuscripcionMs());
+        CacheResolucion.compartida().configurarTtl(
+            configuracion.getTtlResolucion(), configuracion.getTtlResolucionNegativa());
         
         // Convertir los hosts a dispositivos
+        List<Dispositivos> iniciales = new ArrayList<>(hosts.size());
         for (String host : hosts) {
-            Dispositivos dispositivo = new Dispositivos(host, host);
-            listaDispositivos.add(dispositivo);
-            estadisticas.put(host, new HostEstadisticas(host));
+            iniciales.add(new Dispositivos(host, host));
+        }
+        for (Dispositivos dispositivo : registroDispositivos.agregarTodos(iniciales)) {
+            estadisticas.put(dispositivo.getId(), crearEstadisticas(dispositivo.getId()));
         }
         
         this.generadorReportes = new GeneradorReportes("reportes", estadisticas);
+        generadorReportes.setCompactadorHistorial(compactadorHistorial);
+        generadorReportes.setVentanaDisponibilidad(configuracion.getVentanaReportes());
         
         // Configurar notificaciones por consola
-        manejoAlertas.agregarObservador(mensaje -> System.out.println("[Notificación] " + mensaje));
+        manejoAlertas.agregarObservador(mensaje -> System.out.println("[Notificación] " + mensaje),
+            ManejoAlertas.CAPACIDAD_OBSERVADOR, PublicadorEventos.PoliticaDesborde.DESCARTAR_ANTIGUO);
         
-        registrarEvento("Sistema de monitoreo iniciado con " + listaDispositivos.size() + " dispositivos");
+        registrarEvento("Sistema de monitoreo iniciado con " + registroDispositivos.getTamano() + " dispositivos");
     }
 
     /**
@@ -58,64 +131,81 @@ public class Monitoreo {
      * Realiza verificaciones periódicas, actualiza estadísticas y genera reportes.
      */
     /**
-     * Inicia el proceso de monitoreo continuo de dispositivos en un thread separado
+     * Inicia el proceso de monitoreo continuo de dispositivos en un thread separado.
+     * Cada dispositivo se prueba según su propia cadencia (ver {@link PlanificadorSondeos});
+     * los resultados llegan de forma asíncrona y se procesan en este mismo thread.
      */
     public void iniciar() {
-        if (monitoreoActivo) {
-            return; // Ya está ejecutándose
+        if (monitoreoActivo || cerrado) {
+            return; // Ya está ejecutándose o se liberaron sus recursos
         }
         
         monitoreoActivo = true;
         threadMonitoreo = new Thread(() -> {
             System.out.println("Inicio de monitoreo de dispositivos...");
+            long intervaloNanos = intervalo * 1_000_000_000L;
+            long ahora = System.nanoTime();
+            long proximoCiclo = ahora + intervaloNanos;     // Fin del ciclo de referencia (intervalo global)
             int ciclos = 0;
             
+            List<PruebaPlanificada> vencidas = new ArrayList<>();
+            List<PruebaPlanificada> lanzar = new ArrayList<>();
+            Consumer<ResultadoSondeo> entregar = resultadosPendientes::add;   // Se crea una sola vez
+            
+            resultadosPendientes.clear();
+            planificador.reiniciar(registroDispositivos.instantanea(), ahora);
+            controlCiclos.iniciar(ahora);
+            
             while (monitoreoActivo && !Thread.currentThread().isInterrupted()) {
                 try {
-                    for (Dispositivos dispositivo : listaDispositivos) {
-                        if (!monitoreoActivo || Thread.currentThread().isInterrupted()) {
-                            break;
-                        }
-                        
-                        long inicio = System.currentTimeMillis();
-                        boolean disponible = verificador.ejecutarPrueba(dispositivo);
-                        long tiempoRespuesta = System.currentTimeMillis() - inicio;
-                        
-                        // Registrar evento
-                        Eventos evento = new Eventos(
-                            disponible ? "VERIFICACION_EXITOSA" : "VERIFICACION_FALLIDA",
-                            "Verificación del dispositivo " + dispositivo.getId(),
-                            tiempoRespuesta
-                        );
-                        registroEventos.add(evento);
-                        
-                        // Actualizar estadísticas
-                        HostEstadisticas stats = estadisticas.get(dispositivo.getId());
-                        if (stats != null) {
-                            stats.registrarChequeo(disponible, tiempoRespuesta);
-                            
-                            // Evaluar alertas por rendimiento
-                            if (manejoAlertas.evaluarAlerta(stats.getDisponibilidad(), (int)tiempoRespuesta)) {
-                                manejoAlertas.notificarAlerta(
-                                    String.format("Alerta de rendimiento para %s - Disponibilidad: %.2f%%, Tiempo de respuesta: %dms",
-                                        dispositivo.getId(), stats.getDisponibilidad(), tiempoRespuesta));
-                            }
+                    // Lanzar las pruebas aplazadas y las que vencieron, dentro del presupuesto;
+                    // no se espera a que terminen
+                    lanzar.clear();
+                    controlCiclos.extraerDiferidas(lanzar);
+                    vencidas.clear();
+                    planificador.extraerVencidos(System.nanoTime(), vencidas);
+                    for (int i = 0; i < vencidas.size(); i++) {
+                        PruebaPlanificada prueba = vencidas.get(i);
+                        if (controlCiclos.admitir(prueba)) {
+                            lanzar.add(prueba);
                         }
                     }
+                    for (int i = 0; i < lanzar.size(); i++) {
+                        PruebaPlanificada prueba = lanzar.get(i);
+                        motorSondeo.enviar(prueba.getDispositivo(), prueba.getInicioPlanificadoNanos(), entregar);
+                    }
+                    
+                    // Procesar resultados hasta el próximo tick de la rueda o el fin del ciclo
+                    long limite = Math.min(planificador.proximoTickNanos(), proximoCiclo);
+                    ResultadoSondeo resultado = resultadosPendientes.poll(
+                        Math.max(0, limite - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    while (resultado != null) {
+                        procesarResultado(resultado);
+                        resultado = resultadosPendientes.poll();
+                    }
+                    
+                    if (!monitoreoActivo) {
+                        break;
+                    }
                     
-                    ciclos++;
-                    if (ciclos % 10 == 0) { // Generar reportes cada 10 ciclos (solo PDF)
-                        String rutaDiario = generadorReportes.generarReporteDiario();
-                        String rutaDisponibilidad = generadorReportes.generarReporteDisponibilidad();
-                        if (rutaDiario != null) {
-                            registrarEvento("Reporte diario PDF generado: " + rutaDiario);
+                    long fin = System.nanoTime();
+                    if (fin - proximoCiclo >= 0) {
+                        while (fin - proximoCiclo >= 0) {
+                            proximoCiclo += intervaloNanos;   // Un ciclo atrasado no se recupera en ráfaga
                         }
-                        if (rutaDisponibilidad != null) {
-                            registrarEvento("Reporte de disponibilidad PDF generado: " + rutaDisponibilidad);
+                        cerrarCiclo(fin);
+                        ciclos++;
+                        if (ciclos % 10 == 0) { // Generar reportes cada 10 ciclos (solo PDF)
+                            String rutaDiario = generadorReportes.generarReporteDiario();
+                            String rutaDisponibilidad = generadorReportes.generarReporteDisponibilidad();
+                            if (rutaDiario != null) {
+                                registrarEvento("Reporte diario PDF generado: " + rutaDiario);
+                            }
+                            if (rutaDisponibilidad != null) {
+                                registrarEvento("Reporte de disponibilidad PDF generado: " + rutaDisponibilidad);
+                            }
                         }
                     }
-                    
-                    Thread.sleep(intervalo * 1000);
                 } catch (InterruptedException ie) {
                     monitoreoActivo = false;
                     Thread.currentThread().interrupt();
@@ -127,20 +217,220 @@ public class Monitoreo {
         });
         threadMonitoreo.setDaemon(true);
         threadMonitoreo.start();
+        if (compactadorHistorial != null) {
+            compactadorHistorial.iniciar(periodoCompactacion);
+        }
     }
 
+    /**
+     * Cierra la contabilidad del ciclo y registra un evento si se excedió
+     * @param ahoraNanos Instante actual (System.nanoTime())
+     */
+    private void cerrarCiclo(long ahoraNanos) {
+        ResumenCiclo resumen = controlCiclos.cerrarCiclo(ahoraNanos);
+        ultimoCiclo = resumen;
+        if (resumen.isExcedido()) {
+            registroEventos.registrar(TipoEvento.CICLO_EXCEDIDO, AlmacenEventos.SIN_DISPOSITIVO,
+                resumen.getDuracionNanos());
+            registrarEvento("Ciclo de monitoreo excedido - " + resumen);
+        }
+    }
 
-    private void registrarEvento(String mensaje) {
-        try (FileWriter fw = new FileWriter(LOG_FILE, true);
-             BufferedWriter bw = new BufferedWriter(fw)) {
-            String timestampedMessage = LocalDateTime.now().format(formatter) + " - " + mensaje;
-            bw.write(timestampedMessage);
-            bw.newLine();
+    /**
+     * Registra el resultado de una prueba: evento, estadísticas y alertas.
+     * La latencia se corrige con el retraso de la prueba respecto a su
+     * planificación, para que un monitor atrasado no oculte la espera real.
+     * @param resultado Resultado de la prueba de un dispositivo
+     */
+    void procesarResultado(ResultadoSondeo resultado) {
+        Dispositivos dispositivo = resultado.getDispositivo();
+        boolean disponible = resultado.isDisponible();
+        long latenciaNanos = resultado.getLatenciaCorregidaNanos(planificador.getDuracionTickNanos());
+        long tiempoRespuesta = latenciaNanos / 1_000_000L;
+        controlCiclos.registrarResultado(resultado);
+        
+        // Guardar el resultado en el historial binario
+        if (diarioSondeos != null) {
+            try {
+                diarioSondeos.registrar(dispositivo.getClaveDiario(), resultado.getTipo(),
+                    latenciaNanos, resultado.getRetrasoNanos());
+            } catch (IOException e) {
+                System.err.println("Error al escribir en el diario de sondeos: " + e.getMessage());
+            }
+        }
+        
+        // Guardar la latencia y el estado en la serie comprimida del dispositivo
+        if (almacenSeries != null) {
+            try {
+                almacenSeries.registrar(dispositivo.getId(), System.currentTimeMillis(),
+                    latenciaNanos / 1_000_000.0, disponible);
+            } catch (IOException e) {
+                System.err.println("Error al escribir la serie de " + dispositivo.getId() + ": " + e.getMessage());
+            }
+        }
+        
+        // Registrar evento
+        registroEventos.registrar(
+            disponible ? TipoEvento.VERIFICACION_EXITOSA : TipoEvento.VERIFICACION_FALLIDA,
+            dispositivo.getIndice(),
+            latenciaNanos
+        );
+        
+        // Actualizar estadísticas
+        HostEstadisticas stats = estadisticas.get(dispositivo.getId());
+        if (stats != null) {
+            boolean cambioEstado = stats.getTotalChequeos() > 0 && stats.isUltimoDisponible() != disponible;
+            stats.registrarChequeo(disponible, tiempoRespuesta, latenciaNanos);
+            
+            // Difundir el resultado a los suscriptores (solo se construye el evento si hay alguno)
+            if (publicadorEventos.hayInteresados()) {
+                publicarEventos(resultado, latenciaNanos, cambioEstado, stats.getDisponibilidad());
+            }
+            
+            // Avisar si la latencia se apartó de lo normal para este dispositivo (o volvió)
+            if (stats.getCambioAnomalia() != DetectorAnomalias.Cambio.NINGUNO) {
+                notificarAnomalia(resultado, stats, latenciaNanos);
+            }
+            
+            // Ajustar la cadencia del dispositivo según su estabilidad
+            if (cadenciaAdaptativa != null) {
+                long nuevoIntervalo = cadenciaAdaptativa.evaluar(dispositivo.getId(), disponible, stats,
+                    planificador.intervaloDe(dispositivo));
+                planificador.ajustarIntervalo(dispositivo.getId(), nuevoIntervalo, System.nanoTime());
+            }
+            
+            // Evaluar alertas por rendimiento sobre la ventana configurada (una caída reciente
+            // apenas mueve la disponibilidad total de un host con meses de historial)
+            double disponibilidadAlertas = stats.getDisponibilidad(ventanaAlertas);
+            if (manejoAlertas.evaluarAlerta(disponibilidadAlertas, (int)tiempoRespuesta)) {
+                manejoAlertas.notificarAlerta(
+                    String.format("Alerta de rendimiento para %s - Disponibilidad (%s): %.2f%%, Tiempo de respuesta: %dms",
+                        dispositivo.getId(), VentanaDisponibilidad.etiqueta(ventanaAlertas), disponibilidadAlertas,
+                        tiempoRespuesta));
+            }
+        }
+    }
+
+
+    /**
+     * Publica el resultado de una prueba y, si lo hubo, el cambio de estado del dispositivo
+     */
+    private void publicarEventos(ResultadoSondeo resultado, long latenciaNanos, boolean cambioEstado,
+                                 double disponibilidad) {
+        long instante = registroEventos.ahoraEpochNanos();
+        String id = resultado.getDispositivo().getId();
+        publicadorEventos.publicar(new EventoSondeo(EventoSondeo.Clase.RESULTADO, id, instante, resultado.getTipo(),
+            latenciaNanos, resultado.getRetrasoNanos(), resultado.isDisponible(), disponibilidad));
+        if (cambioEstado) {
+            publicadorEventos.publicar(new EventoSondeo(EventoSondeo.Clase.CAMBIO_ESTADO, id, instante,
+                resultado.getTipo(), latenciaNanos, resultado.getRetrasoNanos(), resultado.isDisponible(),
+                disponibilidad));
+        }
+    }
+
+    /**
+     * Registra, difunde y alerta el inicio o el fin de una anomalía de latencia.
+     * Solo se llama en esos cambios, no en cada chequeo
+     */
+    private void notificarAnomalia(ResultadoSondeo resultado, HostEstadisticas stats, long latenciaNanos) {
+        Dispositivos dispositivo = resultado.getDispositivo();
+        DetectorAnomalias detector = stats.getDetectorAnomalias();
+        boolean inicio = stats.getCambioAnomalia() == DetectorAnomalias.Cambio.INICIO;
+        registroEventos.registrar(inicio ? TipoEvento.LATENCIA_ANOMALA : TipoEvento.LATENCIA_NORMALIZADA,
+            dispositivo.getIndice(), latenciaNanos);
+        if (publicadorEventos.hayInteresados()) {
+            publicadorEventos.publicar(new EventoSondeo(
+                inicio ? EventoSondeo.Clase.ANOMALIA_LATENCIA : EventoSondeo.Clase.FIN_ANOMALIA_LATENCIA,
+                dispositivo.getId(), registroEventos.ahoraEpochNanos(), resultado.getTipo(), latenciaNanos,
+                resultado.getRetrasoNanos(), resultado.isDisponible(), stats.getDisponibilidad()));
+        }
+        if (inicio) {
+            manejoAlertas.notificarAlerta(String.format(
+                "Anomalía de latencia en %s - %s de lo habitual: %.2fms (esperado %.2fms, z=%.1f)",
+                dispositivo.getId(), detector.getSentidoAnomalia() > 0 ? "por encima" : "por debajo",
+                latenciaNanos / 1_000_000.0, detector.getLatenciaEsperadaAlIniciar(), detector.getUltimoZ()));
+        } else {
+            manejoAlertas.notificarAlerta(String.format(
+                "Latencia estable otra vez en %s - %.2fms (valor habitual %.2fms)",
+                dispositivo.getId(), latenciaNanos / 1_000_000.0, detector.getLatenciaEsperada()));
+        }
+    }
+
+    /**
+     * Crea las estadísticas de un dispositivo con la ventana, los horizontes y
+     * el detector de anomalías configurados
+     */
+    private HostEstadisticas crearEstadisticas(String id) {
+        HostEstadisticas stats = new HostEstadisticas(id, ventanaEstadisticas, horizontesDisponibilidad);
+        stats.setVentanaLatencias(configuracion.getVentanaLatencias());
+        stats.setDetectorAnomalias(configuracion.isDeteccionAnomalias()
+            ? new DetectorAnomalias(configuracion.getAlfaAnomalias(), configuracion.getUmbralZAnomalias(),
+                configuracion.getCalentamientoAnomalias(), configuracion.getPersistenciaAnomalias())
+            : null);
+        return stats;
+    }
+
+    /**
+     * Agrega a las ventanas configuradas las que usan las alertas y los reportes, si faltan
+     */
+    private static Duration[] unirVentanas(Duration[] configuradas, Duration... usadas) {
+        List<Duration> ventanas = new ArrayList<>(Arrays.asList(configuradas));
+        for (Duration ventana : usadas) {
+            if (!ventana.isZero() && !ventanas.contains(ventana)) {
+                ventanas.add(ventana);
+            }
+        }
+        return ventanas.toArray(new Duration[0]);
+    }
+
+    /**
+     * Crea el compactador del historial; si falla, el historial se conserva solo en crudo
+     */
+    private static CompactadorHistorial abrirCompactador(DiarioSondeos diario, Configuracion configuracion) {
+        try {
+            return new CompactadorHistorial(diario, configuracion.getRetencionCrudoHoras(),
+                configuracion.getRetencionMinutosDias(), configuracion.getRetencionHorasDias());
+        } catch (IOException e) {
+            System.err.println("No se pudo abrir el historial agregado: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Abre el diario de sondeos; si falla, el monitoreo sigue sin historial binario
+     */
+    private static DiarioSondeos abrirDiario(Configuracion configuracion) {
+        try {
+            return new DiarioSondeos(new File(configuracion.getDirectorioDiario()),
+                configuracion.getTamanoSegmentoDiarioMb(), configuracion.getRotacionDiarioMinutos());
+        } catch (IOException e) {
+            System.err.println("No se pudo abrir el diario de sondeos: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Abre el almacén de series temporales; si falla, el monitoreo sigue sin series
+     */
+    private static AlmacenSeries abrirSeries(Configuracion configuracion) {
+        try {
+            return new AlmacenSeries(new File(configuracion.getDirectorioSeries()),
+                configuracion.getResolucionSeriesMs(), configuracion.getBitsMantisaSeries(),
+                configuracion.getMuestrasPorBloqueSeries());
         } catch (IOException e) {
-            System.err.println("Error al escribir en el archivo de log: " + e.getMessage());
+            System.err.println("No se pudo abrir el almacén de series: " + e.getMessage());
+            return null;
         }
     }
 
+    /**
+     * Encola un mensaje para el log; la escritura en disco la hace el hilo de
+     * EscritorLog, así que nunca bloquea el bucle de monitoreo
+     */
+    private void registrarEvento(String mensaje) {
+        escritorLog.registrar(mensaje);
+    }
+
     /**
      * Agrega un nuevo dispositivo al monitoreo
      * @param id Identificador del dispositivo
@@ -148,20 +438,80 @@ public class Monitoreo {
      */
     public void agregarDispositivo(String id, String direccionIP) {
         Dispositivos dispositivo = new Dispositivos(id, direccionIP);
-        if (!listaDispositivos.contains(dispositivo)) {
-            listaDispositivos.add(dispositivo);
-            estadisticas.put(id, new HostEstadisticas(id));
+        if (registroDispositivos.agregar(dispositivo)) {
+            estadisticas.put(id, crearEstadisticas(id));
+            planificador.agregar(dispositivo, System.nanoTime());
             registrarEvento("Nuevo dispositivo agregado: " + id);
         }
     }
 
+    /**
+     * Agrega un lote de dispositivos (por ejemplo, el resultado de un escaneo).
+     * Los IDs ya registrados se omiten.
+     * @param dispositivos Dispositivos a agregar
+     * @return Número de dispositivos agregados
+     */
+    public int agregarDispositivos(Collection<Dispositivos> dispositivos) {
+        List<Dispositivos> agregados = registroDispositivos.agregarTodos(dispositivos);
+        long ahora = System.nanoTime();
+        for (Dispositivos dispositivo : agregados) {
+            estadisticas.put(dispositivo.getId(), crearEstadisticas(dispositivo.getId()));
+            planificador.agregar(dispositivo, ahora);
+        }
+        if (!agregados.isEmpty()) {
+            registrarEvento("Nuevos dispositivos agregados: " + agregados.size());
+        }
+        return agregados.size();
+    }
+
+    /**
+     * Agrega un nuevo dispositivo que se verifica por conexión TCP a un puerto
+     * en lugar de ICMP (útil para hosts que descartan ICMP)
+     * @param id Identificador del dispositivo
+     * @param direccionIP Dirección IP del dispositivo
+     * @param puertoTcp Puerto TCP a probar
+     */
+    public void agregarDispositivo(String id, String direccionIP, int puertoTcp) {
+        agregarDispositivo(id, direccionIP);
+        Dispositivos dispositivo = getDispositivo(id);
+        if (dispositivo != null) {
+            dispositivo.configurarSondeoTcp(puertoTcp);
+        }
+    }
+
+    /**
+     * Agrega un nuevo dispositivo que se verifica con la sonda indicada
+     * @param id Identificador del dispositivo
+     * @param direccionIP Dirección IP del dispositivo
+     * @param sonda Nombre de la sonda ("icmp", "tcp", "udp", "auto" o una sonda propia)
+     * @param puerto Puerto para las sondas TCP/UDP (0 = sin puerto)
+     */
+    public void agregarDispositivo(String id, String direccionIP, String sonda, int puerto) {
+        agregarDispositivo(id, direccionIP);
+        Dispositivos dispositivo = getDispositivo(id);
+        if (dispositivo != null) {
+            dispositivo.configurarSonda(sonda, puerto);
+        }
+    }
+
     /**
      * Remueve un dispositivo del monitoreo
      * @param id Identificador del dispositivo a remover
      */
     public void removerDispositivo(String id) {
-        listaDispositivos.removeIf(d -> d.getId().equals(id));
+        registroDispositivos.remover(id);
         estadisticas.remove(id);
+        planificador.remover(id);
+        if (cadenciaAdaptativa != null) {
+            cadenciaAdaptativa.olvidar(id);
+        }
+        if (almacenSeries != null) {
+            try {
+                almacenSeries.quitar(id);
+            } catch (IOException e) {
+                System.err.println("Error al escribir la serie de " + id + ": " + e.getMessage());
+            }
+        }
         registrarEvento("Dispositivo removido: " + id);
     }
 
@@ -171,7 +521,7 @@ public class Monitoreo {
      */
     public ArrayList<String> getDispositivos() {
         ArrayList<String> ids = new ArrayList<>();
-        for (Dispositivos d : listaDispositivos) {
+        for (Dispositivos d : registroDispositivos.instantanea()) {
             ids.add(d.getId());
         }
         return ids;
@@ -186,6 +536,59 @@ public class Monitoreo {
         if (threadMonitoreo != null) {
             threadMonitoreo.interrupt();
         }
+        if (diarioSondeos != null) {
+            diarioSondeos.sincronizar();
+        }
+        if (compactadorHistorial != null) {
+            compactadorHistorial.detener();
+        }
+        if (almacenSeries != null) {
+            try {
+                almacenSeries.sincronizar();
+            } catch (IOException e) {
+                System.err.println("Error al escribir las series temporales: " + e.getMessage());
+            }
+        }
+        escritorLog.vaciar();
+    }
+
+    /**
+     * Detiene el monitoreo y libera sus recursos: los hilos de sondeo, las
+     * suscripciones a eventos y alertas, el hilo de escritura de las series y
+     * el segmento mapeado del diario. A diferencia de
+     * {@link #detenerMonitoreo()}, después no se puede volver a iniciar.
+     */
+    public void cerrar() {
+        if (cerrado) {
+            return;
+        }
+        cerrado = true;
+        detenerMonitoreo();
+        Thread hilo = threadMonitoreo;
+        if (hilo != null) {
+            try {
+                hilo.join(ESPERA_CIERRE_MS);    // Que no quede escribiendo en el diario al cerrarlo
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        motorSondeo.detener();
+        publicadorEventos.cerrar();
+        manejoAlertas.cerrar();
+        if (almacenSeries != null) {
+            try {
+                almacenSeries.cerrar();
+            } catch (IOException e) {
+                System.err.println("Error al cerrar las series temporales: " + e.getMessage());
+            }
+        }
+        if (diarioSondeos != null) {
+            try {
+                diarioSondeos.cerrar();
+            } catch (IOException e) {
+                System.err.println("Error al cerrar el diario de sondeos: " + e.getMessage());
+            }
+        }
     }
     
     /**
@@ -206,11 +609,12 @@ public class Monitoreo {
     }
     
     /**
-     * Obtiene todas las estadísticas
+     * Obtiene todas las estadísticas, como vista de solo lectura (sin copiar el mapa).
+     * Para leer valores coherentes de un host desde otro thread use {@link HostEstadisticas#instantanea()}
      * @return Map con todas las estadísticas
      */
     public Map<String, HostEstadisticas> getAllEstadisticas() {
-        return new HashMap<>(estadisticas);
+        return Collections.unmodifiableMap(estadisticas);
     }
     
     /**
@@ -219,12 +623,16 @@ public class Monitoreo {
      * @return Dispositivos o null si no existe
      */
     public Dispositivos getDispositivo(String dispositivoId) {
-        for (Dispositivos d : listaDispositivos) {
-            if (d.getId().equals(dispositivoId)) {
-                return d;
-            }
-        }
-        return null;
+        return registroDispositivos.obtener(dispositivoId);
+    }
+
+    /**
+     * Obtiene los dispositivos con una dirección IP
+     * @param direccionIP Dirección IP
+     * @return Lista de dispositivos con esa IP (vacía si no hay)
+     */
+    public List<Dispositivos> getDispositivosPorIp(String direccionIP) {
+        return registroDispositivos.buscarPorIp(direccionIP);
     }
 
     // Método para pruebas funcionales
@@ -257,13 +665,14 @@ public class Monitoreo {
         
         // Prueba 3: Verificar conectividad
         System.out.println("\nPrueba 3: Verificar conectividad");
-        Verificador verificador = new Verificador();
+        Verificador verificador = new Verificador(true);
         for (String dispositivoId : monitor.getDispositivos()) {
             Dispositivos d = new Dispositivos(dispositivoId, dispositivoId);
             boolean disponible = verificador.ejecutarPrueba(d);
             System.out.println("Dispositivo: " + d.getId() + " - Disponible: " + disponible);
         }
         
+        monitor.cerrar();
         System.out.println("\nPruebas funcionales completadas.");
     }
 
@@ -285,6 +694,7 @@ public class Monitoreo {
         hosts.add("microsoft.com");
         
         Monitoreo monitor = new Monitoreo(hosts, 10);
+        Runtime.getRuntime().addShutdownHook(new Thread(monitor::cerrar, "monitoreo-cierre"));
         
         // Iniciar el monitoreo
         monitor.iniciar();
@@ -298,12 +708,112 @@ public class Monitoreo {
         return manejoAlertas;
     }
     
+    /**
+     * Obtiene el publicador de eventos estructurados (resultados de prueba y cambios de estado).
+     * Cada suscriptor recibe los eventos desde hilos propios del publicador, con su buffer y política de desborde
+     * @return publicador de eventos
+     */
+    public PublicadorEventos getPublicadorEventos() {
+        return publicadorEventos;
+    }
+    
+    /**
+     * Evalúa una métrica en todos los hosts; solo se recalcula en los que
+     * tuvieron chequeos desde la evaluación anterior
+     * @param nombre Nombre de la métrica (por ejemplo "LatenciaP95")
+     * @return resultado por host
+     */
+    public Map<String, ResultadoMetrica> evaluarMetrica(String nombre) {
+        return HostEstadisticas.evaluarMetrica(nombre, estadisticas.values());
+    }
+    
+    /**
+     * Obtiene las ventanas deslizantes de disponibilidad que mantiene cada host
+     * @return duración de cada ventana
+     */
+    public Duration[] getHorizontesDisponibilidad() {
+        return horizontesDisponibilidad.clone();
+    }
+    
+    /**
+     * Obtiene la ventana de disponibilidad con la que se evalúan las alertas
+     * @return duración de la ventana, Duration.ZERO para la disponibilidad total
+     */
+    public Duration getVentanaAlertas() {
+        return ventanaAlertas;
+    }
+    
     /**
      * Obtiene la lista completa de objetos Dispositivos
      * @return ArrayList con todos los dispositivos monitoreados
      */
     public ArrayList<Dispositivos> getListaDispositivos() {
-        return new ArrayList<>(listaDispositivos);
+        return new ArrayList<>(registroDispositivos.instantanea());
+    }
+    
+    /**
+     * Obtiene el diario binario con el historial de pruebas
+     * @return diario de sondeos, o null si está deshabilitado
+     */
+    public DiarioSondeos getDiarioSondeos() {
+        return diarioSondeos;
+    }
+
+    /**
+     * Obtiene el compactador con los agregados por minuto y hora del historial
+     * @return compactador del historial, o null si el diario está deshabilitado
+     */
+    public CompactadorHistorial getCompactadorHistorial() {
+        return compactadorHistorial;
+    }
+
+    /**
+     * Obtiene el almacén con las series comprimidas de latencia y estado de cada host
+     * @return almacén de series, o null si está deshabilitado
+     */
+    public AlmacenSeries getAlmacenSeries() {
+        return almacenSeries;
+    }
+
+    /**
+     * Obtiene una página del historial de pruebas que cumple el filtro
+     * @param filtro Criterios (rango de tiempo, dispositivo, tipos, latencia mínima)
+     * @param tamanoPagina Máximo de registros a devolver
+     * @return página de resultados, o null si el diario está deshabilitado
+     * @throws IOException si no se puede leer el historial
+     */
+    public PaginaHistorial consultarHistorial(FiltroHistorial filtro, int tamanoPagina) throws IOException {
+        return diarioSondeos != null ? diarioSondeos.getConsulta().consultar(filtro, tamanoPagina) : null;
+    }
+    
+    /**
+     * Obtiene el almacén de eventos del monitoreo
+     * @return almacén de eventos (acotado por capacidad y retención)
+     */
+    public AlmacenEventos getRegistroEventos() {
+        return registroEventos;
+    }
+    
+    /**
+     * Obtiene la contabilidad del último ciclo de monitoreo cerrado
+     * @return resumen del ciclo, o null si aún no se cerró ninguno
+     */
+    public ResumenCiclo getUltimoCiclo() {
+        return ultimoCiclo;
+    }
+
+    /**
+     * Obtiene el planificador de pruebas (para medir el camino de cada prueba en las pruebas unitarias)
+     */
+    PlanificadorSondeos getPlanificador() {
+        return planificador;
+    }
+
+    /**
+     * Obtiene el control de ciclos (para medir el camino de cada prueba en las pruebas unitarias)
+     */
+    ControlCiclos getControlCiclos() {
+        return controlCiclos;
     }
     
     /**
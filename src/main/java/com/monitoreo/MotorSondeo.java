@@ -0,0 +1,177 @@
+package com.monitoreo;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Motor que ejecuta concurrentemente las pruebas de monitoreo. Cada prueba
+ * se envía sin esperar su resultado, así que el tiempo de un ciclo queda
+ * acotado por la prueba más lenta y no por la suma de todas ellas. La
+ * cantidad de pruebas simultáneas se limita con un semáforo y, si la JVM lo
+ * soporta (JDK 21+), se pueden usar hilos virtuales.
+ * Los dispositivos cuya sonda es no bloqueante (por ejemplo TCP) no ocupan
+ * hilos del ejecutor: la prueba se completa de forma asíncrona.
+ */
+public class MotorSondeo {
+    public static final int CONCURRENCIA_POR_DEFECTO = 64; // Pruebas simultáneas por defecto
+
+    private final Verificador verificador;      // Verificador que ejecuta cada prueba
+    private final int concurrenciaMaxima;       // Límite de pruebas en vuelo
+    private final Semaphore permisos;           // Controla el límite de concurrencia
+    private final ExecutorService executor;     // Ejecutor de las pruebas
+    private final boolean hilosVirtuales;       // true si el ejecutor usa hilos virtuales
+
+    /**
+     * Constructor del motor de sondeo
+     * @param verificador Verificador a utilizar en cada prueba
+     * @param concurrenciaMaxima Número máximo de pruebas simultáneas
+     * @param usarHilosVirtuales true para intentar usar hilos virtuales
+     */
+    public MotorSondeo(Verificador verificador, int concurrenciaMaxima, boolean usarHilosVirtuales) {
+        if (concurrenciaMaxima <= 0) {
+            throw new IllegalArgumentException("La concurrencia máxima debe ser mayor que cero");
+        }
+        this.verificador = verificador;
+        this.concurrenciaMaxima = concurrenciaMaxima;
+        this.permisos = new Semaphore(concurrenciaMaxima);
+
+        ExecutorService virtual = usarHilosVirtuales ? crearEjecutorVirtual() : null;
+        if (virtual != null) {
+            this.executor = virtual;
+            this.hilosVirtuales = true;
+        } else {
+            this.executor = Executors.newFixedThreadPool(concurrenciaMaxima, crearFabricaHilos());
+            this.hilosVirtuales = false;
+        }
+    }
+
+    /**
+     * Envía la prueba de un dispositivo sin esperar su resultado
+     * @param dispositivo Dispositivo a verificar
+     * @param destino Receptor del resultado; se invoca desde el hilo que completó la prueba
+     */
+    public void enviar(Dispositivos dispositivo, Consumer<ResultadoSondeo> destino) {
+        enviar(dispositivo, System.nanoTime(), destino);
+    }
+
+    /**
+     * Envía la prueba de un dispositivo sin esperar su resultado
+     * @param dispositivo Dispositivo a verificar
+     * @param inicioPlanificadoNanos Instante en que la prueba debía empezar (System.nanoTime())
+     * @param destino Receptor del resultado; se invoca desde el hilo que completó la prueba
+     */
+    public void enviar(Dispositivos dispositivo, long inicioPlanificadoNanos, Consumer<ResultadoSondeo> destino) {
+        EstrategiaSondeo sonda = RegistroSondas.compartido().resolver(dispositivo);
+        if (sonda.esNoBloqueante(dispositivo)) {
+            CompletableFuture<ResultadoSondeo> prueba;
+            try {
+                prueba = sondearAsincrono(dispositivo, sonda, inicioPlanificadoNanos);
+            } catch (RuntimeException e) {
+                prueba = CompletableFuture.failedFuture(e);
+            }
+            // Una prueba que termina con excepción también debe entregar su resultado:
+            // el control de ciclos solo libera su lugar en vuelo al recibirlo
+            prueba.handle((resultado, error) -> error == null ? resultado
+                    : resultadoError(dispositivo, inicioPlanificadoNanos, error))
+                .thenAccept(destino);
+            return;
+        }
+        executor.execute(() -> {
+            ResultadoSondeo resultado;
+            try {
+                resultado = sondear(dispositivo, inicioPlanificadoNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Un error inesperado en la prueba se considera un fallo del dispositivo
+                resultado = new ResultadoSondeo(dispositivo, ResultadoSonda.Tipo.ERROR, inicioPlanificadoNanos, System.nanoTime(), 0);
+            }
+            destino.accept(resultado);
+        });
+    }
+
+    /**
+     * Convierte la excepción de una prueba asíncrona en un fallo del dispositivo
+     */
+    private static ResultadoSondeo resultadoError(Dispositivos dispositivo, long inicioPlanificadoNanos, Throwable error) {
+        Throwable causa = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        System.err.println("Error en la prueba de " + dispositivo.getId() + ": " + causa);
+        return new ResultadoSondeo(dispositivo, ResultadoSonda.Tipo.ERROR, inicioPlanificadoNanos, System.nanoTime(), 0);
+    }
+
+    /**
+     * Ejecuta la prueba de un dispositivo respetando el límite de concurrencia.
+     * La espera por un permiso queda como retraso respecto al inicio planificado.
+     */
+    private ResultadoSondeo sondear(Dispositivos dispositivo, long inicioPlanificadoNanos) throws InterruptedException {
+        permisos.acquire();
+        try {
+            ResultadoSonda resultadoSonda = verificador.ejecutarSonda(dispositivo);
+            return new ResultadoSondeo(dispositivo, resultadoSonda.getTipo(), inicioPlanificadoNanos,
+                resultadoSonda.getInicioNanos(), resultadoSonda.getLatenciaNanos());
+        } finally {
+            permisos.release();
+        }
+    }
+
+    /**
+     * Inicia la prueba no bloqueante de un dispositivo. El resultado se procesa
+     * en el hilo que completa la prueba, sin consumir un hilo por prueba.
+     */
+    private CompletableFuture<ResultadoSondeo> sondearAsincrono(Dispositivos dispositivo, EstrategiaSondeo sonda,
+                                                                long inicioPlanificadoNanos) {
+        return sonda.sondearAsincrono(dispositivo, Dispositivos.TIMEOUT_MS)
+            .thenApply(resultadoSonda -> {
+                boolean disponible = dispositivo.registrarResultado(resultadoSonda);
+                verificador.informarResultado(dispositivo, disponible, resultadoSonda.getLatenciaMs());
+                return new ResultadoSondeo(dispositivo, resultadoSonda.getTipo(), inicioPlanificadoNanos,
+                    resultadoSonda.getInicioNanos(), resultadoSonda.getLatenciaNanos());
+            });
+    }
+
+    /**
+     * Detiene el ejecutor e interrumpe las pruebas en curso
+     */
+    public void detener() {
+        executor.shutdownNow();
+    }
+
+    public int getConcurrenciaMaxima() {
+        return concurrenciaMaxima;
+    }
+
+    public boolean usaHilosVirtuales() {
+        return hilosVirtuales;
+    }
+
+    /**
+     * Crea un ejecutor de hilos virtuales mediante reflexión para seguir
+     * compilando con Java 11.
+     * @return el ejecutor, o null si la JVM no soporta hilos virtuales
+     */
+    private static ExecutorService crearEjecutorVirtual() {
+        try {
+            Method fabrica = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) fabrica.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory crearFabricaHilos() {
+        AtomicInteger contador = new AtomicInteger();
+        return tarea -> {
+            Thread hilo = new Thread(tarea, "sondeo-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        };
+    }
+}
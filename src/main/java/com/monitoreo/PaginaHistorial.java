@@ -0,0 +1,33 @@
+package com.monitoreo;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Página de resultados de una consulta al historial. Los instantes del diario
+ * no se repiten, así que la página siguiente se pide fijando el inicio del
+ * rango en {@link #getSiguienteDesdeEpochNanos()}.
+ */
+public class PaginaHistorial {
+    private final List<RegistroHistorial> registros;    // Registros de la página, en orden cronológico
+    private final boolean hayMas;                       // true si quedan registros tras la página
+    private final long siguienteDesdeEpochNanos;        // Inicio del rango para la página siguiente
+
+    public PaginaHistorial(List<RegistroHistorial> registros, boolean hayMas, long siguienteDesdeEpochNanos) {
+        this.registros = Collections.unmodifiableList(registros);
+        this.hayMas = hayMas;
+        this.siguienteDesdeEpochNanos = siguienteDesdeEpochNanos;
+    }
+
+    public List<RegistroHistorial> getRegistros() {
+        return registros;
+    }
+
+    public boolean isHayMas() {
+        return hayMas;
+    }
+
+    public long getSiguienteDesdeEpochNanos() {
+        return siguienteDesdeEpochNanos;
+    }
+}
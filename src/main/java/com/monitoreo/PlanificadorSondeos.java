@@ -0,0 +1,213 @@
+package com.monitoreo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Planificador de pruebas por dispositivo sobre una {@link RuedaTemporizacion}.
+ * Cada dispositivo tiene su propio intervalo y desfase, de modo que las pruebas
+ * se reparten en el tiempo en lugar de lanzarse todas a la vez. El instante
+ * planificado avanza siempre desde el anterior (no desde que terminó la prueba),
+ * así que la cadencia no acumula deriva; si el monitor se atrasa, las
+ * ocurrencias perdidas se saltan en lugar de lanzarse en ráfaga.
+ */
+public class PlanificadorSondeos {
+    public static final int TICK_MS_POR_DEFECTO = 100;       // Resolución de la rueda
+    public static final double JITTER_POR_DEFECTO = 0.1;     // Fracción del intervalo usada como jitter
+    private static final int RANURAS = 512;                  // Ranuras de la rueda
+
+    private final long intervaloGlobalNanos;                 // Intervalo para dispositivos sin intervalo propio
+    private final long duracionTickNanos;                    // Duración del tick de la rueda
+    private final double jitter;                             // Fracción de jitter sobre el intervalo
+    private final Map<String, Programacion> programaciones;  // Programación vigente por ID de dispositivo
+    private final List<Programacion> vencidas;               // Buffer reutilizado al avanzar la rueda
+    private RuedaTemporizacion<Programacion> rueda;          // Rueda de temporización
+
+    /**
+     * Constructor del planificador
+     * @param intervaloGlobalSegundos Intervalo por defecto entre pruebas de un dispositivo
+     * @param tickMs Resolución de la rueda en milisegundos
+     * @param jitter Fracción del intervalo (0 a 1) que se suma aleatoriamente a cada prueba
+     */
+    public PlanificadorSondeos(int intervaloGlobalSegundos, int tickMs, double jitter) {
+        if (intervaloGlobalSegundos <= 0 || tickMs <= 0) {
+            throw new IllegalArgumentException("El intervalo y el tick deben ser positivos");
+        }
+        this.intervaloGlobalNanos = intervaloGlobalSegundos * 1_000_000_000L;
+        this.duracionTickNanos = tickMs * 1_000_000L;
+        this.jitter = Math.max(0.0, Math.min(1.0, jitter));
+        this.programaciones = new HashMap<>();
+        this.vencidas = new ArrayList<>();
+        this.rueda = new RuedaTemporizacion<>(duracionTickNanos, RANURAS, System.nanoTime());
+    }
+
+    /**
+     * Descarta la planificación actual y programa de nuevo los dispositivos indicados
+     * @param dispositivos Dispositivos a planificar
+     * @param ahoraNanos Instante actual (System.nanoTime())
+     */
+    public synchronized void reiniciar(List<Dispositivos> dispositivos, long ahoraNanos) {
+        for (Programacion programacion : programaciones.values()) {
+            programacion.cancelada = true;
+        }
+        programaciones.clear();
+        rueda = new RuedaTemporizacion<>(duracionTickNanos, RANURAS, ahoraNanos);
+        for (Dispositivos dispositivo : dispositivos) {
+            agregar(dispositivo, ahoraNanos);
+        }
+    }
+
+    /**
+     * Agrega un dispositivo a la planificación con su desfase inicial
+     * @param dispositivo Dispositivo a planificar
+     * @param ahoraNanos Instante actual (System.nanoTime())
+     */
+    public synchronized void agregar(Dispositivos dispositivo, long ahoraNanos) {
+        Programacion anterior = programaciones.get(dispositivo.getId());
+        if (anterior != null) {
+            anterior.cancelada = true;
+        }
+        long intervaloNanos = intervaloDe(dispositivo);
+        long desfaseNanos = dispositivo.getDesfaseMs() >= 0
+            ? Math.min(dispositivo.getDesfaseMs() * 1_000_000L, intervaloNanos - 1)
+            : ThreadLocalRandom.current().nextLong(intervaloNanos);   // Reparte los dispositivos en el intervalo
+
+        Programacion programacion = new Programacion(dispositivo, ahoraNanos + desfaseNanos);
+        programaciones.put(dispositivo.getId(), programacion);
+        rueda.programar(programacion, programacion.planificadoNanos);
+    }
+
+    /**
+     * Quita un dispositivo de la planificación
+     * @param id ID del dispositivo
+     */
+    public synchronized void remover(String id) {
+        Programacion programacion = programaciones.remove(id);
+        if (programacion != null) {
+            programacion.cancelada = true;
+        }
+    }
+
+    /**
+     * Ajusta el intervalo de un dispositivo (por ejemplo, desde la cadencia adaptativa).
+     * Si el nuevo intervalo es más corto, la próxima prueba se adelanta en lugar de
+     * esperar a la ocurrencia ya programada con la cadencia anterior.
+     * @param id ID del dispositivo
+     * @param intervaloNanos Nuevo intervalo en nanosegundos
+     * @param ahoraNanos Instante actual (System.nanoTime())
+     */
+    public synchronized void ajustarIntervalo(String id, long intervaloNanos, long ahoraNanos) {
+        Programacion programacion = programaciones.get(id);
+        if (programacion == null || intervaloNanos <= 0) {
+            return;
+        }
+        long anterior = intervaloDe(programacion);
+        programacion.intervaloAjustadoNanos = intervaloNanos;
+        if (intervaloNanos < anterior) {
+            long ultimaBase = programacion.baseNanos - anterior;
+            long nuevaBase = Math.max(ultimaBase + intervaloNanos, ahoraNanos);
+            if (nuevaBase - programacion.planificadoNanos < 0) {
+                programacion.cancelada = true;
+                Programacion adelantada = new Programacion(programacion.dispositivo, nuevaBase);
+                adelantada.intervaloAjustadoNanos = intervaloNanos;
+                programaciones.put(id, adelantada);
+                rueda.programar(adelantada, nuevaBase);
+            }
+        }
+    }
+
+    /**
+     * Extrae los dispositivos cuya prueba venció y los reprograma para su siguiente ocurrencia.
+     * Cada dispositivo reutiliza su {@link PruebaPlanificada}, así que no se asigna memoria por prueba
+     * @param ahoraNanos Instante actual (System.nanoTime())
+     * @param destino Lista donde se agregan las pruebas a lanzar ahora, con el instante en que debían empezar
+     */
+    public synchronized void extraerVencidos(long ahoraNanos, List<PruebaPlanificada> destino) {
+        vencidas.clear();
+        rueda.avanzar(ahoraNanos, vencidas);
+        for (int i = 0; i < vencidas.size(); i++) {
+            Programacion programacion = vencidas.get(i);
+            if (programacion.cancelada) {
+                continue;
+            }
+            programacion.prueba.setInicioPlanificadoNanos(programacion.planificadoNanos);
+            destino.add(programacion.prueba);
+            reprogramar(programacion, ahoraNanos);
+        }
+    }
+
+    /**
+     * Calcula la siguiente ocurrencia a partir de la base anterior (sin deriva)
+     */
+    private void reprogramar(Programacion programacion, long ahoraNanos) {
+        long intervaloNanos = intervaloDe(programacion);
+        long base = programacion.baseNanos + intervaloNanos;
+        if (base - ahoraNanos <= 0) {
+            // El monitor se atrasó: saltar las ocurrencias perdidas manteniendo la fase
+            long perdidas = (ahoraNanos - base) / intervaloNanos + 1;
+            base += perdidas * intervaloNanos;
+        }
+        programacion.baseNanos = base;
+        long jitterNanos = (long) (intervaloNanos * jitter);
+        programacion.planificadoNanos = jitterNanos > 0
+            ? base + ThreadLocalRandom.current().nextLong(jitterNanos)
+            : base;
+        rueda.programar(programacion, programacion.planificadoNanos);
+    }
+
+    private long intervaloDe(Programacion programacion) {
+        if (programacion.intervaloAjustadoNanos > 0) {
+            return programacion.intervaloAjustadoNanos;
+        }
+        return intervaloDe(programacion.dispositivo);
+    }
+
+    /**
+     * Obtiene el intervalo configurado de un dispositivo (propio o global)
+     * @param dispositivo Dispositivo
+     * @return intervalo en nanosegundos
+     */
+    public long intervaloDe(Dispositivos dispositivo) {
+        int propio = dispositivo.getIntervaloSegundos();
+        return propio > 0 ? propio * 1_000_000_000L : intervaloGlobalNanos;
+    }
+
+    /**
+     * Obtiene la resolución de la rueda: una prueba puede lanzarse hasta un tick
+     * después de su instante planificado sin que sea un retraso del monitor
+     * @return duración del tick en nanosegundos
+     */
+    public long getDuracionTickNanos() {
+        return duracionTickNanos;
+    }
+
+    /**
+     * Obtiene el instante del próximo tick de la rueda
+     * @return instante en nanosegundos (System.nanoTime())
+     */
+    public synchronized long proximoTickNanos() {
+        return rueda.proximoTickNanos();
+    }
+
+    /**
+     * Estado de planificación de un dispositivo
+     */
+    private static final class Programacion {
+        final Dispositivos dispositivo;
+        final PruebaPlanificada prueba;   // Se entrega en cada vencimiento
+        long baseNanos;          // Instante nominal de la ocurrencia (sin jitter)
+        long planificadoNanos;   // Instante planificado (con jitter)
+        long intervaloAjustadoNanos; // Intervalo fijado por la cadencia adaptativa (0 = sin ajuste)
+        boolean cancelada;
+
+        Programacion(Dispositivos dispositivo, long baseNanos) {
+            this.dispositivo = dispositivo;
+            this.prueba = new PruebaPlanificada(dispositivo, baseNanos);
+            this.baseNanos = baseNanos;
+            this.planificadoNanos = baseNanos;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.monitoreo;
+
+/**
+ * Prueba que venció en el planificador, con el instante en que debía empezar.
+ * El planificador reutiliza la misma instancia en cada vencimiento de un
+ * dispositivo, así que quien la guarde más allá de la vuelta en curso del
+ * monitor debe copiarla.
+ */
+public class PruebaPlanificada {
+    private final Dispositivos dispositivo;     // Dispositivo a probar
+    private long inicioPlanificadoNanos;        // Instante planificado (System.nanoTime())
+
+    public PruebaPlanificada(Dispositivos dispositivo, long inicioPlanificadoNanos) {
+        this.dispositivo = dispositivo;
+        this.inicioPlanificadoNanos = inicioPlanificadoNanos;
+    }
+
+    public Dispositivos getDispositivo() {
+        return dispositivo;
+    }
+
+    public long getInicioPlanificadoNanos() {
+        return inicioPlanificadoNanos;
+    }
+
+    void setInicioPlanificadoNanos(long inicioPlanificadoNanos) {
+        this.inicioPlanificadoNanos = inicioPlanificadoNanos;
+    }
+}
@@ -0,0 +1,378 @@
+package com.monitoreo;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Difunde los eventos del monitoreo ({@link EventoSondeo}) a suscriptores
+ * {@link Flow.Subscriber}. Cada suscripción tiene su propio buffer acotado y
+ * su política de desborde; el thread de monitoreo solo deja el evento en los
+ * buffers y la entrega (respetando la demanda pedida con
+ * {@link Flow.Subscription#request(long)}) la hacen hilos propios del
+ * publicador, así que un suscriptor lento no retrasa el procesamiento de
+ * resultados ni a los demás suscriptores.
+ */
+public class PublicadorEventos implements Flow.Publisher<EventoSondeo> {
+    public static final int CAPACIDAD_POR_DEFECTO = 1024;
+    public static final long ESPERA_BLOQUEO_MS_POR_DEFECTO = 100;
+
+    /**
+     * Qué hacer con un evento nuevo cuando el buffer del suscriptor está lleno
+     */
+    public enum PoliticaDesborde {
+        DESCARTAR_ANTIGUO,          // Descartar el evento más antiguo del buffer
+        DESCARTAR_NUEVO,            // Descartar el evento nuevo
+        BLOQUEAR                    // Esperar espacio (como máximo la espera de bloqueo) y luego descartar el nuevo;
+                                    // tras una espera agotada se descarta sin esperar hasta que el buffer se vacíe
+    }
+
+    private final CopyOnWriteArrayList<Suscripcion> suscripciones; // Suscripciones activas
+    private final ExecutorService ejecutor;         // Hilos de entrega
+    private final int capacidadPorDefecto;          // Buffer de las suscripciones hechas con subscribe()
+    private final PoliticaDesborde politicaPorDefecto; // Política de las suscripciones hechas con subscribe()
+    private final long esperaBloqueoNanos;          // Espera máxima del publicador con la política BLOQUEAR
+    private volatile boolean cerrado;
+
+    /**
+     * Constructor con los valores por defecto
+     */
+    public PublicadorEventos() {
+        this(CAPACIDAD_POR_DEFECTO, PoliticaDesborde.DESCARTAR_ANTIGUO, ESPERA_BLOQUEO_MS_POR_DEFECTO);
+    }
+
+    /**
+     * Constructor del publicador
+     * @param capacidadPorDefecto Eventos que retiene el buffer de cada suscripción hecha con {@link #subscribe}
+     * @param politicaPorDefecto Política de desborde de las suscripciones hechas con {@link #subscribe}
+     * @param esperaBloqueoMs Tiempo máximo que la política BLOQUEAR detiene al publicador por cada evento.
+     *                        Si se agota, la suscripción queda saturada y no vuelve a esperar hasta vaciar su buffer
+     */
+    public PublicadorEventos(int capacidadPorDefecto, PoliticaDesborde politicaPorDefecto, long esperaBloqueoMs) {
+        if (capacidadPorDefecto <= 0) {
+            throw new IllegalArgumentException("La capacidad del buffer debe ser positiva");
+        }
+        this.suscripciones = new CopyOnWriteArrayList<>();
+        this.capacidadPorDefecto = capacidadPorDefecto;
+        this.politicaPorDefecto = Objects.requireNonNull(politicaPorDefecto);
+        this.esperaBloqueoNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, esperaBloqueoMs));
+        AtomicInteger contador = new AtomicInteger();
+        this.ejecutor = Executors.newCachedThreadPool(tarea -> {
+            Thread hilo = new Thread(tarea, "eventos-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Suscribe con la capacidad y la política por defecto del publicador
+     * @param suscriptor Receptor de los eventos
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super EventoSondeo> suscriptor) {
+        suscribir(suscriptor, capacidadPorDefecto, politicaPorDefecto);
+    }
+
+    /**
+     * Suscribe con un buffer y una política de desborde propios
+     * @param suscriptor Receptor de los eventos
+     * @param capacidad Eventos pendientes de entrega que retiene el buffer
+     * @param politica Qué hacer cuando el buffer está lleno
+     */
+    public void suscribir(Flow.Subscriber<? super EventoSondeo> suscriptor, int capacidad, PoliticaDesborde politica) {
+        Objects.requireNonNull(suscriptor);
+        Objects.requireNonNull(politica);
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad del buffer debe ser positiva");
+        }
+        Suscripcion suscripcion = new Suscripcion(suscriptor, capacidad, politica);
+        suscripciones.add(suscripcion);
+        // Se vuelve a mirar después de agregarla: si cerrar() recorrió la lista antes,
+        // nadie más va a completar esta suscripción (completarla dos veces es inocuo)
+        if (cerrado) {
+            suscripciones.remove(suscripcion);
+            suscripcion.completar();    // Recibe onSubscribe y enseguida onComplete
+            return;
+        }
+        suscripcion.programar();        // Entrega onSubscribe desde un hilo del publicador
+    }
+
+    /**
+     * Indica si hay suscriptores; permite no construir eventos que nadie va a recibir
+     * @return true si hay al menos una suscripción activa
+     */
+    public boolean hayInteresados() {
+        return !suscripciones.isEmpty();
+    }
+
+    /**
+     * Deja un evento en el buffer de cada suscripción
+     * @param evento Evento a difundir
+     */
+    public void publicar(EventoSondeo evento) {
+        if (cerrado) {
+            return;
+        }
+        for (Suscripcion suscripcion : suscripciones) {
+            suscripcion.ofrecer(evento, esperaBloqueoNanos);
+        }
+    }
+
+    /**
+     * Completa todas las suscripciones tras entregar lo pendiente y libera los hilos de entrega
+     */
+    public void cerrar() {
+        cerrado = true;
+        for (Suscripcion suscripcion : suscripciones) {
+            suscripcion.completar();
+        }
+        suscripciones.clear();
+        ejecutor.shutdown();
+    }
+
+    public int getCantidadSuscriptores() {
+        return suscripciones.size();
+    }
+
+    /**
+     * Obtiene los eventos descartados por desborde en las suscripciones activas
+     * @return eventos descartados
+     */
+    public long getDescartados() {
+        long total = 0;
+        for (Suscripcion suscripcion : suscripciones) {
+            total += suscripcion.getDescartados();
+        }
+        return total;
+    }
+
+    /**
+     * Suscripción de un suscriptor: buffer circular protegido por un lock y
+     * una tarea de entrega que se programa en el ejecutor solo cuando hay
+     * trabajo (eventos con demanda, señales terminales) y nunca dos a la vez,
+     * de modo que las señales al suscriptor llegan en orden y sin solaparse.
+     */
+    private final class Suscripcion implements Flow.Subscription {
+        private final Flow.Subscriber<? super EventoSondeo> suscriptor;
+        private final PoliticaDesborde politica;
+        private final EventoSondeo[] buffer;
+        private final ReentrantLock lock;
+        private final Condition hayEspacio;
+        private final AtomicInteger trabajo;        // Programaciones pendientes de la tarea de entrega
+        private int cabeza;                         // Posición del evento más antiguo (protegido por lock)
+        private int cantidad;                       // Eventos en el buffer (protegido por lock)
+        private long demanda;                       // Eventos pedidos sin entregar (protegido por lock)
+        private long descartados;                   // Eventos perdidos por desborde (protegido por lock)
+        private boolean completada;                 // No llegarán más eventos (protegido por lock)
+        private boolean saturada;                   // BLOQUEAR agotó una espera; no espera hasta vaciarse (protegido por lock)
+        private Throwable error;                    // Error a señalar al suscriptor (protegido por lock)
+        private boolean iniciada;                   // Ya se entregó onSubscribe (solo la tarea de entrega)
+        private volatile boolean cancelada;
+
+        Suscripcion(Flow.Subscriber<? super EventoSondeo> suscriptor, int capacidad, PoliticaDesborde politica) {
+            this.suscriptor = suscriptor;
+            this.politica = politica;
+            this.buffer = new EventoSondeo[capacidad];
+            this.lock = new ReentrantLock();
+            this.hayEspacio = lock.newCondition();
+            this.trabajo = new AtomicInteger();
+        }
+
+        /**
+         * Agrega un evento al buffer aplicando la política de desborde
+         */
+        void ofrecer(EventoSondeo evento, long esperaNanos) {
+            lock.lock();
+            try {
+                if (cancelada || completada) {
+                    return;
+                }
+                if (cantidad == buffer.length) {
+                    if (politica == PoliticaDesborde.DESCARTAR_NUEVO) {
+                        descartados++;
+                        return;
+                    }
+                    if (politica == PoliticaDesborde.DESCARTAR_ANTIGUO) {
+                        buffer[cabeza] = null;
+                        cabeza = (cabeza + 1) % buffer.length;
+                        cantidad--;
+                        descartados++;
+                    } else {
+                        // Un suscriptor que ya agotó una espera no vuelve a frenar al publicador
+                        // hasta que haya consumido todo su buffer
+                        long restante = saturada ? 0 : esperaNanos;
+                        while (cantidad == buffer.length && !cancelada && restante > 0) {
+                            restante = hayEspacio.awaitNanos(restante);
+                        }
+                        if (cantidad == buffer.length || cancelada) {
+                            saturada = !cancelada;
+                            descartados++;
+                            return;
+                        }
+                    }
+                }
+                buffer[(cabeza + cantidad) % buffer.length] = evento;
+                cantidad++;
+                if (demanda == 0) {
+                    return;     // Se entregará cuando el suscriptor pida más
+                }
+            } catch (InterruptedException e) {
+                descartados++;
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            programar();
+        }
+
+        @Override
+        public void request(long n) {
+            lock.lock();
+            try {
+                if (n <= 0) {
+                    error = new IllegalArgumentException("La demanda debe ser positiva: " + n);
+                } else {
+                    demanda = demanda + n < 0 ? Long.MAX_VALUE : demanda + n;
+                }
+            } finally {
+                lock.unlock();
+            }
+            programar();
+        }
+
+        @Override
+        public void cancel() {
+            cancelada = true;
+            suscripciones.remove(this);
+            lock.lock();
+            try {
+                Arrays.fill(buffer, null);
+                cantidad = 0;
+                hayEspacio.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Marca la suscripción como completada; onComplete llega tras los eventos pendientes
+         */
+        void completar() {
+            lock.lock();
+            try {
+                completada = true;
+                hayEspacio.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            programar();
+        }
+
+        long getDescartados() {
+            lock.lock();
+            try {
+                return descartados;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Programa la tarea de entrega si no está ya en curso
+         */
+        void programar() {
+            if (trabajo.getAndIncrement() == 0) {
+                try {
+                    ejecutor.execute(this::entregar);
+                } catch (RejectedExecutionException e) {
+                    entregar();     // Publicador cerrado: solo quedan onSubscribe y onComplete
+                }
+            }
+        }
+
+        /**
+         * Entrega eventos mientras haya demanda y señala el fin de la suscripción
+         */
+        private void entregar() {
+            int pendientes = 1;
+            do {
+                if (!iniciada) {
+                    iniciada = true;
+                    try {
+                        suscriptor.onSubscribe(this);
+                    } catch (Throwable t) {
+                        fallar(t);
+                    }
+                }
+                while (!cancelada) {
+                    EventoSondeo evento = null;
+                    Throwable errorPendiente = null;
+                    boolean completar = false;
+                    lock.lock();
+                    try {
+                        if (error != null) {
+                            errorPendiente = error;
+                        } else if (cantidad > 0 && demanda > 0) {
+                            evento = buffer[cabeza];
+                            buffer[cabeza] = null;
+                            cabeza = (cabeza + 1) % buffer.length;
+                            cantidad--;
+                            demanda--;
+                            if (cantidad == 0) {
+                                saturada = false;
+                            }
+                            hayEspacio.signal();
+                        } else if (cantidad == 0 && completada) {
+                            completar = true;
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                    if (errorPendiente != null) {
+                        fallar(errorPendiente);
+                    } else if (completar) {
+                        cancel();
+                        try {
+                            suscriptor.onComplete();
+                        } catch (Throwable t) {
+                            // El suscriptor ya no recibirá más señales
+                        }
+                    } else if (evento != null) {
+                        try {
+                            suscriptor.onNext(evento);
+                        } catch (Throwable t) {
+                            fallar(t);
+                        }
+                    } else {
+                        break;
+                    }
+                }
+                pendientes = trabajo.addAndGet(-pendientes);
+            } while (pendientes != 0);
+        }
+
+        /**
+         * Cancela la suscripción y señala el error al suscriptor
+         */
+        private void fallar(Throwable causa) {
+            if (cancelada) {
+                return;
+            }
+            cancel();
+            try {
+                suscriptor.onError(causa);
+            } catch (Throwable t) {
+                // El suscriptor ya no recibirá más señales
+            }
+        }
+    }
+}
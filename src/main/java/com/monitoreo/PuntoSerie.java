@@ -0,0 +1,79 @@
+package com.monitoreo;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Resumen de las muestras de una serie temporal en un paso de una lectura
+ * agregada ({@link SerieTemporal#leerAgregado(long, long, long)}): cantidad,
+ * fallos y latencia mínima, máxima y promedio de las exitosas
+ */
+public class PuntoSerie {
+    private final long inicioMs;            // Inicio del paso (epoch ms)
+    private final int cantidad;             // Muestras del paso
+    private final int exitosas;             // Muestras con el host disponible
+    private final double latenciaMinima;    // ms, de las exitosas
+    private final double latenciaMaxima;    // ms, de las exitosas
+    private final double sumaLatencias;     // ms, de las exitosas
+
+    public PuntoSerie(long inicioMs, int cantidad, int exitosas, double latenciaMinima, double latenciaMaxima,
+                      double sumaLatencias) {
+        this.inicioMs = inicioMs;
+        this.cantidad = cantidad;
+        this.exitosas = exitosas;
+        this.latenciaMinima = latenciaMinima;
+        this.latenciaMaxima = latenciaMaxima;
+        this.sumaLatencias = sumaLatencias;
+    }
+
+    public long getInicioMs() {
+        return inicioMs;
+    }
+
+    public LocalDateTime getInicio() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(inicioMs), ZoneId.systemDefault());
+    }
+
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    public int getFallos() {
+        return cantidad - exitosas;
+    }
+
+    /**
+     * @return porcentaje de muestras exitosas del paso
+     */
+    public double getDisponibilidad() {
+        return cantidad == 0 ? 100.0 : 100.0 * exitosas / cantidad;
+    }
+
+    /**
+     * @return latencia mínima de las exitosas en ms, 0 si no hubo
+     */
+    public double getLatenciaMinima() {
+        return exitosas == 0 ? 0.0 : latenciaMinima;
+    }
+
+    /**
+     * @return latencia máxima de las exitosas en ms, 0 si no hubo
+     */
+    public double getLatenciaMaxima() {
+        return exitosas == 0 ? 0.0 : latenciaMaxima;
+    }
+
+    /**
+     * @return latencia promedio de las exitosas en ms, 0 si no hubo
+     */
+    public double getLatenciaPromedio() {
+        return exitosas == 0 ? 0.0 : sumaLatencias / exitosas;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d muestras, %.2f%% disponible, %.2f ms promedio", getInicio(), cantidad,
+            getDisponibilidad(), getLatenciaPromedio());
+    }
+}
@@ -0,0 +1,216 @@
+package com.monitoreo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro concurrente de los dispositivos monitoreados, indexado por ID y por
+ * dirección IP. Las búsquedas no bloquean y son O(1); las altas y bajas se
+ * serializan entre sí y pueden hacerse por lotes. Para recorrer los
+ * dispositivos se usa una instantánea inmutable que se reconstruye una sola
+ * vez tras cada modificación, de modo que el hilo de monitoreo nunca ve una
+ * lista a medio modificar y un lote de altas aparece completo.
+ * Cada dispositivo recibe además un índice entero estable, que las estructuras
+ * primitivas (por ejemplo el almacén de eventos) usan en lugar del ID. Los
+ * índices de los dispositivos quitados se reutilizan, así que la tabla de
+ * índices no crece con las altas y bajas sino con el máximo de dispositivos
+ * registrados a la vez.
+ */
+public class RegistroDispositivos {
+    private final Map<String, Dispositivos> porId;              // ID -> dispositivo
+    private final Map<String, List<Dispositivos>> porIp;        // IP -> dispositivos con esa IP
+    private final LinkedHashMap<String, Dispositivos> orden;    // Orden de alta (protegido por this)
+    private volatile List<Dispositivos> instantanea;            // Vista inmutable (null = hay que reconstruirla)
+    private volatile String[] idsPorIndice;                     // ID de cada índice asignado (el último que lo tuvo)
+    private final ArrayDeque<Integer> indicesLibres;            // Índices liberados, el más antiguo primero (protegido por this)
+    private int siguienteIndice;                                // Próximo índice nunca asignado (protegido por this)
+
+    /**
+     * Constructor del registro vacío
+     */
+    public RegistroDispositivos() {
+        this.porId = new ConcurrentHashMap<>();
+        this.porIp = new ConcurrentHashMap<>();
+        this.orden = new LinkedHashMap<>();
+        this.instantanea = Collections.emptyList();
+        this.idsPorIndice = new String[64];
+        this.indicesLibres = new ArrayDeque<>();
+        this.siguienteIndice = 0;
+    }
+
+    /**
+     * Agrega un dispositivo si no hay otro con el mismo ID
+     * @param dispositivo Dispositivo a agregar
+     * @return true si se agregó
+     */
+    public synchronized boolean agregar(Dispositivos dispositivo) {
+        if (!agregarSinPublicar(dispositivo)) {
+            return false;
+        }
+        instantanea = null;
+        return true;
+    }
+
+    /**
+     * Agrega un lote de dispositivos; los que repiten un ID ya registrado se omiten.
+     * El lote se publica de una vez en la instantánea de iteración.
+     * @param dispositivos Dispositivos a agregar
+     * @return Dispositivos efectivamente agregados
+     */
+    public synchronized List<Dispositivos> agregarTodos(Collection<Dispositivos> dispositivos) {
+        List<Dispositivos> agregados = new ArrayList<>(dispositivos.size());
+        for (Dispositivos dispositivo : dispositivos) {
+            if (agregarSinPublicar(dispositivo)) {
+                agregados.add(dispositivo);
+            }
+        }
+        if (!agregados.isEmpty()) {
+            instantanea = null;
+        }
+        return agregados;
+    }
+
+    /**
+     * Quita un dispositivo por su ID
+     * @param id ID del dispositivo
+     * @return el dispositivo quitado, o null si no existía
+     */
+    public synchronized Dispositivos remover(String id) {
+        Dispositivos removido = removerSinPublicar(id);
+        if (removido != null) {
+            instantanea = null;
+        }
+        return removido;
+    }
+
+    /**
+     * Quita un lote de dispositivos por su ID
+     * @param ids IDs de los dispositivos
+     * @return Dispositivos efectivamente quitados
+     */
+    public synchronized List<Dispositivos> removerTodos(Collection<String> ids) {
+        List<Dispositivos> removidos = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Dispositivos removido = removerSinPublicar(id);
+            if (removido != null) {
+                removidos.add(removido);
+            }
+        }
+        if (!removidos.isEmpty()) {
+            instantanea = null;
+        }
+        return removidos;
+    }
+
+    private boolean agregarSinPublicar(Dispositivos dispositivo) {
+        if (porId.containsKey(dispositivo.getId())) {
+            return false;
+        }
+        asignarIndice(dispositivo);     // Antes de publicarlo, para que nunca se vea sin índice
+        porId.put(dispositivo.getId(), dispositivo);
+        orden.put(dispositivo.getId(), dispositivo);
+        porIp.merge(dispositivo.getDireccionIP(), Collections.singletonList(dispositivo), (actuales, nuevo) -> {
+            List<Dispositivos> combinados = new ArrayList<>(actuales.size() + 1);
+            combinados.addAll(actuales);
+            combinados.addAll(nuevo);
+            return Collections.unmodifiableList(combinados);
+        });
+        return true;
+    }
+
+    /**
+     * Asigna al dispositivo el índice liberado hace más tiempo o, si no hay,
+     * uno nuevo. Un índice liberado sigue identificando al dispositivo quitado
+     * hasta que se reutiliza; al reutilizar primero el más antiguo, los eventos
+     * guardados con él son los más viejos y los primeros en reemplazarse.
+     */
+    private void asignarIndice(Dispositivos dispositivo) {
+        Integer libre = indicesLibres.pollFirst();
+        int indice = libre != null ? libre : siguienteIndice++;
+        String[] ids = idsPorIndice;
+        if (indice >= ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+        ids[indice] = dispositivo.getId();
+        idsPorIndice = ids;
+        dispositivo.setIndice(indice);
+    }
+
+    private Dispositivos removerSinPublicar(String id) {
+        Dispositivos removido = porId.remove(id);
+        if (removido == null) {
+            return null;
+        }
+        orden.remove(id);
+        indicesLibres.addLast(removido.getIndice());
+        porIp.computeIfPresent(removido.getDireccionIP(), (ip, actuales) -> {
+            List<Dispositivos> restantes = new ArrayList<>(actuales);
+            restantes.remove(removido);
+            return restantes.isEmpty() ? null : Collections.unmodifiableList(restantes);
+        });
+        return removido;
+    }
+
+    /**
+     * Busca un dispositivo por su ID
+     * @param id ID del dispositivo
+     * @return el dispositivo, o null si no existe
+     */
+    public Dispositivos obtener(String id) {
+        return porId.get(id);
+    }
+
+    /**
+     * Busca los dispositivos con una dirección IP (puede haber varios, por ejemplo
+     * uno por servicio)
+     * @param direccionIP Dirección IP
+     * @return dispositivos con esa IP (lista vacía si no hay)
+     */
+    public List<Dispositivos> buscarPorIp(String direccionIP) {
+        List<Dispositivos> encontrados = porIp.get(direccionIP);
+        return encontrados != null ? encontrados : Collections.emptyList();
+    }
+
+    /**
+     * Obtiene el ID correspondiente a un índice de dispositivo
+     * @param indice Índice asignado al agregar el dispositivo
+     * @return ID del último dispositivo que recibió el índice, o null si el índice no se asignó
+     */
+    public String idPorIndice(int indice) {
+        String[] ids = idsPorIndice;
+        return indice >= 0 && indice < ids.length ? ids[indice] : null;
+    }
+
+    public boolean contiene(String id) {
+        return porId.containsKey(id);
+    }
+
+    public int getTamano() {
+        return porId.size();
+    }
+
+    /**
+     * Obtiene una instantánea inmutable de los dispositivos en orden de alta.
+     * No se ve afectada por altas o bajas posteriores.
+     * @return lista inmutable de dispositivos
+     */
+    public List<Dispositivos> instantanea() {
+        List<Dispositivos> actual = instantanea;
+        if (actual != null) {
+            return actual;
+        }
+        synchronized (this) {
+            if (instantanea == null) {
+                instantanea = Collections.unmodifiableList(new ArrayList<>(orden.values()));
+            }
+            return instantanea;
+        }
+    }
+}
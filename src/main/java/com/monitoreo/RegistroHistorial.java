@@ -0,0 +1,65 @@
+package com.monitoreo;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Resultado de una prueba leído del historial de sondeos
+ */
+public class RegistroHistorial {
+    private final long epochNanos;              // Instante de la prueba
+    private final long claveDispositivo;        // Clave del dispositivo en el diario
+    private final String idDispositivo;         // ID del dispositivo (null si no se conoce)
+    private final ResultadoSonda.Tipo tipo;     // Desenlace de la prueba
+    private final long latenciaNanos;           // Latencia de la prueba
+    private final int retrasoMicros;            // Retraso respecto a la planificación
+
+    public RegistroHistorial(long epochNanos, long claveDispositivo, String idDispositivo,
+                             ResultadoSonda.Tipo tipo, long latenciaNanos, int retrasoMicros) {
+        this.epochNanos = epochNanos;
+        this.claveDispositivo = claveDispositivo;
+        this.idDispositivo = idDispositivo;
+        this.tipo = tipo;
+        this.latenciaNanos = latenciaNanos;
+        this.retrasoMicros = retrasoMicros;
+    }
+
+    public long getEpochNanos() {
+        return epochNanos;
+    }
+
+    public LocalDateTime getFechaHora() {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(0, epochNanos), ZoneId.systemDefault());
+    }
+
+    public long getClaveDispositivo() {
+        return claveDispositivo;
+    }
+
+    public String getIdDispositivo() {
+        return idDispositivo;
+    }
+
+    public ResultadoSonda.Tipo getTipo() {
+        return tipo;
+    }
+
+    public long getLatenciaNanos() {
+        return latenciaNanos;
+    }
+
+    public double getLatenciaMs() {
+        return latenciaNanos / 1_000_000.0;
+    }
+
+    public int getRetrasoMicros() {
+        return retrasoMicros;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s - %s: %s (%.2f ms)", getFechaHora(),
+            idDispositivo != null ? idDispositivo : Long.toHexString(claveDispositivo), tipo, getLatenciaMs());
+    }
+}
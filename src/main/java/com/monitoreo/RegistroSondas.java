@@ -0,0 +1,220 @@
+package com.monitoreo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro de las estrategias de sondeo disponibles.
+ * Las sondas incluidas (icmp, tcp, udp y auto) se registran al crear el
+ * registro; las sondas propias pueden registrarse por código o declararse como
+ * servicio de {@link ServiceLoader}, que se consulta de forma perezosa la
+ * primera vez que se pide una sonda desconocida o la lista completa.
+ * Cada sonda se envuelve para acumular su distribución de latencias y sus
+ * errores en un {@link EstadisticasSonda}.
+ */
+public class RegistroSondas {
+    private final Map<String, EstrategiaSondeo> sondas;           // Sondas por nombre (instrumentadas)
+    private final Map<String, EstadisticasSonda> estadisticas;    // Estadísticas por nombre de sonda
+    private volatile List<EstrategiaSondeo> seleccionables;       // Candidatas a la selección automática, por coste
+    private volatile boolean serviciosCargados;                   // true tras consultar ServiceLoader
+
+    /**
+     * Inicialización perezosa de la instancia compartida
+     */
+    private static final class Compartido {
+        private static final RegistroSondas INSTANCIA = new RegistroSondas();
+    }
+
+    /**
+     * Constructor del registro con las sondas incluidas
+     */
+    public RegistroSondas() {
+        this.sondas = new ConcurrentHashMap<>();
+        this.estadisticas = new ConcurrentHashMap<>();
+        this.seleccionables = new ArrayList<>();
+        registrar(new SondaIcmp());
+        registrar(new SondaTcp());
+        registrar(new SondaUdp());
+        // La automática delega en sondas ya instrumentadas, por eso no se envuelve
+        sondas.put(SondaAutomatica.NOMBRE, new SondaAutomatica(this));
+    }
+
+    /**
+     * Obtiene el registro compartido por todos los dispositivos
+     * @return instancia compartida
+     */
+    public static RegistroSondas compartido() {
+        return Compartido.INSTANCIA;
+    }
+
+    /**
+     * Registra una sonda, reemplazando a la que tenga el mismo nombre
+     * @param sonda Sonda a registrar
+     */
+    public synchronized void registrar(EstrategiaSondeo sonda) {
+        String nombre = sonda.getNombre();
+        if (nombre == null || nombre.isEmpty() || SondaAutomatica.NOMBRE.equals(nombre)) {
+            throw new IllegalArgumentException("Nombre de sonda inválido: " + nombre);
+        }
+        EstadisticasSonda stats = estadisticas.computeIfAbsent(nombre, EstadisticasSonda::new);
+        sondas.put(nombre, new SondaInstrumentada(sonda, stats));
+
+        List<EstrategiaSondeo> nuevas = new ArrayList<>();
+        for (EstrategiaSondeo registrada : sondas.values()) {
+            if (registrada.admiteSeleccionAutomatica()) {
+                nuevas.add(registrada);
+            }
+        }
+        nuevas.sort(Comparator.comparingInt(EstrategiaSondeo::getCoste));
+        seleccionables = nuevas;
+    }
+
+    /**
+     * Obtiene una sonda por nombre
+     * @param nombre Nombre de la sonda
+     * @return la sonda, o null si no existe
+     */
+    public EstrategiaSondeo obtener(String nombre) {
+        EstrategiaSondeo sonda = sondas.get(nombre);
+        if (sonda == null && !serviciosCargados) {
+            cargarServicios();
+            sonda = sondas.get(nombre);
+        }
+        return sonda;
+    }
+
+    /**
+     * Obtiene la sonda configurada para un dispositivo
+     * @param dispositivo Dispositivo a probar
+     * @return sonda del dispositivo (ICMP si la configurada ya no existe)
+     */
+    public EstrategiaSondeo resolver(Dispositivos dispositivo) {
+        EstrategiaSondeo sonda = obtener(dispositivo.getNombreSonda());
+        return sonda != null ? sonda : sondas.get(SondaIcmp.NOMBRE);
+    }
+
+    /**
+     * Obtiene las sondas aplicables a un dispositivo en la selección automática
+     * @param dispositivo Dispositivo a probar
+     * @return sondas ordenadas de menor a mayor coste
+     */
+    public List<EstrategiaSondeo> candidatas(Dispositivos dispositivo) {
+        if (!serviciosCargados) {
+            cargarServicios();
+        }
+        List<EstrategiaSondeo> aplicables = new ArrayList<>();
+        for (EstrategiaSondeo sonda : seleccionables) {
+            if (sonda.esAplicable(dispositivo)) {
+                aplicables.add(sonda);
+            }
+        }
+        return aplicables;
+    }
+
+    /**
+     * Obtiene todas las sondas registradas, incluidas las declaradas como servicio
+     * @return sondas registradas
+     */
+    public Collection<EstrategiaSondeo> listar() {
+        if (!serviciosCargados) {
+            cargarServicios();
+        }
+        return new ArrayList<>(sondas.values());
+    }
+
+    /**
+     * Obtiene las estadísticas de una sonda
+     * @param nombre Nombre de la sonda
+     * @return estadísticas, o null si la sonda nunca se registró
+     */
+    public EstadisticasSonda getEstadisticas(String nombre) {
+        return estadisticas.get(nombre);
+    }
+
+    /**
+     * Obtiene las estadísticas de todas las sondas
+     * @return estadísticas por nombre de sonda
+     */
+    public Map<String, EstadisticasSonda> getEstadisticas() {
+        return new ConcurrentHashMap<>(estadisticas);
+    }
+
+    /**
+     * Registra las sondas declaradas en META-INF/services (solo la primera vez)
+     */
+    private synchronized void cargarServicios() {
+        if (serviciosCargados) {
+            return;
+        }
+        try {
+            for (EstrategiaSondeo sonda : ServiceLoader.load(EstrategiaSondeo.class)) {
+                if (!sondas.containsKey(sonda.getNombre())) {
+                    registrar(sonda);
+                }
+            }
+        } catch (ServiceConfigurationError e) {
+            System.err.println("Error al cargar sondas personalizadas: " + e.getMessage());
+        }
+        serviciosCargados = true;
+    }
+
+    /**
+     * Envoltorio que registra el resultado de cada prueba en las estadísticas de la sonda
+     */
+    private static final class SondaInstrumentada implements EstrategiaSondeo {
+        private final EstrategiaSondeo sonda;
+        private final EstadisticasSonda stats;
+
+        SondaInstrumentada(EstrategiaSondeo sonda, EstadisticasSonda stats) {
+            this.sonda = sonda;
+            this.stats = stats;
+        }
+
+        @Override
+        public String getNombre() {
+            return sonda.getNombre();
+        }
+
+        @Override
+        public int getCoste() {
+            return sonda.getCoste();
+        }
+
+        @Override
+        public boolean esAplicable(Dispositivos dispositivo) {
+            return sonda.esAplicable(dispositivo);
+        }
+
+        @Override
+        public boolean admiteSeleccionAutomatica() {
+            return sonda.admiteSeleccionAutomatica();
+        }
+
+        @Override
+        public boolean esNoBloqueante(Dispositivos dispositivo) {
+            return sonda.esNoBloqueante(dispositivo);
+        }
+
+        @Override
+        public ResultadoSonda sondear(Dispositivos dispositivo, int timeoutMs) {
+            ResultadoSonda resultado = sonda.sondear(dispositivo, timeoutMs);
+            stats.registrar(resultado);
+            return resultado;
+        }
+
+        @Override
+        public CompletableFuture<ResultadoSonda> sondearAsincrono(Dispositivos dispositivo, int timeoutMs) {
+            return sonda.sondearAsincrono(dispositivo, timeoutMs).thenApply(resultado -> {
+                stats.registrar(resultado);
+                return resultado;
+            });
+        }
+    }
+}
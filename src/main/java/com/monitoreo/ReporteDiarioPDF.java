@@ -1,5 +1,6 @@
 package com.monitoreo;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Map;
@@ -47,7 +48,7 @@ public class ReporteDiarioPDF extends ReportePDFBase {
         document.add(dispositivosTitulo);
 
         for (Map.Entry<String, HostEstadisticas> entrada : estadisticas.entrySet()) {
-            HostEstadisticas stats = entrada.getValue();
+            InstantaneaEstadisticas stats = entrada.getValue().instantanea();
 
             Paragraph dispositivoTitulo = new Paragraph("Dispositivo: " + entrada.getKey())
                     .setFontSize(14)
@@ -66,9 +67,28 @@ public class ReporteDiarioPDF extends ReportePDFBase {
             tablaStats.addCell("Disponibilidad");
             tablaStats.addCell(String.format("%.2f%%", stats.getDisponibilidad()));
 
+            Duration[] horizontes = stats.getHorizontesDisponibilidad();
+            if (horizontes.length > 0) {
+                StringBuilder porVentana = new StringBuilder();
+                for (Duration horizonte : horizontes) {
+                    if (porVentana.length() > 0) porVentana.append(" / ");
+                    porVentana.append(String.format("%s: %.2f%%", VentanaDisponibilidad.etiqueta(horizonte),
+                            stats.getDisponibilidad(horizonte)));
+                }
+                tablaStats.addCell("Disponibilidad por ventana");
+                tablaStats.addCell(porVentana.toString());
+            }
+
             tablaStats.addCell("Tiempo de respuesta promedio");
             tablaStats.addCell(String.format("%.2f ms", stats.getTiempoRespuestaPromedio()));
 
+            tablaStats.addCell("Latencia p50 / p95 / p99");
+            tablaStats.addCell(String.format("%.2f / %.2f / %.2f ms", stats.getPercentilLatencia(50),
+                    stats.getPercentilLatencia(95), stats.getPercentilLatencia(99)));
+
+            tablaStats.addCell("Latencia máxima");
+            tablaStats.addCell(String.format("%.2f ms", stats.getLatenciaMaxima()));
+
             tablaStats.addCell("Total de chequeos");
             tablaStats.addCell(String.valueOf(stats.getTotalChequeos()));
 
@@ -101,7 +121,8 @@ public class ReporteDiarioPDF extends ReportePDFBase {
         double disponibilidadTotal = 0;
         double tiempoRespuestaTotal = 0;
 
-        for (HostEstadisticas stats : estadisticas.values()) {
+        for (HostEstadisticas estadisticasHost : estadisticas.values()) {
+            InstantaneaEstadisticas stats = estadisticasHost.instantanea();
             if (stats.getDisponibilidad() > 0) hostsActivos++;
             disponibilidadTotal += stats.getDisponibilidad();
             tiempoRespuestaTotal += stats.getTiempoRespuestaPromedio();
@@ -1,8 +1,12 @@
 package com.monitoreo;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import com.itextpdf.kernel.colors.ColorConstants;
 import com.itextpdf.layout.Document;
@@ -14,14 +18,35 @@ import com.itextpdf.layout.properties.UnitValue;
 
 /**
  * Reporte específico de disponibilidad por host.
+ * Si hay historial agregado, incluye además la disponibilidad de las últimas
+ * 24 horas y de los últimos 30 días, leída de los agregados por hora y minuto;
+ * si no lo hay pero los hosts mantienen ventanas deslizantes de esos
+ * horizontes, las columnas salen de las ventanas.
  */
 public class ReporteDisponibilidadPDF extends ReportePDFBase {
 
     private final Map<String, HostEstadisticas> estadisticas;
+    private final CompactadorHistorial compactadorHistorial;   // null = sin periodos largos
+    private final Duration ventana;                            // Ventana de la columna principal (cero = total)
+
+    private static final Duration UN_DIA = Duration.ofDays(1);
+    private static final Duration TREINTA_DIAS = Duration.ofDays(30);
 
     public ReporteDisponibilidadPDF(String directorio, Map<String, HostEstadisticas> estadisticas) {
+        this(directorio, estadisticas, null);
+    }
+
+    public ReporteDisponibilidadPDF(String directorio, Map<String, HostEstadisticas> estadisticas,
+                                    CompactadorHistorial compactadorHistorial) {
+        this(directorio, estadisticas, compactadorHistorial, Duration.ZERO);
+    }
+
+    public ReporteDisponibilidadPDF(String directorio, Map<String, HostEstadisticas> estadisticas,
+                                    CompactadorHistorial compactadorHistorial, Duration ventana) {
         super(directorio);
         this.estadisticas = estadisticas;
+        this.compactadorHistorial = compactadorHistorial;
+        this.ventana = ventana;
     }
 
     public String generar() {
@@ -44,30 +69,45 @@ public class ReporteDisponibilidadPDF extends ReportePDFBase {
                 .setMarginBottom(10);
         document.add(disponibilidadTitulo);
 
-        Table tablaDisponibilidad = new Table(UnitValue.createPercentArray(new float[]{2, 1}))
+        Map<String, InstantaneaEstadisticas> instantaneas = new LinkedHashMap<>();
+        boolean conVentanas = !estadisticas.isEmpty();
+        for (Map.Entry<String, HostEstadisticas> entrada : estadisticas.entrySet()) {
+            InstantaneaEstadisticas stats = entrada.getValue().instantanea();
+            instantaneas.put(entrada.getKey(), stats);
+            conVentanas &= stats.tieneVentana(UN_DIA) && stats.tieneVentana(TREINTA_DIAS);
+        }
+
+        boolean conHistorial = compactadorHistorial != null || conVentanas;
+        Table tablaDisponibilidad = new Table(UnitValue.createPercentArray(
+                conHistorial ? new float[]{2, 1, 1, 1} : new float[]{2, 1}))
                 .useAllAvailableWidth()
                 .setMarginBottom(30);
 
         tablaDisponibilidad.addHeaderCell(new Cell().add(new Paragraph("Host").setBold()));
-        tablaDisponibilidad.addHeaderCell(new Cell().add(new Paragraph("Disponibilidad").setBold()));
+        tablaDisponibilidad.addHeaderCell(new Cell().add(new Paragraph(ventana.isZero() ? "Disponibilidad"
+                : "Disponibilidad (" + VentanaDisponibilidad.etiqueta(ventana) + ")").setBold()));
+        if (conHistorial) {
+            tablaDisponibilidad.addHeaderCell(new Cell().add(new Paragraph("Últimas 24 h").setBold()));
+            tablaDisponibilidad.addHeaderCell(new Cell().add(new Paragraph("Últimos 30 días").setBold()));
+        }
 
+        long ahora = System.currentTimeMillis() * 1_000_000L;
         double disponibilidadTotal = 0;
-        for (Map.Entry<String, HostEstadisticas> entrada : estadisticas.entrySet()) {
-            double disponibilidad = entrada.getValue().getDisponibilidad();
+        for (Map.Entry<String, InstantaneaEstadisticas> entrada : instantaneas.entrySet()) {
+            InstantaneaEstadisticas stats = entrada.getValue();
+            double disponibilidad = stats.tieneVentana(ventana) || ventana.isZero()
+                    ? stats.getDisponibilidad(ventana) : stats.getDisponibilidad();
             disponibilidadTotal += disponibilidad;
 
             tablaDisponibilidad.addCell(entrada.getKey());
-
-            Cell disponibilidadCell = new Cell()
-                    .add(new Paragraph(String.format("%.2f%%", disponibilidad)));
-            if (disponibilidad >= 95) {
-                disponibilidadCell.setBackgroundColor(ColorConstants.GREEN);
-            } else if (disponibilidad >= 80) {
-                disponibilidadCell.setBackgroundColor(ColorConstants.YELLOW);
-            } else {
-                disponibilidadCell.setBackgroundColor(ColorConstants.RED);
+            tablaDisponibilidad.addCell(crearCeldaDisponibilidad(disponibilidad));
+            if (compactadorHistorial != null) {
+                tablaDisponibilidad.addCell(crearCeldaHistorial(entrada.getKey(), ahora - TimeUnit.DAYS.toNanos(1), ahora));
+                tablaDisponibilidad.addCell(crearCeldaHistorial(entrada.getKey(), ahora - TimeUnit.DAYS.toNanos(30), ahora));
+            } else if (conVentanas) {
+                tablaDisponibilidad.addCell(crearCeldaDisponibilidad(stats.getDisponibilidad(UN_DIA)));
+                tablaDisponibilidad.addCell(crearCeldaDisponibilidad(stats.getDisponibilidad(TREINTA_DIAS)));
             }
-            tablaDisponibilidad.addCell(disponibilidadCell);
         }
         document.add(tablaDisponibilidad);
 
@@ -112,6 +152,33 @@ public class ReporteDisponibilidadPDF extends ReportePDFBase {
                 .setFontColor(ColorConstants.GRAY);
         document.add(pie);
     }
-}
 
+    /**
+     * Crea una celda con la disponibilidad de un host en un periodo, leída del historial agregado
+     */
+    private Cell crearCeldaHistorial(String host, long desdeEpochNanos, long hastaEpochNanos) {
+        try {
+            AgregadoSondeos resumen = compactadorHistorial.resumir(host, desdeEpochNanos, hastaEpochNanos);
+            if (resumen.getCantidad() == 0) {
+                return new Cell().add(new Paragraph("N/A"));
+            }
+            return crearCeldaDisponibilidad(resumen.getDisponibilidad());
+        } catch (IOException e) {
+            System.err.println("Error al leer el historial de " + host + ": " + e.getMessage());
+            return new Cell().add(new Paragraph("N/A"));
+        }
+    }
 
+    private Cell crearCeldaDisponibilidad(double disponibilidad) {
+        Cell disponibilidadCell = new Cell()
+                .add(new Paragraph(String.format("%.2f%%", disponibilidad)));
+        if (disponibilidad >= 95) {
+            disponibilidadCell.setBackgroundColor(ColorConstants.GREEN);
+        } else if (disponibilidad >= 80) {
+            disponibilidadCell.setBackgroundColor(ColorConstants.YELLOW);
+        } else {
+            disponibilidadCell.setBackgroundColor(ColorConstants.RED);
+        }
+        return disponibilidadCell;
+    }
+}
@@ -0,0 +1,52 @@
+package com.monitoreo;
+
+/**
+ * Resoluciones en las que se agrega el historial de sondeos. Cada una se
+ * guarda en archivos que cubren un periodo fijo, para que la retención
+ * consista en borrar archivos completos.
+ */
+public enum ResolucionAgregado {
+    MINUTO("minuto", 60L * 1_000_000_000L, 24L * 3600 * 1_000_000_000L),           // Archivos de un día
+    HORA("hora", 3600L * 1_000_000_000L, 30L * 24 * 3600 * 1_000_000_000L);        // Archivos de 30 días
+
+    private final String prefijo;               // Prefijo de los archivos
+    private final long duracionNanos;           // Duración de un agregado
+    private final long periodoArchivoNanos;     // Tiempo que cubre un archivo
+
+    ResolucionAgregado(String prefijo, long duracionNanos, long periodoArchivoNanos) {
+        this.prefijo = prefijo;
+        this.duracionNanos = duracionNanos;
+        this.periodoArchivoNanos = periodoArchivoNanos;
+    }
+
+    /**
+     * Redondea un instante hacia abajo al inicio de su intervalo
+     * @param epochNanos Instante en nanosegundos desde la época
+     * @return inicio del intervalo que lo contiene
+     */
+    public long inicioDe(long epochNanos) {
+        return Math.floorDiv(epochNanos, duracionNanos) * duracionNanos;
+    }
+
+    /**
+     * Redondea un instante hacia arriba al inicio de un intervalo
+     * @param epochNanos Instante en nanosegundos desde la época
+     * @return primer inicio de intervalo mayor o igual al instante
+     */
+    public long siguienteInicio(long epochNanos) {
+        long inicio = inicioDe(epochNanos);
+        return inicio == epochNanos ? inicio : inicio + duracionNanos;
+    }
+
+    public String getPrefijo() {
+        return prefijo;
+    }
+
+    public long getDuracionNanos() {
+        return duracionNanos;
+    }
+
+    public long getPeriodoArchivoNanos() {
+        return periodoArchivoNanos;
+    }
+}
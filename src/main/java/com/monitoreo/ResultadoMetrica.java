@@ -0,0 +1,53 @@
+package com.monitoreo;
+
+import java.time.LocalDateTime;
+
+/**
+ * Clase que representa el resultado de una métrica
+ */
+public class ResultadoMetrica {
+    private final String nombre;
+    private final String descripcion;
+    private final double valor;
+    private final LocalDateTime timestamp;
+    private final long version;         // Versión de las estadísticas con la que se calculó
+    final long vigenteHastaMs;          // Hasta cuándo puede reutilizarse sin chequeos nuevos (epoch ms)
+
+    public ResultadoMetrica(String nombre, String descripcion, double valor, LocalDateTime timestamp) {
+        this(nombre, descripcion, valor, timestamp, 0, Long.MAX_VALUE);
+    }
+
+    ResultadoMetrica(String nombre, String descripcion, double valor, LocalDateTime timestamp, long version,
+                     long vigenteHastaMs) {
+        this.nombre = nombre;
+        this.descripcion = descripcion;
+        this.valor = valor;
+        this.timestamp = timestamp;
+        this.version = version;
+        this.vigenteHastaMs = vigenteHastaMs;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    public double getValor() {
+        return valor;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Obtiene la versión de las estadísticas del host con la que se calculó el
+     * valor (crece con cada chequeo); sirve para saber si cambió desde la última lectura
+     */
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,70 @@
+package com.monitoreo;
+
+/**
+ * Resultado de una prueba sobre un dispositivo, común a todas las estrategias
+ * de sondeo (ICMP, TCP, UDP o personalizadas)
+ */
+public class ResultadoSonda {
+    /**
+     * Desenlace de la prueba (taxonomía de errores de las sondas)
+     */
+    public enum Tipo {
+        EXITO,              // El dispositivo respondió
+        RECHAZADO,          // El host respondió pero rechazó la prueba (RST, ICMP port unreachable)
+        TIMEOUT,            // Sin respuesta dentro del plazo
+        INALCANZABLE,       // Sin ruta hacia el host
+        HOST_DESCONOCIDO,   // El nombre no se pudo resolver
+        ERROR               // Cualquier otro error de E/S
+    }
+
+    private final Tipo tipo;              // Desenlace de la prueba
+    private final long inicioNanos;       // Instante en que empezó la prueba (System.nanoTime())
+    private final long latenciaNanos;     // Latencia de la prueba en nanosegundos
+
+    /**
+     * Constructor del resultado. La sonda es el único punto de medida: toma el
+     * inicio y el fin con {@link System#nanoTime()}.
+     * @param tipo Desenlace de la prueba
+     * @param inicioNanos Instante en que empezó la prueba
+     * @param latenciaNanos Latencia de la prueba
+     */
+    public ResultadoSonda(Tipo tipo, long inicioNanos, long latenciaNanos) {
+        this.tipo = tipo;
+        this.inicioNanos = inicioNanos;
+        this.latenciaNanos = latenciaNanos;
+    }
+
+    /**
+     * Constructor para sondas que solo miden la latencia; el inicio se deduce
+     * suponiendo que la prueba acaba de terminar
+     * @param tipo Desenlace de la prueba
+     * @param latenciaNanos Latencia de la prueba
+     */
+    public ResultadoSonda(Tipo tipo, long latenciaNanos) {
+        this(tipo, System.nanoTime() - latenciaNanos, latenciaNanos);
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public boolean isExito() {
+        return tipo == Tipo.EXITO;
+    }
+
+    public long getInicioNanos() {
+        return inicioNanos;
+    }
+
+    public long getLatenciaNanos() {
+        return latenciaNanos;
+    }
+
+    /**
+     * Obtiene la latencia redondeada a milisegundos
+     * @return latencia en milisegundos
+     */
+    public long getLatenciaMs() {
+        return latenciaNanos / 1_000_000L;
+    }
+}
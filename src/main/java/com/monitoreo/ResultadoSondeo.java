@@ -0,0 +1,83 @@
+package com.monitoreo;
+
+/**
+ * Resultado de la prueba de un dispositivo dentro de un ciclo.
+ * Además de la latencia medida por la sonda guarda el instante en que la
+ * prueba debía empezar según la planificación y el instante en que empezó de
+ * verdad; la diferencia es el retraso acumulado por el monitor (cola del
+ * ejecutor, ciclos atrasados) que la latencia medida no incluye.
+ */
+public class ResultadoSondeo {
+    private final Dispositivos dispositivo;     // Dispositivo verificado
+    private final ResultadoSonda.Tipo tipo;     // Desenlace de la prueba
+    private final long inicioPlanificadoNanos;  // Instante previsto de la prueba (System.nanoTime())
+    private final long inicioRealNanos;         // Instante en que la sonda empezó (System.nanoTime())
+    private final long latenciaNanos;           // Latencia medida por la sonda
+
+    /**
+     * Constructor del resultado de una prueba
+     * @param dispositivo Dispositivo verificado
+     * @param tipo Desenlace de la prueba
+     * @param inicioPlanificadoNanos Instante en que debía empezar la prueba
+     * @param inicioRealNanos Instante en que empezó la prueba
+     * @param latenciaNanos Latencia medida por la sonda
+     */
+    public ResultadoSondeo(Dispositivos dispositivo, ResultadoSonda.Tipo tipo,
+                           long inicioPlanificadoNanos, long inicioRealNanos, long latenciaNanos) {
+        this.dispositivo = dispositivo;
+        this.tipo = tipo;
+        this.inicioPlanificadoNanos = inicioPlanificadoNanos;
+        this.inicioRealNanos = inicioRealNanos;
+        this.latenciaNanos = latenciaNanos;
+    }
+
+    public Dispositivos getDispositivo() {
+        return dispositivo;
+    }
+
+    public boolean isDisponible() {
+        return tipo == ResultadoSonda.Tipo.EXITO;
+    }
+
+    public ResultadoSonda.Tipo getTipo() {
+        return tipo;
+    }
+
+    public long getInicioPlanificadoNanos() {
+        return inicioPlanificadoNanos;
+    }
+
+    public long getInicioRealNanos() {
+        return inicioRealNanos;
+    }
+
+    public long getLatenciaNanos() {
+        return latenciaNanos;
+    }
+
+    /**
+     * Obtiene la latencia medida por la sonda, sin corregir
+     * @return tiempo de respuesta en milisegundos
+     */
+    public long getTiempoRespuesta() {
+        return latenciaNanos / 1_000_000L;
+    }
+
+    /**
+     * Obtiene cuánto empezó tarde la prueba respecto a su planificación
+     * @return retraso en nanosegundos (0 si empezó a tiempo)
+     */
+    public long getRetrasoNanos() {
+        return Math.max(0, inicioRealNanos - inicioPlanificadoNanos);
+    }
+
+    /**
+     * Calcula la latencia corregida por omisión coordinada: la que habría
+     * observado un cliente que empezó en el instante planificado.
+     * @param toleranciaNanos Retraso considerado normal (por ejemplo, la resolución del planificador)
+     * @return latencia corregida en nanosegundos
+     */
+    public long getLatenciaCorregidaNanos(long toleranciaNanos) {
+        return latenciaNanos + Math.max(0, getRetrasoNanos() - toleranciaNanos);
+    }
+}
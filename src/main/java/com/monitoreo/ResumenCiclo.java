@@ -0,0 +1,112 @@
+package com.monitoreo;
+
+/**
+ * Contabilidad de un ciclo de monitoreo (un intervalo global): duración real,
+ * pruebas lanzadas y completadas, pruebas no lanzadas por falta de
+ * presupuesto, tiempo esperando timeouts, retraso respecto a la planificación
+ * y memoria asignada por el hilo de monitoreo.
+ */
+public class ResumenCiclo {
+    private final long numero;                  // Número de ciclo desde el inicio del monitoreo
+    private final long duracionNanos;           // Duración real del ciclo
+    private final long intervaloNanos;          // Duración prevista del ciclo
+    private final int intentadas;               // Pruebas lanzadas en el ciclo
+    private final int completadas;              // Resultados recibidos en el ciclo
+    private final int omitidas;                 // Pruebas saltadas por falta de presupuesto
+    private final int diferidas;                // Pruebas aplazadas por falta de presupuesto
+    private final int descartadas;              // Pruebas de baja prioridad descartadas
+    private final int enVuelo;                  // Pruebas sin resultado al cerrar el ciclo
+    private final long esperaTimeoutsNanos;     // Tiempo total de pruebas que vencieron por timeout
+    private final long retrasoMaximoNanos;      // Mayor retraso de una prueba respecto a su planificación
+    private final boolean excedido;             // true si el ciclo no cupo en su intervalo
+    private final long bytesAsignados;          // Memoria asignada por el hilo de monitoreo (-1 = sin medición)
+
+    public ResumenCiclo(long numero, long duracionNanos, long intervaloNanos, int intentadas, int completadas,
+                        int omitidas, int diferidas, int descartadas, int enVuelo,
+                        long esperaTimeoutsNanos, long retrasoMaximoNanos, boolean excedido,
+                        long bytesAsignados) {
+        this.numero = numero;
+        this.duracionNanos = duracionNanos;
+        this.intervaloNanos = intervaloNanos;
+        this.intentadas = intentadas;
+        this.completadas = completadas;
+        this.omitidas = omitidas;
+        this.diferidas = diferidas;
+        this.descartadas = descartadas;
+        this.enVuelo = enVuelo;
+        this.esperaTimeoutsNanos = esperaTimeoutsNanos;
+        this.retrasoMaximoNanos = retrasoMaximoNanos;
+        this.excedido = excedido;
+        this.bytesAsignados = bytesAsignados;
+    }
+
+    public long getNumero() {
+        return numero;
+    }
+
+    public long getDuracionNanos() {
+        return duracionNanos;
+    }
+
+    public long getIntervaloNanos() {
+        return intervaloNanos;
+    }
+
+    public int getIntentadas() {
+        return intentadas;
+    }
+
+    public int getCompletadas() {
+        return completadas;
+    }
+
+    public int getOmitidas() {
+        return omitidas;
+    }
+
+    public int getDiferidas() {
+        return diferidas;
+    }
+
+    public int getDescartadas() {
+        return descartadas;
+    }
+
+    public int getEnVuelo() {
+        return enVuelo;
+    }
+
+    public long getEsperaTimeoutsNanos() {
+        return esperaTimeoutsNanos;
+    }
+
+    public long getRetrasoMaximoNanos() {
+        return retrasoMaximoNanos;
+    }
+
+    public boolean isExcedido() {
+        return excedido;
+    }
+
+    public long getBytesAsignados() {
+        return bytesAsignados;
+    }
+
+    /**
+     * Calcula la memoria asignada por el hilo de monitoreo por cada resultado procesado
+     * @return bytes por prueba, o -1 si no hay medición o no se completó ninguna prueba
+     */
+    public long getBytesPorPrueba() {
+        return bytesAsignados >= 0 && completadas > 0 ? bytesAsignados / completadas : -1;
+    }
+
+    @Override
+    public String toString() {
+        String texto = String.format("Ciclo %d: %d ms de %d ms, %d lanzadas, %d completadas, %d en vuelo, "
+                + "%d omitidas, %d diferidas, %d descartadas, %d ms en timeouts, retraso máximo %d ms",
+            numero, duracionNanos / 1_000_000L, intervaloNanos / 1_000_000L, intentadas, completadas, enVuelo,
+            omitidas, diferidas, descartadas, esperaTimeoutsNanos / 1_000_000L, retrasoMaximoNanos / 1_000_000L);
+        long bytesPorPrueba = getBytesPorPrueba();
+        return bytesPorPrueba >= 0 ? texto + ", " + bytesPorPrueba + " bytes asignados por prueba" : texto;
+    }
+}
@@ -0,0 +1,130 @@
+package com.monitoreo;
+
+import java.util.List;
+
+/**
+ * Rueda de temporización con hash (hashed timing wheel).
+ * Cada elemento se guarda en la ranura correspondiente a su tick de
+ * vencimiento, por lo que programar es O(1) y avanzar solo recorre las
+ * ranuras de los ticks transcurridos. Los tiempos se expresan con el reloj
+ * monótono de {@link System#nanoTime()}. Las entradas vencidas se reutilizan,
+ * así que reprogramar un elemento no asigna memoria.
+ * No es segura para hilos: debe usarse desde un único hilo o bajo un lock externo.
+ * @param <T> Tipo de los elementos programados
+ */
+public class RuedaTemporizacion<T> {
+    private final long duracionTickNanos;   // Duración de cada tick
+    private final Entrada<T>[] ranuras;     // Listas enlazadas de entradas por ranura
+    private final int mascara;              // Máscara para calcular la ranura (tamaño potencia de 2)
+    private final long inicioNanos;         // Instante de referencia del tick 0
+    private Entrada<T> libres;              // Entradas ya vencidas, reutilizadas al programar
+    private long tickActual;                // Próximo tick a procesar
+    private int tamano;                     // Número de elementos programados
+
+    /**
+     * Constructor de la rueda de temporización
+     * @param duracionTickNanos Duración de cada tick en nanosegundos
+     * @param numeroRanuras Número de ranuras (se redondea a potencia de 2)
+     * @param inicioNanos Instante de referencia (System.nanoTime())
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public RuedaTemporizacion(long duracionTickNanos, int numeroRanuras, long inicioNanos) {
+        if (duracionTickNanos <= 0 || numeroRanuras <= 0) {
+            throw new IllegalArgumentException("La duración del tick y el número de ranuras deben ser positivos");
+        }
+        int tamanoRanuras = Integer.highestOneBit(numeroRanuras);
+        if (tamanoRanuras < numeroRanuras) {
+            tamanoRanuras <<= 1;
+        }
+        this.duracionTickNanos = duracionTickNanos;
+        this.ranuras = (Entrada<T>[]) new Entrada[tamanoRanuras];
+        this.mascara = tamanoRanuras - 1;
+        this.inicioNanos = inicioNanos;
+        this.tickActual = 0;
+        this.tamano = 0;
+    }
+
+    /**
+     * Programa un elemento para que venza en el instante indicado.
+     * Si el instante ya pasó, vence en el próximo tick.
+     * @param elemento Elemento a programar
+     * @param vencimientoNanos Instante de vencimiento (System.nanoTime())
+     */
+    public void programar(T elemento, long vencimientoNanos) {
+        long transcurrido = vencimientoNanos - inicioNanos;
+        // Redondeo hacia arriba: un elemento nunca vence antes de su instante
+        long tick = transcurrido <= 0 ? 0 : (transcurrido + duracionTickNanos - 1) / duracionTickNanos;
+        tick = Math.max(tick, tickActual);
+        int indice = (int) (tick & mascara);
+        Entrada<T> entrada = libres;
+        if (entrada != null) {
+            libres = entrada.siguiente;
+        } else {
+            entrada = new Entrada<>();
+        }
+        entrada.elemento = elemento;
+        entrada.tick = tick;
+        entrada.siguiente = ranuras[indice];
+        ranuras[indice] = entrada;
+        tamano++;
+    }
+
+    /**
+     * Avanza la rueda hasta el instante indicado y extrae los elementos vencidos.
+     * Si se atrasó más de una vuelta completa, cada ranura se recorre una sola vez.
+     * @param ahoraNanos Instante actual (System.nanoTime())
+     * @param vencidos Lista donde se agregan los elementos vencidos
+     */
+    public void avanzar(long ahoraNanos, List<T> vencidos) {
+        long tickObjetivo = Math.floorDiv(ahoraNanos - inicioNanos, duracionTickNanos);
+        if (tickObjetivo < tickActual) {
+            return;
+        }
+        long ultimoTick = Math.min(tickObjetivo, tickActual + mascara);
+        for (long tick = tickActual; tick <= ultimoTick && tamano > 0; tick++) {
+            int indice = (int) (tick & mascara);
+            Entrada<T> anterior = null;
+            Entrada<T> entrada = ranuras[indice];
+            while (entrada != null) {
+                Entrada<T> siguiente = entrada.siguiente;
+                if (entrada.tick <= tickObjetivo) {
+                    if (anterior == null) {
+                        ranuras[indice] = siguiente;
+                    } else {
+                        anterior.siguiente = siguiente;
+                    }
+                    vencidos.add(entrada.elemento);
+                    entrada.elemento = null;
+                    entrada.siguiente = libres;
+                    libres = entrada;
+                    tamano--;
+                } else {
+                    anterior = entrada;
+                }
+                entrada = siguiente;
+            }
+        }
+        tickActual = tickObjetivo + 1;
+    }
+
+    /**
+     * Obtiene el instante en que comienza el próximo tick a procesar
+     * @return instante en nanosegundos (System.nanoTime())
+     */
+    public long proximoTickNanos() {
+        return inicioNanos + tickActual * duracionTickNanos;
+    }
+
+    public int getTamano() {
+        return tamano;
+    }
+
+    /**
+     * Entrada enlazada de una ranura (o de la lista de libres)
+     */
+    private static final class Entrada<T> {
+        T elemento;
+        long tick;
+        Entrada<T> siguiente;
+    }
+}
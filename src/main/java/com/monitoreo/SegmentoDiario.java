@@ -0,0 +1,130 @@
+package com.monitoreo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Vista de solo lectura de un segmento del diario de sondeos, mapeada en
+ * memoria. El segmento en escritura también puede leerse así: el archivo
+ * tiene su tamaño final desde que se crea y el mapeo ve los registros a
+ * medida que el diario los escribe.
+ */
+public class SegmentoDiario {
+    private final long numero;                  // Número del segmento
+    private final File archivo;                 // Archivo del segmento
+    private final MappedByteBuffer buffer;      // Mapeo de todo el archivo
+    private final long inicioEpochNanos;        // Creación del segmento
+
+    private SegmentoDiario(long numero, File archivo, MappedByteBuffer buffer) {
+        this.numero = numero;
+        this.archivo = archivo;
+        this.buffer = buffer;
+        this.inicioEpochNanos = buffer.getLong(DiarioSondeos.POS_INICIO_SEGMENTO);
+    }
+
+    /**
+     * Mapea un segmento para lectura
+     * @param archivo Archivo del segmento
+     * @param numero Número del segmento
+     * @return el segmento, o null si el archivo no es un segmento válido
+     * @throws IOException si no se puede leer el archivo
+     */
+    public static SegmentoDiario abrir(File archivo, long numero) throws IOException {
+        try (RandomAccessFile lectura = new RandomAccessFile(archivo, "r");
+             FileChannel canal = lectura.getChannel()) {
+            if (canal.size() < DiarioSondeos.TAMANO_CABECERA) {
+                return null;
+            }
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            if (!DiarioSondeos.esCabeceraValida(buffer)) {
+                return null;
+            }
+            return new SegmentoDiario(numero, archivo, buffer);
+        }
+    }
+
+    /**
+     * Cuenta los registros escritos de un segmento (búsqueda binaria del primer instante cero)
+     * @param buffer Contenido del segmento
+     * @return número de registros escritos
+     */
+    static int contarRegistros(ByteBuffer buffer) {
+        int bajo = 0;
+        int alto = (buffer.capacity() - DiarioSondeos.TAMANO_CABECERA) / DiarioSondeos.TAMANO_REGISTRO;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (buffer.getLong(base(medio) + DiarioSondeos.POS_INSTANTE) != 0) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * @return número de registros escritos hasta ahora
+     */
+    public int contarRegistros() {
+        return contarRegistros(buffer);
+    }
+
+    /**
+     * Busca, entre los registros [bajo, alto), el primero con instante mayor o igual al indicado
+     * @param desde Instante buscado
+     * @param bajo Primer registro candidato
+     * @param alto Registro siguiente al último candidato
+     * @return índice del registro, o alto si ninguno alcanza el instante
+     */
+    public int primerRegistroDesde(long desde, int bajo, int alto) {
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (getInstante(medio) < desde) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    private static int base(int indice) {
+        return DiarioSondeos.TAMANO_CABECERA + indice * DiarioSondeos.TAMANO_REGISTRO;
+    }
+
+    public long getInstante(int indice) {
+        return buffer.getLong(base(indice) + DiarioSondeos.POS_INSTANTE);
+    }
+
+    public long getClave(int indice) {
+        return buffer.getLong(base(indice) + DiarioSondeos.POS_CLAVE);
+    }
+
+    public long getLatenciaNanos(int indice) {
+        return buffer.getLong(base(indice) + DiarioSondeos.POS_LATENCIA);
+    }
+
+    public int getOrdinalTipo(int indice) {
+        return buffer.getInt(base(indice) + DiarioSondeos.POS_TIPO);
+    }
+
+    public int getRetrasoMicros(int indice) {
+        return buffer.getInt(base(indice) + DiarioSondeos.POS_RETRASO);
+    }
+
+    public long getNumero() {
+        return numero;
+    }
+
+    public File getArchivo() {
+        return archivo;
+    }
+
+    public long getInicioEpochNanos() {
+        return inicioEpochNanos;
+    }
+}
@@ -0,0 +1,623 @@
+package com.monitoreo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serie temporal en disco con la latencia y el estado de cada prueba de un
+ * host. Las muestras se comprimen en bloques con {@link CodificadorGorilla}
+ * (con una cadencia regular, menos de 1 byte por muestra si la latencia se
+ * repite y unos 3 si varía en cada prueba, como los ~2 ms con jitter de una
+ * LAN); el bloque abierto vive en memoria y, al llenarse o al superar
+ * {@link #DURACION_MAXIMA_BLOQUE_MS}, se cierra: un thread de escritura
+ * compartido por todas las series lo agrega al final del archivo de datos,
+ * donde ya no cambia, y mientras tanto se lee desde memoria. El índice guarda
+ * por bloque su rango de tiempo, su posición y un resumen (muestras,
+ * exitosas, latencia mínima, máxima y suma), así que una lectura localiza
+ * sus bloques por búsqueda binaria y una lectura agregada usa el resumen de
+ * los bloques que caen enteros en un paso sin decodificarlos.
+ *
+ * Formato del índice (nombre.gti): cabecera de {@value #TAMANO_CABECERA}
+ * bytes (marca, versión, resolución en ms, bits de mantisa) y una entrada de
+ * {@value #TAMANO_ENTRADA} bytes por bloque (inicio y fin en ms, posición,
+ * longitud, muestras, exitosas, mínimo, máximo y suma). El bloque se escribe
+ * antes que su entrada: al abrir, los datos que no tienen entrada se descartan.
+ * Las muestras del bloque abierto y de los cerrados que aún no se escribieron
+ * se pierden si el proceso termina sin {@link #sincronizar()}; el diario de
+ * sondeos conserva el detalle.
+ *
+ * Registra un solo thread (el de monitoreo), que al cerrar un bloque solo
+ * copia sus bytes y lo encola, sin abrir archivos ni esperar a disco; los
+ * escribe el thread de escritura del {@link AlmacenSeries} o, en una serie
+ * abierta por separado, uno compartido. Las lecturas pueden hacerse desde
+ * cualquier thread y solo toman el lock para copiar la lista de bloques.
+ */
+public class SerieTemporal {
+    public static final int RESOLUCION_MS_POR_DEFECTO = 1000;
+    public static final int BITS_MANTISA_POR_DEFECTO = 8;              // Error relativo máximo ~0,2 %
+    public static final int MUESTRAS_POR_BLOQUE_POR_DEFECTO = 1024;
+    public static final long DURACION_MAXIMA_BLOQUE_MS = 2 * 60 * 60 * 1000L;
+    public static final int MAXIMO_PASOS = 1_000_000;                  // Pasos de una lectura agregada
+    static final String EXTENSION_DATOS = ".gts";
+    static final String EXTENSION_INDICE = ".gti";
+    private static final int MARCA = 0x4D445354;            // "MDST"
+    private static final int VERSION = 1;
+    private static final int TAMANO_CABECERA = 32;
+    private static final int TAMANO_ENTRADA = 64;
+    private static final int CAPACIDAD_INICIAL = 16;
+    private static final ExecutorService ESCRITOR_COMPARTIDO = crearEscritor(); // Series abiertas fuera de un almacén
+
+    private final File archivoDatos;               // Bloques comprimidos, uno tras otro
+    private final File archivoIndice;              // Cabecera y una entrada por bloque
+    private final long resolucionMs;               // Unidad de los instantes guardados
+    private final int bitsMantisa;                 // Bits de mantisa que se conservan de cada latencia
+    private final int muestrasPorBloque;           // Muestras a partir de las cuales se cierra el bloque
+    private final ExecutorService escritor;        // Thread que escribe los bloques cerrados
+    private long[] inicios;                        // Primera muestra de cada bloque (epoch ms)
+    private long[] fines;                          // Última muestra de cada bloque (epoch ms)
+    private long[] posiciones;                     // Posición de cada bloque en el archivo de datos
+    private int[] longitudes;                      // Bytes de cada bloque
+    private int[] cantidades;                      // Muestras de cada bloque
+    private int[] exitosas;                        // Muestras exitosas de cada bloque
+    private double[] minimos;                      // Latencia mínima de las exitosas (ms)
+    private double[] maximos;                      // Latencia máxima de las exitosas (ms)
+    private double[] sumas;                        // Suma de latencias de las exitosas (ms)
+    private int bloques;                           // Bloques cerrados
+    private long finDatos;                         // Bytes del archivo de datos cubiertos por el índice
+    private final CodificadorGorilla abierto;      // Bloque en construcción (se reutiliza al cerrarlo)
+    private final List<BloqueCerrado> pendientes;  // Bloques cerrados sin escribir, en orden
+    private final Runnable escribirPendientes;     // Tarea de escritura, creada una sola vez
+    private IOException errorEscritura;            // Último fallo de escritura aún no informado
+    private long ultimoInstante = Long.MIN_VALUE;  // Último instante registrado (unidades de resolución)
+
+    /**
+     * Receptor de las muestras de una lectura por rango
+     */
+    public interface Receptor {
+        void aceptar(long instanteMs, double latenciaMs, boolean disponible);
+    }
+
+    /**
+     * Abre la serie, o la crea si no existe. Si ya existe conserva la
+     * resolución con la que se creó
+     * @param directorio Directorio de los archivos (se crea si no existe)
+     * @param nombre Nombre base de los archivos
+     * @param resolucionMs Resolución de los instantes en ms (las muestras más próximas comparten instante)
+     * @param bitsMantisa Bits de mantisa que se conservan de cada latencia (1 a 52)
+     * @param muestrasPorBloque Muestras por bloque
+     * @throws IOException si no se pueden leer o crear los archivos
+     */
+    public SerieTemporal(File directorio, String nombre, long resolucionMs, int bitsMantisa, int muestrasPorBloque)
+            throws IOException {
+        this(directorio, nombre, resolucionMs, bitsMantisa, muestrasPorBloque, ESCRITOR_COMPARTIDO);
+    }
+
+    /**
+     * Abre la serie escribiendo sus bloques en el thread indicado
+     * @param escritor Ejecutor de un solo thread para las escrituras (lo comparten las series de un almacén)
+     */
+    SerieTemporal(File directorio, String nombre, long resolucionMs, int bitsMantisa, int muestrasPorBloque,
+                  ExecutorService escritor) throws IOException {
+        if (resolucionMs <= 0 || muestrasPorBloque <= 0) {
+            throw new IllegalArgumentException("La resolución y las muestras por bloque deben ser positivas");
+        }
+        if (!directorio.isDirectory() && !directorio.mkdirs()) {
+            throw new IOException("No se pudo crear el directorio de series: " + directorio);
+        }
+        this.archivoDatos = new File(directorio, nombre + EXTENSION_DATOS);
+        this.archivoIndice = new File(directorio, nombre + EXTENSION_INDICE);
+        this.bitsMantisa = bitsMantisa;
+        this.muestrasPorBloque = muestrasPorBloque;
+        this.escritor = escritor;
+        this.inicios = new long[CAPACIDAD_INICIAL];
+        this.fines = new long[CAPACIDAD_INICIAL];
+        this.posiciones = new long[CAPACIDAD_INICIAL];
+        this.longitudes = new int[CAPACIDAD_INICIAL];
+        this.cantidades = new int[CAPACIDAD_INICIAL];
+        this.exitosas = new int[CAPACIDAD_INICIAL];
+        this.minimos = new double[CAPACIDAD_INICIAL];
+        this.maximos = new double[CAPACIDAD_INICIAL];
+        this.sumas = new double[CAPACIDAD_INICIAL];
+        this.abierto = new CodificadorGorilla(bitsMantisa);
+        this.pendientes = new ArrayList<>();
+        this.escribirPendientes = this::escribirPendientes;
+        this.resolucionMs = archivoIndice.isFile() && archivoIndice.length() >= TAMANO_CABECERA
+            ? cargarIndice() : crearIndice(resolucionMs);
+    }
+
+    /**
+     * Crea un thread de escritura de series (daemon, para no impedir que el proceso termine)
+     * @return ejecutor de un solo thread
+     */
+    static ExecutorService crearEscritor() {
+        return Executors.newSingleThreadExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "series-escritura");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Escribe la cabecera de un índice vacío y descarta datos sin índice
+     * @return resolución de la serie
+     */
+    private long crearIndice(long resolucion) throws IOException {
+        ByteBuffer cabecera = ByteBuffer.allocate(TAMANO_CABECERA);
+        cabecera.putInt(MARCA).putInt(VERSION).putLong(resolucion).putInt(bitsMantisa);
+        cabecera.clear();
+        try (FileChannel canal = FileChannel.open(archivoIndice.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            escribirCompleto(canal, cabecera, 0);
+            canal.force(false);
+        }
+        truncarDatos();
+        return resolucion;
+    }
+
+    /**
+     * Lee el índice, descarta las entradas cuyos bloques no están completos en
+     * el archivo de datos y los datos que no tienen entrada
+     * @return resolución de la serie
+     */
+    private long cargarIndice() throws IOException {
+        long tamanoDatos = archivoDatos.isFile() ? archivoDatos.length() : 0;
+        long resolucion;
+        try (FileChannel canal = FileChannel.open(archivoIndice.toPath(), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(canal.size(), Integer.MAX_VALUE));
+            while (buffer.hasRemaining()) {
+                if (canal.read(buffer, buffer.position()) < 0) {
+                    break;
+                }
+            }
+            if (buffer.getInt(0) != MARCA || buffer.getInt(4) != VERSION) {
+                throw new IOException("Índice de serie inválido: " + archivoIndice);
+            }
+            resolucion = buffer.getLong(8);
+            int entradas = (buffer.capacity() - TAMANO_CABECERA) / TAMANO_ENTRADA;
+            for (int i = 0; i < entradas; i++) {
+                int base = TAMANO_CABECERA + i * TAMANO_ENTRADA;
+                long posicion = buffer.getLong(base + 16);
+                int longitud = buffer.getInt(base + 24);
+                if (posicion != finDatos || posicion + longitud > tamanoDatos) {
+                    break;      // Bloque incompleto: se descartan esta entrada y las siguientes
+                }
+                agregarEntrada(buffer.getLong(base), buffer.getLong(base + 8), posicion, longitud,
+                    buffer.getInt(base + 28), buffer.getInt(base + 32), buffer.getDouble(base + 40),
+                    buffer.getDouble(base + 48), buffer.getDouble(base + 56));
+            }
+            long tamanoIndice = TAMANO_CABECERA + (long) bloques * TAMANO_ENTRADA;
+            if (canal.size() > tamanoIndice) {
+                canal.truncate(tamanoIndice);
+            }
+        }
+        if (bloques > 0) {
+            ultimoInstante = Math.floorDiv(fines[bloques - 1], resolucion);
+        }
+        truncarDatos();
+        return resolucion;
+    }
+
+    private void truncarDatos() throws IOException {
+        if (archivoDatos.isFile() && archivoDatos.length() > finDatos) {
+            try (FileChannel canal = FileChannel.open(archivoDatos.toPath(), StandardOpenOption.WRITE)) {
+                canal.truncate(finDatos);
+            }
+        }
+    }
+
+    /**
+     * Registra una muestra. Si el reloj retrocede, la muestra toma el instante de la anterior
+     * @param instanteMs Instante de la prueba (epoch ms)
+     * @param latenciaMs Latencia de la prueba en ms
+     * @param disponible Resultado de la prueba
+     * @throws IOException si falló la escritura de un bloque cerrado antes (la muestra se registra
+     *                     igual y el bloque sigue en memoria hasta que se pueda escribir)
+     */
+    public synchronized void registrar(long instanteMs, double latenciaMs, boolean disponible) throws IOException {
+        long instante = Math.max(Math.floorDiv(instanteMs, resolucionMs), ultimoInstante);
+        int enBloque = abierto.getCantidad();
+        if (enBloque >= muestrasPorBloque
+                || (enBloque > 0 && (instante - abierto.getPrimerInstante()) * resolucionMs >= DURACION_MAXIMA_BLOQUE_MS)) {
+            cerrarBloque();
+        }
+        abierto.agregar(instante, disponible, latenciaMs);
+        ultimoInstante = instante;
+        if (errorEscritura != null) {
+            IOException error = errorEscritura;
+            errorEscritura = null;
+            throw error;
+        }
+    }
+
+    /**
+     * Cierra el bloque abierto aunque no esté lleno y espera a que todos los
+     * bloques cerrados queden en disco
+     * @throws IOException si no se pueden escribir
+     */
+    public void sincronizar() throws IOException {
+        synchronized (this) {
+            if (abierto.getCantidad() > 0) {
+                cerrarBloque();
+            }
+        }
+        try {
+            escritor.submit(escribirPendientes).get();      // Corre después de las escrituras ya encoladas
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrumpido al escribir la serie " + archivoDatos);
+        } catch (ExecutionException e) {
+            throw new IOException("Error al escribir la serie " + archivoDatos, e.getCause());
+        }
+        synchronized (this) {
+            if (!pendientes.isEmpty()) {
+                IOException error = errorEscritura != null ? errorEscritura
+                    : new IOException("Quedaron bloques sin escribir en " + archivoDatos);
+                errorEscritura = null;
+                throw error;
+            }
+        }
+    }
+
+    /**
+     * Cierra el bloque abierto: copia sus bytes y su resumen, lo encola para el
+     * thread de escritura y reutiliza el codificador para el bloque siguiente
+     */
+    private void cerrarBloque() {
+        CodificadorGorilla bloque = abierto;
+        pendientes.add(new BloqueCerrado(bloque.getBytes(), bloque.getPrimerInstante() * resolucionMs,
+            bloque.getUltimoInstante() * resolucionMs, bloque.getCantidad(), bloque.getExitosas(),
+            bloque.getMinimo(), bloque.getMaximo(), bloque.getSuma()));
+        bloque.reiniciar();
+        escritor.execute(escribirPendientes);
+    }
+
+    /**
+     * Escribe en orden los bloques pendientes (en el thread de escritura). Si
+     * uno falla, él y los siguientes quedan pendientes y se reintentan con el
+     * próximo cierre o al sincronizar
+     */
+    private void escribirPendientes() {
+        while (true) {
+            BloqueCerrado bloque;
+            long posicion;
+            int indice;
+            synchronized (this) {
+                if (pendientes.isEmpty()) {
+                    return;
+                }
+                bloque = pendientes.get(0);
+                posicion = finDatos;
+                indice = bloques;
+            }
+            try {
+                escribirBloque(bloque, posicion, indice);
+            } catch (IOException e) {
+                synchronized (this) {
+                    errorEscritura = e;
+                }
+                return;
+            }
+            synchronized (this) {
+                pendientes.remove(0);
+                agregarEntrada(bloque.inicioMs, bloque.finMs, posicion, bloque.bytes.length, bloque.cantidad,
+                    bloque.exitosas, bloque.minimo, bloque.maximo, bloque.suma);
+            }
+        }
+    }
+
+    /**
+     * Escribe un bloque al final de los datos y después su entrada en el índice
+     */
+    private void escribirBloque(BloqueCerrado bloque, long posicion, int indice) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivoDatos.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            escribirCompleto(canal, ByteBuffer.wrap(bloque.bytes), posicion);
+            canal.force(false);
+        }
+        ByteBuffer entrada = ByteBuffer.allocate(TAMANO_ENTRADA);
+        entrada.putLong(bloque.inicioMs).putLong(bloque.finMs).putLong(posicion).putInt(bloque.bytes.length)
+            .putInt(bloque.cantidad).putInt(bloque.exitosas).putInt(0)
+            .putDouble(bloque.minimo).putDouble(bloque.maximo).putDouble(bloque.suma);
+        entrada.clear();
+        try (FileChannel canal = FileChannel.open(archivoIndice.toPath(), StandardOpenOption.WRITE)) {
+            escribirCompleto(canal, entrada, TAMANO_CABECERA + (long) indice * TAMANO_ENTRADA);
+            canal.force(false);
+        }
+    }
+
+    private static void escribirCompleto(FileChannel canal, ByteBuffer buffer, long posicion) throws IOException {
+        while (buffer.hasRemaining()) {
+            posicion += canal.write(buffer, posicion);
+        }
+    }
+
+    private void agregarEntrada(long inicioMs, long finMs, long posicion, int longitud, int cantidad, int exitosasBloque,
+                                double minimo, double maximo, double suma) {
+        if (bloques == inicios.length) {
+            int capacidad = bloques * 2;
+            inicios = Arrays.copyOf(inicios, capacidad);
+            fines = Arrays.copyOf(fines, capacidad);
+            posiciones = Arrays.copyOf(posiciones, capacidad);
+            longitudes = Arrays.copyOf(longitudes, capacidad);
+            cantidades = Arrays.copyOf(cantidades, capacidad);
+            exitosas = Arrays.copyOf(exitosas, capacidad);
+            minimos = Arrays.copyOf(minimos, capacidad);
+            maximos = Arrays.copyOf(maximos, capacidad);
+            sumas = Arrays.copyOf(sumas, capacidad);
+        }
+        inicios[bloques] = inicioMs;
+        fines[bloques] = finMs;
+        posiciones[bloques] = posicion;
+        longitudes[bloques] = longitud;
+        cantidades[bloques] = cantidad;
+        exitosas[bloques] = exitosasBloque;
+        minimos[bloques] = minimo;
+        maximos[bloques] = maximo;
+        sumas[bloques] = suma;
+        bloques++;
+        finDatos = posicion + longitud;
+    }
+
+    /**
+     * Lee, en orden, las muestras de un rango
+     * @param desdeMs Inicio del rango (epoch ms, incluido)
+     * @param hastaMs Fin del rango (epoch ms, excluido)
+     * @param receptor Receptor de cada muestra
+     * @throws IOException si no se puede leer el archivo de datos
+     */
+    public void leer(long desdeMs, long hastaMs, Receptor receptor) throws IOException {
+        recorrer(desdeMs, hastaMs, -1, (bloque, vista) -> {}, receptor);
+    }
+
+    /**
+     * Lee un rango agregado por pasos de tamaño fijo. Los bloques que caen
+     * enteros dentro de un paso se suman desde el índice, sin decodificarlos
+     * @param desdeMs Inicio del rango (epoch ms, incluido); los pasos se alinean a él
+     * @param hastaMs Fin del rango (epoch ms, excluido)
+     * @param pasoMs Duración de cada paso en ms
+     * @return un punto por cada paso con muestras, en orden
+     * @throws IOException si no se puede leer el archivo de datos
+     */
+    public List<PuntoSerie> leerAgregado(long desdeMs, long hastaMs, long pasoMs) throws IOException {
+        if (pasoMs <= 0) {
+            throw new IllegalArgumentException("El paso debe ser positivo");
+        }
+        long rango = Math.max(0, hastaMs - desdeMs);
+        long pasos = rango / pasoMs + (rango % pasoMs == 0 ? 0 : 1);
+        if (pasos > MAXIMO_PASOS) {
+            throw new IllegalArgumentException("Demasiados pasos para el rango: " + pasos);
+        }
+        int total = (int) pasos;
+        int[] cantidadesPaso = new int[total];
+        int[] exitosasPaso = new int[total];
+        double[] minimosPaso = new double[total];
+        double[] maximosPaso = new double[total];
+        double[] sumasPaso = new double[total];
+        Arrays.fill(minimosPaso, Double.POSITIVE_INFINITY);
+        Arrays.fill(maximosPaso, Double.NEGATIVE_INFINITY);
+
+        recorrer(desdeMs, hastaMs, pasoMs, (i, vista) -> {
+            int paso = (int) ((vista.inicios[i] - desdeMs) / pasoMs);
+            cantidadesPaso[paso] += vista.cantidades[i];
+            exitosasPaso[paso] += vista.exitosas[i];
+            minimosPaso[paso] = Math.min(minimosPaso[paso], vista.minimos[i]);
+            maximosPaso[paso] = Math.max(maximosPaso[paso], vista.maximos[i]);
+            sumasPaso[paso] += vista.sumas[i];
+        }, (instanteMs, latenciaMs, disponible) -> {
+            int paso = (int) ((instanteMs - desdeMs) / pasoMs);
+            cantidadesPaso[paso]++;
+            if (disponible) {
+                exitosasPaso[paso]++;
+                minimosPaso[paso] = Math.min(minimosPaso[paso], latenciaMs);
+                maximosPaso[paso] = Math.max(maximosPaso[paso], latenciaMs);
+                sumasPaso[paso] += latenciaMs;
+            }
+        });
+
+        List<PuntoSerie> puntos = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            if (cantidadesPaso[i] > 0) {
+                puntos.add(new PuntoSerie(desdeMs + i * pasoMs, cantidadesPaso[i], exitosasPaso[i],
+                    minimosPaso[i], maximosPaso[i], sumasPaso[i]));
+            }
+        }
+        return puntos;
+    }
+
+    /**
+     * Receptor de los bloques que una lectura agregada resuelve con su resumen
+     */
+    private interface ReceptorResumen {
+        void aceptar(int bloque, Vista vista);
+    }
+
+    /**
+     * Recorre los bloques que se solapan con un rango. Con un paso positivo,
+     * los bloques contenidos en un único paso se entregan por su resumen; el
+     * resto se decodifica y sus muestras del rango se entregan una por una
+     */
+    private void recorrer(long desdeMs, long hastaMs, long pasoMs, ReceptorResumen resumenes, Receptor muestras)
+            throws IOException {
+        if (desdeMs >= hastaMs) {
+            return;
+        }
+        Vista vista = vista();
+        CodificadorGorilla.Receptor filtro = (instante, disponible, valor) -> {
+            long instanteMs = instante * resolucionMs;
+            if (instanteMs >= desdeMs && instanteMs < hastaMs) {
+                muestras.aceptar(instanteMs, valor, disponible);
+            }
+        };
+        int primero = primerBloqueDesde(vista, desdeMs);
+        if (primero < vista.bloques && vista.inicios[primero] < hastaMs) {
+            try (FileChannel canal = FileChannel.open(archivoDatos.toPath(), StandardOpenOption.READ)) {
+                for (int i = primero; i < vista.bloques && vista.inicios[i] < hastaMs; i++) {
+                    if (pasoMs > 0 && vista.inicios[i] >= desdeMs && vista.fines[i] < hastaMs
+                            && (vista.inicios[i] - desdeMs) / pasoMs == (vista.fines[i] - desdeMs) / pasoMs) {
+                        resumenes.aceptar(i, vista);
+                        continue;
+                    }
+                    ByteBuffer bytes = ByteBuffer.allocate(vista.longitudes[i]);
+                    long posicion = vista.posiciones[i];
+                    while (bytes.hasRemaining()) {
+                        int leidos = canal.read(bytes, posicion + bytes.position());
+                        if (leidos < 0) {
+                            throw new IOException("Bloque incompleto en " + archivoDatos);
+                        }
+                    }
+                    CodificadorGorilla.decodificar(bytes.array(), vista.cantidades[i], filtro);
+                }
+            }
+        }
+        for (BloqueCerrado pendiente : vista.pendientes) {
+            if (pendiente.finMs >= desdeMs && pendiente.inicioMs < hastaMs) {
+                CodificadorGorilla.decodificar(pendiente.bytes, pendiente.cantidad, filtro);
+            }
+        }
+        if (vista.abiertoCantidad > 0) {
+            CodificadorGorilla.decodificar(vista.abiertoBytes, vista.abiertoCantidad, filtro);
+        }
+    }
+
+    /**
+     * Busca el primer bloque que termina en o después del instante indicado
+     */
+    private static int primerBloqueDesde(Vista vista, long desdeMs) {
+        int bajo = 0;
+        int alto = vista.bloques;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (vista.fines[medio] < desdeMs) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * Copia, bajo el lock, lo necesario para leer sin frenar al escritor: los
+     * arreglos del índice solo se reemplazan al crecer y las entradas cerradas
+     * no cambian, así que basta con las referencias y la cantidad de bloques;
+     * de los bloques aún sin escribir se copia la lista
+     */
+    private synchronized Vista vista() {
+        return new Vista(bloques, inicios, fines, posiciones, longitudes, cantidades, exitosas, minimos, maximos,
+            sumas, pendientes.toArray(new BloqueCerrado[0]), abierto.getCantidad() > 0 ? abierto.getBytes() : null,
+            abierto.getCantidad());
+    }
+
+    /**
+     * Bloque cerrado que espera al thread de escritura: sus bytes y el resumen de su entrada
+     */
+    private static final class BloqueCerrado {
+        final byte[] bytes;
+        final long inicioMs;
+        final long finMs;
+        final int cantidad;
+        final int exitosas;
+        final double minimo;
+        final double maximo;
+        final double suma;
+
+        BloqueCerrado(byte[] bytes, long inicioMs, long finMs, int cantidad, int exitosas, double minimo,
+                      double maximo, double suma) {
+            this.bytes = bytes;
+            this.inicioMs = inicioMs;
+            this.finMs = finMs;
+            this.cantidad = cantidad;
+            this.exitosas = exitosas;
+            this.minimo = minimo;
+            this.maximo = maximo;
+            this.suma = suma;
+        }
+    }
+
+    private static final class Vista {
+        final int bloques;
+        final long[] inicios;
+        final long[] fines;
+        final long[] posiciones;
+        final int[] longitudes;
+        final int[] cantidades;
+        final int[] exitosas;
+        final double[] minimos;
+        final double[] maximos;
+        final double[] sumas;
+        final BloqueCerrado[] pendientes;
+        final byte[] abiertoBytes;
+        final int abiertoCantidad;
+
+        Vista(int bloques, long[] inicios, long[] fines, long[] posiciones, int[] longitudes, int[] cantidades,
+              int[] exitosas, double[] minimos, double[] maximos, double[] sumas, BloqueCerrado[] pendientes,
+              byte[] abiertoBytes, int abiertoCantidad) {
+            this.bloques = bloques;
+            this.inicios = inicios;
+            this.fines = fines;
+            this.posiciones = posiciones;
+            this.longitudes = longitudes;
+            this.cantidades = cantidades;
+            this.exitosas = exitosas;
+            this.minimos = minimos;
+            this.maximos = maximos;
+            this.sumas = sumas;
+            this.pendientes = pendientes;
+            this.abiertoBytes = abiertoBytes;
+            this.abiertoCantidad = abiertoCantidad;
+        }
+    }
+
+    /**
+     * @return muestras guardadas, incluidas las de los bloques aún en memoria
+     */
+    public synchronized long getCantidadMuestras() {
+        long total = abierto.getCantidad();
+        for (int i = 0; i < bloques; i++) {
+            total += cantidades[i];
+        }
+        for (int i = 0; i < pendientes.size(); i++) {
+            total += pendientes.get(i).cantidad;
+        }
+        return total;
+    }
+
+    /**
+     * @return bytes promedio por muestra de los bloques cerrados y el abierto (sin contar el índice)
+     */
+    public synchronized double getBytesPorMuestra() {
+        long muestras = abierto.getCantidad();
+        long bytes = abierto.getLongitud();
+        for (int i = 0; i < bloques; i++) {
+            muestras += cantidades[i];
+            bytes += longitudes[i];
+        }
+        for (int i = 0; i < pendientes.size(); i++) {
+            muestras += pendientes.get(i).cantidad;
+            bytes += pendientes.get(i).bytes.length;
+        }
+        return muestras == 0 ? 0.0 : (double) bytes / muestras;
+    }
+
+    /**
+     * @return bloques cerrados, estén o no escritos
+     */
+    public synchronized int getBloques() {
+        return bloques + pendientes.size();
+    }
+
+    public long getResolucionMs() {
+        return resolucionMs;
+    }
+}
@@ -0,0 +1,94 @@
+package com.monitoreo;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sonda que elige para cada dispositivo la prueba más barata que dé una
+ * respuesta significativa. Empieza por la sonda aplicable de menor coste y,
+ * si no obtiene respuesta (timeout, sin ruta o error), pasa a la siguiente en
+ * la prueba siguiente. Un rechazo o un host desconocido sí se consideran
+ * respuestas y mantienen la sonda elegida.
+ */
+public class SondaAutomatica implements EstrategiaSondeo {
+    public static final String NOMBRE = "auto";
+
+    private final RegistroSondas registro;   // Registro del que se obtienen las candidatas
+
+    /**
+     * Constructor de la sonda automática
+     * @param registro Registro con las sondas candidatas
+     */
+    public SondaAutomatica(RegistroSondas registro) {
+        this.registro = registro;
+    }
+
+    @Override
+    public String getNombre() {
+        return NOMBRE;
+    }
+
+    @Override
+    public int getCoste() {
+        return 0;
+    }
+
+    @Override
+    public boolean admiteSeleccionAutomatica() {
+        return false;
+    }
+
+    @Override
+    public boolean esNoBloqueante(Dispositivos dispositivo) {
+        return elegir(dispositivo).esNoBloqueante(dispositivo);
+    }
+
+    @Override
+    public ResultadoSonda sondear(Dispositivos dispositivo, int timeoutMs) {
+        EstrategiaSondeo elegida = elegir(dispositivo);
+        return evaluar(dispositivo, elegida, elegida.sondear(dispositivo, timeoutMs));
+    }
+
+    @Override
+    public CompletableFuture<ResultadoSonda> sondearAsincrono(Dispositivos dispositivo, int timeoutMs) {
+        EstrategiaSondeo elegida = elegir(dispositivo);
+        return elegida.sondearAsincrono(dispositivo, timeoutMs)
+            .thenApply(resultado -> evaluar(dispositivo, elegida, resultado));
+    }
+
+    /**
+     * Obtiene la sonda vigente del dispositivo, o la más barata si aún no tiene
+     */
+    EstrategiaSondeo elegir(Dispositivos dispositivo) {
+        List<EstrategiaSondeo> candidatas = registro.candidatas(dispositivo);
+        String vigente = dispositivo.getSondaEfectiva();
+        for (EstrategiaSondeo candidata : candidatas) {
+            if (candidata.getNombre().equals(vigente)) {
+                return candidata;
+            }
+        }
+        EstrategiaSondeo masBarata = candidatas.isEmpty() ? registro.obtener(SondaIcmp.NOMBRE) : candidatas.get(0);
+        dispositivo.setSondaEfectiva(masBarata.getNombre());
+        return masBarata;
+    }
+
+    /**
+     * Pasa a la siguiente candidata si la sonda usada no obtuvo respuesta
+     */
+    private ResultadoSonda evaluar(Dispositivos dispositivo, EstrategiaSondeo usada, ResultadoSonda resultado) {
+        switch (resultado.getTipo()) {
+            case TIMEOUT:
+            case INALCANZABLE:
+            case ERROR:
+                List<EstrategiaSondeo> candidatas = registro.candidatas(dispositivo);
+                int indice = candidatas.indexOf(usada);
+                if (candidatas.size() > 1) {
+                    dispositivo.setSondaEfectiva(candidatas.get((indice + 1) % candidatas.size()).getNombre());
+                }
+                break;
+            default:
+                break;
+        }
+        return resultado;
+    }
+}
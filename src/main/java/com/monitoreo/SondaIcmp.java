@@ -0,0 +1,39 @@
+package com.monitoreo;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Sonda de alcanzabilidad mediante {@link InetAddress#isReachable(int)}: ICMP
+ * echo si el proceso tiene privilegios, o echo TCP al puerto 7 en caso contrario.
+ * Es la más cara porque un host que descarta ICMP consume el plazo completo.
+ */
+public class SondaIcmp implements EstrategiaSondeo {
+    public static final String NOMBRE = "icmp";
+
+    @Override
+    public String getNombre() {
+        return NOMBRE;
+    }
+
+    @Override
+    public int getCoste() {
+        return 3;
+    }
+
+    @Override
+    public ResultadoSonda sondear(Dispositivos dispositivo, int timeoutMs) {
+        long inicio = System.nanoTime();
+        try {
+            InetAddress direccion = CacheResolucion.compartida().resolver(dispositivo.getDireccionIP());
+            boolean alcanzable = direccion.isReachable(timeoutMs);
+            return new ResultadoSonda(alcanzable ? ResultadoSonda.Tipo.EXITO : ResultadoSonda.Tipo.TIMEOUT,
+                inicio, System.nanoTime() - inicio);
+        } catch (UnknownHostException e) {
+            return new ResultadoSonda(ResultadoSonda.Tipo.HOST_DESCONOCIDO, inicio, System.nanoTime() - inicio);
+        } catch (IOException e) {
+            return new ResultadoSonda(ResultadoSonda.Tipo.ERROR, inicio, System.nanoTime() - inicio);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.monitoreo;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Sonda por conexión TCP al puerto del dispositivo. Se apoya en el
+ * {@link SondeoTcpNoBloqueante} compartido, por lo que no ocupa un hilo por
+ * prueba y un puerto cerrado se detecta con el RST sin esperar el plazo.
+ */
+public class SondaTcp implements EstrategiaSondeo {
+    public static final String NOMBRE = "tcp";
+
+    @Override
+    public String getNombre() {
+        return NOMBRE;
+    }
+
+    @Override
+    public int getCoste() {
+        return 1;
+    }
+
+    @Override
+    public boolean esAplicable(Dispositivos dispositivo) {
+        return dispositivo.getPuerto() > 0;
+    }
+
+    @Override
+    public boolean esNoBloqueante(Dispositivos dispositivo) {
+        return true;
+    }
+
+    @Override
+    public ResultadoSonda sondear(Dispositivos dispositivo, int timeoutMs) {
+        long inicio = System.nanoTime();
+        try {
+            return sondearAsincrono(dispositivo, timeoutMs).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ResultadoSonda(ResultadoSonda.Tipo.ERROR, inicio, System.nanoTime() - inicio);
+        } catch (ExecutionException e) {
+            return new ResultadoSonda(ResultadoSonda.Tipo.ERROR, inicio, System.nanoTime() - inicio);
+        }
+    }
+
+    @Override
+    public CompletableFuture<ResultadoSonda> sondearAsincrono(Dispositivos dispositivo, int timeoutMs) {
+        return SondeoTcpNoBloqueante.compartido()
+            .sondear(dispositivo.getDireccionIP(), dispositivo.getPuerto(), timeoutMs);
+    }
+}
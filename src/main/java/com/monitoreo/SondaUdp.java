@@ -0,0 +1,82 @@
+package com.monitoreo;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.NoRouteToHostException;
+import java.net.PortUnreachableException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+
+/**
+ * Sonda de petición/respuesta UDP: envía un datagrama al puerto del dispositivo
+ * y espera cualquier respuesta. Un ICMP "port unreachable" se informa como
+ * RECHAZADO. No participa en la selección automática porque, sin una carga
+ * propia del servicio, el silencio no distingue un host caído de un puerto filtrado.
+ */
+public class SondaUdp implements EstrategiaSondeo {
+    public static final String NOMBRE = "udp";
+    private static final int TAMANO_RESPUESTA = 1500;   // Suficiente para un datagrama sin fragmentar
+
+    private final byte[] carga;                         // Datos de la petición
+
+    /**
+     * Constructor de la sonda UDP con una petición vacía
+     */
+    public SondaUdp() {
+        this(new byte[0]);
+    }
+
+    /**
+     * Constructor de la sonda UDP
+     * @param carga Datos a enviar en la petición (por ejemplo, una consulta del protocolo)
+     */
+    public SondaUdp(byte[] carga) {
+        this.carga = carga.clone();
+    }
+
+    @Override
+    public String getNombre() {
+        return NOMBRE;
+    }
+
+    @Override
+    public int getCoste() {
+        return 2;
+    }
+
+    @Override
+    public boolean esAplicable(Dispositivos dispositivo) {
+        return dispositivo.getPuerto() > 0;
+    }
+
+    @Override
+    public boolean admiteSeleccionAutomatica() {
+        return false;
+    }
+
+    @Override
+    public ResultadoSonda sondear(Dispositivos dispositivo, int timeoutMs) {
+        long inicio = System.nanoTime();
+        try (DatagramSocket socket = new DatagramSocket()) {
+            InetAddress direccion = CacheResolucion.compartida().resolver(dispositivo.getDireccionIP());
+            // Conectar el socket permite recibir el "port unreachable" como excepción
+            socket.connect(direccion, dispositivo.getPuerto());
+            socket.setSoTimeout(timeoutMs);
+            socket.send(new DatagramPacket(carga, carga.length));
+            socket.receive(new DatagramPacket(new byte[TAMANO_RESPUESTA], TAMANO_RESPUESTA));
+            return new ResultadoSonda(ResultadoSonda.Tipo.EXITO, inicio, System.nanoTime() - inicio);
+        } catch (SocketTimeoutException e) {
+            return new ResultadoSonda(ResultadoSonda.Tipo.TIMEOUT, inicio, System.nanoTime() - inicio);
+        } catch (PortUnreachableException e) {
+            return new ResultadoSonda(ResultadoSonda.Tipo.RECHAZADO, inicio, System.nanoTime() - inicio);
+        } catch (NoRouteToHostException e) {
+            return new ResultadoSonda(ResultadoSonda.Tipo.INALCANZABLE, inicio, System.nanoTime() - inicio);
+        } catch (UnknownHostException e) {
+            return new ResultadoSonda(ResultadoSonda.Tipo.HOST_DESCONOCIDO, inicio, System.nanoTime() - inicio);
+        } catch (IOException e) {
+            return new ResultadoSonda(ResultadoSonda.Tipo.ERROR, inicio, System.nanoTime() - inicio);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.monitoreo;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.UnresolvedAddressException;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Sondeo TCP no bloqueante basado en NIO.
+ * Un único hilo multiplexa sobre un {@link Selector} todas las conexiones en
+ * curso, de modo que miles de pruebas pueden estar en vuelo sin ocupar un hilo
+ * cada una. Los nombres se resuelven fuera del hilo que lanza la prueba. Cada
+ * prueba tiene su propio plazo y la latencia de conexión se mide con
+ * {@link System#nanoTime()} a partir de que se tiene la dirección.
+ */
+public class SondeoTcpNoBloqueante {
+    private final Selector selector;                            // Selector compartido por todas las pruebas
+    private final Queue<SondaPendiente> nuevas;                 // Pruebas a registrar en el hilo del selector
+    private final PriorityQueue<SondaPendiente> plazos;         // Pruebas en vuelo ordenadas por plazo
+    private final Thread hiloSelector;                          // Hilo que atiende el selector
+    private volatile boolean activo;                            // Flag para controlar el hilo
+
+    /**
+     * Inicialización perezosa de la instancia compartida
+     */
+    private static final class Compartido {
+        private static final SondeoTcpNoBloqueante INSTANCIA = crearCompartido();
+    }
+
+    /**
+     * Constructor del sondeo TCP no bloqueante. Arranca el hilo del selector.
+     * @throws IOException si no se puede abrir el selector
+     */
+    public SondeoTcpNoBloqueante() throws IOException {
+        this.selector = Selector.open();
+        this.nuevas = new ConcurrentLinkedQueue<>();
+        this.plazos = new PriorityQueue<>((a, b) -> Long.compare(a.limiteNanos, b.limiteNanos));
+        this.activo = true;
+        this.hiloSelector = new Thread(this::buclePrincipal, "sondeo-tcp-selector");
+        this.hiloSelector.setDaemon(true);
+        this.hiloSelector.start();
+    }
+
+    /**
+     * Obtiene la instancia compartida por todos los dispositivos en modo TCP
+     * @return instancia compartida del sondeo TCP
+     */
+    public static SondeoTcpNoBloqueante compartido() {
+        return Compartido.INSTANCIA;
+    }
+
+    private static SondeoTcpNoBloqueante crearCompartido() {
+        try {
+            return new SondeoTcpNoBloqueante();
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo abrir el selector de sondeo TCP", e);
+        }
+    }
+
+    /**
+     * Inicia una prueba de conexión TCP sin bloquear al llamador. El nombre se
+     * resuelve con {@link CacheResolucion#resolverAsincrono(String)}, así que un
+     * fallo de caché no frena al llamador, y la latencia se mide desde que se
+     * tiene la dirección: el tiempo de DNS no cuenta como tiempo de conexión.
+     * @param host Nombre o dirección IP del destino
+     * @param puerto Puerto TCP a probar
+     * @param timeoutMs Plazo máximo de la conexión en milisegundos
+     * @return futuro que se completa con el resultado de la conexión
+     */
+    public CompletableFuture<ResultadoSonda> sondear(String host, int puerto, int timeoutMs) {
+        CompletableFuture<ResultadoSonda> futuro = new CompletableFuture<>();
+        CacheResolucion.compartida().resolverAsincrono(host).whenComplete((direccion, error) -> {
+            if (error != null) {
+                Throwable causa = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+                futuro.complete(new ResultadoSonda(clasificar(causa), System.nanoTime(), 0));
+            } else {
+                conectar(new InetSocketAddress(direccion, puerto), timeoutMs, futuro);
+            }
+        });
+        return futuro;
+    }
+
+    /**
+     * Abre la conexión a una dirección ya resuelta y, si no se completa en el
+     * acto, la deja al hilo del selector
+     */
+    private void conectar(InetSocketAddress destino, int timeoutMs, CompletableFuture<ResultadoSonda> futuro) {
+        long inicio = System.nanoTime();
+        SocketChannel canal = null;
+        try {
+            canal = SocketChannel.open();
+            canal.configureBlocking(false);
+            if (canal.connect(destino)) {
+                cerrar(canal);
+                futuro.complete(new ResultadoSonda(ResultadoSonda.Tipo.EXITO, inicio, System.nanoTime() - inicio));
+                return;
+            }
+        } catch (IOException | UnresolvedAddressException e) {
+            cerrar(canal);
+            futuro.complete(new ResultadoSonda(clasificar(e), inicio, System.nanoTime() - inicio));
+            return;
+        }
+
+        if (!activo) {
+            cerrar(canal);
+            futuro.complete(new ResultadoSonda(ResultadoSonda.Tipo.ERROR, inicio, System.nanoTime() - inicio));
+            return;
+        }
+        nuevas.add(new SondaPendiente(canal, futuro, inicio, inicio + timeoutMs * 1_000_000L));
+        selector.wakeup();
+    }
+
+    /**
+     * Bucle del hilo del selector: registra pruebas nuevas, atiende las
+     * conexiones completadas y vence las que superan su plazo.
+     */
+    private void buclePrincipal() {
+        while (activo) {
+            try {
+                registrarNuevas();
+
+                long esperaMs = 0;
+                SondaPendiente proxima = plazos.peek();
+                if (proxima != null) {
+                    // select(0) bloquea indefinidamente, por eso se fuerza al menos 1 ms
+                    esperaMs = Math.max(1, (proxima.limiteNanos - System.nanoTime() + 999_999) / 1_000_000);
+                }
+                selector.select(esperaMs);
+
+                Iterator<SelectionKey> claves = selector.selectedKeys().iterator();
+                while (claves.hasNext()) {
+                    SelectionKey clave = claves.next();
+                    claves.remove();
+                    completarConexion((SondaPendiente) clave.attachment());
+                }
+
+                vencerPlazos(System.nanoTime());
+            } catch (IOException e) {
+                System.err.println("Error en el selector de sondeo TCP: " + e.getMessage());
+            }
+        }
+        vencerPlazos(Long.MAX_VALUE);
+        try {
+            selector.close();
+        } catch (IOException e) {
+            // Ignorar errores al cerrar
+        }
+    }
+
+    private void registrarNuevas() {
+        SondaPendiente sonda;
+        while ((sonda = nuevas.poll()) != null) {
+            try {
+                sonda.canal.register(selector, SelectionKey.OP_CONNECT, sonda);
+                plazos.add(sonda);
+            } catch (IOException e) {
+                finalizar(sonda, clasificar(e));
+            }
+        }
+    }
+
+    private void completarConexion(SondaPendiente sonda) {
+        try {
+            if (sonda.canal.finishConnect()) {
+                finalizar(sonda, ResultadoSonda.Tipo.EXITO);
+            }
+        } catch (IOException e) {
+            finalizar(sonda, clasificar(e));
+        }
+    }
+
+    private void vencerPlazos(long ahora) {
+        SondaPendiente sonda;
+        while ((sonda = plazos.peek()) != null && (sonda.limiteNanos <= ahora || sonda.futuro.isDone())) {
+            plazos.poll();
+            if (!sonda.futuro.isDone()) {
+                finalizar(sonda, ResultadoSonda.Tipo.TIMEOUT);
+            }
+        }
+    }
+
+    /**
+     * Cierra el canal y completa el futuro de la prueba (solo la primera vez)
+     */
+    private void finalizar(SondaPendiente sonda, ResultadoSonda.Tipo tipo) {
+        long latencia = System.nanoTime() - sonda.inicioNanos;
+        cerrar(sonda.canal);
+        sonda.futuro.complete(new ResultadoSonda(tipo, sonda.inicioNanos, latencia));
+    }
+
+    private static ResultadoSonda.Tipo clasificar(Throwable e) {
+        if (e instanceof UnknownHostException || e instanceof UnresolvedAddressException) {
+            return ResultadoSonda.Tipo.HOST_DESCONOCIDO;
+        } else if (e instanceof NoRouteToHostException) {
+            return ResultadoSonda.Tipo.INALCANZABLE;
+        } else if (e instanceof ConnectException) {
+            return ResultadoSonda.Tipo.RECHAZADO;
+        }
+        return ResultadoSonda.Tipo.ERROR;
+    }
+
+    private static void cerrar(SocketChannel canal) {
+        if (canal != null) {
+            try {
+                canal.close();
+            } catch (IOException e) {
+                // Ignorar errores al cerrar
+            }
+        }
+    }
+
+    /**
+     * Detiene el hilo del selector; las pruebas en vuelo se completan como TIMEOUT
+     */
+    public void detener() {
+        activo = false;
+        selector.wakeup();
+    }
+
+    /**
+     * Prueba registrada en el selector
+     */
+    private static final class SondaPendiente {
+        final SocketChannel canal;
+        final CompletableFuture<ResultadoSonda> futuro;
+        final long inicioNanos;
+        final long limiteNanos;
+
+        SondaPendiente(SocketChannel canal, CompletableFuture<ResultadoSonda> futuro, long inicioNanos, long limiteNanos) {
+            this.canal = canal;
+            this.futuro = futuro;
+            this.inicioNanos = inicioNanos;
+            this.limiteNanos = limiteNanos;
+        }
+    }
+}
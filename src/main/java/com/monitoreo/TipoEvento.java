@@ -0,0 +1,34 @@
+package com.monitoreo;
+
+/**
+ * Tipos de evento que guarda el {@link AlmacenEventos}. El ordinal es lo que
+ * se almacena, por lo que los valores nuevos deben agregarse al final.
+ */
+public enum TipoEvento {
+    VERIFICACION_EXITOSA("Verificación del dispositivo"),
+    VERIFICACION_FALLIDA("Verificación del dispositivo"),
+    CICLO_EXCEDIDO("Ciclo de monitoreo excedido"),
+    LATENCIA_ANOMALA("Latencia anómala del dispositivo"),
+    LATENCIA_NORMALIZADA("Latencia normalizada del dispositivo");
+
+    private static final TipoEvento[] VALORES = values();
+
+    private final String descripcion;   // Texto base para mostrar el evento
+
+    TipoEvento(String descripcion) {
+        this.descripcion = descripcion;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    /**
+     * Obtiene el tipo a partir de su ordinal sin copiar el arreglo de valores
+     * @param ordinal Ordinal almacenado
+     * @return tipo de evento
+     */
+    public static TipoEvento desdeOrdinal(int ordinal) {
+        return VALORES[ordinal];
+    }
+}
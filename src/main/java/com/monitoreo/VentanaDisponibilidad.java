@@ -0,0 +1,133 @@
+package com.monitoreo;
+
+import java.time.Duration;
+
+/**
+ * Disponibilidad de un host en una ventana deslizante (por ejemplo, la
+ * última hora). El horizonte se divide en {@value #CUBETAS} cubetas de
+ * chequeos exitosos y totales con sumas acumuladas: registrar vacía las
+ * cubetas que salieron de la ventana y suma en la actual, y consultar
+ * descuenta como mucho {@value #CUBETAS} cubetas vencidas, así que ambas
+ * operaciones cuestan lo mismo sea cual sea el horizonte o la cantidad de
+ * chequeos, y la memoria es fija. La ventana avanza de a una cubeta (1/{@value #CUBETAS}
+ * del horizonte).
+ */
+public class VentanaDisponibilidad {
+    public static final int CUBETAS = 60;
+
+    private final long horizonteMs;         // Duración de la ventana
+    private final long anchoCubetaMs;       // Duración de una cubeta
+    private final int[] exitos;             // Chequeos exitosos por cubeta (circular)
+    private final int[] totales;            // Chequeos por cubeta (circular)
+    private long sumaExitos;                // Exitosos en las cubetas vigentes
+    private long sumaTotales;               // Chequeos en las cubetas vigentes
+    private long ultimaCubeta;              // Índice absoluto de la cubeta más reciente
+
+    /**
+     * Constructor de la ventana
+     * @param horizonteMs Duración de la ventana en milisegundos (al menos {@value #CUBETAS})
+     */
+    public VentanaDisponibilidad(long horizonteMs) {
+        if (horizonteMs < CUBETAS) {
+            throw new IllegalArgumentException("El horizonte de la ventana es demasiado corto: " + horizonteMs);
+        }
+        this.horizonteMs = horizonteMs;
+        this.anchoCubetaMs = horizonteMs / CUBETAS;
+        this.exitos = new int[CUBETAS];
+        this.totales = new int[CUBETAS];
+        this.ultimaCubeta = Long.MIN_VALUE;
+    }
+
+    /**
+     * Registra un chequeo
+     * @param instanteMs Instante del chequeo (epoch ms)
+     * @param disponible true si el host respondió
+     */
+    public void registrar(long instanteMs, boolean disponible) {
+        long cubeta = Math.floorDiv(instanteMs, anchoCubetaMs);
+        if (cubeta > ultimaCubeta) {
+            // Vaciar las cubetas que pasan a reutilizarse (como mucho todas)
+            long desde = ultimaCubeta == Long.MIN_VALUE ? cubeta : Math.max(ultimaCubeta + 1, cubeta - CUBETAS + 1);
+            for (long i = desde; i <= cubeta; i++) {
+                int ranura = ranura(i);
+                sumaExitos -= exitos[ranura];
+                sumaTotales -= totales[ranura];
+                exitos[ranura] = 0;
+                totales[ranura] = 0;
+            }
+            ultimaCubeta = cubeta;
+        }
+        // Si el reloj retrocede, el chequeo cuenta en la cubeta más reciente
+        int ranura = ranura(ultimaCubeta);
+        totales[ranura]++;
+        sumaTotales++;
+        if (disponible) {
+            exitos[ranura]++;
+            sumaExitos++;
+        }
+    }
+
+    /**
+     * Calcula la disponibilidad de la ventana que termina en el instante indicado
+     * @param ahoraMs Instante de la consulta (epoch ms)
+     * @return porcentaje de chequeos exitosos, 100 si no hubo chequeos en la ventana
+     */
+    public double getDisponibilidad(long ahoraMs) {
+        long vigentesExitos = sumaExitos;
+        long vigentesTotales = sumaTotales;
+        long cubeta = Math.floorDiv(ahoraMs, anchoCubetaMs);
+        if (ultimaCubeta == Long.MIN_VALUE) {
+            return 100.0;
+        }
+        if (cubeta - ultimaCubeta >= CUBETAS) {
+            return 100.0;       // Todas las cubetas vencieron
+        }
+        // Descontar las cubetas que vencieron desde el último registro
+        for (long i = ultimaCubeta - CUBETAS + 1; i <= cubeta - CUBETAS; i++) {
+            int ranura = ranura(i);
+            vigentesExitos -= exitos[ranura];
+            vigentesTotales -= totales[ranura];
+        }
+        return vigentesTotales == 0 ? 100.0 : 100.0 * vigentesExitos / vigentesTotales;
+    }
+
+    /**
+     * Obtiene el instante en que la ventana avanza a la cubeta siguiente; hasta
+     * entonces, sin registros nuevos, la disponibilidad no cambia
+     * @param ahoraMs Instante de la consulta (epoch ms)
+     * @return inicio de la cubeta siguiente (epoch ms)
+     */
+    public long getProximoAvanceMs(long ahoraMs) {
+        return (Math.floorDiv(ahoraMs, anchoCubetaMs) + 1) * anchoCubetaMs;
+    }
+
+    /**
+     * Obtiene una etiqueta corta para un horizonte ("5 min", "1 h", "30 d")
+     * @param horizonte Duración de la ventana; null o cero para la disponibilidad total
+     * @return texto para mostrar
+     */
+    public static String etiqueta(Duration horizonte) {
+        if (horizonte == null || horizonte.isZero()) {
+            return "total";
+        }
+        long minutos = horizonte.toMinutes();
+        if (minutos > 0 && minutos % (24 * 60) == 0 && minutos > 24 * 60) {
+            return (minutos / (24 * 60)) + " d";
+        }
+        if (minutos > 0 && minutos % 60 == 0) {
+            return (minutos / 60) + " h";
+        }
+        if (minutos > 0) {
+            return minutos + " min";
+        }
+        return horizonte.getSeconds() + " s";
+    }
+
+    private static int ranura(long cubeta) {
+        return (int) Math.floorMod(cubeta, (long) CUBETAS);
+    }
+
+    public long getHorizonteMs() {
+        return horizonteMs;
+    }
+}
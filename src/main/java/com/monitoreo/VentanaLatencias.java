@@ -0,0 +1,134 @@
+package com.monitoreo;
+
+import java.time.Duration;
+
+/**
+ * Percentiles de latencia de un host en una ventana deslizante (por ejemplo,
+ * la última hora), para que la interfaz y los reportes muestren la latencia
+ * reciente y no la acumulada desde el arranque. El horizonte se divide en
+ * {@value #SEGMENTOS} segmentos, cada uno con su {@link HistogramaLatencias};
+ * al empezar un segmento se vacía y reutiliza el más antiguo, y los
+ * percentiles se calculan recorriendo a la vez las cubetas de los segmentos
+ * vigentes, sin combinarlos en otro histograma. La ventana avanza de a un
+ * segmento, así que cubre entre {@value #SEGMENTOS}-1 segmentos completos y
+ * el horizonte entero. La memoria es fija: las cubetas de cada segmento se
+ * crean con su primer valor y después solo se reinician.
+ *
+ * Escribe un solo thread (el que registra los chequeos); las lecturas desde
+ * otros threads pueden ver un segmento a medio actualizar, por eso
+ * {@link HostEstadisticas#instantanea()} las hace dentro de su seqlock.
+ */
+public class VentanaLatencias {
+    public static final int SEGMENTOS = 4;
+    public static final Duration HORIZONTE_POR_DEFECTO = Duration.ofHours(1);
+
+    private final long horizonteMs;                 // Duración de la ventana
+    private final long anchoSegmentoMs;             // Duración de un segmento
+    private final HistogramaLatencias[] segmentos;  // Latencias por segmento (circular, µs)
+    private final long[] indices;                   // Índice absoluto del segmento guardado en cada ranura
+    private long ultimoSegmento;                    // Índice absoluto del segmento más reciente
+
+    /**
+     * Constructor de la ventana
+     * @param horizonteMs Duración de la ventana en milisegundos (al menos {@value #SEGMENTOS})
+     */
+    public VentanaLatencias(long horizonteMs) {
+        if (horizonteMs < SEGMENTOS) {
+            throw new IllegalArgumentException("El horizonte de la ventana es demasiado corto: " + horizonteMs);
+        }
+        this.horizonteMs = horizonteMs;
+        this.anchoSegmentoMs = horizonteMs / SEGMENTOS;
+        this.segmentos = new HistogramaLatencias[SEGMENTOS];
+        this.indices = new long[SEGMENTOS];
+        for (int i = 0; i < SEGMENTOS; i++) {
+            segmentos[i] = new HistogramaLatencias();
+            indices[i] = Long.MIN_VALUE;
+        }
+        this.ultimoSegmento = Long.MIN_VALUE;
+    }
+
+    /**
+     * Registra la latencia de un chequeo exitoso
+     * @param instanteMs Instante del chequeo (epoch ms)
+     * @param micros Latencia en microsegundos
+     */
+    public void registrar(long instanteMs, long micros) {
+        // Si el reloj retrocede, la latencia cuenta en el segmento más reciente
+        long segmento = Math.max(Math.floorDiv(instanteMs, anchoSegmentoMs), ultimoSegmento);
+        int ranura = ranura(segmento);
+        if (indices[ranura] != segmento) {
+            segmentos[ranura].reiniciar();
+            indices[ranura] = segmento;
+        }
+        ultimoSegmento = segmento;
+        segmentos[ranura].registrar(micros);
+    }
+
+    /**
+     * Calcula varios percentiles de la ventana que termina en el instante indicado
+     * @param ahoraMs Instante de la consulta (epoch ms)
+     * @param percentiles Percentiles entre 0 y 100, en orden creciente
+     * @return latencia en microsegundos de cada percentil (0 si no hubo respuestas en la ventana)
+     */
+    public long[] getPercentiles(long ahoraMs, double... percentiles) {
+        return HistogramaLatencias.getPercentilesCombinados(vigentes(ahoraMs), percentiles);
+    }
+
+    /**
+     * Calcula un percentil de la ventana que termina en el instante indicado
+     * @param ahoraMs Instante de la consulta (epoch ms)
+     * @param percentil Percentil entre 0 y 100
+     * @return latencia en microsegundos, 0 si no hubo respuestas en la ventana
+     */
+    public long getPercentil(long ahoraMs, double percentil) {
+        return getPercentiles(ahoraMs, percentil)[0];
+    }
+
+    /**
+     * Obtiene la mayor latencia de la ventana que termina en el instante indicado
+     * @param ahoraMs Instante de la consulta (epoch ms)
+     * @return latencia en microsegundos, 0 si no hubo respuestas en la ventana
+     */
+    public long getMaximo(long ahoraMs) {
+        long maximo = 0;
+        for (HistogramaLatencias segmento : vigentes(ahoraMs)) {
+            if (segmento != null) {
+                maximo = Math.max(maximo, segmento.getMaximo());
+            }
+        }
+        return maximo;
+    }
+
+    /**
+     * Obtiene el instante en que la ventana avanza al segmento siguiente; hasta
+     * entonces, sin registros nuevos, los percentiles no cambian
+     * @param ahoraMs Instante de la consulta (epoch ms)
+     * @return inicio del segmento siguiente (epoch ms)
+     */
+    public long getProximoAvanceMs(long ahoraMs) {
+        return (Math.floorDiv(ahoraMs, anchoSegmentoMs) + 1) * anchoSegmentoMs;
+    }
+
+    /**
+     * Obtiene los segmentos que siguen dentro de la ventana (null en las ranuras vencidas)
+     */
+    private HistogramaLatencias[] vigentes(long ahoraMs) {
+        long actual = Math.max(Math.floorDiv(ahoraMs, anchoSegmentoMs), ultimoSegmento);
+        HistogramaLatencias[] vigentes = new HistogramaLatencias[SEGMENTOS];
+        for (int i = 0; i < SEGMENTOS; i++) {
+            long indice = indices[i];
+            if (indice != Long.MIN_VALUE && actual - indice < SEGMENTOS) {
+                vigentes[i] = segmentos[i];
+            }
+        }
+        return vigentes;
+    }
+
+    private static int ranura(long segmento) {
+        return (int) Math.floorMod(segmento, (long) SEGMENTOS);
+    }
+
+    public long getHorizonteMs() {
+        return horizonteMs;
+    }
+}
@@ -4,24 +4,67 @@ package com.monitoreo;
  * Clase que implementa la lógica de verificación de dispositivos
  */
 public class Verificador {
+    private volatile boolean eco;   // Mostrar cada resultado en consola
+
+    /**
+     * Constructor del verificador sin eco en consola: el resultado de cada
+     * prueba queda en el almacén de eventos y solo se convierte a texto al consultarlo
+     */
+    public Verificador() {
+        this(false);
+    }
+
+    /**
+     * Constructor del verificador
+     * @param eco true para mostrar en consola el resultado de cada prueba
+     */
+    public Verificador(boolean eco) {
+        this.eco = eco;
+    }
+
     /**
      * Ejecuta una prueba de verificación sobre un dispositivo
      * @param d Dispositivo a verificar
      * @return Resultado de la verificación (true si está activo, false si no)
      */
     public boolean ejecutarPrueba(Dispositivos d) {
-        long inicio = System.currentTimeMillis();
-        boolean resultado = d.verificarEstado();
-        long tiempoRespuesta = System.currentTimeMillis() - inicio;
+        return ejecutarSonda(d).isExito();
+    }
 
-        // Crear una descripción y mostrar en consola (uso para evitar variables sin usar)
-        String tipo = resultado ? "VERIFICACION_EXITOSA" : "VERIFICACION_FALLIDA";
-        String descripcion = String.format("%s - Verificación del dispositivo %s (%s): %s",
-            tipo, d.getId(), d.getDireccionIP(), d.getEstado());
+    /**
+     * Ejecuta la sonda de un dispositivo e informa el resultado. La latencia es
+     * la medida por la propia sonda, sin incluir el coste de informar.
+     * @param d Dispositivo a verificar
+     * @return Resultado de la sonda
+     */
+    public ResultadoSonda ejecutarSonda(Dispositivos d) {
+        ResultadoSonda resultado = d.sondear();
+        informarResultado(d, resultado.isExito(), resultado.getLatenciaMs());
+        return resultado;
+    }
+
+    /**
+     * Muestra en consola el resultado de una verificación ya realizada, si el eco está activo.
+     * Se usa también para las pruebas asíncronas (sondas no bloqueantes) que no pasan por ejecutarPrueba.
+     * Sin eco no se genera ningún texto.
+     * @param d Dispositivo verificado
+     * @param resultado Resultado de la verificación
+     * @param tiempoRespuesta Tiempo de respuesta en milisegundos
+     */
+    public void informarResultado(Dispositivos d, boolean resultado, long tiempoRespuesta) {
+        if (!eco) {
+            return;
+        }
+        TipoEvento tipo = resultado ? TipoEvento.VERIFICACION_EXITOSA : TipoEvento.VERIFICACION_FALLIDA;
+        System.out.println(tipo + " - Verificación del dispositivo " + d.getId() + " (" + d.getDireccionIP()
+            + "): " + d.getEstado() + " - Tiempo respuesta: " + tiempoRespuesta + "ms");
+    }
 
-        System.out.println(descripcion + " - Tiempo respuesta: " + tiempoRespuesta + "ms");
+    public boolean isEco() {
+        return eco;
+    }
 
-        // Retornar el resultado de la verificación
-        return resultado;
+    public void setEco(boolean eco) {
+        this.eco = eco;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,134 @@
+package com.monitoreo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Pruebas de {@link AlmacenAgregados}: lecturas que cruzan varias ventanas de
+ * mapeo, filtros por rango y dispositivo, y descarte de lo escrito más allá
+ * de una marca de agua.
+ */
+class AlmacenAgregadosTest {
+    private static final long MINUTO = ResolucionAgregado.MINUTO.getDuracionNanos();
+    private static final long INICIO = ResolucionAgregado.MINUTO.inicioDe(1_700_000_000_000_000_000L);
+    private static final int DISPOSITIVOS = 7;
+
+    @TempDir
+    File directorio;
+
+    /**
+     * Agregado del minuto y el dispositivo indicados; los de clave par no tienen latencias
+     */
+    private static AgregadoSondeos agregado(int minuto, int clave) {
+        AgregadoSondeos agregado = new AgregadoSondeos(INICIO + minuto * MINUTO, clave);
+        for (int i = 0; i <= (minuto + clave) % 5; i++) {
+            agregado.registrar(clave % 2 == 0 ? ResultadoSonda.Tipo.TIMEOUT : ResultadoSonda.Tipo.EXITO,
+                (minuto * 100L + clave * 10L + i) * 1_000L);
+        }
+        return agregado;
+    }
+
+    private static List<AgregadoSondeos> generar(int minutos) {
+        List<AgregadoSondeos> agregados = new ArrayList<>();
+        for (int minuto = 0; minuto < minutos; minuto++) {
+            for (int clave = 0; clave < DISPOSITIVOS; clave++) {
+                agregados.add(agregado(minuto, clave));
+            }
+        }
+        return agregados;
+    }
+
+    private static void verificarIgual(AgregadoSondeos esperado, AgregadoSondeos leido) {
+        assertEquals(esperado.getInicioEpochNanos(), leido.getInicioEpochNanos());
+        assertEquals(esperado.getClaveDispositivo(), leido.getClaveDispositivo());
+        assertEquals(esperado.getCantidad(), leido.getCantidad());
+        assertEquals(esperado.getFallos(), leido.getFallos());
+        assertEquals(esperado.getSumaLatenciaMicros(), leido.getSumaLatenciaMicros());
+        assertEquals(esperado.getLatenciaMaximaMs(), leido.getLatenciaMaximaMs());
+        assertEquals(esperado.getPercentilLatenciaMs(50), leido.getPercentilLatenciaMs(50));
+        assertEquals(esperado.getHistogramaLatencias().getCubetasOcupadas(),
+            leido.getHistogramaLatencias().getCubetasOcupadas());
+    }
+
+    @Test
+    void leeRegistrosDeVariasVentanasConSusCubetas() throws IOException {
+        AlmacenAgregados almacen = new AlmacenAgregados(directorio, ResolucionAgregado.MINUTO, Long.MAX_VALUE);
+        // Dos ventanas y media dentro de un mismo archivo diario
+        int minutos = (AlmacenAgregados.REGISTROS_POR_VENTANA * 5 / 2) / DISPOSITIVOS;
+        List<AgregadoSondeos> escritos = generar(minutos);
+        for (int desde = 0; desde < escritos.size(); desde += 1000) {
+            almacen.escribir(escritos.subList(desde, Math.min(escritos.size(), desde + 1000)));
+        }
+
+        List<AgregadoSondeos> leidos = new ArrayList<>();
+        almacen.leer(INICIO, INICIO + minutos * MINUTO, false, 0, leidos::add);
+        assertEquals(escritos.size(), leidos.size());
+        for (int i = 0; i < escritos.size(); i++) {
+            verificarIgual(escritos.get(i), leidos.get(i));
+        }
+    }
+
+    @Test
+    void filtraPorRangoYDispositivo() throws IOException {
+        AlmacenAgregados almacen = new AlmacenAgregados(directorio, ResolucionAgregado.MINUTO, Long.MAX_VALUE);
+        int minutos = AlmacenAgregados.REGISTROS_POR_VENTANA / DISPOSITIVOS + 100;
+        almacen.escribir(generar(minutos));
+
+        // Un rango que empieza en medio de la primera ventana y termina en la segunda
+        int desde = 500;
+        int hasta = minutos - 10;
+        List<AgregadoSondeos> leidos = new ArrayList<>();
+        almacen.leer(INICIO + desde * MINUTO, INICIO + hasta * MINUTO, true, 3, leidos::add);
+        assertEquals(hasta - desde, leidos.size());
+        for (int i = 0; i < leidos.size(); i++) {
+            verificarIgual(agregado(desde + i, 3), leidos.get(i));
+        }
+    }
+
+    @Test
+    void descartaDesdeUnaMarcaYLosRestosIncompletos() throws IOException {
+        AlmacenAgregados almacen = new AlmacenAgregados(directorio, ResolucionAgregado.MINUTO, Long.MAX_VALUE);
+        almacen.escribir(generar(20));
+        File[] archivos = directorio.listFiles((dir, nombre) -> nombre.endsWith(".dat"));
+        assertEquals(1, archivos.length);
+        try (RandomAccessFile archivo = new RandomAccessFile(archivos[0], "rw")) {
+            archivo.setLength(archivo.length() - AgregadoSondeos.TAMANO_REGISTRO / 2);   // Último registro a medias
+        }
+
+        almacen.descartarDesde(INICIO + 12 * MINUTO);
+        assertEquals(12L * DISPOSITIVOS * AgregadoSondeos.TAMANO_REGISTRO, archivos[0].length());
+        List<AgregadoSondeos> leidos = new ArrayList<>();
+        almacen.leer(INICIO, INICIO + 20 * MINUTO, false, 0, leidos::add);
+        assertEquals(12 * DISPOSITIVOS, leidos.size());
+
+        // Lo descartado se puede volver a escribir sin duplicados
+        almacen.escribir(generar(20).subList(12 * DISPOSITIVOS, 20 * DISPOSITIVOS));
+        leidos.clear();
+        almacen.leer(INICIO, INICIO + 20 * MINUTO, false, 0, leidos::add);
+        List<AgregadoSondeos> esperados = generar(20);
+        assertEquals(esperados.size(), leidos.size());
+        for (int i = 0; i < esperados.size(); i++) {
+            verificarIgual(esperados.get(i), leidos.get(i));
+        }
+    }
+
+    @Test
+    void informaCubetasFaltantes() throws IOException {
+        AlmacenAgregados almacen = new AlmacenAgregados(directorio, ResolucionAgregado.MINUTO, Long.MAX_VALUE);
+        almacen.escribir(generar(3));
+        File[] cubetas = directorio.listFiles((dir, nombre) -> nombre.endsWith(".cub"));
+        try (RandomAccessFile archivo = new RandomAccessFile(cubetas[0], "rw")) {
+            archivo.setLength(archivo.length() / 2);
+        }
+        assertThrows(IOException.class, () -> almacen.leer(INICIO, INICIO + 3 * MINUTO, false, 0, agregado -> { }));
+    }
+}
@@ -0,0 +1,74 @@
+package com.monitoreo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Pruebas de la baja de series y del cierre del almacén
+ */
+class AlmacenSeriesTest {
+    private static final long INICIO_MS = 1_700_000_000_000L;
+
+    @TempDir
+    File directorio;
+
+    private static void registrar(AlmacenSeries almacen, String host, int desde, int hasta) throws IOException {
+        for (int i = desde; i < hasta; i++) {
+            almacen.registrar(host, INICIO_MS + i * 1000L, 1 + (i % 7) * 0.25, i % 10 != 0);
+        }
+    }
+
+    @Test
+    void quitarSellaElBloqueAbiertoYOlvidaLaSerie() throws IOException {
+        AlmacenSeries almacen = new AlmacenSeries(directorio, 1000, 8, 100);
+        try {
+            registrar(almacen, "a", 0, 10);
+            registrar(almacen, "b", 0, 10);
+            SerieTemporal anterior = almacen.getSerie("a");
+            almacen.quitar("a");
+
+            // El bloque abierto quedó en disco: otro almacén lo lee sin que se sincronice
+            AlmacenSeries lector = new AlmacenSeries(directorio, 1000, 8, 100);
+            assertEquals(10, lector.getSerie("a").getCantidadMuestras());
+            assertEquals(1, lector.getSerie("a").getBloques());
+            assertEquals(0, lector.getSerie("b").getCantidadMuestras());
+            lector.cerrar();
+
+            // Si el host vuelve, su serie continúa desde los archivos
+            registrar(almacen, "a", 10, 15);
+            assertNotSame(anterior, almacen.getSerie("a"));
+            assertEquals(15, almacen.getSerie("a").getCantidadMuestras());
+        } finally {
+            almacen.cerrar();
+        }
+    }
+
+    @Test
+    void cerrarEscribeTodoYDetieneElThreadDeEscritura() throws IOException {
+        AlmacenSeries almacen = new AlmacenSeries(directorio, 1000, 8, 4);
+        registrar(almacen, "a", 0, 10);
+        registrar(almacen, "b", 0, 3);
+        almacen.cerrar();
+        assertTrue(almacen.isEscritorDetenido());
+
+        AlmacenSeries lector = new AlmacenSeries(directorio, 1000, 8, 4);
+        assertEquals(10, lector.getSerie("a").getCantidadMuestras());
+        assertEquals(3, lector.getSerie("a").getBloques());
+        assertEquals(3, lector.getSerie("b").getCantidadMuestras());
+        lector.cerrar();
+
+        // Cerrado: se puede leer y sincronizar, pero no registrar
+        assertEquals(10, almacen.leerAgregado("a", INICIO_MS, INICIO_MS + 10_000, 10_000).get(0).getCantidad());
+        almacen.sincronizar();
+        almacen.quitar("b");
+        assertThrows(IOException.class, () -> almacen.registrar("a", INICIO_MS + 20_000, 1.0, true));
+    }
+}
@@ -0,0 +1,127 @@
+package com.monitoreo;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Mide la memoria que asigna el hilo de monitoreo por prueba en régimen
+ * estable: extraer del planificador las pruebas vencidas, admitirlas en el
+ * ciclo y procesar su resultado (diario, serie, eventos, estadísticas,
+ * cadencia y alertas). Usa 100 dispositivos siempre disponibles y un reloj
+ * simulado; los resultados se crean antes de medir porque en la ejecución
+ * real los crean los hilos de sondeo. No incluye el envío al
+ * {@link MotorSondeo}, que sí asigna la tarea o el futuro de cada prueba.
+ */
+class AsignacionesMonitoreoTest {
+    private static final int DISPOSITIVOS = 100;
+    private static final int PRUEBAS = 100_000;          // Pruebas por ventana de medición
+    private static final int VENTANAS = 6;                // La primera solo calienta la JVM
+
+    @TempDir
+    File directorio;
+
+    /**
+     * Resultados precalculados de un dispositivo, entregados en rueda
+     */
+    private static final class Resultados {
+        final ResultadoSondeo[] resultados = new ResultadoSondeo[16];
+        int siguiente;
+
+        ResultadoSondeo proximo() {
+            return resultados[siguiente++ & (resultados.length - 1)];
+        }
+    }
+
+    /**
+     * Procesa varias ventanas de pruebas seguidas y mide cada una salvo la
+     * primera. Se toma la de menos asignaciones: el compilador JIT puede
+     * terminar de optimizar el camino recién en la segunda o tercera ventana
+     * @return bytes asignados por prueba en régimen estable
+     */
+    private double medir(boolean seriesHabilitadas) {
+        Configuracion configuracion = new Configuracion();
+        configuracion.setDirectorioDiario(new File(directorio, "diario").getPath());
+        configuracion.setDirectorioSeries(new File(directorio, "series").getPath());
+        configuracion.setSeriesHabilitadas(seriesHabilitadas);
+        ArrayList<String> hosts = new ArrayList<>();
+        for (int i = 0; i < DISPOSITIVOS; i++) {
+            hosts.add("host-" + i);
+        }
+        Monitoreo monitor = new Monitoreo(hosts, 10, configuracion);
+        try {
+            List<Dispositivos> dispositivos = monitor.getListaDispositivos();
+            Map<Dispositivos, Resultados> porDispositivo = new IdentityHashMap<>();
+            for (int i = 0; i < dispositivos.size(); i++) {
+                Resultados resultados = new Resultados();
+                for (int j = 0; j < resultados.resultados.length; j++) {
+                    long latenciaNanos = 1_500_000L + ((i * 31 + j * 17) % 16) * 100_000L;   // 1,5 a 3 ms
+                    resultados.resultados[j] = new ResultadoSondeo(dispositivos.get(i), ResultadoSonda.Tipo.EXITO,
+                        0, 0, latenciaNanos);
+                }
+                porDispositivo.put(dispositivos.get(i), resultados);
+            }
+
+            PlanificadorSondeos planificador = monitor.getPlanificador();
+            ControlCiclos controlCiclos = monitor.getControlCiclos();
+            long ahora = System.nanoTime();
+            planificador.reiniciar(dispositivos, ahora);
+            controlCiclos.iniciar(ahora);
+            List<PruebaPlanificada> vencidas = new ArrayList<>();
+            long minimo = Long.MAX_VALUE;
+            long bytesInicio = 0;
+            int procesadas = 0;
+            int finVentana = PRUEBAS;
+            while (procesadas < VENTANAS * PRUEBAS) {
+                if (procesadas >= finVentana) {
+                    long bytes = MedidorAsignaciones.bytesAsignadosHiloActual();
+                    if (finVentana > PRUEBAS) {
+                        minimo = Math.min(minimo, bytes - bytesInicio);
+                    }
+                    bytesInicio = bytes;
+                    finVentana += PRUEBAS;
+                }
+                ahora += planificador.getDuracionTickNanos();
+                vencidas.clear();
+                planificador.extraerVencidos(ahora, vencidas);
+                for (int i = 0; i < vencidas.size() && procesadas < finVentana; i++) {
+                    PruebaPlanificada prueba = vencidas.get(i);
+                    if (controlCiclos.admitir(prueba)) {
+                        monitor.procesarResultado(porDispositivo.get(prueba.getDispositivo()).proximo());
+                        procesadas++;
+                    }
+                }
+            }
+            minimo = Math.min(minimo, MedidorAsignaciones.bytesAsignadosHiloActual() - bytesInicio);
+            return (double) minimo / PRUEBAS;
+        } finally {
+            monitor.cerrar();
+        }
+    }
+
+    @Test
+    void elHiloDeMonitoreoNoAsignaPorPrueba() {
+        assumeTrue(MedidorAsignaciones.isDisponible(), "La JVM no permite medir asignaciones por hilo");
+        // Sin series no queda nada por prueba; el margen cubre asignaciones
+        // esporádicas de la JVM durante la medición
+        double sinSeries = medir(false);
+        assertTrue(sinSeries < 1.0, "Bytes por prueba sin series: " + sinSeries);
+    }
+
+    @Test
+    void conSeriesSoloAsignaElCierreDeBloques() {
+        assumeTrue(MedidorAsignaciones.isDisponible(), "La JVM no permite medir asignaciones por hilo");
+        // Al cerrar un bloque se copian sus bytes para el hilo de escritura:
+        // unos pocos bytes por prueba repartidos entre las del bloque
+        double conSeries = medir(true);
+        assertTrue(conSeries < 16.0, "Bytes por prueba con series: " + conSeries);
+    }
+}
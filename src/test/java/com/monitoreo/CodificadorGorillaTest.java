@@ -0,0 +1,179 @@
+package com.monitoreo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas del formato de bloque de {@link CodificadorGorilla}: cada clase de
+ * delta de la delta, los casos límite del XOR y el redondeo de la mantisa.
+ */
+class CodificadorGorillaTest {
+
+    /**
+     * Muestra decodificada
+     */
+    private static final class Muestra {
+        final long instante;
+        final boolean disponible;
+        final double valor;
+
+        Muestra(long instante, boolean disponible, double valor) {
+            this.instante = instante;
+            this.disponible = disponible;
+            this.valor = valor;
+        }
+    }
+
+    private static List<Muestra> decodificar(CodificadorGorilla codificador) {
+        List<Muestra> muestras = new ArrayList<>();
+        CodificadorGorilla.decodificar(codificador.getBytes(), codificador.getCantidad(),
+            (instante, disponible, valor) -> muestras.add(new Muestra(instante, disponible, valor)));
+        return muestras;
+    }
+
+    private static void verificarIdaYVuelta(long[] instantes, double[] valores) {
+        CodificadorGorilla codificador = new CodificadorGorilla(52);
+        for (int i = 0; i < instantes.length; i++) {
+            codificador.agregar(instantes[i], i % 3 != 0, valores[i]);
+        }
+        List<Muestra> muestras = decodificar(codificador);
+        assertEquals(instantes.length, muestras.size());
+        for (int i = 0; i < instantes.length; i++) {
+            Muestra muestra = muestras.get(i);
+            assertEquals(instantes[i], muestra.instante, "instante " + i);
+            assertEquals(i % 3 != 0, muestra.disponible, "estado " + i);
+            assertEquals(Double.doubleToRawLongBits(valores[i]), Double.doubleToRawLongBits(muestra.valor),
+                "valor " + i);
+        }
+    }
+
+    @Test
+    void idaYVueltaConCadaClaseDeDeltaDeLaDelta() {
+        // Deltas de la delta: 0 ('0'); -63 y 64 ('10'); -255 y 256 ('110');
+        // -2047 y 2048 ('1110'); fuera de rango en ambos sentidos ('1111')
+        long[] deltasDelta = {0, 0, 64, -63, 0, 256, -255, 2048, -2047, 65, -64, 257, -256, 2049, -2048,
+            1_000_000_000L, -1_000_000_000L, Long.MAX_VALUE / 4, -(Long.MAX_VALUE / 4)};
+        long[] instantes = new long[deltasDelta.length + 1];
+        double[] valores = new double[instantes.length];
+        long delta = 0;
+        instantes[0] = 1_700_000_000L;
+        valores[0] = 2.5;
+        for (int i = 0; i < deltasDelta.length; i++) {
+            delta += deltasDelta[i];
+            instantes[i + 1] = instantes[i] + delta;
+            valores[i + 1] = 2.5 + i * 0.125;
+        }
+        verificarIdaYVuelta(instantes, valores);
+    }
+
+    @Test
+    void idaYVueltaConXorDeSesentaYCuatroBitsSignificativos() {
+        // El XOR entre 0.0 y un NaN negativo con el último bit en 1 no tiene ceros en
+        // ningún extremo: 64 bits significativos, que el formato guarda con largo 0
+        double conSigno = Double.longBitsToDouble(0xFFF0_0000_0000_0001L);
+        verificarIdaYVuelta(new long[] {0, 1, 2, 3, 4},
+            new double[] {Double.longBitsToDouble(0x0000_0000_0000_0000L), conSigno,
+                Double.longBitsToDouble(0x7FF0_0000_0000_0001L), -0.0, 1.0});
+    }
+
+    @Test
+    void idaYVueltaConCerosIzquierdaTopados() {
+        // XOR con más de 31 ceros a la izquierda: el conteo se topa en 31 y el
+        // largo incluye los ceros sobrantes; luego la ventana se reutiliza
+        double base = Double.longBitsToDouble(0x4000_0000_0000_0000L);
+        verificarIdaYVuelta(new long[] {0, 1, 2, 3, 4, 5},
+            new double[] {base, Double.longBitsToDouble(0x4000_0000_0000_0001L),
+                Double.longBitsToDouble(0x4000_0000_0000_0003L), Double.longBitsToDouble(0x4000_0000_8000_0000L),
+                Double.longBitsToDouble(0x4000_0000_8000_0001L), base});
+    }
+
+    @Test
+    void idaYVueltaReutilizandoLaVentanaAnterior() {
+        verificarIdaYVuelta(new long[] {10, 20, 30, 40, 50, 60},
+            new double[] {1.0, 1.5, 1.25, 1.75, 1.75, 1.0});
+    }
+
+    @Test
+    void cadenciaRegularConValorRepetidoOcupaTresBitsPorMuestra() {
+        CodificadorGorilla codificador = new CodificadorGorilla(8);
+        for (int i = 0; i < 100; i++) {
+            codificador.agregar(1000 + i * 60L, true, 2.0);
+        }
+        // Primera muestra: 64 + 1 + 64 bits; la segunda fija la delta ('10' + 7 bits);
+        // el resto: delta de la delta '0', estado y valor '0'
+        assertEquals((129 + (9 + 2) + 98 * 3 + 7) / 8, codificador.getLongitud());
+    }
+
+    @Test
+    void resumenDeLasExitosas() {
+        CodificadorGorilla codificador = new CodificadorGorilla(52);
+        codificador.agregar(0, true, 3.0);
+        codificador.agregar(1, false, 100.0);
+        codificador.agregar(2, true, 1.0);
+        assertEquals(3, codificador.getCantidad());
+        assertEquals(2, codificador.getExitosas());
+        assertEquals(1.0, codificador.getMinimo());
+        assertEquals(3.0, codificador.getMaximo());
+        assertEquals(4.0, codificador.getSuma());
+        assertEquals(0, codificador.getPrimerInstante());
+        assertEquals(2, codificador.getUltimoInstante());
+    }
+
+    @Test
+    void reiniciarEmpiezaUnBloqueIndependiente() {
+        CodificadorGorilla codificador = new CodificadorGorilla(8);
+        for (int i = 0; i < 500; i++) {
+            codificador.agregar(i * 7L, true, 1.0 + i);
+        }
+        codificador.reiniciar();
+        assertEquals(0, codificador.getCantidad());
+        assertEquals(0, codificador.getLongitud());
+        codificador.agregar(100, true, 2.0);
+        codificador.agregar(101, false, 2.0);
+        List<Muestra> muestras = decodificar(codificador);
+        assertEquals(2, muestras.size());
+        assertEquals(100, muestras.get(0).instante);
+        assertEquals(101, muestras.get(1).instante);
+        assertEquals(2.0, muestras.get(1).valor);
+        assertEquals(1, codificador.getExitosas());
+    }
+
+    @Test
+    void redondearConCincuentaYDosBitsNoCambiaElValor() {
+        CodificadorGorilla codificador = new CodificadorGorilla(52);
+        double[] valores = {0.1, 2.0000000000000004, Math.PI, -1e-300, Double.MIN_VALUE, Double.MAX_VALUE};
+        for (double valor : valores) {
+            assertEquals(Double.doubleToRawLongBits(valor), Double.doubleToRawLongBits(codificador.redondear(valor)));
+        }
+    }
+
+    @Test
+    void redondearConPocosBitsVaAlMasCercano() {
+        // Con un bit de mantisa los valores entre 1 y 2 son 1.0 y 1.5
+        CodificadorGorilla codificador = new CodificadorGorilla(1);
+        assertEquals(1.0, codificador.redondear(1.2));
+        assertEquals(1.5, codificador.redondear(1.3));
+        assertEquals(1.5, codificador.redondear(1.25));      // Empate: se aleja del cero
+        assertEquals(2.0, codificador.redondear(1.8));       // El acarreo pasa al exponente
+        assertEquals(-1.5, codificador.redondear(-1.4));
+        assertEquals(Double.POSITIVE_INFINITY, codificador.redondear(Double.POSITIVE_INFINITY));
+        assertEquals(Double.doubleToRawLongBits(Double.NaN), Double.doubleToRawLongBits(codificador.redondear(Double.NaN)));
+
+        // Con 8 bits el error relativo queda por debajo de 2^-9
+        CodificadorGorilla ocho = new CodificadorGorilla(8);
+        for (double valor = 0.01; valor < 10_000; valor *= 1.37) {
+            assertEquals(valor, ocho.redondear(valor), valor / 512);
+        }
+    }
+
+    @Test
+    void bitsDeMantisaFueraDeRango() {
+        assertThrows(IllegalArgumentException.class, () -> new CodificadorGorilla(0));
+        assertThrows(IllegalArgumentException.class, () -> new CodificadorGorilla(53));
+    }
+}
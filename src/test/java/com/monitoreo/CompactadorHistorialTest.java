@@ -0,0 +1,170 @@
+package com.monitoreo;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Pruebas de recuperación de {@link CompactadorHistorial}: una pasada que
+ * escribió agregados sin llegar a guardar sus marcas de agua (y dejó archivos
+ * a medio escribir) se descarta al reabrir, y repetirla da los mismos archivos.
+ */
+class CompactadorHistorialTest {
+    private static final String[] DISPOSITIVOS = {"router", "servidor-1", "servidor-2", "impresora"};
+    private static final long HORA = ResolucionAgregado.HORA.getDuracionNanos();
+
+    @TempDir
+    File directorio;
+
+    private DiarioSondeos diario;
+    private File agregados;
+
+    @BeforeEach
+    void registrarPruebas() throws IOException {
+        diario = new DiarioSondeos(directorio, 1, 60);
+        for (int i = 0; i < 2000; i++) {
+            String id = DISPOSITIVOS[i % DISPOSITIVOS.length];
+            ResultadoSonda.Tipo tipo = i % 13 == 0 ? ResultadoSonda.Tipo.TIMEOUT : ResultadoSonda.Tipo.EXITO;
+            diario.registrar(DiarioSondeos.claveDe(id), tipo, (500 + (i * 37L) % 20_000) * 1_000L, 0);
+        }
+        agregados = new File(directorio, "agregados");
+    }
+
+    @AfterEach
+    void cerrarDiario() throws IOException {
+        diario.cerrar();
+    }
+
+    private CompactadorHistorial abrir() throws IOException {
+        return new CompactadorHistorial(diario, 24, 30, 365);
+    }
+
+    /**
+     * Contenido de los archivos de agregados (registros y cubetas) por nombre
+     */
+    private Map<String, byte[]> contenido() throws IOException {
+        Map<String, byte[]> archivos = new TreeMap<>();
+        for (File archivo : agregados.listFiles((dir, nombre) -> nombre.endsWith(".dat") || nombre.endsWith(".cub"))) {
+            archivos.put(archivo.getName(), Files.readAllBytes(archivo.toPath()));
+        }
+        return archivos;
+    }
+
+    private static void verificarIguales(Map<String, byte[]> esperado, Map<String, byte[]> actual) {
+        assertEquals(esperado.keySet(), actual.keySet());
+        for (Map.Entry<String, byte[]> archivo : esperado.entrySet()) {
+            assertArrayEquals(archivo.getValue(), actual.get(archivo.getKey()), archivo.getKey());
+        }
+    }
+
+    private static void acortar(File archivo, long bytes) throws IOException {
+        try (RandomAccessFile acceso = new RandomAccessFile(archivo, "rw")) {
+            acceso.setLength(Math.max(0, acceso.length() - bytes));
+        }
+    }
+
+    private static void agregarBasura(File archivo, int bytes) throws IOException {
+        try (RandomAccessFile acceso = new RandomAccessFile(archivo, "rw")) {
+            acceso.seek(acceso.length());
+            byte[] basura = new byte[bytes];
+            Arrays.fill(basura, (byte) 0x5A);
+            acceso.write(basura);
+        }
+    }
+
+    @Test
+    void reabrirTrasUnaPasadaSinConfirmarLaDescartaYRepetirlaEsIdempotente() throws IOException {
+        long ahora = diario.ahoraEpochNanos();
+        long antes = ahora - 3 * HORA;          // Todas las pruebas quedan después de esta pasada
+        long despues = ahora + 3 * HORA;        // Esta agrega todo por minuto y por hora
+
+        CompactadorHistorial compactador = abrir();
+        compactador.compactar(antes);
+        File estado = new File(agregados, "estado.properties");
+        File estadoAnterior = new File(directorio, "estado-anterior.properties");
+        Files.copy(estado.toPath(), estadoAnterior.toPath());
+        long hastaMinutoAnterior = compactador.getHastaMinuto();
+
+        compactador.compactar(despues);
+        Map<String, byte[]> esperado = contenido();
+        AgregadoSondeos[] resumenes = new AgregadoSondeos[DISPOSITIVOS.length];
+        for (int i = 0; i < DISPOSITIVOS.length; i++) {
+            resumenes[i] = compactador.resumir(DISPOSITIVOS[i], antes, despues);
+        }
+        assertTrue(esperado.keySet().stream().anyMatch(nombre -> nombre.startsWith("minuto")));
+        assertTrue(esperado.keySet().stream().anyMatch(nombre -> nombre.startsWith("hora")));
+
+        // Caída simulada: los agregados llegaron a disco (el último registro a medias
+        // y cubetas de más) pero las marcas de agua no se guardaron
+        Files.copy(estadoAnterior.toPath(), estado.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        for (File archivo : agregados.listFiles((dir, nombre) -> nombre.endsWith(".dat"))) {
+            acortar(archivo, AgregadoSondeos.TAMANO_REGISTRO / 2);
+        }
+        for (File archivo : agregados.listFiles((dir, nombre) -> nombre.endsWith(".cub"))) {
+            agregarBasura(archivo, 17);
+        }
+
+        CompactadorHistorial reabierto = abrir();
+        assertEquals(hastaMinutoAnterior, reabierto.getHastaMinuto());
+        for (byte[] archivo : contenido().values()) {
+            assertEquals(0, archivo.length, "Debe quedar descartado todo lo posterior a la marca de agua");
+        }
+
+        reabierto.compactar(despues);
+        verificarIguales(esperado, contenido());
+        for (int i = 0; i < DISPOSITIVOS.length; i++) {
+            AgregadoSondeos resumen = reabierto.resumir(DISPOSITIVOS[i], antes, despues);
+            assertEquals(resumenes[i].getCantidad(), resumen.getCantidad(), DISPOSITIVOS[i]);
+            assertEquals(resumenes[i].getFallos(), resumen.getFallos(), DISPOSITIVOS[i]);
+            assertEquals(resumenes[i].getSumaLatenciaMicros(), resumen.getSumaLatenciaMicros(), DISPOSITIVOS[i]);
+        }
+
+        // Repetir la pasada con las marcas ya guardadas no agrega nada
+        reabierto.compactar(despues);
+        verificarIguales(esperado, contenido());
+        verificarIguales(esperado, contenidoTrasReabrir());
+    }
+
+    private Map<String, byte[]> contenidoTrasReabrir() throws IOException {
+        abrir();
+        return contenido();
+    }
+
+    @Test
+    void losResumenesCompactadosCoincidenConLosDatosCrudos() throws IOException {
+        long ahora = diario.ahoraEpochNanos();
+        long desde = ahora - 3 * HORA;
+        long hasta = ahora + 3 * HORA;
+        CompactadorHistorial compactador = abrir();
+        AgregadoSondeos[] crudos = new AgregadoSondeos[DISPOSITIVOS.length];
+        for (int i = 0; i < DISPOSITIVOS.length; i++) {
+            crudos[i] = compactador.resumir(DISPOSITIVOS[i], desde, hasta);
+        }
+        compactador.compactar(hasta);
+        int total = 0;
+        for (int i = 0; i < DISPOSITIVOS.length; i++) {
+            AgregadoSondeos compactado = compactador.resumir(DISPOSITIVOS[i], desde, hasta);
+            assertEquals(crudos[i].getCantidad(), compactado.getCantidad());
+            assertEquals(crudos[i].getFallos(), compactado.getFallos());
+            assertEquals(crudos[i].getSumaLatenciaMicros(), compactado.getSumaLatenciaMicros());
+            assertEquals(crudos[i].getLatenciaMaximaMs(), compactado.getLatenciaMaximaMs());
+            assertEquals(crudos[i].getPercentilLatenciaMs(99), compactado.getPercentilLatenciaMs(99));
+            total += compactado.getCantidad();
+        }
+        assertEquals(2000, total);
+    }
+}
@@ -0,0 +1,149 @@
+package com.monitoreo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Pruebas de recuperación de {@link DiarioSondeos}: al reabrir tras un
+ * segmento cortado a mitad de un registro, o con un registro a medio escribir
+ * en un segmento completo, se recupera exactamente el prefijo de registros
+ * completos y el diario sigue escribiendo después de él.
+ */
+class DiarioSondeosTest {
+    private static final int REGISTROS = 100;
+
+    @TempDir
+    File directorio;
+
+    /**
+     * Registro leído del diario
+     */
+    private static final class Leido {
+        final long instante;
+        final long clave;
+        final ResultadoSonda.Tipo tipo;
+        final long latenciaNanos;
+
+        Leido(long instante, long clave, ResultadoSonda.Tipo tipo, long latenciaNanos) {
+            this.instante = instante;
+            this.clave = clave;
+            this.tipo = tipo;
+            this.latenciaNanos = latenciaNanos;
+        }
+    }
+
+    private static long clave(int i) {
+        return DiarioSondeos.claveDe("host-" + (i % 5));
+    }
+
+    private static ResultadoSonda.Tipo tipo(int i) {
+        return i % 7 == 0 ? ResultadoSonda.Tipo.TIMEOUT : ResultadoSonda.Tipo.EXITO;
+    }
+
+    private static long latencia(int i) {
+        return 1_000_000L + i * 1_000L;
+    }
+
+    private static void registrar(DiarioSondeos diario, int desde, int hasta) throws IOException {
+        for (int i = desde; i < hasta; i++) {
+            diario.registrar(clave(i), tipo(i), latencia(i), 0);
+        }
+    }
+
+    private static List<Leido> leerTodo(DiarioSondeos diario) throws IOException {
+        List<Leido> leidos = new ArrayList<>();
+        diario.leer(0, Long.MAX_VALUE, (epochNanos, claveDispositivo, tipo, latenciaNanos, retrasoMicros) -> {
+            leidos.add(new Leido(epochNanos, claveDispositivo, tipo, latenciaNanos));
+            return true;
+        });
+        return leidos;
+    }
+
+    private static void verificarPrefijo(List<Leido> leidos, int cantidad) {
+        assertEquals(cantidad, leidos.size());
+        for (int i = 0; i < cantidad; i++) {
+            Leido leido = leidos.get(i);
+            assertEquals(clave(i), leido.clave, "clave " + i);
+            assertEquals(tipo(i), leido.tipo, "tipo " + i);
+            assertEquals(latencia(i), leido.latenciaNanos, "latencia " + i);
+            if (i > 0) {
+                assertTrue(leido.instante > leidos.get(i - 1).instante, "instante " + i);
+            }
+        }
+    }
+
+    private File unicoSegmento() {
+        File[] segmentos = directorio.listFiles((dir, nombre) -> nombre.startsWith("segmento-")
+            && nombre.endsWith(DiarioSondeos.EXTENSION));
+        assertEquals(1, segmentos.length);
+        return segmentos[0];
+    }
+
+    private static long posicionRegistro(int indice) {
+        return DiarioSondeos.TAMANO_CABECERA + (long) indice * DiarioSondeos.TAMANO_REGISTRO;
+    }
+
+    @Test
+    void segmentoCortadoAMitadDeUnRegistro() throws IOException {
+        DiarioSondeos diario = new DiarioSondeos(directorio, 1, 60);
+        registrar(diario, 0, REGISTROS);
+        diario.cerrar();
+
+        int completos = 60;
+        try (RandomAccessFile archivo = new RandomAccessFile(unicoSegmento(), "rw")) {
+            archivo.setLength(posicionRegistro(completos) + DiarioSondeos.TAMANO_REGISTRO / 2);
+        }
+
+        DiarioSondeos reabierto = new DiarioSondeos(directorio, 1, 60);
+        verificarPrefijo(leerTodo(reabierto), completos);
+
+        // El segmento dañado queda cerrado y lo nuevo va a continuación
+        registrar(reabierto, completos, REGISTROS);
+        verificarPrefijo(leerTodo(reabierto), REGISTROS);
+        reabierto.cerrar();
+    }
+
+    @Test
+    void registroFinalSinInstante() throws IOException {
+        DiarioSondeos diario = new DiarioSondeos(directorio, 1, 60);
+        registrar(diario, 0, REGISTROS);
+        diario.cerrar();
+
+        // El último registro quedó a medias: sus datos llegaron a disco, su instante no
+        try (RandomAccessFile archivo = new RandomAccessFile(unicoSegmento(), "rw")) {
+            archivo.seek(posicionRegistro(REGISTROS - 1) + DiarioSondeos.POS_INSTANTE);
+            archivo.writeLong(0);
+        }
+
+        DiarioSondeos reabierto = new DiarioSondeos(directorio, 1, 60);
+        verificarPrefijo(leerTodo(reabierto), REGISTROS - 1);
+        assertEquals(1, reabierto.getNumeroSegmentoActual());
+
+        // El siguiente registro ocupa el lugar del incompleto
+        registrar(reabierto, REGISTROS - 1, REGISTROS + 10);
+        verificarPrefijo(leerTodo(reabierto), REGISTROS + 10);
+        reabierto.cerrar();
+    }
+
+    @Test
+    void reabrirUnDiarioCompletoNoPierdeNiRepiteRegistros() throws IOException {
+        DiarioSondeos diario = new DiarioSondeos(directorio, 1, 60);
+        registrar(diario, 0, REGISTROS);
+        diario.cerrar();
+
+        DiarioSondeos reabierto = new DiarioSondeos(directorio, 1, 60);
+        verificarPrefijo(leerTodo(reabierto), REGISTROS);
+        registrar(reabierto, REGISTROS, 2 * REGISTROS);
+        verificarPrefijo(leerTodo(reabierto), 2 * REGISTROS);
+        reabierto.cerrar();
+    }
+}
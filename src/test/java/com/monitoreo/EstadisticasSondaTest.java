@@ -0,0 +1,48 @@
+package com.monitoreo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de las estadísticas por sonda
+ */
+class EstadisticasSondaTest {
+
+    @Test
+    void losPercentilesTienenLaPrecisionDelHistograma() {
+        EstadisticasSonda stats = new EstadisticasSonda("tcp");
+        for (int i = 1; i <= 100; i++) {
+            stats.registrar(new ResultadoSonda(ResultadoSonda.Tipo.EXITO, i * 1_500_000L));   // 1,5 a 150 ms
+        }
+        stats.registrar(new ResultadoSonda(ResultadoSonda.Tipo.TIMEOUT, 5_000_000_000L));
+
+        // Con cubetas de potencias de dos el p50 (75 ms) se informaba como 131 ms
+        assertEquals(75.0, stats.getPercentilLatenciaMs(50), 75.0 / 64);
+        assertEquals(148.5, stats.getPercentilLatenciaMs(99), 148.5 / 64);
+        assertEquals(150.0, stats.getPercentilLatenciaMs(100), 1e-9);
+        assertEquals(75.75, stats.getLatenciaPromedioMs(), 1e-9);
+        assertEquals(101, stats.getTotal());
+        assertEquals(100.0 * 100 / 101, stats.getTasaExito(), 1e-9);
+    }
+
+    @Test
+    void registraDesdeVariosHilos() throws Exception {
+        EstadisticasSonda stats = new EstadisticasSonda("icmp");
+        Thread[] hilos = new Thread[4];
+        for (int h = 0; h < hilos.length; h++) {
+            hilos[h] = new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    stats.registrar(new ResultadoSonda(ResultadoSonda.Tipo.EXITO, 2_000_000L));
+                }
+            });
+            hilos[h].start();
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+        assertEquals(200_000, stats.getConteo(ResultadoSonda.Tipo.EXITO));
+        assertEquals(2.0, stats.getLatenciaPromedioMs(), 1e-9);
+        assertEquals(2.0, stats.getPercentilLatenciaMs(50), 1e-9);
+    }
+}
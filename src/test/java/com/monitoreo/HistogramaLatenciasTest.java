@@ -0,0 +1,147 @@
+package com.monitoreo;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de {@link HistogramaLatencias}: correspondencia entre valores y
+ * cubetas en los bordes de la precisión por defecto y del rango, y exactitud
+ * de los percentiles frente a una referencia ordenada.
+ */
+class HistogramaLatenciasTest {
+    private static final int CUBETAS = 64 * (HistogramaLatencias.BITS_MAXIMO - 6 + 1);   // 1728
+    private static final long MAXIMO = (1L << HistogramaLatencias.BITS_MAXIMO) - 1;
+    private static final double[] PERCENTILES = {0, 1, 10, 25, 50, 75, 90, 95, 99, 99.9, 100};
+
+    @Test
+    void valoresPequenosTienenCubetaExacta() {
+        HistogramaLatencias histograma = new HistogramaLatencias();
+        for (int valor = 0; valor < 128; valor++) {
+            assertEquals(valor, histograma.indiceDe(valor));
+            assertEquals(valor, histograma.mayorValorDe(valor));
+        }
+    }
+
+    @Test
+    void bordesDeLaPrecisionDeSeisBits() {
+        HistogramaLatencias histograma = new HistogramaLatencias();
+        // Desde 128 cada cubeta agrupa dos valores, desde 256 cuatro, etc.
+        assertEquals(128, histograma.indiceDe(128));
+        assertEquals(128, histograma.indiceDe(129));
+        assertEquals(129, histograma.indiceDe(130));
+        assertEquals(129, histograma.mayorValorDe(128));
+        assertEquals(191, histograma.indiceDe(255));
+        assertEquals(192, histograma.indiceDe(256));
+        assertEquals(259, histograma.mayorValorDe(192));
+        for (int exponente = 6; exponente < HistogramaLatencias.BITS_MAXIMO; exponente++) {
+            long potencia = 1L << exponente;
+            assertEquals(64 * (exponente - 5), histograma.indiceDe(potencia), "2^" + exponente);
+            assertEquals(64 * (exponente - 5) - 1, histograma.indiceDe(potencia - 1), "2^" + exponente + " - 1");
+        }
+    }
+
+    @Test
+    void lasCubetasCubrenElRangoSinHuecos() {
+        HistogramaLatencias histograma = new HistogramaLatencias();
+        for (int indice = 0; indice < CUBETAS - 1; indice++) {
+            long mayor = histograma.mayorValorDe(indice);
+            assertEquals(indice, histograma.indiceDe(mayor));
+            assertEquals(indice + 1, histograma.indiceDe(mayor + 1));
+        }
+        assertEquals(CUBETAS - 1, histograma.indiceDe(MAXIMO));
+        assertEquals(MAXIMO, histograma.mayorValorDe(CUBETAS - 1));
+    }
+
+    @Test
+    void elErrorRelativoQuedaAcotado() {
+        HistogramaLatencias histograma = new HistogramaLatencias();
+        Random aleatorio = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            long valor = aleatorio.nextLong() & MAXIMO;
+            long mayor = histograma.mayorValorDe(histograma.indiceDe(valor));
+            assertTrue(mayor >= valor);
+            assertTrue(mayor - valor <= valor / 64, "valor " + valor + " cubeta hasta " + mayor);
+        }
+    }
+
+    @Test
+    void losValoresFueraDeRangoSeTopan() {
+        HistogramaLatencias histograma = new HistogramaLatencias();
+        histograma.registrar(-5);
+        histograma.registrar(1L << 40);
+        assertEquals(0, histograma.getMinimo());
+        assertEquals(MAXIMO, histograma.getMaximo());
+        assertEquals(2, histograma.getCubetasOcupadas());
+
+        ByteBuffer cubetas = ByteBuffer.allocate(2 * HistogramaLatencias.TAMANO_CUBETA_DISPERSA);
+        histograma.escribirCubetas(cubetas);
+        assertEquals(CUBETAS - 1, cubetas.getShort(HistogramaLatencias.TAMANO_CUBETA_DISPERSA) & 0xFFFF);
+        ByteBuffer invalida = ByteBuffer.allocate(HistogramaLatencias.TAMANO_CUBETA_DISPERSA);
+        invalida.putShort((short) CUBETAS).putInt(1);
+        assertThrows(IllegalArgumentException.class,
+            () -> new HistogramaLatencias().leerCubetas(invalida, 0, 1, 0, 0, 0));
+    }
+
+    @Test
+    void percentilesFrenteAUnaReferenciaOrdenada() {
+        Random aleatorio = new Random(11);
+        long[] valores = new long[50_000];
+        HistogramaLatencias histograma = new HistogramaLatencias();
+        for (int i = 0; i < valores.length; i++) {
+            // Latencias de 50 µs a varios segundos, con cola larga
+            valores[i] = (long) Math.exp(7 + aleatorio.nextGaussian() * 1.5);
+            histograma.registrar(valores[i]);
+        }
+        long[] ordenados = valores.clone();
+        Arrays.sort(ordenados);
+        long[] calculados = histograma.getPercentiles(PERCENTILES);
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            int rango = (int) Math.max(1, Math.ceil(PERCENTILES[i] / 100.0 * valores.length));
+            long referencia = ordenados[rango - 1];
+            long calculado = histograma.getPercentil(PERCENTILES[i]);
+            assertEquals(calculado, calculados[i], "p" + PERCENTILES[i]);
+            assertTrue(calculado >= referencia && calculado - referencia <= referencia / 64,
+                "p" + PERCENTILES[i] + ": " + calculado + " frente a " + referencia);
+        }
+        assertEquals(ordenados[0], histograma.getPercentil(0));
+        assertEquals(ordenados[ordenados.length - 1], histograma.getPercentil(100));
+    }
+
+    @Test
+    void percentilesCombinadosIgualanAlHistogramaUnido() {
+        Random aleatorio = new Random(3);
+        HistogramaLatencias[] partes = {new HistogramaLatencias(), null, new HistogramaLatencias(),
+            new HistogramaLatencias()};
+        HistogramaLatencias unido = new HistogramaLatencias();
+        for (int i = 0; i < 30_000; i++) {
+            long valor = 100 + (long) (aleatorio.nextDouble() * aleatorio.nextDouble() * 200_000);
+            partes[i % 2 == 0 ? 0 : 2].registrar(valor);
+            unido.registrar(valor);
+        }
+        assertArrayEquals(unido.getPercentiles(PERCENTILES),
+            HistogramaLatencias.getPercentilesCombinados(partes, PERCENTILES));
+
+        HistogramaLatencias combinado = new HistogramaLatencias();
+        combinado.combinar(partes[0]);
+        combinado.combinar(partes[2]);
+        assertArrayEquals(unido.getPercentiles(PERCENTILES), combinado.getPercentiles(PERCENTILES));
+        assertEquals(unido.getSuma(), combinado.getSuma());
+    }
+
+    @Test
+    void histogramaVacio() {
+        HistogramaLatencias histograma = new HistogramaLatencias();
+        assertEquals(0, histograma.getPercentil(50));
+        assertArrayEquals(new long[2], histograma.getPercentiles(50, 99));
+        assertEquals(0, histograma.getMinimo());
+        assertEquals(0, histograma.getCubetasOcupadas());
+    }
+}
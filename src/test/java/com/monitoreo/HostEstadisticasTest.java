@@ -0,0 +1,98 @@
+package com.monitoreo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de la coherencia de las instantáneas mientras el thread de monitoreo escribe
+ */
+class HostEstadisticasTest {
+    private static final long DURACION_NANOS = 500_000_000L;
+
+    @Test
+    void lasInstantaneasSonCoherentesConUnEscritorConcurrente() throws Exception {
+        HostEstadisticas stats = new HostEstadisticas("host", 16);
+        AtomicReference<Throwable> falla = new AtomicReference<>();
+        long[] escritos = new long[1];
+
+        // Un solo escritor, como el thread de monitoreo: además de los chequeos cambia
+        // el tamaño de la ventana y la ventana de latencias, que reemplazan arreglos
+        Thread escritor = new Thread(() -> {
+            Random aleatorio = new Random(42);
+            long fin = System.nanoTime() + DURACION_NANOS;
+            int chequeos = 0;
+            try {
+                while (System.nanoTime() < fin) {
+                    boolean disponible = aleatorio.nextInt(4) != 0;
+                    long tiempoMs = 1 + aleatorio.nextInt(50);
+                    stats.registrarChequeo(disponible, tiempoMs, tiempoMs * 1_000_000L + aleatorio.nextInt(1_000_000));
+                    chequeos++;
+                    if (chequeos % 1_000 == 0) {
+                        stats.redimensionarVentana(8 + aleatorio.nextInt(200));
+                    }
+                    if (chequeos % 5_000 == 0) {
+                        stats.setVentanaLatencias(aleatorio.nextBoolean() ? Duration.ZERO : Duration.ofMinutes(1));
+                    }
+                }
+            } catch (Throwable t) {
+                falla.compareAndSet(null, t);
+            }
+            escritos[0] = chequeos;
+        }, "escritor");
+
+        escritor.start();
+        long instantaneas = 0;
+        InstantaneaEstadisticas anterior = null;
+        try {
+            while (escritor.isAlive()) {
+                InstantaneaEstadisticas copia = stats.instantanea();
+                verificar(copia, anterior);
+                anterior = copia;
+                instantaneas++;
+            }
+        } finally {
+            escritor.join();
+        }
+        assertNull(falla.get(), "El escritor falló");
+
+        InstantaneaEstadisticas ultima = stats.instantanea();
+        verificar(ultima, anterior);
+        assertEquals(escritos[0], ultima.getTotalChequeos());
+        assertTrue(instantaneas > 100, "Instantáneas tomadas: " + instantaneas);
+    }
+
+    /**
+     * Comprueba que los valores de la copia corresponden a un mismo chequeo
+     */
+    private static void verificar(InstantaneaEstadisticas copia, InstantaneaEstadisticas anterior) {
+        int total = copia.getTotalChequeos();
+        int fallos = copia.getFallos();
+        String contexto = "total=" + total + " fallos=" + fallos + " version=" + copia.getVersion();
+        assertTrue(fallos >= 0 && fallos <= total, contexto);
+        if (total > 0) {
+            assertEquals(((double) (total - fallos) / total) * 100, copia.getDisponibilidad(), contexto);
+            assertTrue(copia.getRachaActual() >= 1 && copia.getRachaActual() <= total, contexto);
+            assertTrue(copia.getTransiciones() <= total - 1, contexto);
+            int rachaMaxima = copia.isUltimoDisponible()
+                ? copia.getRachaMaximaDisponible() : copia.getRachaMaximaNoDisponible();
+            assertTrue(rachaMaxima >= copia.getRachaActual(), contexto);
+            assertTrue(copia.getTiempoRespuestaPromedio() >= 1 && copia.getTiempoRespuestaPromedio() <= 50,
+                contexto + " promedio=" + copia.getTiempoRespuestaPromedio());
+        }
+        assertTrue(copia.getEstabilidad() >= 0 && copia.getEstabilidad() <= 100, contexto);
+        assertTrue(copia.getPercentilLatencia(50) <= copia.getPercentilLatencia(95)
+            && copia.getPercentilLatencia(95) <= copia.getPercentilLatencia(99), contexto);
+        if (anterior != null) {
+            assertTrue(copia.getVersion() >= anterior.getVersion(), contexto);
+            assertTrue(total >= anterior.getTotalChequeos(), contexto);
+            assertTrue(fallos >= anterior.getFallos(), contexto);
+        }
+    }
+}
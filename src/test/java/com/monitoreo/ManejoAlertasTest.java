@@ -0,0 +1,63 @@
+package com.monitoreo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de la entrega de alertas a observadores suscritos
+ */
+class ManejoAlertasTest {
+
+    @Test
+    void losObservadoresRecibenLasAlertasEnOrden() throws Exception {
+        ManejoAlertas alertas = new ManejoAlertas(99.0, 2000);
+        List<String> recibidas = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch todas = new CountDownLatch(3);
+        alertas.agregarObservador(mensaje -> {
+            recibidas.add(mensaje);
+            todas.countDown();
+        }, 8, PublicadorEventos.PoliticaDesborde.BLOQUEAR);
+        try {
+            alertas.notificarAlerta("a1");
+            alertas.notificarAlerta("a2");
+            alertas.notificarAlerta("a3");
+            assertTrue(todas.await(5, TimeUnit.SECONDS), "Alertas recibidas: " + recibidas);
+            assertEquals(List.of("a1", "a2", "a3"), recibidas);
+            assertEquals(0, alertas.getDescartadas());
+        } finally {
+            alertas.cerrar();
+        }
+    }
+
+    @Test
+    void unObservadorLentoNoFrenaLaNotificacion() throws Exception {
+        ManejoAlertas alertas = new ManejoAlertas(99.0, 2000);
+        CountDownLatch liberar = new CountDownLatch(1);
+        alertas.agregarObservador(mensaje -> {
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 2, PublicadorEventos.PoliticaDesborde.DESCARTAR_ANTIGUO);
+        try {
+            long inicio = System.nanoTime();
+            for (int i = 0; i < 100; i++) {
+                alertas.notificarAlerta("a" + i);
+            }
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) < 1_000);
+            assertTrue(alertas.getDescartadas() > 0);
+        } finally {
+            liberar.countDown();
+            alertas.cerrar();
+        }
+    }
+}
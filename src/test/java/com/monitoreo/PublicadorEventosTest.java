@@ -0,0 +1,202 @@
+package com.monitoreo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de la demanda, el orden y las políticas de desborde del publicador de eventos
+ */
+class PublicadorEventosTest {
+    private static final long ESPERA_MS = 5_000;
+
+    private PublicadorEventos publicador;
+
+    @AfterEach
+    void cerrar() {
+        if (publicador != null) {
+            publicador.cerrar();
+        }
+    }
+
+    /**
+     * Suscriptor que solo pide lo que la prueba indique y guarda lo que recibe
+     */
+    private static final class Receptor implements Flow.Subscriber<EventoSondeo> {
+        final BlockingQueue<EventoSondeo> recibidos = new LinkedBlockingQueue<>();
+        final CountDownLatch suscrito = new CountDownLatch(1);
+        final CountDownLatch completado = new CountDownLatch(1);
+        volatile Flow.Subscription suscripcion;
+
+        @Override
+        public void onSubscribe(Flow.Subscription suscripcion) {
+            this.suscripcion = suscripcion;
+            suscrito.countDown();
+        }
+
+        @Override
+        public void onNext(EventoSondeo evento) {
+            recibidos.add(evento);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+        }
+
+        @Override
+        public void onComplete() {
+            completado.countDown();
+        }
+
+        Flow.Subscription esperarSuscripcion() throws InterruptedException {
+            assertTrue(suscrito.await(ESPERA_MS, TimeUnit.MILLISECONDS), "No llegó onSubscribe");
+            return suscripcion;
+        }
+
+        List<String> recibir(int cantidad) throws InterruptedException {
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < cantidad; i++) {
+                EventoSondeo evento = recibidos.poll(ESPERA_MS, TimeUnit.MILLISECONDS);
+                assertTrue(evento != null, "Faltan eventos; recibidos: " + ids);
+                ids.add(evento.getIdDispositivo());
+            }
+            return ids;
+        }
+    }
+
+    private static EventoSondeo evento(String id) {
+        return new EventoSondeo(EventoSondeo.Clase.RESULTADO, id, 0, ResultadoSonda.Tipo.EXITO, 0, 0, true, 100.0);
+    }
+
+    private Receptor suscribir(int capacidad, PublicadorEventos.PoliticaDesborde politica) throws InterruptedException {
+        Receptor receptor = new Receptor();
+        publicador.suscribir(receptor, capacidad, politica);
+        receptor.esperarSuscripcion();
+        return receptor;
+    }
+
+    @Test
+    void entregaSoloLoPedidoYEnOrden() throws Exception {
+        publicador = new PublicadorEventos(16, PublicadorEventos.PoliticaDesborde.DESCARTAR_NUEVO, 0);
+        Receptor receptor = suscribir(16, PublicadorEventos.PoliticaDesborde.DESCARTAR_NUEVO);
+        for (int i = 1; i <= 5; i++) {
+            publicador.publicar(evento("e" + i));
+        }
+        assertNull(receptor.recibidos.poll(100, TimeUnit.MILLISECONDS), "Entregó eventos sin demanda");
+
+        receptor.suscripcion.request(2);
+        assertEquals(List.of("e1", "e2"), receptor.recibir(2));
+        assertNull(receptor.recibidos.poll(100, TimeUnit.MILLISECONDS), "Entregó más de lo pedido");
+
+        receptor.suscripcion.request(Long.MAX_VALUE);
+        assertEquals(List.of("e3", "e4", "e5"), receptor.recibir(3));
+        publicador.publicar(evento("e6"));
+        assertEquals(List.of("e6"), receptor.recibir(1));
+        assertEquals(0, publicador.getDescartados());
+    }
+
+    @Test
+    void descartarAntiguoConservaLosUltimos() throws Exception {
+        publicador = new PublicadorEventos(16, PublicadorEventos.PoliticaDesborde.DESCARTAR_NUEVO, 0);
+        Receptor receptor = suscribir(2, PublicadorEventos.PoliticaDesborde.DESCARTAR_ANTIGUO);
+        for (int i = 1; i <= 4; i++) {
+            publicador.publicar(evento("e" + i));
+        }
+        assertEquals(2, publicador.getDescartados());
+        receptor.suscripcion.request(10);
+        assertEquals(List.of("e3", "e4"), receptor.recibir(2));
+        assertNull(receptor.recibidos.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void descartarNuevoConservaLosPrimeros() throws Exception {
+        publicador = new PublicadorEventos(16, PublicadorEventos.PoliticaDesborde.DESCARTAR_ANTIGUO, 0);
+        Receptor receptor = suscribir(2, PublicadorEventos.PoliticaDesborde.DESCARTAR_NUEVO);
+        for (int i = 1; i <= 4; i++) {
+            publicador.publicar(evento("e" + i));
+        }
+        assertEquals(2, publicador.getDescartados());
+        receptor.suscripcion.request(10);
+        assertEquals(List.of("e1", "e2"), receptor.recibir(2));
+        assertNull(receptor.recibidos.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void bloquearEsperaEspacioSinPerderEventos() throws Exception {
+        publicador = new PublicadorEventos(16, PublicadorEventos.PoliticaDesborde.DESCARTAR_ANTIGUO, ESPERA_MS);
+        Receptor receptor = suscribir(2, PublicadorEventos.PoliticaDesborde.BLOQUEAR);
+        publicador.publicar(evento("e1"));
+        publicador.publicar(evento("e2"));
+
+        Thread consumidor = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            receptor.suscripcion.request(1);
+        });
+        consumidor.start();
+        long inicio = System.nanoTime();
+        publicador.publicar(evento("e3"));      // Espera a que el consumidor libere un lugar
+        long esperaMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        consumidor.join();
+
+        assertTrue(esperaMs >= 50 && esperaMs < ESPERA_MS, "Espera del publicador: " + esperaMs + "ms");
+        assertEquals(0, publicador.getDescartados());
+        receptor.suscripcion.request(10);
+        assertEquals(List.of("e1", "e2", "e3"), receptor.recibir(3));
+    }
+
+    @Test
+    void bloquearDescartaTrasAgotarLaEspera() throws Exception {
+        publicador = new PublicadorEventos(16, PublicadorEventos.PoliticaDesborde.DESCARTAR_ANTIGUO, 50);
+        Receptor receptor = suscribir(2, PublicadorEventos.PoliticaDesborde.BLOQUEAR);
+        publicador.publicar(evento("e1"));
+        publicador.publicar(evento("e2"));
+
+        long inicio = System.nanoTime();
+        publicador.publicar(evento("e3"));      // Agota la espera y se descarta
+        long primeraMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        inicio = System.nanoTime();
+        publicador.publicar(evento("e4"));      // Suscripción saturada: se descarta sin esperar
+        long segundaMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        assertTrue(primeraMs >= 40, "Primera espera: " + primeraMs + "ms");
+        assertTrue(segundaMs < 40, "Segunda espera: " + segundaMs + "ms");
+        assertEquals(2, publicador.getDescartados());
+        receptor.suscripcion.request(10);
+        assertEquals(List.of("e1", "e2"), receptor.recibir(2));
+
+        // Vaciado el buffer vuelve a esperar espacio en lugar de descartar
+        publicador.publicar(evento("e5"));
+        assertEquals(List.of("e5"), receptor.recibir(1));
+        assertEquals(2, publicador.getDescartados());
+    }
+
+    @Test
+    void cerrarCompletaLasSuscripcionesConcurrentes() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            PublicadorEventos publicadorCerrado = new PublicadorEventos();
+            Receptor receptor = new Receptor();
+            Thread suscriptor = new Thread(() -> publicadorCerrado.subscribe(receptor));
+            suscriptor.start();
+            publicadorCerrado.cerrar();
+            suscriptor.join();
+            assertTrue(receptor.completado.await(ESPERA_MS, TimeUnit.MILLISECONDS),
+                "Una suscripción hecha mientras se cerraba no se completó (vuelta " + i + ")");
+            assertEquals(0, publicadorCerrado.getCantidadSuscriptores());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.monitoreo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de la asignación y reutilización de índices del registro de dispositivos
+ */
+class RegistroDispositivosTest {
+
+    @Test
+    void reutilizaPrimeroElIndiceLiberadoHaceMasTiempo() {
+        RegistroDispositivos registro = new RegistroDispositivos();
+        for (int i = 0; i < 4; i++) {
+            registro.agregar(new Dispositivos("d" + i, "10.0.0." + i));
+        }
+        registro.remover("d2");
+        registro.remover("d0");
+        assertEquals("d2", registro.idPorIndice(2), "Un índice liberado sigue nombrando al dispositivo quitado");
+
+        Dispositivos nuevo = new Dispositivos("n1", "10.0.1.1");
+        registro.agregar(nuevo);
+        assertEquals(2, nuevo.getIndice());
+        assertEquals("n1", registro.idPorIndice(2));
+        assertEquals("d0", registro.idPorIndice(0));
+
+        Dispositivos otro = new Dispositivos("n2", "10.0.1.2");
+        registro.agregar(otro);
+        assertEquals(0, otro.getIndice());
+
+        Dispositivos ultimo = new Dispositivos("n3", "10.0.1.3");
+        registro.agregar(ultimo);
+        assertEquals(4, ultimo.getIndice(), "Sin índices libres se asigna uno nuevo");
+        assertNull(registro.idPorIndice(5));
+    }
+
+    @Test
+    void losIndicesNoCrecenConLasAltasYBajas() {
+        RegistroDispositivos registro = new RegistroDispositivos();
+        for (int i = 0; i < 10; i++) {
+            registro.agregar(new Dispositivos("fijo" + i, "10.0.0." + i));
+        }
+        for (int i = 0; i < 100_000; i++) {
+            Dispositivos dispositivo = new Dispositivos("temporal" + i, "10.0.2." + (i % 250));
+            registro.agregar(dispositivo);
+            assertTrue(dispositivo.getIndice() <= 10, "Índice " + dispositivo.getIndice() + " en la vuelta " + i);
+            registro.remover(dispositivo.getId());
+        }
+        assertEquals(10, registro.getTamano());
+        assertNull(registro.idPorIndice(11));
+    }
+}
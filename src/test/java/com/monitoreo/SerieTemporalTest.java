@@ -0,0 +1,172 @@
+package com.monitoreo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Pruebas de {@link SerieTemporal}: cierre de bloques por cantidad y por
+ * duración, lectura de bloques aún sin escribir y relectura tras sincronizar
+ * y reabrir la serie.
+ */
+class SerieTemporalTest {
+    private static final long INICIO_MS = 1_700_000_000_000L;
+
+    @TempDir
+    File directorio;
+
+    private static List<long[]> leerTodo(SerieTemporal serie) throws IOException {
+        List<long[]> muestras = new ArrayList<>();
+        serie.leer(Long.MIN_VALUE / 2, Long.MAX_VALUE / 2, (instanteMs, latenciaMs, disponible) ->
+            muestras.add(new long[] {instanteMs, Math.round(latenciaMs * 1000), disponible ? 1 : 0}));
+        return muestras;
+    }
+
+    private static void registrar(SerieTemporal serie, int desde, int hasta) throws IOException {
+        for (int i = desde; i < hasta; i++) {
+            serie.registrar(INICIO_MS + i * 1000L, 1 + (i % 7) * 0.25, i % 10 != 0);
+        }
+    }
+
+    private static void verificar(List<long[]> muestras, int cantidad) {
+        assertEquals(cantidad, muestras.size());
+        for (int i = 0; i < cantidad; i++) {
+            long[] muestra = muestras.get(i);
+            assertEquals(INICIO_MS + i * 1000L, muestra[0], "instante " + i);
+            assertEquals(Math.round((1 + (i % 7) * 0.25) * 1000), muestra[1], "latencia " + i);
+            assertEquals(i % 10 != 0 ? 1 : 0, muestra[2], "estado " + i);
+        }
+    }
+
+    @Test
+    void cierraBloquesPorCantidadYLosLeeAntesYDespuesDeSincronizar() throws IOException {
+        SerieTemporal serie = new SerieTemporal(directorio, "h", 1000, 8, 10);
+        registrar(serie, 0, 35);
+        assertEquals(3, serie.getBloques());
+        assertEquals(35, serie.getCantidadMuestras());
+        verificar(leerTodo(serie), 35);
+
+        serie.sincronizar();
+        assertEquals(4, serie.getBloques());
+        verificar(leerTodo(serie), 35);
+    }
+
+    @Test
+    void cierraUnBloqueAlSuperarLaDuracionMaxima() throws IOException {
+        SerieTemporal serie = new SerieTemporal(directorio, "h", 1000, 8, 1024);
+        serie.registrar(INICIO_MS, 1.0, true);
+        serie.registrar(INICIO_MS + SerieTemporal.DURACION_MAXIMA_BLOQUE_MS - 1000, 1.0, true);
+        assertEquals(0, serie.getBloques());
+        serie.registrar(INICIO_MS + SerieTemporal.DURACION_MAXIMA_BLOQUE_MS, 1.0, true);
+        assertEquals(1, serie.getBloques());
+        assertEquals(3, serie.getCantidadMuestras());
+        serie.sincronizar();                            // Espera al escritor antes de borrar el directorio
+    }
+
+    @Test
+    void releeLaSerieTrasSincronizarYReabrir() throws IOException {
+        SerieTemporal serie = new SerieTemporal(directorio, "h", 1000, 8, 16);
+        registrar(serie, 0, 100);
+        serie.sincronizar();
+
+        SerieTemporal reabierta = new SerieTemporal(directorio, "h", 1000, 8, 16);
+        assertEquals(serie.getBloques(), reabierta.getBloques());
+        verificar(leerTodo(reabierta), 100);
+
+        // La serie reabierta sigue agregando después de lo que ya tenía
+        registrar(reabierta, 100, 130);
+        reabierta.sincronizar();
+        verificar(leerTodo(new SerieTemporal(directorio, "h", 1000, 8, 16)), 130);
+    }
+
+    @Test
+    void descartaAlReabrirLosDatosQueNoLleganAlIndice() throws IOException {
+        SerieTemporal serie = new SerieTemporal(directorio, "h", 1000, 8, 16);
+        registrar(serie, 0, 40);
+        serie.sincronizar();
+        File datos = new File(directorio, "h" + SerieTemporal.EXTENSION_DATOS);
+        long longitud = datos.length();
+        try (RandomAccessFile archivo = new RandomAccessFile(datos, "rw")) {
+            archivo.seek(longitud);
+            archivo.write(new byte[] {1, 2, 3, 4, 5});      // Bloque a medio escribir
+        }
+
+        SerieTemporal reabierta = new SerieTemporal(directorio, "h", 1000, 8, 16);
+        assertEquals(longitud, datos.length());
+        verificar(leerTodo(reabierta), 40);
+    }
+
+    @Test
+    void leeUnRangoYLoAgregaIgualQueMuestraPorMuestra() throws IOException {
+        SerieTemporal serie = new SerieTemporal(directorio, "h", 1000, 52, 16);
+        registrar(serie, 0, 200);
+        serie.sincronizar();
+
+        List<long[]> rango = new ArrayList<>();
+        serie.leer(INICIO_MS + 50_000, INICIO_MS + 60_000, (instanteMs, latenciaMs, disponible) ->
+            rango.add(new long[] {instanteMs}));
+        assertEquals(10, rango.size());
+        assertEquals(INICIO_MS + 50_000, rango.get(0)[0]);
+
+        // Pasos de 64 s: algunos bloques de 16 s caen enteros y se resumen desde el índice
+        long pasoMs = 64_000;
+        List<PuntoSerie> puntos = serie.leerAgregado(INICIO_MS, INICIO_MS + 200_000, pasoMs);
+        assertEquals(4, puntos.size());
+        for (PuntoSerie punto : puntos) {
+            int desde = (int) ((punto.getInicioMs() - INICIO_MS) / 1000);
+            int hasta = Math.min(200, desde + (int) (pasoMs / 1000));
+            int exitosas = 0;
+            double minimo = Double.POSITIVE_INFINITY;
+            double maximo = Double.NEGATIVE_INFINITY;
+            for (int i = desde; i < hasta; i++) {
+                if (i % 10 != 0) {
+                    exitosas++;
+                    minimo = Math.min(minimo, 1 + (i % 7) * 0.25);
+                    maximo = Math.max(maximo, 1 + (i % 7) * 0.25);
+                }
+            }
+            assertEquals(hasta - desde, punto.getCantidad());
+            assertEquals(hasta - desde - exitosas, punto.getFallos());
+            assertEquals(minimo, punto.getLatenciaMinima());
+            assertEquals(maximo, punto.getLatenciaMaxima());
+        }
+    }
+
+    @Test
+    void bytesPorMuestraDeLaDocumentacion() throws IOException {
+        // Lo que afirma la documentación de la clase: con cadencia de 1 s, menos de
+        // 1 byte por muestra si la latencia se repite y unos 3 con ~2 ms y jitter
+        Random aleatorio = new Random(1);
+        SerieTemporal constante = new SerieTemporal(directorio, "constante", 1000, 8, 1024);
+        SerieTemporal conJitter = new SerieTemporal(directorio, "jitter", 1000, 8, 1024);
+        for (int i = 0; i < 10_000; i++) {
+            constante.registrar(INICIO_MS + i * 1000L, 2.0, true);
+            conJitter.registrar(INICIO_MS + i * 1000L, 2.0 + aleatorio.nextGaussian() * 0.3, true);
+        }
+        constante.sincronizar();
+        conJitter.sincronizar();
+        assertTrue(constante.getBytesPorMuestra() < 1.0, "constante: " + constante.getBytesPorMuestra());
+        assertTrue(conJitter.getBytesPorMuestra() > 2.5 && conJitter.getBytesPorMuestra() < 3.5,
+            "con jitter: " + conJitter.getBytesPorMuestra());
+    }
+
+    @Test
+    void elRelojQueRetrocedeNoDesordenaLaSerie() throws IOException {
+        SerieTemporal serie = new SerieTemporal(directorio, "h", 1000, 8, 16);
+        serie.registrar(INICIO_MS + 5000, 1.0, true);
+        serie.registrar(INICIO_MS, 2.0, true);
+        List<long[]> muestras = leerTodo(serie);
+        assertEquals(2, muestras.size());
+        assertEquals(INICIO_MS + 5000, muestras.get(1)[0]);
+        assertTrue(serie.getBytesPorMuestra() > 0);
+    }
+}
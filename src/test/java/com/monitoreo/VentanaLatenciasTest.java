@@ -0,0 +1,79 @@
+package com.monitoreo;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de {@link VentanaLatencias}: vencimiento de segmentos, reutilización
+ * de ranuras y reloj que retrocede. Con un horizonte de 4 s cada segmento dura 1 s.
+ */
+class VentanaLatenciasTest {
+    private static final long HORIZONTE_MS = 4000;
+
+    @Test
+    void losSegmentosVencenAlSalirDeLaVentana() {
+        // Latencias menores que 128 µs: cada una tiene su cubeta exacta
+        VentanaLatencias ventana = new VentanaLatencias(HORIZONTE_MS);
+        ventana.registrar(500, 10);        // Segmento 0
+        ventana.registrar(1500, 20);       // Segmento 1
+        ventana.registrar(3500, 30);       // Segmento 3
+
+        assertArrayEquals(new long[] {10, 20, 30}, ventana.getPercentiles(3600, 0, 50, 100));
+        assertEquals(30, ventana.getMaximo(3600));
+
+        // En el segmento 4 el 0 queda fuera
+        assertArrayEquals(new long[] {20, 30}, ventana.getPercentiles(4100, 0, 100));
+        // En el 5 también el 1; en el 7 ya no queda ninguno
+        assertEquals(30, ventana.getPercentil(5000, 0));
+        assertEquals(0, ventana.getPercentil(7000, 50));
+        assertEquals(0, ventana.getMaximo(7000));
+    }
+
+    @Test
+    void unSegmentoNuevoReutilizaLaRanuraDelVencido() {
+        VentanaLatencias ventana = new VentanaLatencias(HORIZONTE_MS);
+        ventana.registrar(500, 90);        // Segmento 0, ranura 0
+        ventana.registrar(1500, 20);
+        ventana.registrar(4200, 5);        // Segmento 4, misma ranura: el 90 se descarta
+        assertArrayEquals(new long[] {5, 20}, ventana.getPercentiles(4200, 0, 100));
+        assertEquals(20, ventana.getMaximo(4200));
+    }
+
+    @Test
+    void elRelojQueRetrocedeCuentaEnElSegmentoActual() {
+        VentanaLatencias ventana = new VentanaLatencias(HORIZONTE_MS);
+        ventana.registrar(9500, 10);       // Segmento 9
+        ventana.registrar(100, 40);        // Reloj atrás: cuenta en el 9, no pisa otra ranura
+        assertArrayEquals(new long[] {10, 40}, ventana.getPercentiles(9500, 0, 100));
+        // Una consulta con el reloj atrasado tampoco descarta lo reciente
+        assertEquals(40, ventana.getMaximo(0));
+    }
+
+    @Test
+    void proximoAvanceYHorizonte() {
+        VentanaLatencias ventana = new VentanaLatencias(HORIZONTE_MS);
+        assertEquals(5000, ventana.getProximoAvanceMs(4200));
+        assertEquals(5000, ventana.getProximoAvanceMs(4000));
+        assertEquals(HORIZONTE_MS, ventana.getHorizonteMs());
+        assertThrows(IllegalArgumentException.class, () -> new VentanaLatencias(VentanaLatencias.SEGMENTOS - 1));
+    }
+
+    @Test
+    void percentilesDeLaVentanaCoincidenConUnHistogramaDeLosVigentes() {
+        VentanaLatencias ventana = new VentanaLatencias(HORIZONTE_MS);
+        HistogramaLatencias vigentes = new HistogramaLatencias();
+        for (int i = 0; i < 10_000; i++) {
+            long instanteMs = i;                                        // 10 s en total
+            long micros = 100 + (i * 7919L) % 50_000;
+            ventana.registrar(instanteMs, micros);
+            if (instanteMs >= 6000) {                                   // Segmentos 6 a 9
+                vigentes.registrar(micros);
+            }
+        }
+        double[] percentiles = {1, 50, 90, 99, 100};
+        assertArrayEquals(vigentes.getPercentiles(percentiles), ventana.getPercentiles(9999, percentiles));
+    }
+}